@@ -0,0 +1,79 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.ActivityComment;
+import com.bitacora.domain.port.repository.ActivityCommentRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio de comentarios de actividades.
+ * Los comentarios se guardan como filas propias, solo de inserción, y se
+ * leen por páginas a partir del último comentario recibido.
+ */
+@Service
+@Slf4j
+public class ActivityCommentService {
+
+    private final ActivityCommentRepository commentRepository;
+    private final int maxPageSize;
+
+    /**
+     * Constructor del servicio.
+     *
+     * @param commentRepository El repositorio de comentarios
+     * @param maxPageSize       El tamaño máximo de una página de comentarios
+     */
+    public ActivityCommentService(
+            ActivityCommentRepository commentRepository,
+            @Value("${activity-comments.max-page-size:100}") int maxPageSize) {
+        this.commentRepository = commentRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Añade un comentario a una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del autor
+     * @param content    El texto del comentario
+     * @return El comentario guardado
+     */
+    public ActivityComment addComment(Long activityId, Long userId, String content) {
+        log.debug("Guardando comentario del usuario {} en la actividad {}", userId, activityId);
+        return commentRepository.append(ActivityComment.builder()
+                .activityId(activityId)
+                .userId(userId)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Obtiene una página de comentarios de una actividad, del más antiguo al
+     * más reciente.
+     *
+     * @param activityId El ID de la actividad
+     * @param afterId    El ID del último comentario recibido, o null para la primera página
+     * @param limit      El tamaño de la página
+     * @return Los comentarios
+     */
+    public List<ActivityComment> getComments(Long activityId, Long afterId, int limit) {
+        return commentRepository.findAfter(activityId, afterId, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * Obtiene el número de comentarios de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @return El número de comentarios
+     */
+    public long countComments(Long activityId) {
+        return commentRepository.countByActivityId(activityId);
+    }
+}
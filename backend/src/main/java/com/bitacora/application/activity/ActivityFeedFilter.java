@@ -0,0 +1,75 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityStatus;
+import com.bitacora.domain.model.activity.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de un flujo de cambios de actividades. Tiene los mismos criterios que
+ * el listado de actividades y se evalúa en memoria con la misma semántica que
+ * su consulta: todos los criterios presentes deben cumplirse.
+ *
+ * @param type      El tipo de actividad, o null
+ * @param status    El estado de la actividad, o null
+ * @param userId    El ID del usuario de la actividad, o null
+ * @param startDate La fecha mínima de la actividad (inclusive), o null
+ * @param endDate   La fecha máxima de la actividad (inclusive), o null
+ * @param search    El texto a buscar en minúsculas, o null
+ */
+public record ActivityFeedFilter(
+        ActivityType type,
+        ActivityStatus status,
+        Long userId,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        String search) {
+
+    /**
+     * Crea un filtro normalizando el texto de búsqueda.
+     */
+    public ActivityFeedFilter {
+        search = search == null || search.isBlank() ? null : search.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica si una actividad cumple el filtro.
+     *
+     * @param activity La actividad
+     * @return true si cumple todos los criterios
+     */
+    public boolean matches(Activity activity) {
+        if (type != null && type != activity.getType()) {
+            return false;
+        }
+        if (status != null && status != activity.getStatus()) {
+            return false;
+        }
+        if (userId != null && !userId.equals(activity.getUserId())) {
+            return false;
+        }
+        if (startDate != null || endDate != null) {
+            LocalDateTime date = activity.getDate();
+            if (date == null || (startDate != null && date.isBefore(startDate))
+                    || (endDate != null && date.isAfter(endDate))) {
+                return false;
+            }
+        }
+        return search == null || containsText(activity);
+    }
+
+    /**
+     * Busca el texto en los mismos campos que la búsqueda del listado.
+     *
+     * @param activity La actividad
+     * @return true si algún campo contiene el texto
+     */
+    private boolean containsText(Activity activity) {
+        return Stream.of(activity.getDescription(), activity.getSituation(), activity.getResult(),
+                        activity.getComments(), activity.getPerson(), activity.getDependency())
+                .anyMatch(field -> field != null && field.toLowerCase(Locale.ROOT).contains(search));
+    }
+}
@@ -0,0 +1,11 @@
+package com.bitacora.application.activity;
+
+/**
+ * Operación que un cambio de actividad supone para la vista de un flujo de
+ * cambios: la actividad entra en la vista, cambia dentro de ella o sale de ella.
+ */
+public enum ActivityFeedOperation {
+    INSERT,
+    UPDATE,
+    DELETE
+}
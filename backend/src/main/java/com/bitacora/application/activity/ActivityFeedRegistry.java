@@ -0,0 +1,195 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChange;
+import com.bitacora.domain.model.activity.ActivityStatus;
+import com.bitacora.domain.model.activity.ActivityType;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de las suscripciones a flujos de cambios de actividades de las
+ * sesiones conectadas a este nodo.
+ * Para no recorrer todas las suscripciones en cada cambio, cada suscripción se
+ * indexa por su criterio más selectivo: el usuario si lo filtra, si no el
+ * estado, si no el tipo; las que no filtran ninguno de los tres van a una
+ * lista común. Un cambio solo se evalúa contra las suscripciones de su
+ * usuario, su estado y su tipo (antes y después del cambio) y contra la lista
+ * común.
+ */
+@Component
+public class ActivityFeedRegistry {
+
+    private final int maxFeedsPerSession;
+
+    /**
+     * Suscripciones de cada sesión por identificador de flujo.
+     */
+    private final ConcurrentHashMap<String, Map<String, ActivityFeedSubscription>> subscriptionsBySession =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Set<ActivityFeedSubscription>> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ActivityStatus, Set<ActivityFeedSubscription>> byStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ActivityType, Set<ActivityFeedSubscription>> byType = new ConcurrentHashMap<>();
+    private final Set<ActivityFeedSubscription> unindexed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor del registro.
+     *
+     * @param maxFeedsPerSession El número máximo de flujos por sesión
+     */
+    public ActivityFeedRegistry(@Value("${activity-feed.max-feeds-per-session:5}") int maxFeedsPerSession) {
+        this.maxFeedsPerSession = maxFeedsPerSession;
+    }
+
+    /**
+     * Registra un flujo de una sesión. Si la sesión ya tenía un flujo con el
+     * mismo identificador, se sustituye su filtro.
+     *
+     * @param subscription La suscripción
+     * @return false si la sesión alcanzó el número máximo de flujos
+     */
+    public boolean subscribe(ActivityFeedSubscription subscription) {
+        boolean[] accepted = new boolean[1];
+        subscriptionsBySession.compute(subscription.sessionId(), (sessionId, feeds) -> {
+            Map<String, ActivityFeedSubscription> current = feeds != null ? feeds : new ConcurrentHashMap<>();
+            ActivityFeedSubscription replaced = current.get(subscription.feedId());
+            if (replaced == null && current.size() >= maxFeedsPerSession) {
+                return feeds;
+            }
+            if (replaced != null) {
+                unindex(replaced);
+            }
+            current.put(subscription.feedId(), subscription);
+            index(subscription);
+            accepted[0] = true;
+            return current;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Elimina un flujo de una sesión.
+     *
+     * @param sessionId El ID de la sesión
+     * @param feedId    El identificador del flujo
+     */
+    public void unsubscribe(String sessionId, String feedId) {
+        subscriptionsBySession.computeIfPresent(sessionId, (id, feeds) -> {
+            ActivityFeedSubscription removed = feeds.remove(feedId);
+            if (removed != null) {
+                unindex(removed);
+            }
+            return feeds.isEmpty() ? null : feeds;
+        });
+    }
+
+    /**
+     * Elimina todos los flujos de una sesión cerrada.
+     *
+     * @param sessionId El ID de la sesión
+     */
+    public void removeSession(String sessionId) {
+        Map<String, ActivityFeedSubscription> feeds = subscriptionsBySession.remove(sessionId);
+        if (feeds != null) {
+            feeds.values().forEach(this::unindex);
+        }
+    }
+
+    /**
+     * Obtiene las suscripciones afectadas por un cambio, agrupadas por la
+     * operación que el cambio supone para cada una.
+     *
+     * @param change El cambio
+     * @return Las suscripciones afectadas por operación
+     */
+    public Map<ActivityFeedOperation, List<ActivityFeedSubscription>> match(ActivityChange change) {
+        Activity previous = change.getPrevious();
+        Activity current = change.getCurrent();
+
+        Set<ActivityFeedSubscription> candidates = new HashSet<>(unindexed);
+        collectCandidates(previous, candidates);
+        collectCandidates(current, candidates);
+
+        Map<ActivityFeedOperation, List<ActivityFeedSubscription>> matches = new EnumMap<>(ActivityFeedOperation.class);
+        for (ActivityFeedSubscription subscription : candidates) {
+            boolean before = previous != null && subscription.filter().matches(previous);
+            boolean after = current != null && subscription.filter().matches(current);
+            ActivityFeedOperation operation = before
+                    ? (after ? ActivityFeedOperation.UPDATE : ActivityFeedOperation.DELETE)
+                    : (after ? ActivityFeedOperation.INSERT : null);
+            if (operation != null) {
+                matches.computeIfAbsent(operation, op -> new ArrayList<>()).add(subscription);
+            }
+        }
+        return matches;
+    }
+
+    private void collectCandidates(Activity activity, Set<ActivityFeedSubscription> candidates) {
+        if (activity == null) {
+            return;
+        }
+        addAll(candidates, activity.getUserId() != null ? byUser.get(activity.getUserId()) : null);
+        addAll(candidates, activity.getStatus() != null ? byStatus.get(activity.getStatus()) : null);
+        addAll(candidates, activity.getType() != null ? byType.get(activity.getType()) : null);
+    }
+
+    private static void addAll(Set<ActivityFeedSubscription> target, Collection<ActivityFeedSubscription> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private void index(ActivityFeedSubscription subscription) {
+        ActivityFeedFilter filter = subscription.filter();
+        if (filter.userId() != null) {
+            add(byUser, filter.userId(), subscription);
+        } else if (filter.status() != null) {
+            add(byStatus, filter.status(), subscription);
+        } else if (filter.type() != null) {
+            add(byType, filter.type(), subscription);
+        } else {
+            unindexed.add(subscription);
+        }
+    }
+
+    private void unindex(ActivityFeedSubscription subscription) {
+        ActivityFeedFilter filter = subscription.filter();
+        if (filter.userId() != null) {
+            remove(byUser, filter.userId(), subscription);
+        } else if (filter.status() != null) {
+            remove(byStatus, filter.status(), subscription);
+        } else if (filter.type() != null) {
+            remove(byType, filter.type(), subscription);
+        } else {
+            unindexed.remove(subscription);
+        }
+    }
+
+    private static <K> void add(ConcurrentHashMap<K, Set<ActivityFeedSubscription>> index, K key,
+            ActivityFeedSubscription subscription) {
+        index.compute(key, (k, subscriptions) -> {
+            Set<ActivityFeedSubscription> current = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            current.add(subscription);
+            return current;
+        });
+    }
+
+    private static <K> void remove(ConcurrentHashMap<K, Set<ActivityFeedSubscription>> index, K key,
+            ActivityFeedSubscription subscription) {
+        index.computeIfPresent(key, (k, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+}
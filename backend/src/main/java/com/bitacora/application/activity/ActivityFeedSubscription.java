@@ -0,0 +1,12 @@
+package com.bitacora.application.activity;
+
+/**
+ * Suscripción de una sesión STOMP a un flujo de cambios de actividades.
+ *
+ * @param sessionId El ID de la sesión STOMP
+ * @param username  El nombre de usuario de la sesión
+ * @param feedId    El identificador del flujo elegido por el cliente
+ * @param filter    El filtro del flujo
+ */
+public record ActivityFeedSubscription(String sessionId, String username, String feedId, ActivityFeedFilter filter) {
+}
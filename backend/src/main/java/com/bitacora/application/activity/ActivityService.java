@@ -1,10 +1,18 @@
 package com.bitacora.application.activity;
 
+import com.bitacora.application.notification.ActivityEditLockManager;
+import com.bitacora.domain.event.activity.ActivityChangedEvent;
 import com.bitacora.domain.event.activity.ActivityCreatedEvent;
+import com.bitacora.domain.event.activity.ActivityFieldsChangedEvent;
 import com.bitacora.domain.event.activity.ActivityStatusChangedEvent;
+import com.bitacora.domain.event.activity.ActivityTextResetEvent;
+import com.bitacora.domain.exception.EditLockConflictException;
 import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityDiff;
 import com.bitacora.domain.model.activity.ActivityStatus;
+import com.bitacora.domain.model.activity.ActivityTextField;
 import com.bitacora.domain.port.repository.ActivityRepository;
+import com.bitacora.domain.port.repository.ActivityTextRepository;
 
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
@@ -16,10 +24,16 @@ import lombok.extern.slf4j.Slf4j;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Servicio para gestionar actividades.
+ * Cada creación, modificación y eliminación publica un
+ * {@link ActivityChangedEvent} con el estado anterior y posterior de la
+ * actividad, del que se alimenta el flujo de cambios en vivo. Las
+ * modificaciones publican además un {@link ActivityFieldsChangedEvent} con la
+ * diferencia campo a campo, que se envía a quienes tienen abierta la actividad.
  */
 @Service
 @RequiredArgsConstructor
@@ -27,7 +41,9 @@ import java.util.Optional;
 public class ActivityService {
 
     private final ActivityRepository activityRepository;
+    private final ActivityTextRepository activityTextRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final ActivityEditLockManager editLockManager;
 
     /**
      * Crea una nueva actividad.
@@ -43,22 +59,32 @@ public class ActivityService {
         
         // Publicar evento de creación de actividad
         eventPublisher.publishEvent(new ActivityCreatedEvent(savedActivity));
+        eventPublisher.publishEvent(new ActivityChangedEvent(null, savedActivity));
         
         return savedActivity;
     }
     
     /**
      * Actualiza una actividad existente.
+     * La concesión de edición se comprueba dentro de la transacción, con la
+     * fila de la actividad bloqueada: dos guardados concurrentes de la misma
+     * actividad se comprueban y escriben de uno en uno, y un token de fencing
+     * superado no puede escribir después de que la concesión cambie de manos.
      * 
-     * @param id El ID de la actividad a actualizar
-     * @param activity La actividad con los datos actualizados
+     * @param id        El ID de la actividad a actualizar
+     * @param activity  La actividad con los datos actualizados
+     * @param editorId  El ID del usuario que guarda los cambios
+     * @param editToken El token de la concesión de edición presentado, o null
      * @return La actividad actualizada
+     * @throws EditLockConflictException si el usuario no puede guardar cambios
      */
     @Transactional
-    public Optional<Activity> updateActivity(Long id, Activity activity) {
+    public Optional<Activity> updateActivity(Long id, Activity activity, Long editorId, Long editToken) {
         log.debug("Actualizando actividad con ID {}: {}", id, activity);
         
-        return activityRepository.findById(id).map(existingActivity -> {
+        return activityRepository.findByIdForUpdate(id).map(existingActivity -> {
+            editLockManager.validate(id, editorId, editToken);
+            
             // Verificar si el estado ha cambiado
             ActivityStatus oldStatus = existingActivity.getStatus();
             ActivityStatus newStatus = activity.getStatus();
@@ -74,16 +100,52 @@ public class ActivityService {
             }
             
             Activity updatedActivity = activityRepository.save(activity);
+            resetCollaborativeTexts(existingActivity, updatedActivity);
             
             // Si el estado ha cambiado, publicar evento
             if (statusChanged) {
                 eventPublisher.publishEvent(new ActivityStatusChangedEvent(updatedActivity, oldStatus));
             }
+            eventPublisher.publishEvent(new ActivityChangedEvent(existingActivity, updatedActivity));
+            publishDiff(existingActivity, updatedActivity);
             
             return updatedActivity;
         });
     }
     
+    /**
+     * Guarda en una actividad el texto de un campo en edición colaborativa.
+     * El guardado avanza la versión de la actividad, así que publica la
+     * diferencia campo a campo para que quienes la tienen abierta sigan la
+     * cadena de versiones, pero sin el texto del campo: ya lo tienen de la
+     * edición colaborativa, y se evita enviar el texto completo en cada volcado.
+     * 
+     * @param id       El ID de la actividad
+     * @param field    El campo
+     * @param text     El texto
+     * @param revision La revisión colaborativa del texto
+     * @return false si ya estaba guardada una revisión igual o posterior, o la actividad no existe
+     */
+    @Transactional
+    public boolean saveCollaborativeText(Long id, ActivityTextField field, String text, long revision) {
+        // Primero el estado del campo: su bloqueo ordena los volcados de distintos nodos
+        if (!activityTextRepository.advanceSnapshot(id, field, revision)) {
+            return false;
+        }
+        
+        return activityRepository.findById(id).map(existingActivity -> {
+            Activity previousActivity = existingActivity.toBuilder().build();
+            field.set(existingActivity, text);
+            existingActivity.setUpdatedAt(LocalDateTime.now());
+            
+            Activity updatedActivity = activityRepository.save(existingActivity);
+            eventPublisher.publishEvent(new ActivityChangedEvent(previousActivity, updatedActivity));
+            eventPublisher.publishEvent(new ActivityFieldsChangedEvent(
+                    ActivityDiff.between(previousActivity, updatedActivity).withoutValue(field.getFieldName())));
+            return true;
+        }).orElse(false);
+    }
+    
     /**
      * Cambia el estado de una actividad.
      * 
@@ -103,6 +165,9 @@ public class ActivityService {
                 return existingActivity;
             }
             
+            // Conservar el estado anterior para el flujo de cambios
+            Activity previousActivity = existingActivity.toBuilder().build();
+            
             // Actualizar estado y fecha de cambio
             existingActivity.setStatus(newStatus);
             existingActivity.setLastStatusChangeDate(LocalDateTime.now());
@@ -112,6 +177,8 @@ public class ActivityService {
             
             // Publicar evento de cambio de estado
             eventPublisher.publishEvent(new ActivityStatusChangedEvent(updatedActivity, oldStatus));
+            eventPublisher.publishEvent(new ActivityChangedEvent(previousActivity, updatedActivity));
+            publishDiff(previousActivity, updatedActivity);
             
             return updatedActivity;
         });
@@ -164,7 +231,9 @@ public class ActivityService {
     @Transactional
     public void deleteActivity(Long id) {
         log.debug("Eliminando actividad con ID: {}", id);
+        Optional<Activity> existingActivity = activityRepository.findById(id);
         activityRepository.deleteById(id);
+        existingActivity.ifPresent(activity -> eventPublisher.publishEvent(new ActivityChangedEvent(activity, null)));
     }
     
     /**
@@ -187,4 +256,35 @@ public class ActivityService {
     public long countActivitiesWithFilters(Map<String, Object> filters) {
         return activityRepository.countWithFilters(filters);
     }
+
+    /**
+     * Publica la diferencia campo a campo de una modificación, si cambió algún
+     * campo.
+     * 
+     * @param previous La actividad antes de la modificación
+     * @param current  La actividad después de la modificación
+     */
+    private void publishDiff(Activity previous, Activity current) {
+        ActivityDiff diff = ActivityDiff.between(previous, current);
+        if (!diff.isEmpty()) {
+            eventPublisher.publishEvent(new ActivityFieldsChangedEvent(diff));
+        }
+    }
+
+    /**
+     * Reinicia la edición colaborativa de los campos de texto que una
+     * modificación sustituyó enteros, para que quienes los editaban los
+     * vuelvan a abrir en lugar de seguir sobre el texto anterior.
+     * 
+     * @param previous La actividad antes de la modificación
+     * @param current  La actividad después de la modificación
+     */
+    private void resetCollaborativeTexts(Activity previous, Activity current) {
+        for (ActivityTextField field : ActivityTextField.values()) {
+            if (!Objects.equals(field.get(previous), field.get(current))) {
+                activityTextRepository.reset(current.getId(), field).ifPresent(revision ->
+                        eventPublisher.publishEvent(new ActivityTextResetEvent(current.getId(), field, revision)));
+            }
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.ActivityChangeSet;
+import com.bitacora.domain.port.repository.ActivityRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+
+/**
+ * Servicio de sincronización incremental de actividades.
+ * Los clientes guardan la marca de agua de su última sincronización y piden
+ * solo los cambios posteriores: actividades creadas, modificadas y
+ * eliminadas. Las marcas de borrado se conservan un periodo limitado; un
+ * cliente con una marca anterior debe volver a descargar todas las actividades.
+ */
+@Service
+@Slf4j
+public class ActivitySyncService {
+
+    private final ActivityRepository activityRepository;
+    private final int maxPageSize;
+    private final int tombstoneRetentionDays;
+
+    /**
+     * Constructor del servicio.
+     *
+     * @param activityRepository     El repositorio de actividades
+     * @param maxPageSize            El número máximo de cambios por respuesta
+     * @param tombstoneRetentionDays Los días que se conservan las marcas de borrado
+     */
+    public ActivitySyncService(
+            ActivityRepository activityRepository,
+            @Value("${activity-changes.max-page-size:500}") int maxPageSize,
+            @Value("${activity-changes.tombstone-retention-days:90}") int tombstoneRetentionDays) {
+        this.activityRepository = activityRepository;
+        this.maxPageSize = maxPageSize;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+    }
+
+    /**
+     * Obtiene los cambios posteriores a una marca de agua. Con la marca 0 se
+     * indica que se requiere una sincronización completa y se devuelve la
+     * marca desde la que continuar después.
+     *
+     * @param since La marca de agua del cliente
+     * @param limit El número máximo de cambios
+     * @return Los cambios
+     */
+    public ActivityChangeSet getChangesSince(long since, int limit) {
+        return activityRepository.findChangesSince(since, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * Elimina diariamente las marcas de borrado que superan el periodo de retención.
+     */
+    @Scheduled(cron = "${activity-changes.purge-cron:0 15 4 * * *}")
+    public void purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        int deleted = activityRepository.purgeTombstonesBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Eliminadas {} marcas de borrado de actividades anteriores a {}", deleted, cutoff);
+        }
+    }
+}
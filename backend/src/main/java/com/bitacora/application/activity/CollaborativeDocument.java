@@ -0,0 +1,117 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.ActivityTextRevision;
+import com.bitacora.domain.model.activity.ActivityTextSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copia en memoria de un texto en edición colaborativa: el texto en su última
+ * revisión conocida por el nodo y las revisiones recientes, con las que se
+ * transforman las operaciones de los clientes atrasados sin consultar la base
+ * de datos. No es segura para hilos: quien la use debe sincronizarse sobre
+ * ella.
+ */
+class CollaborativeDocument {
+
+    private final int historySize;
+    private final Deque<ActivityTextRevision> history = new ArrayDeque<>();
+    private String text;
+    private long revision;
+    private long persistedRevision;
+
+    /**
+     * Constructor del documento.
+     *
+     * @param snapshot    El texto guardado en la actividad y su revisión
+     * @param historySize El número de revisiones recientes que se conservan
+     */
+    CollaborativeDocument(ActivityTextSnapshot snapshot, int historySize) {
+        this.historySize = historySize;
+        reload(snapshot);
+    }
+
+    String getText() {
+        return text;
+    }
+
+    long getRevision() {
+        return revision;
+    }
+
+    long getPersistedRevision() {
+        return persistedRevision;
+    }
+
+    /**
+     * Indica si hay revisiones que aún no se guardaron en la actividad.
+     *
+     * @return true si el texto en memoria es más reciente que el guardado
+     */
+    boolean isDirty() {
+        return revision > persistedRevision;
+    }
+
+    /**
+     * Registra que el texto está guardado en la actividad hasta una revisión.
+     *
+     * @param persisted La revisión guardada
+     */
+    void markPersisted(long persisted) {
+        persistedRevision = Math.max(persistedRevision, persisted);
+    }
+
+    /**
+     * Sustituye el contenido por el texto guardado en la actividad.
+     *
+     * @param snapshot El texto guardado y su revisión
+     */
+    void reload(ActivityTextSnapshot snapshot) {
+        text = snapshot.getText();
+        revision = snapshot.getRevision();
+        persistedRevision = snapshot.getRevision();
+        history.clear();
+    }
+
+    /**
+     * Aplica la revisión siguiente.
+     *
+     * @param next    La revisión
+     * @param newText El texto resultante
+     */
+    void advance(ActivityTextRevision next, String newText) {
+        text = newText;
+        revision = next.getRevision();
+        history.addLast(next);
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+    }
+
+    /**
+     * Obtiene de la memoria las revisiones posteriores a una dada.
+     *
+     * @param base La revisión de partida
+     * @return Las revisiones en orden, o vacío si ya no están todas en memoria
+     */
+    Optional<List<ActivityTextRevision>> revisionsAfter(long base) {
+        if (base == revision) {
+            return Optional.of(List.of());
+        }
+        ActivityTextRevision oldest = history.peekFirst();
+        if (oldest == null || oldest.getRevision() > base + 1) {
+            return Optional.empty();
+        }
+        List<ActivityTextRevision> result = new ArrayList<>((int) (revision - base));
+        for (ActivityTextRevision candidate : history) {
+            if (candidate.getRevision() > base) {
+                result.add(candidate);
+            }
+        }
+        return Optional.of(result);
+    }
+}
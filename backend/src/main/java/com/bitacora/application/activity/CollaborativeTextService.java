@@ -0,0 +1,386 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.event.activity.ActivityTextResetEvent;
+import com.bitacora.domain.exception.TextOperationRejectedException;
+import com.bitacora.domain.model.activity.ActivityTextField;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
+import com.bitacora.domain.model.activity.ActivityTextSnapshot;
+import com.bitacora.domain.model.activity.TextOperation;
+import com.bitacora.domain.port.notification.NotificationPort;
+import com.bitacora.domain.port.repository.ActivityTextRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio de edición colaborativa de los campos de texto largo de las
+ * actividades, por transformación operacional. Los clientes envían pequeñas
+ * operaciones ({@link TextOperation}) referidas a la última revisión que
+ * conocen; el servicio las transforma contra las revisiones concurrentes, las
+ * numera y las reparte en /topic/activity/{id}/text. Cada cliente tiene como
+ * mucho una operación sin confirmar y agrupa con
+ * {@link TextOperation#compose} las ediciones que hace mientras tanto, de modo
+ * que por cada ida y vuelta viaja una sola operación.
+ *
+ * <p>La clave primaria de las revisiones en la base de datos decide el orden
+ * entre nodos: si otro nodo ocupó la revisión siguiente, el documento se pone
+ * al día y la operación se vuelve a transformar. El texto se vuelca a la
+ * actividad periódicamente, y las revisiones antiguas se eliminan tras el
+ * volcado.</p>
+ */
+@Service
+@Slf4j
+public class CollaborativeTextService {
+
+    private static final int MAX_APPEND_ATTEMPTS = 10;
+    private static final int CATCH_UP_BATCH_SIZE = 500;
+
+    private final ActivityTextRepository textRepository;
+    private final ActivityService activityService;
+    private final NotificationPort notificationPort;
+    private final Cache<DocumentKey, CollaborativeDocument> documents;
+    private final int maxInsertLength;
+    private final int maxLength;
+    private final int historySize;
+    private final int retainedRevisions;
+
+    /**
+     * Clave de un documento: un campo de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     */
+    private record DocumentKey(Long activityId, ActivityTextField field) {
+    }
+
+    /**
+     * Constructor del servicio.
+     *
+     * @param textRepository    El repositorio de revisiones de texto
+     * @param activityService   El servicio de actividades
+     * @param notificationPort  El puerto de notificaciones
+     * @param maxInsertLength   El número máximo de caracteres insertados por operación
+     * @param maxLength         La longitud máxima de un texto
+     * @param historySize       Las revisiones recientes que se conservan en memoria por documento
+     * @param retainedRevisions Las revisiones que se conservan tras cada volcado
+     * @param maxDocuments      El número máximo de documentos en memoria
+     * @param documentIdle      Los segundos sin uso tras los que se descarta un documento
+     */
+    public CollaborativeTextService(
+            ActivityTextRepository textRepository,
+            ActivityService activityService,
+            NotificationPort notificationPort,
+            @Value("${collaboration.text.max-insert-length:2048}") int maxInsertLength,
+            @Value("${collaboration.text.max-length:100000}") int maxLength,
+            @Value("${collaboration.text.history-size:200}") int historySize,
+            @Value("${collaboration.text.retained-revisions:1000}") int retainedRevisions,
+            @Value("${collaboration.text.max-documents:2000}") long maxDocuments,
+            @Value("${collaboration.text.document-idle:1800}") long documentIdle) {
+        this.textRepository = textRepository;
+        this.activityService = activityService;
+        this.notificationPort = notificationPort;
+        this.maxInsertLength = maxInsertLength;
+        this.maxLength = maxLength;
+        this.historySize = historySize;
+        this.retainedRevisions = retainedRevisions;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maxDocuments)
+                .expireAfterAccess(Duration.ofSeconds(documentIdle))
+                .build();
+    }
+
+    /**
+     * Abre un campo para editarlo: devuelve su texto en la última revisión,
+     * la única vez que el texto completo viaja al cliente.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @return El texto y su revisión, o vacío si la actividad no existe
+     */
+    public Optional<ActivityTextSnapshot> open(Long activityId, ActivityTextField field) {
+        CollaborativeDocument document = document(activityId, field);
+        if (document == null) {
+            return Optional.empty();
+        }
+        synchronized (document) {
+            catchUp(activityId, field, document);
+            return Optional.of(new ActivityTextSnapshot(document.getText(), document.getRevision()));
+        }
+    }
+
+    /**
+     * Aplica una operación de un cliente y la reparte a quienes editan el
+     * campo, incluido el autor, que la recibe como confirmación.
+     *
+     * @param activityId        El ID de la actividad
+     * @param field             El campo
+     * @param baseRevision      La revisión sobre la que el cliente hizo la operación
+     * @param operation         La operación
+     * @param clientOperationId El identificador de la operación elegido por el cliente, o null
+     * @param author            El nombre de usuario del autor
+     * @return La revisión asignada
+     * @throws TextOperationRejectedException Si la operación no se puede aplicar
+     */
+    public ActivityTextRevision apply(Long activityId, ActivityTextField field, long baseRevision,
+            TextOperation operation, String clientOperationId, String author) {
+        if (operation.getInsertedLength() > maxInsertLength) {
+            throw new TextOperationRejectedException(
+                    "La operación inserta más de " + maxInsertLength + " caracteres", false);
+        }
+        CollaborativeDocument document = document(activityId, field);
+        if (document == null) {
+            throw new TextOperationRejectedException("La actividad no existe", false);
+        }
+
+        synchronized (document) {
+            for (int attempt = 0; attempt < MAX_APPEND_ATTEMPTS; attempt++) {
+                if (baseRevision > document.getRevision()) {
+                    // El cliente recibió revisiones de otro nodo que este aún no tiene
+                    catchUp(activityId, field, document);
+                }
+                if (baseRevision > document.getRevision() || baseRevision < 0) {
+                    throw new TextOperationRejectedException("Revisión desconocida: " + baseRevision, true);
+                }
+
+                List<ActivityTextRevision> concurrent = concurrentRevisions(activityId, field, document, baseRevision);
+                Optional<ActivityTextRevision> duplicate = concurrent.stream()
+                        .filter(revision -> clientOperationId != null
+                                && clientOperationId.equals(revision.getClientOperationId())
+                                && author.equals(revision.getAuthor()))
+                        .findFirst();
+                if (duplicate.isPresent()) {
+                    // Reenvío de una operación ya aplicada, por ejemplo tras reconectar
+                    return duplicate.get();
+                }
+
+                TextOperation transformed = transform(operation, concurrent);
+                if (transformed.getBaseLength() != document.getText().length()) {
+                    throw new TextOperationRejectedException("La operación no corresponde al texto de la revisión "
+                            + baseRevision, true);
+                }
+                String text = transformed.apply(document.getText());
+                if (text.length() > maxLength) {
+                    throw new TextOperationRejectedException(
+                            "El texto no puede superar los " + maxLength + " caracteres", false);
+                }
+
+                ActivityTextRevision revision = ActivityTextRevision.builder()
+                        .activityId(activityId)
+                        .field(field)
+                        .revision(document.getRevision() + 1)
+                        .operation(transformed)
+                        .clientOperationId(clientOperationId)
+                        .author(author)
+                        .build();
+                if (textRepository.append(revision)) {
+                    document.advance(revision, text);
+                    // Bajo el bloqueo del documento, para repartir las revisiones del nodo en orden
+                    notificationPort.broadcastTextRevision(revision);
+                    return revision;
+                }
+
+                // Otro nodo ocupó la revisión: ponerse al día y volver a transformar
+                catchUp(activityId, field, document);
+            }
+        }
+        throw new TextOperationRejectedException("Demasiadas operaciones simultáneas; reintentar", false);
+    }
+
+    /**
+     * Vuelca periódicamente a las actividades los textos con revisiones sin
+     * guardar y elimina las revisiones que ya no se necesitan. El volcado se
+     * hace fuera del bloqueo de cada documento, para no detener la edición.
+     */
+    @Scheduled(fixedDelayString = "${collaboration.text.compaction-interval:10000}")
+    public void compact() {
+        for (Map.Entry<DocumentKey, CollaborativeDocument> entry : documents.asMap().entrySet()) {
+            DocumentKey key = entry.getKey();
+            CollaborativeDocument document = entry.getValue();
+            String text;
+            long revision;
+            synchronized (document) {
+                if (!document.isDirty()) {
+                    continue;
+                }
+                text = document.getText();
+                revision = document.getRevision();
+            }
+
+            try {
+                if (!activityService.saveCollaborativeText(key.activityId(), key.field(), text, revision)) {
+                    log.debug("El texto {} de la actividad {} ya estaba guardado en la revisión {} o posterior",
+                            key.field(), key.activityId(), revision);
+                }
+                synchronized (document) {
+                    document.markPersisted(revision);
+                }
+                if (revision > retainedRevisions) {
+                    textRepository.deleteRevisionsUpTo(key.activityId(), key.field(), revision - retainedRevisions);
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudo guardar el texto {} de la actividad {}: {}",
+                        key.field(), key.activityId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Guarda los textos pendientes al detener la aplicación.
+     */
+    @PreDestroy
+    public void flush() {
+        compact();
+    }
+
+    /**
+     * Descarta la copia en memoria de un campo que se sustituyó entero y avisa
+     * a quienes lo editaban para que lo vuelvan a abrir.
+     *
+     * @param event El evento de reinicio
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleActivityTextResetEvent(ActivityTextResetEvent event) {
+        documents.invalidate(new DocumentKey(event.getActivityId(), event.getField()));
+        try {
+            notificationPort.broadcastTextRevision(ActivityTextRevision.builder()
+                    .activityId(event.getActivityId())
+                    .field(event.getField())
+                    .revision(event.getRevision())
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo avisar del reinicio del texto {} de la actividad {}: {}",
+                    event.getField(), event.getActivityId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el documento de un campo, cargándolo si no está en memoria.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @return El documento, o null si la actividad no existe
+     */
+    private CollaborativeDocument document(Long activityId, ActivityTextField field) {
+        return documents.get(new DocumentKey(activityId, field),
+                key -> textRepository.openSnapshot(activityId, field)
+                        .map(snapshot -> new CollaborativeDocument(snapshot, historySize))
+                        .orElse(null));
+    }
+
+    /**
+     * Aplica al documento las revisiones de otros nodos. Si encuentra un
+     * reinicio o le faltan revisiones ya eliminadas, lo vuelve a cargar desde
+     * la actividad. Debe llamarse con el bloqueo del documento.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param document   El documento
+     */
+    private void catchUp(Long activityId, ActivityTextField field, CollaborativeDocument document) {
+        int reloads = 0;
+        while (true) {
+            List<ActivityTextRevision> revisions =
+                    textRepository.findRevisionsAfter(activityId, field, document.getRevision(), CATCH_UP_BATCH_SIZE);
+            boolean reloaded = false;
+            for (ActivityTextRevision revision : revisions) {
+                if (revision.getRevision() != document.getRevision() + 1 || revision.isReset()
+                        || revision.getOperation().getBaseLength() != document.getText().length()) {
+                    if (++reloads > 2) {
+                        throw new IllegalStateException("Revisiones inconsistentes en el texto " + field
+                                + " de la actividad " + activityId);
+                    }
+                    reload(activityId, field, document);
+                    reloaded = true;
+                    break;
+                }
+                document.advance(revision, revision.getOperation().apply(document.getText()));
+            }
+            if (!reloaded && revisions.size() < CATCH_UP_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Vuelve a cargar un documento desde el texto guardado en la actividad y
+     * le aplica las revisiones posteriores.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param document   El documento
+     */
+    private void reload(Long activityId, ActivityTextField field, CollaborativeDocument document) {
+        ActivityTextSnapshot snapshot = textRepository.openSnapshot(activityId, field)
+                .orElseThrow(() -> new TextOperationRejectedException("La actividad no existe", false));
+        log.debug("Recargando el texto {} de la actividad {} desde la revisión {}",
+                field, activityId, snapshot.getRevision());
+        document.reload(snapshot);
+    }
+
+    /**
+     * Obtiene las revisiones posteriores a la de un cliente, de la memoria o,
+     * si ya no están, de la base de datos.
+     *
+     * @param activityId   El ID de la actividad
+     * @param field        El campo
+     * @param document     El documento
+     * @param baseRevision La revisión del cliente
+     * @return Las revisiones concurrentes en orden
+     * @throws TextOperationRejectedException Si ya no se pueden transformar
+     */
+    private List<ActivityTextRevision> concurrentRevisions(Long activityId, ActivityTextField field,
+            CollaborativeDocument document, long baseRevision) {
+        long missing = document.getRevision() - baseRevision;
+        List<ActivityTextRevision> revisions = document.revisionsAfter(baseRevision).orElse(null);
+        if (revisions == null) {
+            if (missing > retainedRevisions) {
+                throw new TextOperationRejectedException("La revisión " + baseRevision + " es demasiado antigua", true);
+            }
+            revisions = textRepository.findRevisionsAfter(activityId, field, baseRevision, (int) missing);
+        }
+        if (revisions.size() != missing
+                || (!revisions.isEmpty() && revisions.get(0).getRevision() != baseRevision + 1)
+                || revisions.stream().anyMatch(ActivityTextRevision::isReset)) {
+            throw new TextOperationRejectedException("El texto cambió desde la revisión " + baseRevision, true);
+        }
+        return revisions;
+    }
+
+    /**
+     * Transforma una operación contra las revisiones concurrentes, combinadas
+     * en una sola operación.
+     *
+     * @param operation  La operación del cliente
+     * @param concurrent Las revisiones concurrentes
+     * @return La operación aplicable a la última revisión
+     * @throws TextOperationRejectedException Si las longitudes no encajan
+     */
+    private static TextOperation transform(TextOperation operation, List<ActivityTextRevision> concurrent) {
+        if (concurrent.isEmpty()) {
+            return operation;
+        }
+        try {
+            TextOperation combined = concurrent.get(0).getOperation();
+            for (ActivityTextRevision revision : concurrent.subList(1, concurrent.size())) {
+                combined = combined.compose(revision.getOperation());
+            }
+            return TextOperation.transform(operation, combined)[0];
+        } catch (IllegalArgumentException e) {
+            throw new TextOperationRejectedException("La operación no corresponde al texto: " + e.getMessage(), true);
+        }
+    }
+}
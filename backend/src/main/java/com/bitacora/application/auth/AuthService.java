@@ -5,9 +5,12 @@ import com.bitacora.domain.model.user.User;
 import com.bitacora.domain.port.UserRepository;
 import com.bitacora.infrastructure.rest.dto.auth.JwtResponse;
 import com.bitacora.infrastructure.rest.dto.auth.LoginRequest;
+import com.bitacora.infrastructure.security.IssuedToken;
 import com.bitacora.infrastructure.security.JwtTokenProvider;
+import com.bitacora.infrastructure.security.UserPrincipal;
 
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -52,27 +55,22 @@ public class AuthService {
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                // Generar token JWT
+                // Reutilizar el usuario cargado durante la autenticación
                 UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-                // Obtener el usuario del repositorio
-                User user = userRepository.findByUsername(userDetails.getUsername())
-                                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-
-                // Crear token JWT
-                String jwt = jwtTokenProvider.createToken(user, userDetails.getAuthorities());
+                User user = resolveUser(userDetails);
 
-                // Generar token de refresco
-                String refreshToken = jwtTokenProvider.createRefreshToken(user, userDetails.getAuthorities());
+                // Crear token JWT y token de refresco; la expiración se obtiene al firmar
+                IssuedToken jwt = jwtTokenProvider.issueToken(user, userDetails.getAuthorities());
+                IssuedToken refreshToken = jwtTokenProvider.issueRefreshToken(user, userDetails.getAuthorities());
 
-                // La información del usuario ya se obtuvo anteriormente
-
-                // Registrar la sesión
-                sessionService.createSession(user.getId(), jwt, refreshToken, request);
+                // Registrar la sesión en segundo plano, sin retrasar la respuesta
+                sessionService.recordSession(user.getId(), user.getUsername(), jwt.getToken(), jwt.getExpiresAt(),
+                                refreshToken.getToken(), refreshToken.getExpiresAt(), request);
 
                 // Construir respuesta
                 return JwtResponse.builder()
-                                .token(jwt)
-                                .refreshToken(refreshToken)
+                                .token(jwt.getToken())
+                                .refreshToken(refreshToken.getToken())
                                 .tokenType("Bearer")
                                 .userId(user.getId())
                                 .username(user.getUsername())
@@ -81,6 +79,21 @@ public class AuthService {
                                 .build();
         }
 
+        /**
+         * Obtiene el usuario de dominio de un principal autenticado. Si el
+         * principal ya lo incluye no se vuelve a consultar el repositorio.
+         *
+         * @param userDetails Los detalles del usuario autenticado
+         * @return El usuario
+         */
+        private User resolveUser(UserDetails userDetails) {
+                if (userDetails instanceof UserPrincipal principal && principal.getUser() != null) {
+                        return principal.getUser();
+                }
+                return userRepository.findByUsername(userDetails.getUsername())
+                                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+        }
+
         /**
          * Cierra la sesión de un usuario.
          *
@@ -122,20 +135,28 @@ public class AuthService {
                                 .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission.name())));
 
                 // Generar nuevo token JWT
-                String newToken = jwtTokenProvider.createToken(user, authorities);
+                IssuedToken newToken = jwtTokenProvider.issueToken(user, authorities);
 
                 // Generar nuevo token de refresco
-                String newRefreshToken = jwtTokenProvider.createRefreshToken(user, authorities);
-
-                // El usuario ya se obtuvo anteriormente
-
-                // Actualizar la sesión
-                sessionService.createSession(user.getId(), newToken, newRefreshToken, request);
+                IssuedToken newRefreshToken = jwtTokenProvider.issueRefreshToken(user, authorities);
+
+                // Rotar los tokens de la sesión existente. Si el token no corresponde a ninguna
+                // sesión activa, solo se revoca la sesión cuando el token es uno ya rotado fuera del
+                // margen de renovaciones concurrentes: su reutilización indica un posible robo
+                if (sessionService.rotateSession(refreshToken, newToken.getToken(), newToken.getExpiresAt(),
+                                newRefreshToken.getToken(), newRefreshToken.getExpiresAt()).isEmpty()) {
+                        sessionService.findReusedRefreshTokenSession(refreshToken).ifPresent(session -> {
+                                sessionService.revokeSession(session.getId(), "Reutilización de un token de refresco");
+                                log.warn("Token de refresco reutilizado por el usuario {}; revocada la sesión {}",
+                                                username, session.getId());
+                        });
+                        throw new BadCredentialsException("El token de refresco no corresponde a ninguna sesión activa");
+                }
 
                 // Construir respuesta
                 return JwtResponse.builder()
-                                .token(newToken)
-                                .refreshToken(newRefreshToken)
+                                .token(newToken.getToken())
+                                .refreshToken(newRefreshToken.getToken())
                                 .tokenType("Bearer")
                                 .userId(user.getId())
                                 .username(user.getUsername())
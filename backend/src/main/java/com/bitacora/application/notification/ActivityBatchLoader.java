@@ -0,0 +1,85 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.port.repository.ActivityRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cargador por lotes de actividades para una unidad de trabajo (un evento,
+ * una solicitud o una pasada de una tarea programada).
+ * Los IDs se encolan con {@link #queue}, y la primera lectura que necesita uno
+ * pendiente los resuelve todos con una sola consulta. Los resultados,
+ * incluidas las actividades que no existen, se recuerdan hasta que se
+ * descarta el cargador, por lo que no debe conservarse más allá de la unidad
+ * de trabajo ni compartirse entre hilos.
+ */
+final class ActivityBatchLoader {
+
+    private final ActivityRepository activityRepository;
+    private final Map<Long, Optional<Activity>> loaded = new HashMap<>();
+    private final Set<Long> pending = new LinkedHashSet<>();
+
+    /**
+     * Crea un cargador vacío.
+     *
+     * @param activityRepository El repositorio de actividades
+     */
+    ActivityBatchLoader(ActivityRepository activityRepository) {
+        this.activityRepository = activityRepository;
+    }
+
+    /**
+     * Encola IDs de actividades para resolverlos en la próxima consulta.
+     *
+     * @param activityIds Los IDs; se ignoran los nulos
+     * @return Este cargador
+     */
+    ActivityBatchLoader queue(Collection<Long> activityIds) {
+        for (Long id : activityIds) {
+            if (id != null && !loaded.containsKey(id)) {
+                pending.add(id);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Obtiene una actividad, resolviendo junto con ella las actividades
+     * pendientes.
+     *
+     * @param activityId El ID de la actividad
+     * @return La actividad, o vacío si no existe o el ID es nulo
+     */
+    Optional<Activity> get(Long activityId) {
+        if (activityId == null) {
+            return Optional.empty();
+        }
+        Optional<Activity> activity = loaded.get(activityId);
+        if (activity != null) {
+            return activity;
+        }
+
+        pending.add(activityId);
+        dispatch();
+        return loaded.get(activityId);
+    }
+
+    private void dispatch() {
+        List<Long> ids = new ArrayList<>(pending);
+        pending.clear();
+        for (Activity activity : activityRepository.findAllById(ids)) {
+            loaded.put(activity.getId(), Optional.of(activity));
+        }
+        for (Long id : ids) {
+            loaded.putIfAbsent(id, Optional.empty());
+        }
+    }
+}
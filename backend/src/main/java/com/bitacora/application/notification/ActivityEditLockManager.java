@@ -0,0 +1,193 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.exception.EditLockConflictException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gestor de los bloqueos de edición de las actividades.
+ * Cada bloqueo es una concesión con expiración y token de fencing. Las
+ * operaciones se realizan con operaciones atómicas del mapa sobre la entrada
+ * de la actividad, sin bloqueos globales ni acceso a la base de datos, por lo
+ * que dos usuarios de este nodo nunca obtienen a la vez la edición de la misma
+ * actividad. Las concesiones son locales al nodo: con varios nodos, la
+ * exclusión mutua no se garantiza entre usuarios atendidos por nodos distintos.
+ * Las concesiones vencidas se conservan durante otra duración de concesión
+ * para rechazar los guardados sin token de su antiguo titular.
+ */
+@Component
+public class ActivityEditLockManager {
+
+    private final ConcurrentHashMap<Long, EditLease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong fencingSequence = new AtomicLong(System.currentTimeMillis());
+    private final long leaseTtlMillis;
+
+    /**
+     * Constructor del gestor.
+     *
+     * @param leaseTtlMillis La duración de las concesiones de edición en milisegundos
+     */
+    public ActivityEditLockManager(@Value("${collaboration.presence.lease-ttl:60000}") long leaseTtlMillis) {
+        this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    /**
+     * Intenta adquirir o renovar la edición de una actividad. Si el usuario ya
+     * la posee, la concesión se renueva y conserva su token.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @return La concesión del usuario, o vacío si otro usuario edita la actividad
+     */
+    public Optional<EditLease> tryAcquire(long activityId, long userId) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + leaseTtlMillis;
+        EditLease lease = leases.compute(activityId, (id, current) -> {
+            if (current == null || !current.isActive(now)) {
+                return new EditLease(userId, fencingSequence.incrementAndGet(), expiresAt);
+            }
+            return current.getUserId() == userId ? current.renew(expiresAt) : current;
+        });
+        return lease.getUserId() == userId ? Optional.of(lease) : Optional.empty();
+    }
+
+    /**
+     * Renueva las concesiones de edición vigentes de varios usuarios,
+     * conservando sus tokens. No adquiere concesiones nuevas.
+     *
+     * @param userIds Los IDs de los usuarios
+     * @return El número de concesiones renovadas
+     */
+    public int renewUsers(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + leaseTtlMillis;
+        int[] renewed = new int[1];
+        for (Long activityId : leases.keySet()) {
+            leases.computeIfPresent(activityId, (id, current) -> {
+                if (!current.isActive(now) || !userIds.contains(current.getUserId())) {
+                    return current;
+                }
+                renewed[0]++;
+                return current.renew(expiresAt);
+            });
+        }
+        return renewed[0];
+    }
+
+    /**
+     * Libera la edición de una actividad si la posee el usuario.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @return true si el usuario poseía la edición
+     */
+    public boolean release(long activityId, long userId) {
+        boolean[] released = new boolean[1];
+        leases.computeIfPresent(activityId, (id, current) -> {
+            if (current.getUserId() != userId) {
+                return current;
+            }
+            released[0] = true;
+            return null;
+        });
+        return released[0];
+    }
+
+    /**
+     * Libera todas las ediciones que posee un usuario.
+     *
+     * @param userId El ID del usuario
+     * @return Los IDs de las actividades liberadas
+     */
+    public List<Long> releaseAll(long userId) {
+        List<Long> released = new ArrayList<>();
+        for (Long activityId : leases.keySet()) {
+            if (release(activityId, userId)) {
+                released.add(activityId);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Elimina las concesiones vencidas hace más de una duración de concesión.
+     * Hasta entonces se conservan para que {@link #validate} distinga el
+     * guardado sin token de un usuario cuya concesión ha expirado.
+     *
+     * @return El número de concesiones eliminadas
+     */
+    public int expireLeases() {
+        long now = System.currentTimeMillis();
+        int[] expired = new int[1];
+        for (Long activityId : leases.keySet()) {
+            leases.computeIfPresent(activityId, (id, current) -> {
+                if (current.getExpiresAt() + leaseTtlMillis > now) {
+                    return current;
+                }
+                expired[0]++;
+                return null;
+            });
+        }
+        return expired[0];
+    }
+
+    /**
+     * Obtiene la concesión vigente de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @return La concesión, o vacío si nadie edita la actividad
+     */
+    public Optional<EditLease> currentLease(long activityId) {
+        EditLease lease = leases.get(activityId);
+        return lease != null && lease.isActive(System.currentTimeMillis()) ? Optional.of(lease) : Optional.empty();
+    }
+
+    /**
+     * Comprueba que un usuario puede guardar cambios en una actividad.
+     * Mientras la actividad tiene una concesión vigente, el guardado requiere
+     * el token de esa concesión presentado por su titular. Sin token, también
+     * se rechaza el guardado del usuario cuya concesión ha expirado, aunque
+     * nadie más edite la actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @param token      El token de fencing presentado, o null
+     * @throws EditLockConflictException si el usuario no puede guardar cambios
+     */
+    public void validate(long activityId, long userId, Long token) {
+        EditLease lease = leases.get(activityId);
+        boolean active = lease != null && lease.isActive(System.currentTimeMillis());
+
+        if (token != null) {
+            if (!active || lease.getToken() != token || lease.getUserId() != userId) {
+                throw new EditLockConflictException(
+                        "La concesión de edición de la actividad " + activityId + " ha expirado o no es válida");
+            }
+            return;
+        }
+
+        if (active && lease.getUserId() != userId) {
+            throw new EditLockConflictException(
+                    "La actividad " + activityId + " está siendo editada por otro usuario");
+        }
+        if (active) {
+            throw new EditLockConflictException(
+                    "El guardado de la actividad " + activityId + " requiere el token de la concesión de edición");
+        }
+        if (lease != null && lease.getUserId() == userId) {
+            throw new EditLockConflictException(
+                    "La concesión de edición de la actividad " + activityId + " ha expirado");
+        }
+    }
+}
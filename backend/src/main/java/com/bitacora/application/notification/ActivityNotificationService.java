@@ -1,17 +1,21 @@
 package com.bitacora.application.notification;
 
+import com.bitacora.domain.event.activity.ActivityChangedEvent;
 import com.bitacora.domain.event.activity.ActivityCreatedEvent;
+import com.bitacora.domain.event.activity.ActivityFieldsChangedEvent;
 import com.bitacora.domain.event.activity.ActivityStatusChangedEvent;
 import com.bitacora.domain.model.activity.Activity;
 import com.bitacora.domain.model.notification.TaskAssignmentNotification;
 import com.bitacora.domain.model.notification.TaskStatusChangeNotification;
-import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
 import com.bitacora.domain.port.notification.NotificationPort;
 import com.bitacora.domain.port.repository.ActivityRepository;
-import com.bitacora.domain.port.UserRepository;
+import com.bitacora.domain.port.UserDirectory;
 
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +32,7 @@ public class ActivityNotificationService {
 
     private final NotificationPort notificationPort;
     private final ActivityRepository activityRepository;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
 
     /**
      * Maneja el evento de creación de actividad.
@@ -51,29 +55,29 @@ public class ActivityNotificationService {
         // Si la actividad tiene un usuario asignado, enviar notificación
         if (activity.getUserId() != null) {
             // Obtener el usuario que creó la actividad
-            Optional<User> creatorOpt = userRepository.findById(event.getUserId());
+            Optional<UserDirectoryEntry> creatorOpt = userDirectory.findById(event.getUserId());
             if (creatorOpt.isEmpty()) {
                 log.warn("No se encontró el usuario creador con ID: {}", event.getUserId());
                 return;
             }
 
-            User creator = creatorOpt.get();
+            UserDirectoryEntry creator = creatorOpt.get();
 
             // Obtener el usuario asignado
-            Optional<User> assignedUserOpt = userRepository.findById(activity.getUserId());
+            Optional<UserDirectoryEntry> assignedUserOpt = userDirectory.findById(activity.getUserId());
             if (assignedUserOpt.isEmpty()) {
                 log.warn("No se encontró el usuario asignado con ID: {}", activity.getUserId());
                 return;
             }
 
-            User assignedUser = assignedUserOpt.get();
+            UserDirectoryEntry assignedUser = assignedUserOpt.get();
 
             // Crear notificación de asignación de tarea
             TaskAssignmentNotification notification = TaskAssignmentNotification.builder()
                     .activityId(activity.getId())
                     .activityTitle(activity.getDescription())
-                    .assignerId(creator.getId())
-                    .assignerName(creator.getPersonName().getFullName())
+                    .assignerId(creator.id())
+                    .assignerName(creator.fullName())
                     .dueDate(activity.getDate() != null
                             ? activity.getDate().toInstant(java.time.ZoneOffset.UTC).toEpochMilli()
                             : null)
@@ -82,7 +86,7 @@ public class ActivityNotificationService {
                     .build();
 
             // Enviar notificación
-            notificationPort.sendTaskAssignmentNotification(assignedUser.getUsername(), notification);
+            notificationPort.sendTaskAssignmentNotification(assignedUser.username(), notification);
         }
     }
 
@@ -107,22 +111,22 @@ public class ActivityNotificationService {
         // Si la actividad tiene un usuario asignado, enviar notificación
         if (activity.getUserId() != null) {
             // Obtener el usuario que cambió el estado
-            Optional<User> changerOpt = userRepository.findById(event.getUserId());
+            Optional<UserDirectoryEntry> changerOpt = userDirectory.findById(event.getUserId());
             if (changerOpt.isEmpty()) {
                 log.warn("No se encontró el usuario que cambió el estado con ID: {}", event.getUserId());
                 return;
             }
 
-            User changer = changerOpt.get();
+            UserDirectoryEntry changer = changerOpt.get();
 
             // Obtener el usuario asignado
-            Optional<User> assignedUserOpt = userRepository.findById(activity.getUserId());
+            Optional<UserDirectoryEntry> assignedUserOpt = userDirectory.findById(activity.getUserId());
             if (assignedUserOpt.isEmpty()) {
                 log.warn("No se encontró el usuario asignado con ID: {}", activity.getUserId());
                 return;
             }
 
-            User assignedUser = assignedUserOpt.get();
+            UserDirectoryEntry assignedUser = assignedUserOpt.get();
 
             // Crear notificación de cambio de estado
             TaskStatusChangeNotification notification = TaskStatusChangeNotification.builder()
@@ -130,8 +134,8 @@ public class ActivityNotificationService {
                     .activityTitle(activity.getDescription())
                     .previousStatus(event.getOldStatus().name())
                     .newStatus(event.getNewStatus().name())
-                    .changedById(changer.getId())
-                    .changedByName(changer.getPersonName().getFullName())
+                    .changedById(changer.id())
+                    .changedByName(changer.fullName())
                     .title("Estado de actividad actualizado")
                     .message("El estado de la actividad \"" + activity.getDescription() +
                             "\" ha cambiado de " + event.getOldStatus().name() +
@@ -139,7 +143,38 @@ public class ActivityNotificationService {
                     .build();
 
             // Enviar notificación
-            notificationPort.sendTaskStatusChangeNotification(assignedUser.getUsername(), notification);
+            notificationPort.sendTaskStatusChangeNotification(assignedUser.username(), notification);
+        }
+    }
+
+    /**
+     * Reparte un cambio de actividad a los flujos de cambios en vivo una vez
+     * confirmada la transacción, para no anunciar cambios que se deshacen.
+     *
+     * @param event El evento de cambio de actividad
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleActivityChangedEvent(ActivityChangedEvent event) {
+        try {
+            notificationPort.broadcastActivityChange(event.getChange());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo repartir el cambio de actividad {}: {}", event.getEventId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Envía la diferencia de una modificación a quienes tienen abierta la
+     * actividad una vez confirmada la transacción.
+     *
+     * @param event El evento de modificación de campos
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleActivityFieldsChangedEvent(ActivityFieldsChangedEvent event) {
+        try {
+            notificationPort.broadcastActivityDiff(event.getDiff());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo enviar la diferencia de la actividad {}: {}",
+                    event.getDiff().getActivityId(), e.getMessage());
         }
     }
 }
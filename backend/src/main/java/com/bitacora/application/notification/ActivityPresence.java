@@ -0,0 +1,141 @@
+package com.bitacora.application.notification;
+
+import java.util.Arrays;
+
+/**
+ * Presencia en una actividad: los usuarios que la están viendo, cada uno con
+ * la fecha de expiración de su concesión.
+ * Los IDs se guardan en arrays de long ordenados, sin objetos por usuario.
+ * Solo se modifica desde {@link ActivityPresenceRegistry}, dentro de la
+ * operación atómica del mapa sobre la entrada de la actividad.
+ */
+final class ActivityPresence {
+
+    private long[] userIds = new long[4];
+    private long[] leaseExpiry = new long[4];
+    private int size;
+
+    /**
+     * Registra o renueva la concesión de un visor.
+     *
+     * @param userId  El ID del usuario
+     * @param expiry  La nueva expiración de la concesión en milisegundos
+     * @return true si el usuario no estaba registrado
+     */
+    synchronized boolean touchViewer(long userId, long expiry) {
+        int index = Arrays.binarySearch(userIds, 0, size, userId);
+        if (index >= 0) {
+            leaseExpiry[index] = expiry;
+            return false;
+        }
+
+        int insertAt = -index - 1;
+        if (size == userIds.length) {
+            userIds = Arrays.copyOf(userIds, size * 2);
+            leaseExpiry = Arrays.copyOf(leaseExpiry, size * 2);
+        }
+        System.arraycopy(userIds, insertAt, userIds, insertAt + 1, size - insertAt);
+        System.arraycopy(leaseExpiry, insertAt, leaseExpiry, insertAt + 1, size - insertAt);
+        userIds[insertAt] = userId;
+        leaseExpiry[insertAt] = expiry;
+        size++;
+        return true;
+    }
+
+    /**
+     * Renueva la concesión de un visor ya registrado.
+     *
+     * @param userId El ID del usuario
+     * @param expiry La nueva expiración de la concesión en milisegundos
+     * @return true si el usuario estaba registrado
+     */
+    synchronized boolean renewViewer(long userId, long expiry) {
+        int index = Arrays.binarySearch(userIds, 0, size, userId);
+        if (index < 0) {
+            return false;
+        }
+        leaseExpiry[index] = expiry;
+        return true;
+    }
+
+    /**
+     * Elimina un visor.
+     *
+     * @param userId El ID del usuario
+     * @return true si el usuario estaba registrado como visor
+     */
+    synchronized boolean remove(long userId) {
+        int index = Arrays.binarySearch(userIds, 0, size, userId);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Elimina los visores cuya concesión ha expirado.
+     *
+     * @param now El instante actual en milisegundos
+     * @return Los IDs de los visores eliminados
+     */
+    synchronized long[] removeExpired(long now) {
+        long[] removed = new long[size];
+        int removedCount = 0;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (leaseExpiry[i] <= now) {
+                removed[removedCount++] = userIds[i];
+            } else {
+                userIds[kept] = userIds[i];
+                leaseExpiry[kept] = leaseExpiry[i];
+                kept++;
+            }
+        }
+        size = kept;
+        shrinkIfSparse();
+        return Arrays.copyOf(removed, removedCount);
+    }
+
+    /**
+     * Obtiene los IDs de los visores.
+     *
+     * @return Una copia de los IDs, ordenados
+     */
+    synchronized long[] viewers() {
+        return Arrays.copyOf(userIds, size);
+    }
+
+    /**
+     * Indica si no quedan visores.
+     *
+     * @return true si la presencia está vacía
+     */
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Elimina el visor de una posición.
+     *
+     * @param index La posición
+     */
+    private void removeAt(int index) {
+        System.arraycopy(userIds, index + 1, userIds, index, size - index - 1);
+        System.arraycopy(leaseExpiry, index + 1, leaseExpiry, index, size - index - 1);
+        size--;
+        shrinkIfSparse();
+    }
+
+    /**
+     * Reduce los arrays cuando quedan pocos visores, para que la memoria sea
+     * proporcional a los visores actuales.
+     */
+    private void shrinkIfSparse() {
+        if (userIds.length > 8 && size < userIds.length / 4) {
+            int capacity = Math.max(4, size * 2);
+            userIds = Arrays.copyOf(userIds, capacity);
+            leaseExpiry = Arrays.copyOf(leaseExpiry, capacity);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bitacora.application.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria de los visores de las actividades, basado en concesiones
+ * con caducidad. Cada registro de un visor renueva su concesión, y las de los
+ * usuarios con una sesión WebSocket abierta se renuevan periódicamente con
+ * {@link #renewUsers}; las que no se renuevan dentro del TTL expiran. Las actividades sin visores se eliminan del
+ * registro, de modo que la memoria es proporcional a los usuarios presentes.
+ */
+@Component
+public class ActivityPresenceRegistry {
+
+    private final ConcurrentHashMap<Long, ActivityPresence> presences = new ConcurrentHashMap<>();
+    private final long leaseTtlMillis;
+
+    /**
+     * Constructor del registro.
+     *
+     * @param leaseTtlMillis La duración de las concesiones en milisegundos
+     */
+    public ActivityPresenceRegistry(@Value("${collaboration.presence.lease-ttl:60000}") long leaseTtlMillis) {
+        this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    /**
+     * Registra un visor o renueva su concesión.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @return true si el usuario no estaba registrado como visor
+     */
+    public boolean touchViewer(long activityId, long userId) {
+        long expiry = System.currentTimeMillis() + leaseTtlMillis;
+        boolean[] added = new boolean[1];
+        presences.compute(activityId, (id, presence) -> {
+            ActivityPresence current = presence != null ? presence : new ActivityPresence();
+            added[0] = current.touchViewer(userId, expiry);
+            return current;
+        });
+        return added[0];
+    }
+
+    /**
+     * Renueva la concesión de un visor ya registrado. No registra usuarios nuevos.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @return true si el usuario estaba registrado como visor
+     */
+    public boolean renewViewer(long activityId, long userId) {
+        long expiry = System.currentTimeMillis() + leaseTtlMillis;
+        boolean[] renewed = new boolean[1];
+        presences.computeIfPresent(activityId, (id, presence) -> {
+            renewed[0] = presence.renewViewer(userId, expiry);
+            return presence;
+        });
+        return renewed[0];
+    }
+
+    /**
+     * Renueva las concesiones de visor de varios usuarios en todas las
+     * actividades. No registra usuarios nuevos.
+     *
+     * @param userIds Los IDs de los usuarios
+     * @return El número de concesiones renovadas
+     */
+    public int renewUsers(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        long expiry = System.currentTimeMillis() + leaseTtlMillis;
+        int[] renewed = new int[1];
+        for (Long activityId : presences.keySet()) {
+            presences.computeIfPresent(activityId, (id, presence) -> {
+                for (long userId : presence.viewers()) {
+                    if (userIds.contains(userId) && presence.renewViewer(userId, expiry)) {
+                        renewed[0]++;
+                    }
+                }
+                return presence;
+            });
+        }
+        return renewed[0];
+    }
+
+    /**
+     * Elimina un visor de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @return true si el usuario estaba registrado como visor
+     */
+    public boolean release(long activityId, long userId) {
+        boolean[] removed = new boolean[1];
+        presences.computeIfPresent(activityId, (id, presence) -> {
+            removed[0] = presence.remove(userId);
+            return presence.isEmpty() ? null : presence;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Libera la presencia de un usuario en todas las actividades.
+     *
+     * @param userId El ID del usuario
+     * @return Los IDs de las actividades en las que el usuario era visor
+     */
+    public List<Long> releaseAll(long userId) {
+        List<Long> released = new ArrayList<>();
+        for (Long activityId : presences.keySet()) {
+            if (release(activityId, userId)) {
+                released.add(activityId);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Elimina las concesiones expiradas.
+     *
+     * @return Los IDs de los visores eliminados, por actividad
+     */
+    public Map<Long, long[]> expireLeases() {
+        long now = System.currentTimeMillis();
+        Map<Long, long[]> expired = new HashMap<>();
+        for (Long activityId : presences.keySet()) {
+            presences.computeIfPresent(activityId, (id, presence) -> {
+                long[] removed = presence.removeExpired(now);
+                if (removed.length > 0) {
+                    expired.put(id, removed);
+                }
+                return presence.isEmpty() ? null : presence;
+            });
+        }
+        return expired;
+    }
+
+    /**
+     * Obtiene los visores de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @return Los IDs de los visores, ordenados
+     */
+    public long[] viewers(long activityId) {
+        ActivityPresence presence = presences.get(activityId);
+        return presence != null ? presence.viewers() : new long[0];
+    }
+
+    /**
+     * Obtiene el número de actividades con presencia registrada.
+     *
+     * @return El número de actividades
+     */
+    public int size() {
+        return presences.size();
+    }
+}
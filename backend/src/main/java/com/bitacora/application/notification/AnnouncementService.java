@@ -2,9 +2,9 @@ package com.bitacora.application.notification;
 
 import com.bitacora.domain.model.notification.AnnouncementNotification;
 import com.bitacora.domain.model.notification.AnnouncementNotification.AnnouncementType;
-import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
 import com.bitacora.domain.port.notification.NotificationPort;
-import com.bitacora.domain.port.UserRepository;
+import com.bitacora.domain.port.UserDirectory;
 
 import org.springframework.stereotype.Service;
 
@@ -22,7 +22,7 @@ import java.util.Optional;
 public class AnnouncementService {
 
     private final NotificationPort notificationPort;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
 
     /**
      * Envía un anuncio global a todos los usuarios.
@@ -36,19 +36,19 @@ public class AnnouncementService {
         log.debug("Enviando anuncio global: {}", title);
 
         // Obtener el usuario que envía el anuncio
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
 
         // Crear notificación de anuncio
         AnnouncementNotification notification = AnnouncementNotification.builder()
                 .announcementType(AnnouncementType.GLOBAL)
-                .createdById(user.getId())
-                .createdByName(user.getPersonName().getFullName())
+                .createdById(user.id())
+                .createdByName(user.fullName())
                 .title(title)
                 .message(message)
                 .build();
@@ -72,20 +72,20 @@ public class AnnouncementService {
         log.debug("Enviando anuncio al departamento {}: {}", department, title);
 
         // Obtener el usuario que envía el anuncio
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
 
         // Crear notificación de anuncio
         AnnouncementNotification notification = AnnouncementNotification.builder()
                 .announcementType(AnnouncementType.DEPARTMENTAL)
                 .department(department)
-                .createdById(user.getId())
-                .createdByName(user.getPersonName().getFullName())
+                .createdById(user.id())
+                .createdByName(user.fullName())
                 .title(title)
                 .message(message)
                 .build();
@@ -112,13 +112,13 @@ public class AnnouncementService {
         log.debug("Enviando anuncio de evento: {}", title);
 
         // Obtener el usuario que envía el anuncio
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
 
         // Crear notificación de anuncio
         AnnouncementNotification notification = AnnouncementNotification.builder()
@@ -126,8 +126,8 @@ public class AnnouncementService {
                 .department(department)
                 .eventDate(eventDate)
                 .location(location)
-                .createdById(user.getId())
-                .createdByName(user.getPersonName().getFullName())
+                .createdById(user.id())
+                .createdByName(user.fullName())
                 .title(title)
                 .message(message)
                 .build();
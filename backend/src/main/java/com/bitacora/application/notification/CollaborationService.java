@@ -1,26 +1,34 @@
 package com.bitacora.application.notification;
 
+import com.bitacora.application.activity.ActivityCommentService;
 import com.bitacora.domain.model.activity.Activity;
 import com.bitacora.domain.model.notification.CollaborationNotification;
 import com.bitacora.domain.model.notification.CollaborationNotification.CollaborationAction;
-import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
 import com.bitacora.domain.port.notification.NotificationPort;
 import com.bitacora.domain.port.repository.ActivityRepository;
-import com.bitacora.domain.port.UserRepository;
+import com.bitacora.domain.port.UserDirectory;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para manejar la colaboración en tiempo real.
+ * La presencia de visores y la edición se mantienen mediante concesiones, que
+ * se renuevan mientras el usuario mantiene abierta una sesión WebSocket; las
+ * que no se renuevan expiran, y las de un usuario se liberan cuando sale de la
+ * actividad o cierra su última sesión WebSocket.
  */
 @Service
 @RequiredArgsConstructor
@@ -29,42 +37,59 @@ public class CollaborationService {
 
     private final NotificationPort notificationPort;
     private final ActivityRepository activityRepository;
-    private final UserRepository userRepository;
-
-    // Mapa para rastrear qué usuarios están viendo/editando cada actividad
-    private final ConcurrentMap<Long, Set<Long>> activityViewers = new ConcurrentHashMap<>();
-    private final ConcurrentMap<Long, Long> activityEditors = new ConcurrentHashMap<>();
+    private final UserDirectory userDirectory;
+    private final ActivityPresenceRegistry presenceRegistry;
+    private final ActivityEditLockManager editLockManager;
+    private final ActivityCommentService activityCommentService;
 
     /**
-     * Registra que un usuario está viendo una actividad.
+     * Registra que un usuario está viendo una actividad, o renueva su concesión
+     * si ya estaba registrado.
      *
      * @param activityId El ID de la actividad
      * @param userId     El ID del usuario
      * @return true si se registró correctamente, false en caso contrario
      */
     public boolean registerViewer(Long activityId, Long userId) {
+        return registerViewer(activityId, userId, newLoader());
+    }
+
+    /**
+     * Registra que un usuario está viendo una actividad, reutilizando las
+     * entidades ya cargadas en la unidad de trabajo.
+     *
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     * @param loader     El cargador de la unidad de trabajo
+     * @return true si se registró correctamente, false en caso contrario
+     */
+    private boolean registerViewer(Long activityId, Long userId, ActivityBatchLoader loader) {
+        // Renovar la concesión de un visor existente no requiere consultar la base de datos
+        if (presenceRegistry.renewViewer(activityId, userId)) {
+            return true;
+        }
+
         log.debug("Registrando usuario {} como visor de la actividad {}", userId, activityId);
 
         // Obtener la actividad
-        Optional<Activity> activityOpt = activityRepository.findById(activityId);
+        Optional<Activity> activityOpt = loader.get(activityId);
         if (activityOpt.isEmpty()) {
             log.warn("No se encontró la actividad con ID: {}", activityId);
             return false;
         }
 
         // Obtener el usuario
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
         Activity activity = activityOpt.get();
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
 
         // Registrar al usuario como visor
-        Set<Long> viewers = activityViewers.computeIfAbsent(activityId, k -> new ConcurrentSkipListSet<>());
-        boolean isNewViewer = viewers.add(userId);
+        boolean isNewViewer = presenceRegistry.touchViewer(activityId, userId);
 
         // Si es un nuevo visor, notificar a los demás usuarios
         if (isNewViewer) {
@@ -72,10 +97,10 @@ public class CollaborationService {
                     .activityId(activityId)
                     .activityTitle(activity.getDescription())
                     .userId(userId)
-                    .userName(user.getPersonName().getFullName())
+                    .userName(user.fullName())
                     .action(CollaborationAction.VIEWING)
                     .title("Usuario viendo actividad")
-                    .message(user.getPersonName().getFullName() + " está viendo la actividad")
+                    .message(user.fullName() + " está viendo la actividad")
                     .build();
 
             notificationPort.broadcastCollaborationNotification(notification, activityId);
@@ -85,63 +110,74 @@ public class CollaborationService {
     }
 
     /**
-     * Registra que un usuario está editando una actividad.
+     * Registra que un usuario está editando una actividad, o renueva su
+     * concesión de edición si ya la posee. La concesión se adquiere sin
+     * acceder a la base de datos; solo una concesión nueva consulta la
+     * actividad y el usuario para notificar a los demás.
      *
      * @param activityId El ID de la actividad
      * @param userId     El ID del usuario
-     * @return true si se registró correctamente, false en caso contrario
+     * @return La concesión de edición, o vacío si no se pudo registrar
      */
-    public boolean registerEditor(Long activityId, Long userId) {
+    public Optional<EditLease> registerEditor(Long activityId, Long userId) {
         log.debug("Registrando usuario {} como editor de la actividad {}", userId, activityId);
 
+        Optional<EditLease> previous = editLockManager.currentLease(activityId);
+        Optional<EditLease> lease = editLockManager.tryAcquire(activityId, userId);
+        if (lease.isEmpty()) {
+            log.warn("La actividad {} ya está siendo editada por el usuario {}", activityId, getEditor(activityId));
+            return Optional.empty();
+        }
+
+        // Una renovación conserva el token y no necesita notificarse
+        long token = lease.get().getToken();
+        if (previous.filter(current -> current.getToken() == token).isPresent()) {
+            registerViewer(activityId, userId);
+            return lease;
+        }
+
         // Obtener la actividad
-        Optional<Activity> activityOpt = activityRepository.findById(activityId);
+        ActivityBatchLoader loader = newLoader();
+        Optional<Activity> activityOpt = loader.get(activityId);
         if (activityOpt.isEmpty()) {
             log.warn("No se encontró la actividad con ID: {}", activityId);
-            return false;
+            editLockManager.release(activityId, userId);
+            return Optional.empty();
         }
 
         // Obtener el usuario
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
-            return false;
+            editLockManager.release(activityId, userId);
+            return Optional.empty();
         }
 
         Activity activity = activityOpt.get();
-        User user = userOpt.get();
-
-        // Verificar si ya hay un editor
-        Long currentEditor = activityEditors.get(activityId);
-        if (currentEditor != null && !currentEditor.equals(userId)) {
-            log.warn("La actividad {} ya está siendo editada por el usuario {}", activityId, currentEditor);
-            return false;
-        }
+        UserDirectoryEntry user = userOpt.get();
 
-        // Registrar al usuario como editor
-        activityEditors.put(activityId, userId);
-
-        // Registrar también como visor
-        registerViewer(activityId, userId);
+        // Registrar también como visor, sin volver a cargar la actividad ni el usuario
+        registerViewer(activityId, userId, loader);
 
         // Notificar a los demás usuarios
         CollaborationNotification notification = CollaborationNotification.builder()
                 .activityId(activityId)
                 .activityTitle(activity.getDescription())
                 .userId(userId)
-                .userName(user.getPersonName().getFullName())
+                .userName(user.fullName())
                 .action(CollaborationAction.EDITING)
                 .title("Usuario editando actividad")
-                .message(user.getPersonName().getFullName() + " está editando la actividad")
+                .message(user.fullName() + " está editando la actividad")
                 .build();
 
         notificationPort.broadcastCollaborationNotification(notification, activityId);
 
-        return true;
+        return lease;
     }
 
     /**
-     * Registra que un usuario ha comentado en una actividad.
+     * Registra que un usuario ha comentado en una actividad: guarda el
+     * comentario y avisa a los demás usuarios de la actividad.
      *
      * @param activityId El ID de la actividad
      * @param userId     El ID del usuario
@@ -159,24 +195,26 @@ public class CollaborationService {
         }
 
         // Obtener el usuario
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
         Activity activity = activityOpt.get();
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
+
+        activityCommentService.addComment(activityId, userId, comment);
 
         // Notificar a los demás usuarios
         CollaborationNotification notification = CollaborationNotification.builder()
                 .activityId(activityId)
                 .activityTitle(activity.getDescription())
                 .userId(userId)
-                .userName(user.getPersonName().getFullName())
+                .userName(user.fullName())
                 .action(CollaborationAction.COMMENTED)
                 .title("Nuevo comentario en actividad")
-                .message(user.getPersonName().getFullName() + " ha comentado: " + comment)
+                .message(user.fullName() + " ha comentado: " + comment)
                 .build();
 
         notificationPort.broadcastCollaborationNotification(notification, activityId);
@@ -202,48 +240,76 @@ public class CollaborationService {
         }
 
         // Obtener el usuario
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", userId);
             return false;
         }
 
-        Activity activity = activityOpt.get();
-        User user = userOpt.get();
+        // Eliminar al usuario como editor si lo es y como visor
+        editLockManager.release(activityId, userId);
+        boolean wasViewer = presenceRegistry.release(activityId, userId);
 
-        // Eliminar al usuario como editor si lo es
-        Long currentEditor = activityEditors.get(activityId);
-        if (currentEditor != null && currentEditor.equals(userId)) {
-            activityEditors.remove(activityId);
+        // Si estaba viendo la actividad, notificar a los demás usuarios
+        if (wasViewer) {
+            notifyLeft(activityOpt.get(), userOpt.get());
         }
 
-        // Eliminar al usuario como visor
-        Set<Long> viewers = activityViewers.get(activityId);
-        if (viewers != null) {
-            boolean wasViewer = viewers.remove(userId);
-
-            // Si estaba viendo la actividad, notificar a los demás usuarios
-            if (wasViewer) {
-                CollaborationNotification notification = CollaborationNotification.builder()
-                        .activityId(activityId)
-                        .activityTitle(activity.getDescription())
-                        .userId(userId)
-                        .userName(user.getPersonName().getFullName())
-                        .action(CollaborationAction.LEFT)
-                        .title("Usuario dejó de ver actividad")
-                        .message(user.getPersonName().getFullName() + " dejó de ver la actividad")
-                        .build();
-
-                notificationPort.broadcastCollaborationNotification(notification, activityId);
-            }
+        return true;
+    }
 
-            // Si no hay más visores, eliminar la entrada del mapa
-            if (viewers.isEmpty()) {
-                activityViewers.remove(activityId);
-            }
+    /**
+     * Libera la presencia de un usuario en todas las actividades. Se invoca
+     * cuando el usuario cierra su última sesión WebSocket.
+     *
+     * @param userId El ID del usuario
+     */
+    public void releaseUser(Long userId) {
+        editLockManager.releaseAll(userId);
+        List<Long> activityIds = presenceRegistry.releaseAll(userId);
+        if (activityIds.isEmpty()) {
+            return;
         }
 
-        return true;
+        log.debug("Liberada la presencia del usuario {} en {} actividades", userId, activityIds.size());
+        ActivityBatchLoader loader = newLoader().queue(activityIds);
+        activityIds.forEach(activityId -> notifyLeft(loader, activityId, userId));
+    }
+
+    /**
+     * Renueva las concesiones de visor y de edición de los usuarios con una
+     * sesión WebSocket abierta en este nodo, para que no expiren mientras
+     * siguen conectados.
+     *
+     * @param userIds Los IDs de los usuarios conectados
+     */
+    public void renewLeases(Set<Long> userIds) {
+        int renewedViewers = presenceRegistry.renewUsers(userIds);
+        int renewedEditors = editLockManager.renewUsers(userIds);
+        log.debug("Renovadas {} concesiones de presencia y {} de edición de {} usuarios conectados",
+                renewedViewers, renewedEditors, userIds.size());
+    }
+
+    /**
+     * Elimina periódicamente las concesiones que no se han renovado y notifica
+     * la salida de los visores correspondientes.
+     */
+    @Scheduled(fixedDelayString = "${collaboration.presence.sweep-interval:15000}")
+    public void expireLeases() {
+        editLockManager.expireLeases();
+        Map<Long, long[]> expired = presenceRegistry.expireLeases();
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        // Resolver todas las actividades expiradas con una sola consulta
+        ActivityBatchLoader loader = newLoader().queue(expired.keySet());
+        expired.forEach((activityId, userIds) -> {
+            for (long userId : userIds) {
+                notifyLeft(loader, activityId, userId);
+            }
+        });
+        log.debug("Expiradas las concesiones de presencia en {} actividades", expired.size());
     }
 
     /**
@@ -253,7 +319,9 @@ public class CollaborationService {
      * @return El conjunto de IDs de usuarios
      */
     public Set<Long> getViewers(Long activityId) {
-        return activityViewers.getOrDefault(activityId, new ConcurrentSkipListSet<>());
+        return Arrays.stream(presenceRegistry.viewers(activityId))
+                .boxed()
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     /**
@@ -263,6 +331,52 @@ public class CollaborationService {
      * @return El ID del usuario, o null si nadie está editando la actividad
      */
     public Long getEditor(Long activityId) {
-        return activityEditors.get(activityId);
+        return editLockManager.currentLease(activityId)
+                .map(EditLease::getUserId)
+                .orElse(null);
+    }
+
+    /**
+     * Crea el cargador por lotes de una unidad de trabajo.
+     *
+     * @return El cargador
+     */
+    private ActivityBatchLoader newLoader() {
+        return new ActivityBatchLoader(activityRepository);
+    }
+
+    /**
+     * Notifica que un usuario ha dejado de ver una actividad.
+     *
+     * @param loader     El cargador de la unidad de trabajo
+     * @param activityId El ID de la actividad
+     * @param userId     El ID del usuario
+     */
+    private void notifyLeft(ActivityBatchLoader loader, Long activityId, Long userId) {
+        Optional<Activity> activityOpt = loader.get(activityId);
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(userId);
+        if (activityOpt.isPresent() && userOpt.isPresent()) {
+            notifyLeft(activityOpt.get(), userOpt.get());
+        }
+    }
+
+    /**
+     * Notifica que un usuario ha dejado de ver una actividad.
+     *
+     * @param activity La actividad
+     * @param user     El usuario
+     */
+    private void notifyLeft(Activity activity, UserDirectoryEntry user) {
+        CollaborationNotification notification = CollaborationNotification.builder()
+                .activityId(activity.getId())
+                .activityTitle(activity.getDescription())
+                .userId(user.id())
+                .userName(user.fullName())
+                .action(CollaborationAction.LEFT)
+                .title("Usuario dejó de ver actividad")
+                .message(user.fullName() + " dejó de ver la actividad")
+                .build();
+
+        notificationPort.broadcastCollaborationNotification(notification, activity.getId());
     }
 }
@@ -3,10 +3,10 @@ package com.bitacora.application.notification;
 import com.bitacora.domain.model.activity.Activity;
 import com.bitacora.domain.model.notification.DeadlineReminderNotification;
 import com.bitacora.domain.model.notification.DeadlineReminderNotification.ReminderType;
-import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
 import com.bitacora.domain.port.notification.NotificationPort;
 import com.bitacora.domain.port.repository.ActivityRepository;
-import com.bitacora.domain.port.UserRepository;
+import com.bitacora.domain.port.UserDirectory;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -30,7 +30,7 @@ public class DeadlineReminderService {
 
     private final NotificationPort notificationPort;
     private final ActivityRepository activityRepository;
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
 
     /**
      * Envía recordatorios de actividades que vencen en 24 horas.
@@ -109,13 +109,13 @@ public class DeadlineReminderService {
         }
 
         // Obtener el usuario asignado
-        Optional<User> userOpt = userRepository.findById(activity.getUserId());
+        Optional<UserDirectoryEntry> userOpt = userDirectory.findById(activity.getUserId());
         if (userOpt.isEmpty()) {
             log.warn("No se encontró el usuario con ID: {}", activity.getUserId());
             return;
         }
 
-        User user = userOpt.get();
+        UserDirectoryEntry user = userOpt.get();
 
         // Crear notificación de recordatorio
         DeadlineReminderNotification notification = DeadlineReminderNotification.builder()
@@ -129,7 +129,7 @@ public class DeadlineReminderService {
                 .build();
 
         // Enviar notificación
-        notificationPort.sendDeadlineReminderNotification(user.getUsername(), notification);
+        notificationPort.sendDeadlineReminderNotification(user.username(), notification);
     }
 
     /**
@@ -0,0 +1,171 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.event.user.UserUpdatedEvent;
+import com.bitacora.domain.port.UserDirectory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los usuarios conectados a este nodo agrupados por
+ * departamento. Se alimenta de las conexiones STOMP y SSE: la primera conexión
+ * de un usuario consulta su departamento en el directorio de usuarios en
+ * memoria y la última lo quita del índice. Los cambios de departamento se
+ * aplican al confirmarse el guardado del usuario, sin esperar a que se
+ * reconecte. Los nombres de departamento se comparan sin distinguir
+ * mayúsculas ni espacios en los extremos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DepartmentPresenceIndex {
+
+    private final UserDirectory userDirectory;
+
+    /**
+     * Conexiones abiertas y departamento de cada usuario conectado.
+     */
+    private final ConcurrentHashMap<String, Presence> presences = new ConcurrentHashMap<>();
+
+    /**
+     * Usuarios conectados de cada departamento.
+     */
+    private final ConcurrentHashMap<String, Set<String>> usersByDepartment = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una conexión de un usuario. En su primera conexión se consulta
+     * su departamento.
+     *
+     * @param username El nombre de usuario
+     */
+    public void connect(String username) {
+        boolean[] first = new boolean[1];
+        presences.compute(username, (user, presence) -> {
+            Presence current = presence != null ? presence : new Presence();
+            first[0] = current.connections++ == 0;
+            return current;
+        });
+
+        if (!first[0]) {
+            return;
+        }
+        // Fuera del compute: si el usuario se desconecta durante la consulta, la asignación no tiene efecto
+        try {
+            userDirectory.findByUsername(username)
+                    .ifPresent(entry -> assign(username, entry.department()));
+        } catch (RuntimeException e) {
+            // La conexión sigue registrada; el departamento se asignará al guardar el usuario
+            log.warn("No se pudo obtener el departamento de {}: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina una conexión de un usuario y, si era la última, lo quita del índice.
+     *
+     * @param username El nombre de usuario
+     */
+    public void disconnect(String username) {
+        presences.computeIfPresent(username, (user, presence) -> {
+            if (--presence.connections > 0) {
+                return presence;
+            }
+            removeFromDepartment(presence.department, user);
+            return null;
+        });
+    }
+
+    /**
+     * Actualiza el departamento de un usuario conectado cuando se confirma su
+     * guardado. Si la transacción se revierte, el índice no cambia.
+     *
+     * @param event El evento de usuario guardado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        assign(event.getUsername(), event.getDepartment());
+    }
+
+    /**
+     * Obtiene los usuarios de un departamento conectados a este nodo.
+     *
+     * @param department El departamento
+     * @return Una copia de los nombres de usuario
+     */
+    public Set<String> getConnectedUsers(String department) {
+        String key = normalize(department);
+        Set<String> users = key != null ? usersByDepartment.get(key) : null;
+        return users != null ? Set.copyOf(users) : Set.of();
+    }
+
+    /**
+     * Asigna un departamento a un usuario conectado. No tiene efecto si el
+     * usuario no está conectado.
+     *
+     * @param username   El nombre de usuario
+     * @param department El departamento, o null si no tiene
+     */
+    private void assign(String username, String department) {
+        String key = normalize(department);
+        presences.computeIfPresent(username, (user, presence) -> {
+            if (!Objects.equals(presence.department, key)) {
+                log.debug("Usuario {} conectado pasa del departamento {} a {}", user, presence.department, key);
+                removeFromDepartment(presence.department, user);
+                addToDepartment(key, user);
+                presence.department = key;
+            }
+            return presence;
+        });
+    }
+
+    private void addToDepartment(String department, String username) {
+        if (department == null) {
+            return;
+        }
+        usersByDepartment.compute(department, (key, users) -> {
+            Set<String> current = users != null ? users : ConcurrentHashMap.newKeySet();
+            current.add(username);
+            return current;
+        });
+    }
+
+    private void removeFromDepartment(String department, String username) {
+        if (department == null) {
+            return;
+        }
+        usersByDepartment.computeIfPresent(department, (key, users) -> {
+            users.remove(username);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    /**
+     * Normaliza el nombre de un departamento para usarlo como clave.
+     *
+     * @param department El departamento
+     * @return La clave, o null si el departamento está vacío
+     */
+    static String normalize(String department) {
+        if (department == null || department.isBlank()) {
+            return null;
+        }
+        return department.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Estado de un usuario conectado. Solo se modifica dentro de las
+     * operaciones atómicas del mapa de presencias.
+     */
+    private static final class Presence {
+        private int connections;
+        private String department;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bitacora.application.notification;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Concesión de edición de una actividad. El token de fencing crece con cada
+ * concesión nueva, de modo que un cliente cuya concesión ha expirado no puede
+ * guardar cambios aunque otro usuario la haya adquirido y liberado después.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EditLease {
+
+    /**
+     * ID del usuario que edita la actividad.
+     */
+    private final long userId;
+
+    /**
+     * Token de fencing de la concesión.
+     */
+    private final long token;
+
+    /**
+     * Instante de expiración en milisegundos.
+     */
+    private final long expiresAt;
+
+    /**
+     * Indica si la concesión sigue vigente.
+     *
+     * @param now El instante actual en milisegundos
+     * @return true si no ha expirado
+     */
+    public boolean isActive(long now) {
+        return expiresAt > now;
+    }
+
+    /**
+     * Crea una copia de la concesión con una nueva expiración y el mismo token.
+     *
+     * @param newExpiresAt La nueva expiración en milisegundos
+     * @return La concesión renovada
+     */
+    public EditLease renew(long newExpiresAt) {
+        return new EditLease(userId, token, newExpiresAt);
+    }
+}
@@ -0,0 +1,189 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.domain.port.notification.NotificationInboxPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de la bandeja persistente de notificaciones privadas.
+ * Cada notificación privada se guarda con un número de secuencia antes de
+ * enviarse. Al reconectarse, el cliente indica la última secuencia recibida y
+ * se le reenvía solo lo que se perdió. Para los usuarios conectados se
+ * mantiene un buffer circular con las últimas notificaciones, de modo que el
+ * reenvío no consulta la base de datos salvo para comprobar la última secuencia.
+ */
+@Service
+@Slf4j
+public class NotificationInboxService {
+
+    private final NotificationInboxPort inboxPort;
+    private final Cache<String, NotificationRingBuffer> buffers;
+    private final int bufferSize;
+    private final int maxReplay;
+    private final int maxPageSize;
+    private final int retentionDays;
+
+    /**
+     * Constructor del servicio.
+     *
+     * @param inboxPort      El puerto de la bandeja
+     * @param bufferSize     El número de notificaciones recientes guardadas en memoria por usuario
+     * @param maxUsers       El número máximo de usuarios con buffer en memoria
+     * @param bufferIdle     Los segundos sin reconexiones tras los que se descarta un buffer
+     * @param maxReplay      El número máximo de notificaciones reenviadas en una reconexión
+     * @param maxPageSize    El tamaño máximo de una página de la bandeja
+     * @param retentionDays  Los días que se conservan las notificaciones
+     */
+    public NotificationInboxService(
+            NotificationInboxPort inboxPort,
+            @Value("${notifications.inbox.buffer-size:200}") int bufferSize,
+            @Value("${notifications.inbox.max-buffered-users:10000}") long maxUsers,
+            @Value("${notifications.inbox.buffer-idle:900}") long bufferIdle,
+            @Value("${notifications.inbox.max-replay:500}") int maxReplay,
+            @Value("${notifications.inbox.max-page-size:100}") int maxPageSize,
+            @Value("${notifications.inbox.retention-days:30}") int retentionDays) {
+        this.inboxPort = inboxPort;
+        this.bufferSize = bufferSize;
+        this.maxReplay = maxReplay;
+        this.maxPageSize = maxPageSize;
+        this.retentionDays = retentionDays;
+        this.buffers = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofSeconds(bufferIdle))
+                .build();
+    }
+
+    /**
+     * Guarda una notificación en la bandeja de un usuario y la añade a su
+     * buffer si el usuario está conectado.
+     *
+     * @param username     El nombre de usuario del destinatario
+     * @param notification La notificación
+     * @return La notificación con su número de secuencia
+     */
+    public RealTimeNotification record(String username, RealTimeNotification notification) {
+        RealTimeNotification recorded = inboxPort.append(username, notification);
+
+        // Sin contar como acceso: solo las reconexiones mantienen vivo el buffer
+        NotificationRingBuffer buffer = buffers.policy().getIfPresentQuietly(username);
+        if (buffer != null) {
+            buffer.add(recorded);
+        }
+        return recorded;
+    }
+
+    /**
+     * Guarda una misma notificación en la bandeja de varios usuarios. La
+     * notificación es compartida y no lleva la secuencia de cada destinatario,
+     * así que no se añade a sus buffers: se descartan, y la siguiente
+     * reconexión de cada uno se resuelve desde la base de datos.
+     *
+     * @param usernames    Los nombres de usuario de los destinatarios
+     * @param notification La notificación
+     * @return La secuencia asignada a cada usuario
+     */
+    public Map<String, Long> recordAll(Collection<String> usernames, RealTimeNotification notification) {
+        Map<String, Long> sequences = inboxPort.appendAll(usernames, notification);
+        buffers.invalidateAll(sequences.keySet());
+        return sequences;
+    }
+
+    /**
+     * Obtiene las notificaciones que un cliente no recibió desde una secuencia.
+     * Si el hueco supera el máximo de reenvío, se devuelven las más antiguas y
+     * el cliente debe volver a solicitar desde la última recibida.
+     *
+     * @param username     El nombre de usuario
+     * @param lastSequence La última secuencia recibida por el cliente
+     * @return Las notificaciones en orden ascendente
+     */
+    public List<RealTimeNotification> replay(String username, long lastSequence) {
+        NotificationRingBuffer buffer = buffers.get(username,
+                user -> new NotificationRingBuffer(bufferSize, inboxPort.getLastSequence(user)));
+
+        long headSequence = inboxPort.getLastSequence(username);
+        if (headSequence <= lastSequence) {
+            return List.of();
+        }
+
+        if (headSequence - lastSequence <= maxReplay) {
+            List<RealTimeNotification> buffered = buffer.since(lastSequence, headSequence).orElse(null);
+            if (buffered != null) {
+                return buffered;
+            }
+        }
+
+        log.debug("Reenviando a {} desde la base de datos las notificaciones posteriores a {}",
+                username, lastSequence);
+        return inboxPort.findAfter(username, lastSequence, maxReplay);
+    }
+
+    /**
+     * Obtiene la secuencia de la última notificación de la bandeja de un usuario.
+     *
+     * @param username El nombre de usuario
+     * @return La última secuencia, o 0 si la bandeja está vacía
+     */
+    public long getLastSequence(String username) {
+        return inboxPort.getLastSequence(username);
+    }
+
+    /**
+     * Obtiene una página de la bandeja, de la más reciente a la más antigua.
+     *
+     * @param username       El nombre de usuario
+     * @param beforeSequence La secuencia a partir de la que continuar, o null para la primera página
+     * @param limit          El tamaño de la página
+     * @return Las notificaciones
+     */
+    public List<RealTimeNotification> getPage(String username, Long beforeSequence, int limit) {
+        return inboxPort.findBefore(username, beforeSequence, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * Obtiene el número de notificaciones no leídas.
+     *
+     * @param username El nombre de usuario
+     * @return El número de notificaciones no leídas
+     */
+    public long getUnreadCount(String username) {
+        return inboxPort.countUnread(username);
+    }
+
+    /**
+     * Marca como leídas las notificaciones hasta una secuencia.
+     *
+     * @param username El nombre de usuario
+     * @param sequence La secuencia hasta la que marcar
+     * @return El número de notificaciones no leídas restantes
+     */
+    public long markReadUpTo(String username, long sequence) {
+        return inboxPort.markReadUpTo(username, sequence);
+    }
+
+    /**
+     * Elimina diariamente las notificaciones que superan el periodo de retención.
+     */
+    @Scheduled(cron = "${notifications.inbox.purge-cron:0 45 3 * * *}")
+    public void purgeOldNotifications() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        int deleted = inboxPort.deleteCreatedBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Eliminadas {} notificaciones de la bandeja anteriores a {}", deleted, cutoff);
+        }
+    }
+}
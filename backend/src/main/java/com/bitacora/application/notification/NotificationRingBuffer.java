@@ -0,0 +1,116 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Buffer circular con las últimas notificaciones de la bandeja de un usuario,
+ * ordenadas por secuencia. Permite responder a la reconexión de un cliente sin
+ * consultar la base de datos mientras el hueco a reenviar siga en el buffer.
+ */
+final class NotificationRingBuffer {
+
+    private final RealTimeNotification[] entries;
+    private int head;
+    private int size;
+
+    /**
+     * Secuencia hasta la que el buffer no garantiza tener las notificaciones:
+     * la última que ya existía al crearlo o la última descartada por capacidad.
+     */
+    private long floor;
+
+    /**
+     * Constructor del buffer.
+     *
+     * @param capacity     El número máximo de notificaciones
+     * @param lastSequence La última secuencia del usuario al crear el buffer
+     */
+    NotificationRingBuffer(int capacity, long lastSequence) {
+        this.entries = new RealTimeNotification[Math.max(1, capacity)];
+        this.floor = lastSequence;
+    }
+
+    /**
+     * Añade una notificación. Las notificaciones pueden llegar ligeramente
+     * desordenadas si se registran en paralelo, por lo que se insertan en su
+     * posición; las duplicadas o anteriores al suelo del buffer se ignoran.
+     *
+     * @param notification La notificación, con su secuencia
+     */
+    synchronized void add(RealTimeNotification notification) {
+        long sequence = notification.getSequence();
+        if (sequence <= floor || indexOf(sequence) >= 0) {
+            return;
+        }
+
+        if (size == entries.length) {
+            floor = get(0).getSequence();
+            entries[head] = null;
+            head = (head + 1) % entries.length;
+            size--;
+            if (sequence <= floor) {
+                return;
+            }
+        }
+
+        int position = size;
+        while (position > 0 && get(position - 1).getSequence() > sequence) {
+            set(position, get(position - 1));
+            position--;
+        }
+        set(position, notification);
+        size++;
+    }
+
+    /**
+     * Obtiene las notificaciones posteriores a una secuencia, si el buffer las
+     * contiene todas hasta la última secuencia del usuario.
+     *
+     * @param lastSequence La última secuencia conocida por el cliente
+     * @param headSequence La última secuencia asignada al usuario
+     * @return Las notificaciones en orden ascendente, o vacío si el buffer no cubre el hueco
+     */
+    synchronized Optional<List<RealTimeNotification>> since(long lastSequence, long headSequence) {
+        if (lastSequence < floor) {
+            return Optional.empty();
+        }
+
+        List<RealTimeNotification> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            RealTimeNotification notification = get(i);
+            if (notification.getSequence() > lastSequence && notification.getSequence() <= headSequence) {
+                result.add(notification);
+            }
+        }
+
+        // Las secuencias de un usuario no tienen huecos: si falta alguna, el buffer no está al día
+        return result.size() == headSequence - lastSequence ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Busca la posición de una secuencia.
+     *
+     * @param sequence La secuencia
+     * @return La posición lógica, o -1 si no está en el buffer
+     */
+    private int indexOf(long sequence) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (get(i).getSequence() == sequence) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private RealTimeNotification get(int index) {
+        return entries[(head + index) % entries.length];
+    }
+
+    private void set(int index, RealTimeNotification notification) {
+        entries[(head + index) % entries.length] = notification;
+    }
+}
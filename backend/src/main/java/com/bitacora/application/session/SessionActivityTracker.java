@@ -0,0 +1,198 @@
+package com.bitacora.application.session;
+
+import com.bitacora.domain.port.session.UserSessionPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer de escritura diferida para la última actividad de las sesiones.
+ * Acumula en memoria el último instante de actividad de cada sesión y lo
+ * persiste periódicamente en una única actualización por lotes, de modo que
+ * registrar actividad en cada solicitud no implique una lectura y una escritura
+ * en la base de datos.
+ */
+@Component
+@Slf4j
+public class SessionActivityTracker {
+
+    private static final long UNKNOWN_SESSION = -1L;
+
+    private final UserSessionPort sessionPort;
+
+    /**
+     * Particiones del buffer. Cada sesión cae siempre en la misma partición, lo
+     * que reparte la contención entre hilos sin necesidad de bloqueos explícitos.
+     */
+    private final List<ConcurrentHashMap<Long, Long>> stripes;
+
+    /**
+     * Resolución token → ID de sesión, para no consultar la base de datos en cada
+     * solicitud del mismo token.
+     */
+    private final Cache<String, Long> sessionIdsByToken;
+
+    /**
+     * Constructor del buffer.
+     *
+     * @param sessionPort  El puerto de sesiones
+     * @param stripeCount  El número de particiones del buffer
+     * @param maxTokens    El número máximo de tokens cuya sesión se recuerda
+     */
+    public SessionActivityTracker(
+            UserSessionPort sessionPort,
+            @Value("${session.activity.stripes:16}") int stripeCount,
+            @Value("${session.activity.max-tokens:10000}") long maxTokens) {
+        this.sessionPort = sessionPort;
+        int count = Math.max(1, stripeCount);
+        this.stripes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            this.stripes.add(new ConcurrentHashMap<>());
+        }
+        this.sessionIdsByToken = Caffeine.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    /**
+     * Asocia un token a su sesión, para que las solicitudes posteriores con ese
+     * token no necesiten buscar la sesión.
+     *
+     * @param token     El token JWT
+     * @param sessionId El ID de la sesión
+     */
+    public void registerToken(String token, Long sessionId) {
+        if (token != null && sessionId != null) {
+            sessionIdsByToken.put(token, sessionId);
+        }
+    }
+
+    /**
+     * Olvida la asociación de un token con su sesión.
+     *
+     * @param token El token JWT
+     */
+    public void forgetToken(String token) {
+        if (token != null) {
+            sessionIdsByToken.invalidate(token);
+        }
+    }
+
+    /**
+     * Registra actividad para la sesión asociada a un token.
+     * La primera vez que se ve un token se resuelve su sesión; las siguientes
+     * veces solo se actualiza el buffer en memoria.
+     *
+     * @param token El token JWT
+     */
+    public void touch(String token) {
+        if (token == null) {
+            return;
+        }
+        Long sessionId = sessionIdsByToken.get(token, key -> sessionPort.findByToken(key)
+                .map(session -> session.getId())
+                .orElse(UNKNOWN_SESSION));
+        if (sessionId != null && sessionId != UNKNOWN_SESSION) {
+            record(sessionId);
+        }
+    }
+
+    /**
+     * Registra actividad para una sesión en el instante actual.
+     *
+     * @param sessionId El ID de la sesión
+     */
+    public void record(Long sessionId) {
+        record(sessionId, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra actividad para una sesión en un instante dado. Si ya había una
+     * actividad pendiente más reciente, se conserva esa.
+     *
+     * @param sessionId El ID de la sesión
+     * @param epochMillis El instante de la actividad en milisegundos
+     */
+    public void record(Long sessionId, long epochMillis) {
+        if (sessionId == null) {
+            return;
+        }
+        stripeFor(sessionId).merge(sessionId, epochMillis, Math::max);
+    }
+
+    /**
+     * Devuelve la última actividad pendiente de persistir para una sesión.
+     *
+     * @param sessionId El ID de la sesión
+     * @return La fecha de la última actividad pendiente, si existe
+     */
+    public Optional<Date> getPendingActivity(Long sessionId) {
+        Long pending = stripeFor(sessionId).get(sessionId);
+        return Optional.ofNullable(pending).map(Date::new);
+    }
+
+    /**
+     * Persiste las actividades acumuladas con una única actualización por lotes.
+     * Las entradas solo se eliminan del buffer si no cambiaron durante la
+     * escritura, de modo que una actividad concurrente nunca se pierde.
+     */
+    @Scheduled(fixedDelayString = "${session.activity.flush-interval:5000}")
+    public void flush() {
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (ConcurrentHashMap<Long, Long> stripe : stripes) {
+            snapshot.putAll(stripe);
+        }
+
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Date> lastActivityBySession = new HashMap<>(snapshot.size());
+        snapshot.forEach((sessionId, epochMillis) -> lastActivityBySession.put(sessionId, new Date(epochMillis)));
+
+        try {
+            int updated = sessionPort.updateLastActivityTimes(lastActivityBySession);
+            snapshot.forEach((sessionId, epochMillis) -> stripeFor(sessionId).remove(sessionId, epochMillis));
+            log.debug("Persistida la última actividad de {} sesiones ({} filas actualizadas)",
+                    snapshot.size(), updated);
+        } catch (RuntimeException e) {
+            log.error("Error al persistir la última actividad de las sesiones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persiste las actividades pendientes antes de detener la aplicación.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Obtiene la partición del buffer correspondiente a una sesión.
+     *
+     * @param sessionId El ID de la sesión
+     * @return La partición del buffer
+     */
+    private ConcurrentHashMap<Long, Long> stripeFor(Long sessionId) {
+        int hash = Long.hashCode(sessionId);
+        hash ^= (hash >>> 16);
+        return stripes.get(Math.floorMod(hash, stripes.size()));
+    }
+}
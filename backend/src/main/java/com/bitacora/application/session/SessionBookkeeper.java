@@ -0,0 +1,185 @@
+package com.bitacora.application.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta fuera de la solicitud las tareas de registro de sesiones (persistir
+ * la sesión y difundir su evento), para que el inicio de sesión responda sin
+ * esperarlas.
+ * Garantiza que cada tarea termine: si el pool está saturado la tarea se
+ * ejecuta en el hilo que la envía, los fallos se reintentan y al detener la
+ * aplicación se espera a las tareas pendientes. Solo se reintenta la tarea
+ * principal, que debe ser idempotente; los efectos posteriores (registrar el
+ * token, difundir el evento) se ejecutan una única vez tras su éxito. Mientras una tarea está en
+ * curso, las operaciones que dependen de ella pueden esperar su resultado
+ * mediante las claves con las que se registró (los tokens de la sesión).
+ */
+@Component
+@Slf4j
+public class SessionBookkeeper {
+
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long awaitTimeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<?>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor del ejecutor.
+     *
+     * @param threads            El número de hilos del pool
+     * @param queueCapacity      El número máximo de tareas en espera
+     * @param maxAttempts        El número máximo de intentos de cada tarea
+     * @param awaitTimeoutMillis El tiempo máximo de espera de una tarea pendiente
+     */
+    public SessionBookkeeper(
+            @Value("${session.bookkeeping.threads:2}") int threads,
+            @Value("${session.bookkeeping.queue-capacity:1000}") int queueCapacity,
+            @Value("${session.bookkeeping.max-attempts:3}") int maxAttempts,
+            @Value("${session.bookkeeping.await-timeout:5000}") long awaitTimeoutMillis) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> new Thread(runnable, "session-bookkeeping-" + threadCounter.incrementAndGet()),
+                // Si el pool está saturado o detenido, la tarea se ejecuta en el hilo que la envía
+                (runnable, pool) -> runnable.run());
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+
+    /**
+     * Envía una tarea para ejecutarla fuera de la solicitud.
+     *
+     * @param keys Las claves con las que otras operaciones pueden esperar la tarea
+     * @param task La tarea
+     * @param <T>  El tipo del resultado
+     * @return El resultado futuro de la tarea
+     */
+    public <T> CompletableFuture<T> submit(Collection<String> keys, Supplier<T> task) {
+        return submit(keys, task, result -> { });
+    }
+
+    /**
+     * Envía una tarea para ejecutarla fuera de la solicitud, seguida de una
+     * acción que se ejecuta una sola vez cuando la tarea termina con éxito.
+     * Los reintentos solo afectan a la tarea; un fallo de la acción posterior
+     * se registra pero no invalida el resultado.
+     *
+     * @param keys         Las claves con las que otras operaciones pueden esperar la tarea
+     * @param task         La tarea, que debe poder repetirse sin efectos duplicados
+     * @param afterSuccess La acción posterior, que recibe el resultado de la tarea
+     * @param <T>          El tipo del resultado
+     * @return El resultado futuro de la tarea
+     */
+    public <T> CompletableFuture<T> submit(Collection<String> keys, Supplier<T> task, Consumer<T> afterSuccess) {
+        List<String> registeredKeys = keys.stream().filter(Objects::nonNull).toList();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        registeredKeys.forEach(key -> pending.put(key, future));
+
+        executor.execute(() -> {
+            try {
+                T result = runWithRetries(task);
+                try {
+                    afterSuccess.accept(result);
+                } catch (RuntimeException e) {
+                    log.warn("Error tras el registro diferido de la sesión: {}", e.getMessage(), e);
+                }
+                future.complete(result);
+            } catch (RuntimeException e) {
+                log.error("Error en el registro diferido de la sesión: {}", e.getMessage(), e);
+                future.completeExceptionally(e);
+            } finally {
+                registeredKeys.forEach(key -> pending.remove(key, future));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Espera a que termine la tarea registrada con una clave, si hay alguna en curso.
+     *
+     * @param key La clave
+     */
+    public void awaitPending(String key) {
+        if (key == null) {
+            return;
+        }
+        CompletableFuture<?> future = pending.get(key);
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("No se pudo esperar al registro diferido de la sesión: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta una tarea, reintentándola si falla.
+     *
+     * @param task La tarea
+     * @param <T>  El tipo del resultado
+     * @return El resultado de la tarea
+     */
+    private <T> T runWithRetries(Supplier<T> task) {
+        RuntimeException lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return task.get();
+            } catch (RuntimeException e) {
+                lastError = e;
+                log.warn("Intento {} de {} del registro diferido de la sesión fallido: {}",
+                        attempt, maxAttempts, e.getMessage());
+                if (attempt < maxAttempts) {
+                    try {
+                        Thread.sleep(100L * attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Espera a que terminen las tareas pendientes antes de detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Quedaron {} registros de sesión sin completar al detener la aplicación",
+                        executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
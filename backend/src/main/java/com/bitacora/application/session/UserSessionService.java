@@ -4,11 +4,12 @@ import com.bitacora.domain.model.notification.SessionActivityEvent;
 import com.bitacora.domain.model.notification.SessionActivityEvent.SessionAction;
 import com.bitacora.domain.model.session.UserSession;
 import com.bitacora.domain.model.session.UserSession.SessionStatus;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
+import com.bitacora.domain.port.UserDirectory;
 import com.bitacora.domain.port.notification.NotificationPort;
 import com.bitacora.domain.port.session.UserSessionPort;
-import com.bitacora.infrastructure.security.JwtTokenProvider;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,13 +18,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servicio para gestionar sesiones de usuario.
  * Implementa los casos de uso relacionados con sesiones.
+ * Cada renovación rota los tokens de la sesión y conserva el resumen del
+ * token de refresco sustituido. Presentar de nuevo ese token pasado el margen
+ * de renovaciones concurrentes ({@code jwt.refresh-reuse-grace}) indica que
+ * pudo robarse; dentro del margen se trata como una renovación simultánea de
+ * otra pestaña y solo se rechaza.
  */
 @Service
 @RequiredArgsConstructor
@@ -31,20 +39,52 @@ import java.util.Optional;
 public class UserSessionService {
 
     private final UserSessionPort sessionPort;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final SessionBookkeeper bookkeeper;
     private final NotificationPort notificationPort;
+    private final SessionActivityTracker activityTracker;
+    private final UserDirectory userDirectory;
+
+    @Value("${jwt.refresh-reuse-grace:30000}")
+    private long refreshReuseGraceMillis;
 
     /**
-     * Crea una nueva sesión para un usuario.
+     * Registra una nueva sesión para un usuario sin bloquear la solicitud.
+     * Los datos de la solicitud HTTP se leen en el hilo actual; la sesión se
+     * persiste y su evento se difunde en segundo plano. Las operaciones
+     * posteriores que buscan la sesión por sus tokens esperan a que termine.
      *
      * @param userId       El ID del usuario
+     * @param username     El nombre de usuario
      * @param token        El token JWT
-     * @param refreshToken El token de refresco
-     * @param request      La solicitud HTTP
-     * @return La sesión creada
+     * @param expiryTime   La fecha de expiración del token
+     * @param refreshToken      El token de refresco
+     * @param refreshExpiryTime La fecha de expiración del token de refresco
+     * @param request           La solicitud HTTP
+     * @return La sesión creada, cuando termine de registrarse
      */
-    @Transactional
-    public UserSession createSession(Long userId, String token, String refreshToken, HttpServletRequest request) {
+    public CompletableFuture<UserSession> recordSession(Long userId, String username, String token,
+            Date expiryTime, String refreshToken, Date refreshExpiryTime, HttpServletRequest request) {
+        UserSession session = buildSession(userId, username, token, expiryTime, refreshToken, refreshExpiryTime,
+                request);
+        return bookkeeper.submit(Arrays.asList(token, refreshToken),
+                () -> persistNewSession(session, token),
+                savedSession -> announceNewSession(savedSession, token));
+    }
+
+    /**
+     * Construye una nueva sesión a partir de los datos de la solicitud.
+     *
+     * @param userId       El ID del usuario
+     * @param username     El nombre de usuario
+     * @param token        El token JWT
+     * @param expiryTime   La fecha de expiración del token
+     * @param refreshToken      El token de refresco
+     * @param refreshExpiryTime La fecha de expiración del token de refresco
+     * @param request           La solicitud HTTP
+     * @return La sesión sin persistir
+     */
+    private UserSession buildSession(Long userId, String username, String token, Date expiryTime,
+            String refreshToken, Date refreshExpiryTime, HttpServletRequest request) {
         String ipAddress = getClientIp(request);
         String userAgent = request.getHeader("User-Agent");
 
@@ -54,11 +94,9 @@ public class UserSessionService {
         // Obtener la ubicación a partir de la IP (simplificado)
         String location = "Desconocida"; // En una implementación real, usarías un servicio de geolocalización
 
-        // Calcular la fecha de expiración a partir del token
-        Date expiryTime = jwtTokenProvider.getExpirationDateFromToken(token);
-
-        UserSession session = UserSession.builder()
+        return UserSession.builder()
                 .userId(userId)
+                .username(username)
                 .token(token)
                 .refreshToken(refreshToken)
                 .ipAddress(ipAddress)
@@ -68,28 +106,100 @@ public class UserSessionService {
                 .loginTime(Date.from(Instant.now()))
                 .lastActivityTime(Date.from(Instant.now()))
                 .expiryTime(expiryTime)
+                .refreshExpiryTime(refreshExpiryTime)
                 .status(SessionStatus.ACTIVE)
                 .build();
+    }
 
-        UserSession savedSession = sessionPort.saveSession(session);
+    /**
+     * Persiste una sesión nueva. Es idempotente para que el registro diferido
+     * pueda reintentarla: si un intento anterior llegó a guardar la sesión
+     * (por ejemplo, falló después del commit), se devuelve la ya guardada en
+     * lugar de insertarla de nuevo.
+     *
+     * @param session La sesión
+     * @param token   El token JWT de la sesión
+     * @return La sesión guardada
+     */
+    private UserSession persistNewSession(UserSession session, String token) {
+        return sessionPort.findByToken(token)
+                .orElseGet(() -> sessionPort.saveSession(session));
+    }
+
+    /**
+     * Registra el token de una sesión recién guardada y difunde su evento de
+     * inicio de sesión. Se ejecuta una sola vez, tras persistir la sesión.
+     *
+     * @param savedSession La sesión guardada
+     * @param token        El token JWT de la sesión
+     */
+    private void announceNewSession(UserSession savedSession, String token) {
+        activityTracker.registerToken(token, savedSession.getId());
 
         // Enviar evento de actividad de sesión
         notifySessionActivity(savedSession, SessionAction.LOGIN);
+    }
+
+    /**
+     * Rota los tokens de la sesión asociada a un token de refresco.
+     * La sesión se actualiza en el mismo registro en lugar de crear uno nuevo.
+     * La sesión sigue activa aunque su token de acceso haya vencido, hasta que
+     * vence el token de refresco.
+     *
+     * @param refreshToken           El token de refresco actual
+     * @param newToken               El nuevo token JWT
+     * @param newExpiryTime          La fecha de expiración del nuevo token JWT
+     * @param newRefreshToken        El nuevo token de refresco
+     * @param newRefreshExpiryTime   La fecha de expiración del nuevo token de refresco
+     * @return La sesión actualizada, o un Optional vacío si el token no
+     *         corresponde a ninguna sesión activa (ya se rotó o la sesión se cerró)
+     */
+    @Transactional
+    public Optional<UserSession> rotateSession(String refreshToken, String newToken, Date newExpiryTime,
+            String newRefreshToken, Date newRefreshExpiryTime) {
+        bookkeeper.awaitPending(refreshToken);
+        return sessionPort.findByRefreshToken(refreshToken)
+                .filter(session -> session.getStatus() == SessionStatus.ACTIVE)
+                .map(session -> {
+                    session.rotateTokens(newToken, newRefreshToken, newExpiryTime, newRefreshExpiryTime);
+                    UserSession savedSession = sessionPort.saveSession(session);
+                    activityTracker.registerToken(newToken, savedSession.getId());
+                    return savedSession;
+                });
+    }
 
-        return savedSession;
+    /**
+     * Busca la sesión activa en la que un token de refresco ya se rotó fuera
+     * del margen de renovaciones concurrentes. Si existe, el token se está
+     * reutilizando, posiblemente por quien lo robó. Un token rotado dentro del
+     * margen (por ejemplo, dos pestañas que renuevan a la vez) o que no
+     * corresponde a ningún token rotado no se considera reutilizado.
+     *
+     * @param refreshToken El token de refresco presentado
+     * @return La sesión afectada, o un Optional vacío si no hay reutilización
+     */
+    public Optional<UserSession> findReusedRefreshTokenSession(String refreshToken) {
+        Date graceLimit = Date.from(Instant.now().minusMillis(refreshReuseGraceMillis));
+        return sessionPort.findByPreviousRefreshToken(refreshToken)
+                .filter(session -> session.getStatus() == SessionStatus.ACTIVE)
+                .filter(session -> session.getRefreshedAt() == null || session.getRefreshedAt().before(graceLimit));
     }
 
     /**
      * Actualiza la hora de la última actividad de una sesión.
+     * La actividad se acumula en el buffer de escritura diferida y se persiste
+     * en el siguiente volcado por lotes.
      *
      * @param token El token JWT
      * @return La sesión actualizada, o un Optional vacío si no existe
      */
-    @Transactional
     public Optional<UserSession> updateLastActivity(String token) {
+        bookkeeper.awaitPending(token);
         return sessionPort.findByToken(token).map(session -> {
             session.updateLastActivity();
-            return sessionPort.saveSession(session);
+            activityTracker.registerToken(token, session.getId());
+            activityTracker.record(session.getId(), session.getLastActivityTime().getTime());
+            return session;
         });
     }
 
@@ -101,9 +211,11 @@ public class UserSessionService {
      */
     @Transactional
     public Optional<UserSession> closeSession(String token) {
+        bookkeeper.awaitPending(token);
         return sessionPort.findByToken(token).map(session -> {
             session.logout();
             UserSession savedSession = sessionPort.saveSession(session);
+            activityTracker.forgetToken(token);
 
             // Enviar evento de actividad de sesión
             notifySessionActivity(savedSession, SessionAction.LOGOUT);
@@ -144,11 +256,10 @@ public class UserSessionService {
             notifySessionActivity(savedSession, SessionAction.SUSPICIOUS_ACTIVITY);
 
             // Enviar notificación al usuario
-            String username = jwtTokenProvider.getUsername(savedSession.getToken());
-            notificationPort.sendWarningNotification(
+            resolveUsername(savedSession).ifPresent(username -> notificationPort.sendWarningNotification(
                     username,
                     "Sesión revocada",
-                    "Tu sesión ha sido revocada por el siguiente motivo: " + reason);
+                    "Tu sesión ha sido revocada por el siguiente motivo: " + reason));
 
             return savedSession;
         });
@@ -200,52 +311,28 @@ public class UserSessionService {
             notifySessionActivity(savedSession, SessionAction.SUSPICIOUS_ACTIVITY);
 
             // Enviar notificación al usuario
-            String username = jwtTokenProvider.getUsername(savedSession.getToken());
-            notificationPort.sendWarningNotification(
+            resolveUsername(savedSession).ifPresent(username -> notificationPort.sendWarningNotification(
                     username,
                     "Actividad sospechosa detectada",
-                    "Se ha detectado actividad sospechosa en tu sesión: " + reason);
+                    "Se ha detectado actividad sospechosa en tu sesión: " + reason));
 
             return savedSession;
         });
     }
 
     /**
-     * Tarea programada para actualizar el estado de las sesiones expiradas.
-     */
-    @Scheduled(fixedRate = 300000) // Cada 5 minutos
-    @Transactional
-    public void updateExpiredSessions() {
-        Date now = Date.from(Instant.now());
-        int updatedSessions = sessionPort.updateExpiredSessions(now);
-
-        if (updatedSessions > 0) {
-            log.debug("Actualizadas {} sesiones expiradas", updatedSessions);
-        }
-    }
-
-    /**
-     * Tarea programada para detectar sesiones inactivas.
+     * Obtiene el nombre de usuario propietario de una sesión.
+     * Se usa el nombre almacenado en la sesión; las sesiones antiguas que no lo
+     * tienen lo obtienen del directorio de usuarios.
+     *
+     * @param session La sesión
+     * @return El nombre de usuario, o un Optional vacío si el usuario no existe
      */
-    @Scheduled(fixedRate = 600000) // Cada 10 minutos
-    @Transactional
-    public void detectInactiveSessions() {
-        // Considerar inactivas las sesiones sin actividad en los últimos 30 minutos
-        Date threshold = Date.from(Instant.now().minusSeconds(1800));
-        List<UserSession> inactiveSessions = sessionPort.findInactiveSessions(threshold);
-
-        for (UserSession session : inactiveSessions) {
-            // Enviar notificación al usuario
-            String username = jwtTokenProvider.getUsername(session.getToken());
-            notificationPort.sendInfoNotification(
-                    username,
-                    "Sesión inactiva",
-                    "Tu sesión ha estado inactiva durante más de 30 minutos");
-        }
-
-        if (!inactiveSessions.isEmpty()) {
-            log.debug("Detectadas {} sesiones inactivas", inactiveSessions.size());
+    private Optional<String> resolveUsername(UserSession session) {
+        if (session.getUsername() != null) {
+            return Optional.of(session.getUsername());
         }
+        return userDirectory.findById(session.getUserId()).map(UserDirectoryEntry::username);
     }
 
     /**
@@ -0,0 +1,169 @@
+package com.bitacora.application.session;
+
+import com.bitacora.domain.model.session.UserSession;
+import com.bitacora.domain.port.notification.NotificationPort;
+import com.bitacora.domain.port.session.UserSessionPort;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Barrido incremental de sesiones expiradas e inactivas.
+ * Procesa las sesiones en lotes acotados, de modo que el coste de cada
+ * ejecución depende de las sesiones activas pendientes y no del historial
+ * completo de sesiones.
+ */
+@Component
+@Slf4j
+public class UserSessionSweeper {
+
+    private final UserSessionPort sessionPort;
+    private final NotificationPort notificationPort;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long inactivityThresholdSeconds;
+    private final int retentionDays;
+
+    /**
+     * Marca (hora de última actividad, ID) de la última sesión inactiva
+     * procesada. Permite continuar en la siguiente ejecución cuando una
+     * ejecución alcanza el máximo de lotes.
+     */
+    private Date inactiveWatermarkTime;
+    private Long inactiveWatermarkId;
+
+    /**
+     * Constructor del barrido.
+     *
+     * @param sessionPort                El puerto de sesiones
+     * @param notificationPort           El puerto de notificaciones
+     * @param batchSize                  El tamaño de cada lote
+     * @param maxBatchesPerRun           El número máximo de lotes por ejecución
+     * @param inactivityThresholdSeconds Los segundos sin actividad para considerar inactiva una sesión
+     * @param retentionDays              Los días que se conservan las sesiones terminadas
+     */
+    public UserSessionSweeper(
+            UserSessionPort sessionPort,
+            NotificationPort notificationPort,
+            @Value("${session.sweep.batch-size:500}") int batchSize,
+            @Value("${session.sweep.max-batches:20}") int maxBatchesPerRun,
+            @Value("${session.sweep.inactivity-threshold:1800}") long inactivityThresholdSeconds,
+            @Value("${session.retention.days:90}") int retentionDays) {
+        this.sessionPort = sessionPort;
+        this.notificationPort = notificationPort;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.inactivityThresholdSeconds = inactivityThresholdSeconds;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Tarea programada para marcar como expiradas las sesiones cuyo token de
+     * refresco venció. Una sesión con el token de acceso vencido sigue activa,
+     * porque el cliente aún puede renovarla.
+     */
+    @Scheduled(fixedRate = 300000) // Cada 5 minutos
+    public void updateExpiredSessions() {
+        Date now = Date.from(Instant.now());
+        int updatedSessions = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int updated = sessionPort.expireSessions(now, batchSize);
+            updatedSessions += updated;
+            if (updated < batchSize) {
+                break;
+            }
+        }
+
+        if (updatedSessions > 0) {
+            log.debug("Actualizadas {} sesiones expiradas", updatedSessions);
+        }
+    }
+
+    /**
+     * Tarea programada para detectar sesiones inactivas y notificar a sus
+     * usuarios. Cada sesión se notifica como máximo una vez.
+     */
+    @Scheduled(fixedRate = 600000) // Cada 10 minutos
+    public synchronized void detectInactiveSessions() {
+        Date threshold = Date.from(Instant.now().minusSeconds(inactivityThresholdSeconds));
+        int notifiedSessions = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<UserSession> inactiveSessions = sessionPort.findInactiveSessionsToNotify(
+                    threshold, inactiveWatermarkTime, inactiveWatermarkId, batchSize);
+
+            if (inactiveSessions.isEmpty()) {
+                resetInactiveWatermark();
+                break;
+            }
+
+            // Un único envío para todo el lote: el contenido se serializa una vez
+            Set<String> usernames = inactiveSessions.stream()
+                    .map(UserSession::getUsername)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            notificationPort.sendInfoNotification(
+                    usernames,
+                    "Sesión inactiva",
+                    "Tu sesión ha estado inactiva durante más de "
+                            + (inactivityThresholdSeconds / 60) + " minutos");
+
+            List<Long> sessionIds = inactiveSessions.stream()
+                    .map(UserSession::getId)
+                    .collect(Collectors.toList());
+            sessionPort.markInactivityNotified(sessionIds, Date.from(Instant.now()));
+            notifiedSessions += inactiveSessions.size();
+
+            UserSession last = inactiveSessions.get(inactiveSessions.size() - 1);
+            inactiveWatermarkTime = last.getLastActivityTime();
+            inactiveWatermarkId = last.getId();
+
+            if (inactiveSessions.size() < batchSize) {
+                resetInactiveWatermark();
+                break;
+            }
+        }
+
+        if (notifiedSessions > 0) {
+            log.debug("Detectadas {} sesiones inactivas", notifiedSessions);
+        }
+    }
+
+    /**
+     * Tarea programada para eliminar las sesiones terminadas que superan el
+     * período de retención.
+     */
+    @Scheduled(cron = "${session.retention.cron:0 30 3 * * *}")
+    public void purgeOldSessions() {
+        Date cutoff = Date.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+        try {
+            int purgedSessions = sessionPort.purgeSessionsBefore(cutoff);
+            if (purgedSessions > 0) {
+                log.info("Eliminadas {} sesiones anteriores a {}", purgedSessions, cutoff);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al purgar sesiones antiguas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reinicia la marca de barrido de sesiones inactivas.
+     */
+    private void resetInactiveWatermark() {
+        inactiveWatermarkTime = null;
+        inactiveWatermarkId = null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bitacora.domain.event.activity;
+
+import com.bitacora.domain.event.AbstractDomainEvent;
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChange;
+
+/**
+ * Evento de dominio que se dispara cuando se crea, modifica o elimina una
+ * actividad. Lleva el estado de la actividad antes y después del cambio.
+ */
+public class ActivityChangedEvent extends AbstractDomainEvent {
+    
+    private final ActivityChange change;
+    
+    /**
+     * Constructor para crear una instancia de ActivityChangedEvent.
+     * 
+     * @param previous La actividad antes del cambio, o null si se creó
+     * @param current  La actividad después del cambio, o null si se eliminó
+     */
+    public ActivityChangedEvent(Activity previous, Activity current) {
+        super();
+        this.change = new ActivityChange(previous, current);
+    }
+    
+    /**
+     * Obtiene el cambio de la actividad.
+     * 
+     * @return El cambio
+     */
+    public ActivityChange getChange() {
+        return change;
+    }
+}
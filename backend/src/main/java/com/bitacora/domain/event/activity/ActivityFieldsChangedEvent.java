@@ -0,0 +1,33 @@
+package com.bitacora.domain.event.activity;
+
+import com.bitacora.domain.event.AbstractDomainEvent;
+import com.bitacora.domain.model.activity.ActivityDiff;
+
+/**
+ * Evento de dominio que se dispara cuando se modifican campos de una
+ * actividad existente. Lleva la diferencia campo a campo con la versión
+ * anterior.
+ */
+public class ActivityFieldsChangedEvent extends AbstractDomainEvent {
+
+    private final ActivityDiff diff;
+
+    /**
+     * Constructor para crear una instancia de ActivityFieldsChangedEvent.
+     *
+     * @param diff La diferencia con la versión anterior
+     */
+    public ActivityFieldsChangedEvent(ActivityDiff diff) {
+        super();
+        this.diff = diff;
+    }
+
+    /**
+     * Obtiene la diferencia con la versión anterior.
+     *
+     * @return La diferencia
+     */
+    public ActivityDiff getDiff() {
+        return diff;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bitacora.domain.event.activity;
+
+import com.bitacora.domain.event.AbstractDomainEvent;
+import com.bitacora.domain.model.activity.ActivityTextField;
+
+/**
+ * Evento de dominio que se dispara cuando se sustituye entero un campo de
+ * texto que estaba en edición colaborativa, por ejemplo al guardar la
+ * actividad completa. Quienes lo editaban deben volver a abrirlo.
+ */
+public class ActivityTextResetEvent extends AbstractDomainEvent {
+
+    private final Long activityId;
+    private final ActivityTextField field;
+    private final long revision;
+
+    /**
+     * Constructor para crear una instancia de ActivityTextResetEvent.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo sustituido
+     * @param revision   La revisión del reinicio
+     */
+    public ActivityTextResetEvent(Long activityId, ActivityTextField field, long revision) {
+        super();
+        this.activityId = activityId;
+        this.field = field;
+        this.revision = revision;
+    }
+
+    /**
+     * Obtiene el ID de la actividad.
+     *
+     * @return El ID de la actividad
+     */
+    public Long getActivityId() {
+        return activityId;
+    }
+
+    /**
+     * Obtiene el campo sustituido.
+     *
+     * @return El campo
+     */
+    public ActivityTextField getField() {
+        return field;
+    }
+
+    /**
+     * Obtiene la revisión del reinicio.
+     *
+     * @return La revisión
+     */
+    public long getRevision() {
+        return revision;
+    }
+}
@@ -0,0 +1,30 @@
+package com.bitacora.domain.event.user;
+
+import com.bitacora.domain.event.AbstractDomainEvent;
+
+/**
+ * Evento de dominio que se dispara cuando se elimina un usuario.
+ */
+public class UserDeletedEvent extends AbstractDomainEvent {
+    
+    private final Long userId;
+    
+    /**
+     * Constructor para crear una instancia de UserDeletedEvent.
+     * 
+     * @param userId El ID del usuario eliminado
+     */
+    public UserDeletedEvent(Long userId) {
+        super();
+        this.userId = userId;
+    }
+    
+    /**
+     * Obtiene el ID del usuario.
+     * 
+     * @return El ID del usuario
+     */
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bitacora.domain.event.user;
+
+import com.bitacora.domain.event.AbstractDomainEvent;
+import com.bitacora.domain.model.user.User;
+
+/**
+ * Evento de dominio que se dispara cuando se guarda un usuario existente.
+ */
+public class UserUpdatedEvent extends AbstractDomainEvent {
+    
+    private final Long userId;
+    private final String username;
+    private final String department;
+    
+    /**
+     * Constructor para crear una instancia de UserUpdatedEvent.
+     * 
+     * @param user El usuario guardado
+     */
+    public UserUpdatedEvent(User user) {
+        super();
+        this.userId = user.getId();
+        this.username = user.getUsername();
+        this.department = user.getDepartment();
+    }
+    
+    /**
+     * Obtiene el ID del usuario.
+     * 
+     * @return El ID del usuario
+     */
+    public Long getUserId() {
+        return userId;
+    }
+    
+    /**
+     * Obtiene el nombre de usuario.
+     * 
+     * @return El nombre de usuario
+     */
+    public String getUsername() {
+        return username;
+    }
+    
+    /**
+     * Obtiene el departamento del usuario.
+     * 
+     * @return El departamento, o null si no tiene
+     */
+    public String getDepartment() {
+        return department;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bitacora.domain.exception;
+
+/**
+ * Excepción que se lanza cuando se intenta modificar una actividad sin poseer
+ * su concesión de edición vigente.
+ */
+public class EditLockConflictException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor para crear una instancia de EditLockConflictException con un mensaje.
+     *
+     * @param message El mensaje de error
+     */
+    public EditLockConflictException(String message) {
+        super(message);
+    }
+}
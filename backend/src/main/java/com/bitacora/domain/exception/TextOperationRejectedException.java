@@ -0,0 +1,33 @@
+package com.bitacora.domain.exception;
+
+/**
+ * Excepción que se lanza cuando no se puede aplicar una operación de edición
+ * colaborativa de un texto.
+ */
+public class TextOperationRejectedException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean resyncRequired;
+
+    /**
+     * Constructor para crear una instancia de TextOperationRejectedException.
+     *
+     * @param message        El mensaje de error
+     * @param resyncRequired true si el cliente debe volver a abrir el texto
+     *                       porque su copia ya no se puede poner al día
+     */
+    public TextOperationRejectedException(String message, boolean resyncRequired) {
+        super(message);
+        this.resyncRequired = resyncRequired;
+    }
+
+    /**
+     * Indica si el cliente debe volver a abrir el texto.
+     *
+     * @return true si debe volver a abrirlo
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
  * Entidad de dominio que representa una actividad en el sistema.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Activity {
@@ -32,6 +32,11 @@ public class Activity {
     private LocalDateTime updatedAt;
     private Long userId;
     
+    /**
+     * Versión de la actividad; aumenta con cada modificación.
+     */
+    private Long version;
+    
     /**
      * Cambia el estado de la actividad y actualiza la fecha del último cambio de estado.
      * 
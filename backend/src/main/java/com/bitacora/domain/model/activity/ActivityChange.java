@@ -0,0 +1,20 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio confirmado de una actividad: su estado antes y después del cambio.
+ * Una creación no tiene estado anterior y una eliminación no tiene estado
+ * posterior.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityChange {
+    private Activity previous;
+    private Activity current;
+}
@@ -0,0 +1,55 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cambios de las actividades posteriores a una marca de agua, para la
+ * sincronización incremental de los clientes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityChangeSet {
+
+    /**
+     * IDs de las actividades creadas después de la marca.
+     */
+    private List<Long> createdIds;
+
+    /**
+     * IDs de las actividades existentes antes de la marca y modificadas después.
+     */
+    private List<Long> updatedIds;
+
+    /**
+     * IDs de las actividades eliminadas después de la marca.
+     */
+    private List<Long> deletedIds;
+
+    /**
+     * Estado actual de las actividades creadas o modificadas.
+     */
+    private List<Activity> activities;
+
+    /**
+     * Marca de agua desde la que continuar la siguiente sincronización.
+     */
+    private long watermark;
+
+    /**
+     * Indica si quedan cambios posteriores a la marca devuelta.
+     */
+    private boolean hasMore;
+
+    /**
+     * Indica si el cliente debe descargar de nuevo todas las actividades,
+     * porque su marca es anterior a las marcas de borrado conservadas.
+     */
+    private boolean resyncRequired;
+}
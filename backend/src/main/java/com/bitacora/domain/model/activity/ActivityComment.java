@@ -0,0 +1,24 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comentario de un usuario en una actividad. Los comentarios no se modifican
+ * una vez creados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityComment {
+    private Long id;
+    private Long activityId;
+    private Long userId;
+    private String content;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,109 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Diferencia campo a campo entre dos versiones de una actividad. Contiene solo
+ * los campos que cambiaron, con su valor nuevo, y las versiones anterior y
+ * nueva, para que quien tenga una copia en la versión anterior pueda aplicarla
+ * sin volver a consultar la actividad.
+ * Los campos omitidos cambiaron, pero su valor nuevo no se incluye porque
+ * quien tiene la actividad abierta ya lo recibió por otra vía (por ejemplo,
+ * la edición colaborativa del campo); basta con avanzar la versión.
+ */
+@Getter
+public class ActivityDiff {
+
+    /**
+     * Campos comparados, con el nombre con el que se exponen en la API.
+     */
+    private static final Map<String, Function<Activity, Object>> FIELDS = fields();
+
+    private final Long activityId;
+    private final Long previousVersion;
+    private final Long version;
+    private final Map<String, Object> changes;
+    private final Set<String> omittedFields;
+
+    private ActivityDiff(Long activityId, Long previousVersion, Long version, Map<String, Object> changes,
+                         Set<String> omittedFields) {
+        this.activityId = activityId;
+        this.previousVersion = previousVersion;
+        this.version = version;
+        this.changes = Collections.unmodifiableMap(changes);
+        this.omittedFields = Collections.unmodifiableSet(omittedFields);
+    }
+
+    /**
+     * Calcula la diferencia entre dos versiones de una misma actividad.
+     *
+     * @param previous La actividad antes del cambio
+     * @param current  La actividad después del cambio
+     * @return La diferencia
+     */
+    public static ActivityDiff between(Activity previous, Activity current) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        FIELDS.forEach((name, getter) -> {
+            Object value = getter.apply(current);
+            if (!Objects.equals(getter.apply(previous), value)) {
+                // LinkedHashMap admite null: un campo vaciado también es un cambio
+                changes.put(name, value);
+            }
+        });
+        return new ActivityDiff(current.getId(), previous.getVersion(), current.getVersion(), changes, Set.of());
+    }
+
+    /**
+     * Obtiene una copia de la diferencia sin el valor nuevo de un campo. Si el
+     * campo cambió, pasa a los campos omitidos.
+     *
+     * @param fieldName El nombre del campo en la API
+     * @return La diferencia sin el valor del campo
+     */
+    public ActivityDiff withoutValue(String fieldName) {
+        if (!changes.containsKey(fieldName)) {
+            return this;
+        }
+        Map<String, Object> remaining = new LinkedHashMap<>(changes);
+        remaining.remove(fieldName);
+        Set<String> omitted = new LinkedHashSet<>(omittedFields);
+        omitted.add(fieldName);
+        return new ActivityDiff(activityId, previousVersion, version, remaining, omitted);
+    }
+
+    /**
+     * Indica si no cambió ningún campo.
+     *
+     * @return true si la diferencia está vacía
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty() && omittedFields.isEmpty();
+    }
+
+    private static Map<String, Function<Activity, Object>> fields() {
+        Map<String, Function<Activity, Object>> fields = new LinkedHashMap<>();
+        fields.put("date", Activity::getDate);
+        fields.put("type", Activity::getType);
+        fields.put("description", Activity::getDescription);
+        fields.put("person", Activity::getPerson);
+        fields.put("role", Activity::getRole);
+        fields.put("dependency", Activity::getDependency);
+        fields.put("situation", Activity::getSituation);
+        fields.put("result", Activity::getResult);
+        fields.put("status", Activity::getStatus);
+        fields.put("lastStatusChangeDate", Activity::getLastStatusChangeDate);
+        fields.put("comments", Activity::getComments);
+        fields.put("agent", Activity::getAgent);
+        fields.put("updatedAt", Activity::getUpdatedAt);
+        fields.put("userId", Activity::getUserId);
+        return Collections.unmodifiableMap(fields);
+    }
+}
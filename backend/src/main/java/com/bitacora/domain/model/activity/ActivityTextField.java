@@ -0,0 +1,73 @@
+package com.bitacora.domain.model.activity;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Campos de texto largo de una actividad que admiten edición colaborativa.
+ */
+public enum ActivityTextField {
+    DESCRIPTION("description", Activity::getDescription, Activity::setDescription),
+    SITUATION("situation", Activity::getSituation, Activity::setSituation),
+    RESULT("result", Activity::getResult, Activity::setResult),
+    COMMENTS("comments", Activity::getComments, Activity::setComments);
+
+    private final String fieldName;
+    private final Function<Activity, String> getter;
+    private final BiConsumer<Activity, String> setter;
+
+    ActivityTextField(String fieldName, Function<Activity, String> getter, BiConsumer<Activity, String> setter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Obtiene el nombre del campo en la API.
+     *
+     * @return El nombre del campo
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Obtiene el valor del campo en una actividad.
+     *
+     * @param activity La actividad
+     * @return El texto, o una cadena vacía si no tiene valor
+     */
+    public String get(Activity activity) {
+        String value = getter.apply(activity);
+        return value != null ? value : "";
+    }
+
+    /**
+     * Asigna el valor del campo en una actividad.
+     *
+     * @param activity La actividad
+     * @param value    El texto
+     */
+    public void set(Activity activity, String value) {
+        setter.accept(activity, value);
+    }
+
+    /**
+     * Convierte un string en un ActivityTextField por su nombre en la API o su
+     * nombre de enumeración, ignorando mayúsculas/minúsculas.
+     *
+     * @param text El texto a convertir
+     * @return El campo correspondiente, o null si no hay coincidencia
+     */
+    public static ActivityTextField fromString(String text) {
+        if (text == null) {
+            return null;
+        }
+        for (ActivityTextField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(text) || field.name().equalsIgnoreCase(text)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
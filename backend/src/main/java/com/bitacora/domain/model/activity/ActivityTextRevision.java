@@ -0,0 +1,34 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Revisión de un campo de texto en edición colaborativa: la operación que
+ * lleva el texto de la revisión anterior a esta. Una revisión sin operación
+ * es un reinicio: el texto se sustituyó entero fuera de la edición
+ * colaborativa y las operaciones anteriores ya no se pueden transformar.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTextRevision {
+    private Long activityId;
+    private ActivityTextField field;
+    private long revision;
+    private TextOperation operation;
+    private String clientOperationId;
+    private String author;
+
+    /**
+     * Indica si la revisión es un reinicio del texto.
+     *
+     * @return true si no tiene operación
+     */
+    public boolean isReset() {
+        return operation == null;
+    }
+}
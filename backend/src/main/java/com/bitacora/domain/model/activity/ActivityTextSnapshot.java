@@ -0,0 +1,19 @@
+package com.bitacora.domain.model.activity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Texto de un campo guardado en la actividad y la revisión colaborativa a la
+ * que corresponde.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTextSnapshot {
+    private String text;
+    private long revision;
+}
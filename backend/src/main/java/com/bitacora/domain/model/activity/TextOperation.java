@@ -0,0 +1,412 @@
+package com.bitacora.domain.model.activity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Operación sobre un texto para la edición colaborativa por transformación
+ * operacional (OT). Recorre el texto completo como una secuencia de
+ * componentes: conservar n caracteres, insertar un texto o eliminar n
+ * caracteres. En el formato de intercambio cada componente es un entero
+ * positivo (conservar), una cadena (insertar) o un entero negativo
+ * (eliminar), el mismo formato que usa ot.js, de modo que una pulsación ocupa
+ * unos pocos bytes aunque el texto tenga varios KB.
+ *
+ * <p>Las longitudes se cuentan en unidades UTF-16, igual que en el navegador.</p>
+ */
+public final class TextOperation {
+
+    private final List<Object> components = new ArrayList<>();
+    private int baseLength;
+    private int targetLength;
+
+    /**
+     * Crea una operación vacía.
+     */
+    public TextOperation() {
+    }
+
+    /**
+     * Crea una operación a partir de sus componentes en el formato de intercambio.
+     *
+     * @param components Los componentes: enteros y cadenas
+     * @return La operación
+     * @throws IllegalArgumentException Si algún componente no es válido
+     */
+    public static TextOperation fromComponents(List<?> components) {
+        TextOperation operation = new TextOperation();
+        for (Object component : components) {
+            if (component instanceof String text) {
+                operation.insert(text);
+            } else if (component instanceof Integer || component instanceof Long) {
+                long count = ((Number) component).longValue();
+                if (count == 0 || Math.abs(count) > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Componente de operación no válido: " + component);
+                }
+                if (count > 0) {
+                    operation.retain((int) count);
+                } else {
+                    operation.delete((int) -count);
+                }
+            } else {
+                throw new IllegalArgumentException("Componente de operación no válido: " + component);
+            }
+        }
+        return operation;
+    }
+
+    /**
+     * Conserva caracteres del texto.
+     *
+     * @param count El número de caracteres
+     * @return Esta operación
+     */
+    public TextOperation retain(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("El número de caracteres no puede ser negativo");
+        }
+        if (count == 0) {
+            return this;
+        }
+        baseLength += count;
+        targetLength += count;
+        if (last() instanceof Integer previous && previous > 0) {
+            components.set(components.size() - 1, previous + count);
+        } else {
+            components.add(count);
+        }
+        return this;
+    }
+
+    /**
+     * Inserta un texto en la posición actual.
+     *
+     * @param text El texto
+     * @return Esta operación
+     */
+    public TextOperation insert(String text) {
+        if (text.isEmpty()) {
+            return this;
+        }
+        targetLength += text.length();
+        int size = components.size();
+        if (last() instanceof String previous) {
+            components.set(size - 1, previous + text);
+        } else if (last() instanceof Integer previous && previous < 0) {
+            // Forma canónica: la inserción va siempre antes que la eliminación contigua
+            if (size >= 2 && components.get(size - 2) instanceof String beforeDelete) {
+                components.set(size - 2, beforeDelete + text);
+            } else {
+                components.add(size - 1, text);
+            }
+        } else {
+            components.add(text);
+        }
+        return this;
+    }
+
+    /**
+     * Elimina caracteres del texto.
+     *
+     * @param count El número de caracteres
+     * @return Esta operación
+     */
+    public TextOperation delete(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("El número de caracteres no puede ser negativo");
+        }
+        if (count == 0) {
+            return this;
+        }
+        baseLength += count;
+        if (last() instanceof Integer previous && previous < 0) {
+            components.set(components.size() - 1, previous - count);
+        } else {
+            components.add(-count);
+        }
+        return this;
+    }
+
+    /**
+     * Obtiene los componentes en el formato de intercambio.
+     *
+     * @return Los componentes
+     */
+    public List<Object> toComponents() {
+        return Collections.unmodifiableList(new ArrayList<>(components));
+    }
+
+    /**
+     * Obtiene la longitud del texto al que se aplica la operación.
+     *
+     * @return La longitud de partida
+     */
+    public int getBaseLength() {
+        return baseLength;
+    }
+
+    /**
+     * Obtiene la longitud del texto resultante.
+     *
+     * @return La longitud resultante
+     */
+    public int getTargetLength() {
+        return targetLength;
+    }
+
+    /**
+     * Obtiene el número total de caracteres insertados.
+     *
+     * @return Los caracteres insertados
+     */
+    public int getInsertedLength() {
+        int inserted = 0;
+        for (Object component : components) {
+            if (component instanceof String text) {
+                inserted += text.length();
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Indica si la operación deja el texto igual.
+     *
+     * @return true si solo conserva caracteres
+     */
+    public boolean isNoop() {
+        return components.isEmpty() || (components.size() == 1 && isRetain(components.get(0)));
+    }
+
+    /**
+     * Aplica la operación a un texto.
+     *
+     * @param text El texto
+     * @return El texto resultante
+     * @throws IllegalArgumentException Si la longitud del texto no es la de partida
+     */
+    public String apply(String text) {
+        if (text.length() != baseLength) {
+            throw new IllegalArgumentException("La operación espera un texto de " + baseLength
+                    + " caracteres y el texto tiene " + text.length());
+        }
+        StringBuilder result = new StringBuilder(targetLength);
+        int index = 0;
+        for (Object component : components) {
+            if (component instanceof String inserted) {
+                result.append(inserted);
+            } else {
+                int count = (Integer) component;
+                if (count > 0) {
+                    result.append(text, index, index + count);
+                    index += count;
+                } else {
+                    index -= count;
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Combina esta operación con otra que se aplica a continuación, de modo
+     * que aplicar el resultado equivale a aplicar las dos en orden. Permite
+     * agrupar varias ediciones en una sola operación.
+     *
+     * @param next La operación siguiente
+     * @return La operación combinada
+     * @throws IllegalArgumentException Si las longitudes no encajan
+     */
+    public TextOperation compose(TextOperation next) {
+        if (targetLength != next.baseLength) {
+            throw new IllegalArgumentException("La operación siguiente no parte del resultado de esta");
+        }
+        TextOperation result = new TextOperation();
+        Cursor first = new Cursor(components);
+        Cursor second = new Cursor(next.components);
+        Object op1 = first.next();
+        Object op2 = second.next();
+        while (op1 != null || op2 != null) {
+            if (isDelete(op1)) {
+                result.delete(-(Integer) op1);
+                op1 = first.next();
+                continue;
+            }
+            if (op2 instanceof String inserted) {
+                result.insert(inserted);
+                op2 = second.next();
+                continue;
+            }
+            if (op1 == null || op2 == null) {
+                throw new IllegalArgumentException("Las operaciones no tienen la misma longitud");
+            }
+
+            if (isRetain(op1) && isRetain(op2)) {
+                int retain1 = (Integer) op1;
+                int retain2 = (Integer) op2;
+                result.retain(Math.min(retain1, retain2));
+                if (retain1 > retain2) {
+                    op1 = retain1 - retain2;
+                    op2 = second.next();
+                } else if (retain1 == retain2) {
+                    op1 = first.next();
+                    op2 = second.next();
+                } else {
+                    op1 = first.next();
+                    op2 = retain2 - retain1;
+                }
+            } else if (op1 instanceof String inserted && isDelete(op2)) {
+                int deleted = -(Integer) op2;
+                if (inserted.length() > deleted) {
+                    op1 = inserted.substring(deleted);
+                    op2 = second.next();
+                } else if (inserted.length() == deleted) {
+                    op1 = first.next();
+                    op2 = second.next();
+                } else {
+                    op1 = first.next();
+                    op2 = -(deleted - inserted.length());
+                }
+            } else if (op1 instanceof String inserted) {
+                int retained = (Integer) op2;
+                if (inserted.length() > retained) {
+                    result.insert(inserted.substring(0, retained));
+                    op1 = inserted.substring(retained);
+                    op2 = second.next();
+                } else if (inserted.length() == retained) {
+                    result.insert(inserted);
+                    op1 = first.next();
+                    op2 = second.next();
+                } else {
+                    result.insert(inserted);
+                    op1 = first.next();
+                    op2 = retained - inserted.length();
+                }
+            } else {
+                // Conservar en la primera y eliminar en la segunda
+                int retained = (Integer) op1;
+                int deleted = -(Integer) op2;
+                result.delete(Math.min(retained, deleted));
+                if (retained > deleted) {
+                    op1 = retained - deleted;
+                    op2 = second.next();
+                } else if (retained == deleted) {
+                    op1 = first.next();
+                    op2 = second.next();
+                } else {
+                    op1 = first.next();
+                    op2 = -(deleted - retained);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Transforma dos operaciones concurrentes sobre el mismo texto. Devuelve
+     * {@code [a', b']} tales que aplicar a y luego b' da el mismo texto que
+     * aplicar b y luego a'. Si las dos insertan en la misma posición, la
+     * inserción de a queda delante.
+     *
+     * @param a La primera operación, con prioridad en los empates
+     * @param b La segunda operación
+     * @return Las dos operaciones transformadas
+     * @throws IllegalArgumentException Si no parten de la misma longitud
+     */
+    public static TextOperation[] transform(TextOperation a, TextOperation b) {
+        if (a.baseLength != b.baseLength) {
+            throw new IllegalArgumentException("Las operaciones concurrentes deben partir del mismo texto");
+        }
+        TextOperation aPrime = new TextOperation();
+        TextOperation bPrime = new TextOperation();
+        Cursor first = new Cursor(a.components);
+        Cursor second = new Cursor(b.components);
+        Object op1 = first.next();
+        Object op2 = second.next();
+        while (op1 != null || op2 != null) {
+            if (op1 instanceof String inserted) {
+                aPrime.insert(inserted);
+                bPrime.retain(inserted.length());
+                op1 = first.next();
+                continue;
+            }
+            if (op2 instanceof String inserted) {
+                aPrime.retain(inserted.length());
+                bPrime.insert(inserted);
+                op2 = second.next();
+                continue;
+            }
+            if (op1 == null || op2 == null) {
+                throw new IllegalArgumentException("Las operaciones no tienen la misma longitud");
+            }
+
+            int count1 = Math.abs((Integer) op1);
+            int count2 = Math.abs((Integer) op2);
+            int common = Math.min(count1, count2);
+            if (isRetain(op1) && isRetain(op2)) {
+                aPrime.retain(common);
+                bPrime.retain(common);
+            } else if (isDelete(op1) && isRetain(op2)) {
+                aPrime.delete(common);
+            } else if (isRetain(op1) && isDelete(op2)) {
+                bPrime.delete(common);
+            }
+            // Si las dos eliminan los mismos caracteres, no queda nada que hacer con ellos
+
+            op1 = count1 > common ? remainder(op1, common) : first.next();
+            op2 = count2 > common ? remainder(op2, common) : second.next();
+        }
+        return new TextOperation[] {aPrime, bPrime};
+    }
+
+    private Object last() {
+        return components.isEmpty() ? null : components.get(components.size() - 1);
+    }
+
+    private static boolean isRetain(Object component) {
+        return component instanceof Integer count && count > 0;
+    }
+
+    private static boolean isDelete(Object component) {
+        return component instanceof Integer count && count < 0;
+    }
+
+    private static Object remainder(Object component, int consumed) {
+        int count = (Integer) component;
+        return count > 0 ? count - consumed : count + consumed;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TextOperation operation && components.equals(operation.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(components);
+    }
+
+    @Override
+    public String toString() {
+        return components.toString();
+    }
+
+    /**
+     * Recorrido secuencial de los componentes de una operación.
+     */
+    private static final class Cursor {
+
+        private final List<Object> components;
+        private int index;
+
+        Cursor(List<Object> components) {
+            this.components = components;
+        }
+
+        Object next() {
+            return index < components.size() ? components.get(index++) : null;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import lombok.experimental.SuperBuilder;
 import java.time.Instant;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
@@ -60,6 +61,14 @@ public class RealTimeNotification {
      */
     private Object data;
 
+    /**
+     * Número de secuencia en la bandeja del destinatario. Solo lo tienen las
+     * notificaciones privadas; crece con cada notificación del usuario. Se
+     * omite del JSON si no tiene valor.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sequence;
+
     /**
      * Indica si la notificación ha sido leída.
      */
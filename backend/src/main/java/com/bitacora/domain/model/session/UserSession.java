@@ -27,16 +27,39 @@ public class UserSession {
      */
     private Long userId;
     
+    /**
+     * Nombre del usuario al que pertenece la sesión.
+     */
+    private String username;
+    
     /**
      * Token JWT asociado a la sesión.
+     * Solo está disponible al crear la sesión; no se persiste.
      */
     private String token;
     
     /**
      * Token de refresco asociado a la sesión.
+     * Solo está disponible al crear la sesión; no se persiste.
      */
     private String refreshToken;
     
+    /**
+     * Resumen SHA-256 del token JWT, utilizado para buscar la sesión.
+     */
+    private byte[] tokenHash;
+    
+    /**
+     * Resumen SHA-256 del token de refresco, utilizado para buscar la sesión.
+     */
+    private byte[] refreshTokenHash;
+    
+    /**
+     * Resumen SHA-256 del último token de refresco rotado. Permite reconocer
+     * la reutilización de un token que ya se sustituyó.
+     */
+    private byte[] previousRefreshTokenHash;
+    
     /**
      * Dirección IP desde la que se inició la sesión.
      */
@@ -72,6 +95,18 @@ public class UserSession {
      */
     private Date expiryTime;
     
+    /**
+     * Fecha y hora de expiración del token de refresco. La sesión sigue activa
+     * hasta entonces, aunque el token de acceso haya vencido, porque aún puede
+     * renovarse.
+     */
+    private Date refreshExpiryTime;
+    
+    /**
+     * Fecha y hora de la última rotación de los tokens.
+     */
+    private Date refreshedAt;
+    
     /**
      * Estado actual de la sesión.
      */
@@ -94,6 +129,12 @@ public class UserSession {
      */
     private Date logoutTime;
     
+    /**
+     * Fecha y hora en que se notificó al usuario la inactividad de la sesión.
+     * Cada sesión se notifica como máximo una vez.
+     */
+    private Date inactivityNotifiedAt;
+    
     /**
      * Actualiza la hora de la última actividad.
      */
@@ -101,6 +142,29 @@ public class UserSession {
         this.lastActivityTime = Date.from(Instant.now());
     }
     
+    /**
+     * Rota los tokens de la sesión, conservando la misma sesión. El resumen
+     * del token de refresco sustituido se conserva para reconocer su
+     * reutilización.
+     * 
+     * @param token             El nuevo token JWT
+     * @param refreshToken      El nuevo token de refresco
+     * @param expiryTime        La nueva fecha de expiración
+     * @param refreshExpiryTime La fecha de expiración del nuevo token de refresco
+     */
+    public void rotateTokens(String token, String refreshToken, Date expiryTime, Date refreshExpiryTime) {
+        this.previousRefreshTokenHash = this.refreshTokenHash;
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.tokenHash = null;
+        this.refreshTokenHash = null;
+        this.expiryTime = expiryTime;
+        this.refreshExpiryTime = refreshExpiryTime;
+        this.inactivityNotifiedAt = null;
+        updateLastActivity();
+        this.refreshedAt = this.lastActivityTime;
+    }
+    
     /**
      * Cierra la sesión.
      */
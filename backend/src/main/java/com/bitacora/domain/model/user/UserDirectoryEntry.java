@@ -0,0 +1,27 @@
+package com.bitacora.domain.model.user;
+
+/**
+ * Datos de un usuario que se consultan al componer notificaciones: su
+ * identidad y el nombre con el que se muestra. Es inmutable, de modo que
+ * puede compartirse entre hilos sin copiarse.
+ *
+ * @param id         El ID del usuario
+ * @param username   El nombre de usuario
+ * @param fullName   El nombre completo
+ * @param department El departamento, o null si no tiene
+ * @param active     true si el usuario está activo
+ */
+public record UserDirectoryEntry(Long id, String username, String fullName, String department, boolean active) {
+
+    /**
+     * Crea la entrada de un usuario.
+     *
+     * @param user El usuario
+     * @return La entrada
+     */
+    public static UserDirectoryEntry from(User user) {
+        String fullName = user.getPersonName() != null ? user.getPersonName().getFullName() : user.getUsername();
+        return new UserDirectoryEntry(user.getId(), user.getUsername(), fullName, user.getDepartment(),
+                user.isActive());
+    }
+}
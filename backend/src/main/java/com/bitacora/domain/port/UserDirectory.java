@@ -0,0 +1,41 @@
+package com.bitacora.domain.port;
+
+import com.bitacora.domain.model.user.UserDirectoryEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Puerto (interfaz) para el directorio de usuarios.
+ * Resuelve la identidad y el nombre de los usuarios sin acceder a la base de
+ * datos en cada consulta. Sus datos pueden ir ligeramente por detrás de los
+ * del repositorio de usuarios; para leer o modificar un usuario completo debe
+ * usarse {@link UserRepository}.
+ */
+public interface UserDirectory {
+
+    /**
+     * Busca un usuario por su ID.
+     *
+     * @param id El ID del usuario
+     * @return Un Optional que contiene el usuario si se encuentra, o vacío si no
+     */
+    Optional<UserDirectoryEntry> findById(Long id);
+
+    /**
+     * Busca un usuario por su nombre de usuario.
+     *
+     * @param username El nombre de usuario
+     * @return Un Optional que contiene el usuario si se encuentra, o vacío si no
+     */
+    Optional<UserDirectoryEntry> findByUsername(String username);
+
+    /**
+     * Busca los usuarios de un departamento, sin distinguir mayúsculas ni
+     * espacios en los extremos del nombre del departamento.
+     *
+     * @param department El departamento
+     * @return Los usuarios del departamento
+     */
+    List<UserDirectoryEntry> findByDepartment(String department);
+}
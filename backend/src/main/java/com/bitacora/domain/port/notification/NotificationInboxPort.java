@@ -0,0 +1,92 @@
+package com.bitacora.domain.port.notification;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puerto para la bandeja persistente de notificaciones privadas.
+ * Cada usuario tiene su propia secuencia de notificaciones, sin huecos, y una
+ * marca de lectura: las notificaciones con secuencia menor o igual a la marca
+ * se consideran leídas.
+ */
+public interface NotificationInboxPort {
+
+    /**
+     * Añade una notificación a la bandeja de un usuario, asignándole el
+     * siguiente número de secuencia.
+     *
+     * @param username     El nombre de usuario del destinatario
+     * @param notification La notificación
+     * @return La notificación con su número de secuencia
+     */
+    RealTimeNotification append(String username, RealTimeNotification notification);
+
+    /**
+     * Añade una misma notificación a la bandeja de varios usuarios, asignando
+     * a cada uno su siguiente número de secuencia. La notificación no se
+     * modifica.
+     *
+     * @param usernames    Los nombres de usuario de los destinatarios
+     * @param notification La notificación
+     * @return La secuencia asignada a cada usuario
+     */
+    Map<String, Long> appendAll(Collection<String> usernames, RealTimeNotification notification);
+
+    /**
+     * Busca las notificaciones posteriores a una secuencia, en orden ascendente.
+     *
+     * @param username      El nombre de usuario
+     * @param afterSequence La última secuencia conocida
+     * @param limit         El número máximo de notificaciones
+     * @return Las notificaciones
+     */
+    List<RealTimeNotification> findAfter(String username, long afterSequence, int limit);
+
+    /**
+     * Busca una página de notificaciones anteriores a una secuencia, en orden
+     * descendente.
+     *
+     * @param username       El nombre de usuario
+     * @param beforeSequence La secuencia a partir de la que buscar, o null para la más reciente
+     * @param limit          El número máximo de notificaciones
+     * @return Las notificaciones
+     */
+    List<RealTimeNotification> findBefore(String username, Long beforeSequence, int limit);
+
+    /**
+     * Obtiene la última secuencia asignada a un usuario.
+     *
+     * @param username El nombre de usuario
+     * @return La última secuencia, o 0 si el usuario no tiene notificaciones
+     */
+    long getLastSequence(String username);
+
+    /**
+     * Obtiene el número de notificaciones no leídas de un usuario.
+     *
+     * @param username El nombre de usuario
+     * @return El número de notificaciones no leídas
+     */
+    long countUnread(String username);
+
+    /**
+     * Marca como leídas las notificaciones hasta una secuencia.
+     *
+     * @param username El nombre de usuario
+     * @param sequence La secuencia hasta la que marcar
+     * @return El número de notificaciones no leídas restantes
+     */
+    long markReadUpTo(String username, long sequence);
+
+    /**
+     * Elimina las notificaciones creadas antes de una fecha.
+     *
+     * @param cutoff La fecha límite
+     * @return El número de notificaciones eliminadas
+     */
+    int deleteCreatedBefore(Date cutoff);
+}
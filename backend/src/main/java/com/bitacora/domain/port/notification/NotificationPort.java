@@ -1,5 +1,8 @@
 package com.bitacora.domain.port.notification;
 
+import com.bitacora.domain.model.activity.ActivityChange;
+import com.bitacora.domain.model.activity.ActivityDiff;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
 import com.bitacora.domain.model.notification.RealTimeNotification;
 import com.bitacora.domain.model.notification.SessionActivityEvent;
 import com.bitacora.domain.model.notification.SystemAlertEvent;
@@ -10,6 +13,8 @@ import com.bitacora.domain.model.notification.DeadlineReminderNotification;
 import com.bitacora.domain.model.notification.AnnouncementNotification;
 import com.bitacora.domain.model.notification.CollaborationNotification;
 
+import java.util.Collection;
+
 /**
  * Puerto para el envío de notificaciones en tiempo real.
  * Define las operaciones que debe implementar un adaptador de notificaciones.
@@ -31,6 +36,16 @@ public interface NotificationPort {
      */
     void sendPrivateNotification(String username, RealTimeNotification notification);
 
+    /**
+     * Envía una misma notificación a varios usuarios. El contenido se
+     * serializa una sola vez para todos los destinatarios; cada uno la recibe
+     * en su bandeja con su propio número de secuencia.
+     *
+     * @param usernames    Los nombres de usuario de los destinatarios
+     * @param notification La notificación a enviar
+     */
+    void sendPrivateNotification(Collection<String> usernames, RealTimeNotification notification);
+
     /**
      * Envía una notificación de éxito a un usuario específico.
      *
@@ -67,6 +82,15 @@ public interface NotificationPort {
      */
     void sendInfoNotification(String username, String title, String message);
 
+    /**
+     * Envía una misma notificación informativa a varios usuarios.
+     *
+     * @param usernames Los nombres de usuario de los destinatarios
+     * @param title     El título de la notificación
+     * @param message   El mensaje de la notificación
+     */
+    void sendInfoNotification(Collection<String> usernames, String title, String message);
+
     /**
      * Envía un evento de cambio de estado de usuario a todos los usuarios
      * conectados.
@@ -89,6 +113,31 @@ public interface NotificationPort {
      */
     void broadcastSystemAlert(SystemAlertEvent alertEvent);
 
+    /**
+     * Reparte un cambio confirmado de una actividad entre todos los nodos, que
+     * lo entregan a los flujos de cambios cuyo filtro afecta.
+     *
+     * @param change El cambio de la actividad
+     */
+    void broadcastActivityChange(ActivityChange change);
+
+    /**
+     * Envía la diferencia campo a campo de una modificación confirmada a
+     * quienes tienen abierta la actividad, para que actualicen su copia sin
+     * volver a consultarla.
+     *
+     * @param diff La diferencia con la versión anterior
+     */
+    void broadcastActivityDiff(ActivityDiff diff);
+
+    /**
+     * Envía una revisión de un campo de texto en edición colaborativa a
+     * quienes lo editan. Los reinicios indican que deben volver a abrirlo.
+     *
+     * @param revision La revisión
+     */
+    void broadcastTextRevision(ActivityTextRevision revision);
+
     /**
      * Envía una notificación de asignación de tarea a un usuario específico.
      *
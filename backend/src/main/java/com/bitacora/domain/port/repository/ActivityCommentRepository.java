@@ -0,0 +1,38 @@
+package com.bitacora.domain.port.repository;
+
+import com.bitacora.domain.model.activity.ActivityComment;
+
+import java.util.List;
+
+/**
+ * Puerto (interfaz) para el repositorio de comentarios de actividades.
+ */
+public interface ActivityCommentRepository {
+
+    /**
+     * Añade un comentario y actualiza el contador de la actividad.
+     *
+     * @param comment El comentario
+     * @return El comentario con su ID asignado
+     */
+    ActivityComment append(ActivityComment comment);
+
+    /**
+     * Busca los comentarios de una actividad posteriores a uno dado, del más
+     * antiguo al más reciente.
+     *
+     * @param activityId El ID de la actividad
+     * @param afterId    El ID a partir del que continuar (exclusivo), o null para empezar
+     * @param limit      El número máximo de comentarios
+     * @return Los comentarios
+     */
+    List<ActivityComment> findAfter(Long activityId, Long afterId, int limit);
+
+    /**
+     * Obtiene el número de comentarios de una actividad.
+     *
+     * @param activityId El ID de la actividad
+     * @return El número de comentarios
+     */
+    long countByActivityId(Long activityId);
+}
@@ -1,10 +1,12 @@
 package com.bitacora.domain.port.repository;
 
 import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChangeSet;
 import com.bitacora.domain.model.activity.ActivityStatus;
 import com.bitacora.domain.model.activity.ActivityType;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +34,25 @@ public interface ActivityRepository {
      */
     Optional<Activity> findById(Long id);
 
+    /**
+     * Busca una actividad por su ID y bloquea su fila hasta el final de la
+     * transacción en curso, de modo que las modificaciones concurrentes de la
+     * misma actividad se apliquen de una en una.
+     *
+     * @param id El ID de la actividad
+     * @return Un Optional que contiene la actividad si se encuentra, o vacío si no
+     */
+    Optional<Activity> findByIdForUpdate(Long id);
+
+    /**
+     * Busca varias actividades por su ID en una sola consulta.
+     *
+     * @param ids Los IDs de las actividades
+     * @return Las actividades encontradas, en cualquier orden; los IDs que no
+     *         existen se omiten
+     */
+    List<Activity> findAllById(Collection<Long> ids);
+
     /**
      * Busca todas las actividades con paginación.
      *
@@ -186,9 +207,26 @@ public interface ActivityRepository {
     long countWithFilters(Map<String, Object> filters);
 
     /**
-     * Elimina una actividad.
+     * Elimina una actividad y registra su marca de borrado.
      *
      * @param id El ID de la actividad a eliminar
      */
     void deleteById(Long id);
+
+    /**
+     * Obtiene los cambios de las actividades posteriores a una marca de agua.
+     *
+     * @param since La marca de agua del cliente (0 si no tiene)
+     * @param limit El número máximo de cambios
+     * @return Los cambios, en orden de secuencia
+     */
+    ActivityChangeSet findChangesSince(long since, int limit);
+
+    /**
+     * Elimina las marcas de borrado anteriores a una fecha.
+     *
+     * @param cutoff La fecha límite
+     * @return El número de marcas eliminadas
+     */
+    int purgeTombstonesBefore(LocalDateTime cutoff);
 }
@@ -0,0 +1,77 @@
+package com.bitacora.domain.port.repository;
+
+import com.bitacora.domain.model.activity.ActivityTextField;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
+import com.bitacora.domain.model.activity.ActivityTextSnapshot;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Puerto (interfaz) para el registro de operaciones de la edición
+ * colaborativa de los campos de texto de las actividades.
+ */
+public interface ActivityTextRepository {
+
+    /**
+     * Obtiene el texto guardado de un campo y su revisión, registrando el
+     * campo para la edición colaborativa si aún no lo estaba. El texto y la
+     * revisión se leen a la vez, de modo que corresponden siempre.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @return El texto y su revisión, o vacío si la actividad no existe
+     */
+    Optional<ActivityTextSnapshot> openSnapshot(Long activityId, ActivityTextField field);
+
+    /**
+     * Busca las revisiones de un campo posteriores a una dada, en orden.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param after      La revisión a partir de la que buscar
+     * @param limit      El número máximo de revisiones
+     * @return Las revisiones en orden ascendente
+     */
+    List<ActivityTextRevision> findRevisionsAfter(Long activityId, ActivityTextField field, long after, int limit);
+
+    /**
+     * Registra una revisión si su número sigue libre.
+     *
+     * @param revision La revisión
+     * @return false si otra operación ya ocupó ese número de revisión
+     */
+    boolean append(ActivityTextRevision revision);
+
+    /**
+     * Avanza la revisión del texto guardado en la actividad. Debe llamarse
+     * en la transacción que guarda el texto; bloquea el estado del campo
+     * hasta confirmarla.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param revision   La revisión del texto guardado
+     * @return false si el texto guardado ya era de una revisión igual o posterior
+     */
+    boolean advanceSnapshot(Long activityId, ActivityTextField field, long revision);
+
+    /**
+     * Registra un reinicio de un campo cuyo texto se sustituyó entero en la
+     * transacción en curso, si el campo está en edición colaborativa.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @return La revisión del reinicio, o vacío si el campo no estaba en edición
+     */
+    Optional<Long> reset(Long activityId, ActivityTextField field);
+
+    /**
+     * Elimina las revisiones de un campo hasta una dada.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param revision   La última revisión a eliminar
+     * @return El número de revisiones eliminadas
+     */
+    int deleteRevisionsUpTo(Long activityId, ActivityTextField field, long revision);
+}
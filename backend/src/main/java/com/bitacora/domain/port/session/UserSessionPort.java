@@ -2,8 +2,10 @@ package com.bitacora.domain.port.session;
 
 import com.bitacora.domain.model.session.UserSession;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -36,6 +38,14 @@ public interface UserSessionPort {
      */
     Optional<UserSession> findByRefreshToken(String refreshToken);
     
+    /**
+     * Busca la sesión cuyo último token de refresco rotado es el indicado.
+     * 
+     * @param refreshToken El token de refresco rotado
+     * @return La sesión encontrada, o un Optional vacío si no existe
+     */
+    Optional<UserSession> findByPreviousRefreshToken(String refreshToken);
+    
     /**
      * Busca todas las sesiones activas de un usuario.
      * 
@@ -76,20 +86,38 @@ public interface UserSessionPort {
     List<UserSession> findExpiredSessions(Date now);
     
     /**
-     * Busca todas las sesiones inactivas por un período determinado.
+     * Busca un lote de sesiones activas, inactivas desde antes de un instante y
+     * aún no notificadas, a partir de una marca (hora de última actividad, ID).
+     * Los resultados se ordenan por hora de última actividad y luego por ID.
      * 
      * @param lastActivityBefore La fecha y hora antes de la cual se considera inactividad
+     * @param afterActivityTime La hora de última actividad de la marca, o null para empezar desde el inicio
+     * @param afterId El ID de sesión de la marca, o null para empezar desde el inicio
+     * @param limit El tamaño máximo del lote
      * @return Lista de sesiones inactivas
      */
-    List<UserSession> findInactiveSessions(Date lastActivityBefore);
+    List<UserSession> findInactiveSessionsToNotify(Date lastActivityBefore, Date afterActivityTime, Long afterId,
+            int limit);
+    
+    /**
+     * Marca un conjunto de sesiones como notificadas por inactividad.
+     * 
+     * @param sessionIds Los IDs de las sesiones
+     * @param notifiedAt La fecha y hora de la notificación
+     * @return El número de sesiones actualizadas
+     */
+    int markInactivityNotified(Collection<Long> sessionIds, Date notifiedAt);
     
     /**
-     * Actualiza el estado de todas las sesiones expiradas.
+     * Marca como expirado un lote de sesiones activas que ya no pueden
+     * renovarse: su token de refresco venció (o, en sesiones sin esa fecha, su
+     * token de acceso).
      * 
      * @param now La fecha y hora actual
+     * @param limit El número máximo de sesiones a actualizar
      * @return El número de sesiones actualizadas
      */
-    int updateExpiredSessions(Date now);
+    int expireSessions(Date now, int limit);
     
     /**
      * Cierra todas las sesiones activas de un usuario excepto la sesión actual.
@@ -99,4 +127,21 @@ public interface UserSessionPort {
      * @return El número de sesiones cerradas
      */
     int closeOtherSessions(Long userId, Long currentSessionId);
+    
+    /**
+     * Actualiza en lote la hora de la última actividad de varias sesiones.
+     * Una sesión solo se actualiza si la nueva hora es posterior a la almacenada.
+     * 
+     * @param lastActivityBySession Mapa de ID de sesión a hora de última actividad
+     * @return El número de sesiones actualizadas
+     */
+    int updateLastActivityTimes(Map<Long, Date> lastActivityBySession);
+    
+    /**
+     * Elimina las sesiones cerradas, expiradas o revocadas iniciadas antes de una fecha.
+     * 
+     * @param cutoff La fecha límite de inicio de sesión
+     * @return El número de sesiones eliminadas
+     */
+    int purgeSessionsBefore(Date cutoff);
 }
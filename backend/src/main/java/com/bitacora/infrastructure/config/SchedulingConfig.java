@@ -0,0 +1,13 @@
+package com.bitacora.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración de tareas programadas.
+ * Habilita la ejecución de los métodos anotados con @Scheduled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
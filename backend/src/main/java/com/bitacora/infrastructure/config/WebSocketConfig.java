@@ -1,10 +1,29 @@
 package com.bitacora.infrastructure.config;
 
+import com.bitacora.infrastructure.messaging.encoding.BinaryPayloadMessageConverter;
+import com.bitacora.infrastructure.messaging.encoding.PayloadEncoding;
+import com.bitacora.infrastructure.messaging.encoding.PayloadEncodingNegotiator;
+import com.bitacora.infrastructure.messaging.encoding.PayloadTranscodingInterceptor;
+import com.bitacora.infrastructure.messaging.outbound.SessionOutboundLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
 
 /**
  * Configuración del servidor WebSocket.
@@ -12,8 +31,44 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final PayloadEncodingNegotiator encodingNegotiator;
+    private final PayloadTranscodingInterceptor transcodingInterceptor;
+    private final SessionOutboundLimiter sessionOutboundLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${websocket.channels.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${websocket.channels.inbound.pool-size:0}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.channels.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.channels.outbound.pool-size:0}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.channels.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.heartbeat.server:10000}")
+    private long serverHeartbeatMillis;
+
+    @Value("${websocket.heartbeat.client:10000}")
+    private long clientHeartbeatMillis;
+
+    @Value("${websocket.transport.time-to-first-message:30000}")
+    private int timeToFirstMessageMillis;
+
+    @Value("${websocket.transport.send-time-limit:15000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
     /**
      * Configura el registro de endpoints STOMP.
      * @param registry El registro de endpoints STOMP
@@ -27,17 +82,114 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     /**
      * Configura el broker de mensajes.
+     * Los heartbeats permiten al broker cerrar las conexiones que dejan de
+     * responder en lugar de mantenerlas abiertas indefinidamente.
      * @param registry El registro del broker de mensajes
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // Prefijo para endpoints que manejan mensajes del cliente
         registry.setApplicationDestinationPrefixes("/app");
-        
+
         // Habilitar broker simple en memoria con prefijos para tópicos y colas
-        registry.enableSimpleBroker("/topic", "/queue", "/user");
-        
+        registry.enableSimpleBroker("/topic", "/queue", "/user")
+                .setHeartbeatValue(new long[] {serverHeartbeatMillis, clientHeartbeatMillis})
+                .setTaskScheduler(webSocketHeartbeatScheduler());
+
         // Prefijo para mensajes dirigidos a usuarios específicos
         registry.setUserDestinationPrefix("/user");
     }
+
+    /**
+     * Configura el ejecutor del canal de mensajes entrantes.
+     * @param registration El registro del canal
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "ws-inbound-", inboundPoolSize, inboundQueueCapacity);
+        registration.interceptors(encodingNegotiator);
+    }
+
+    /**
+     * Configura el ejecutor del canal de mensajes salientes y la
+     * conversión del contenido a la codificación negociada por cada sesión.
+     * @param registration El registro del canal
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "ws-outbound-", outboundPoolSize, outboundQueueCapacity);
+        registration.interceptors(transcodingInterceptor);
+    }
+
+    /**
+     * Añade los conversores de las codificaciones binarias (CBOR y Smile) a los
+     * conversores por defecto. JSON sigue siendo la codificación por defecto;
+     * los binarios solo se usan con su tipo de contenido explícito.
+     * @param messageConverters Los conversores
+     * @return true para conservar también los conversores por defecto
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new BinaryPayloadMessageConverter(PayloadEncoding.CBOR, objectMapper));
+        messageConverters.add(new BinaryPayloadMessageConverter(PayloadEncoding.SMILE, objectMapper));
+        return true;
+    }
+
+    /**
+     * Configura los límites del transporte WebSocket. Las conexiones que no
+     * envían CONNECT a tiempo se cierran. Cada sesión tiene además un búfer
+     * de salida acotado que, al llenarse, descarta los mensajes más antiguos
+     * o desconecta la sesión según {@code websocket.outbound.overflow-policy}.
+     * @param registration El registro del transporte
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setTimeToFirstMessage(timeToFirstMessageMillis)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .addDecoratorFactory(sessionOutboundLimiter);
+    }
+
+    /**
+     * Planificador de los heartbeats del broker.
+     * @return El planificador
+     */
+    @Bean
+    public ThreadPoolTaskScheduler webSocketHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        return scheduler;
+    }
+
+    /**
+     * Configura el ejecutor de un canal. Con hilos virtuales cada mensaje se
+     * procesa en un hilo virtual nuevo, sin pool ni cola: el tamaño limita los
+     * mensajes en proceso a la vez y, al alcanzarlo, quien envía al canal
+     * espera a que termine alguno. Con hilos de plataforma se usa un pool con
+     * cola, y un tamaño 0 usa el doble de procesadores disponibles.
+     * @param registration  El registro del canal
+     * @param prefix        El prefijo de los nombres de los hilos
+     * @param poolSize      El tamaño del pool, o el límite de concurrencia con hilos virtuales
+     * @param queueCapacity La capacidad de la cola (sin efecto con hilos virtuales)
+     */
+    private void configureExecutor(ChannelRegistration registration, String prefix, int poolSize,
+            int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize > 0 ? poolSize : 1000);
+            registration.executor(executor);
+            return;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setAllowCoreThreadTimeOut(true);
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2;
+        registration.taskExecutor(executor)
+                .corePoolSize(size)
+                .maxPoolSize(size)
+                .queueCapacity(queueCapacity);
+    }
 }
@@ -0,0 +1,27 @@
+package com.bitacora.infrastructure.exception;
+
+/**
+ * Excepción que se lanza cuando un servicio está saturado y no puede atender
+ * la solicitud en este momento.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Constructor con mensaje.
+     *
+     * @param message El mensaje de error
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor con mensaje y causa.
+     *
+     * @param message El mensaje de error
+     * @param cause   La causa del error
+     */
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,131 @@
+package com.bitacora.infrastructure.messaging;
+
+import com.bitacora.application.notification.CollaborationService;
+import com.bitacora.application.notification.DepartmentPresenceIndex;
+import com.bitacora.infrastructure.security.UserPrincipal;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene la presencia de un usuario en las actividades mientras tiene alguna
+ * sesión STOMP abierta, renovando periódicamente sus concesiones, y la libera
+ * cuando se cierra su última sesión, sin esperar a que expiren. Mantiene
+ * también el índice de usuarios conectados por departamento.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceSessionListener {
+
+    private final CollaborationService collaborationService;
+    private final DepartmentPresenceIndex departmentIndex;
+
+    /**
+     * Sesiones STOMP abiertas de cada usuario.
+     */
+    private final ConcurrentHashMap<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una sesión STOMP conectada.
+     *
+     * @param event El evento de conexión
+     */
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        UserPrincipal user = resolveUser(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null) {
+            return;
+        }
+
+        boolean[] added = new boolean[1];
+        sessionsByUser.compute(user.getId(), (id, sessions) -> {
+            Set<String> current = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            added[0] = current.add(sessionId);
+            return current;
+        });
+
+        if (added[0]) {
+            departmentIndex.connect(user.getUsername());
+        }
+    }
+
+    /**
+     * Elimina una sesión STOMP y, si era la última del usuario, libera su presencia.
+     *
+     * @param event El evento de desconexión
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        UserPrincipal user = resolveUser(event.getUser());
+        if (user == null) {
+            return;
+        }
+
+        Long userId = user.getId();
+        boolean[] removed = new boolean[1];
+        boolean[] lastSession = new boolean[1];
+        // El evento puede publicarse más de una vez por sesión; solo la primera libera la presencia
+        sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            if (!sessions.remove(event.getSessionId())) {
+                return sessions;
+            }
+            removed[0] = true;
+            lastSession[0] = sessions.isEmpty();
+            return lastSession[0] ? null : sessions;
+        });
+
+        if (removed[0]) {
+            departmentIndex.disconnect(user.getUsername());
+        }
+        if (lastSession[0]) {
+            log.debug("Última sesión WebSocket cerrada para el usuario {}", userId);
+            collaborationService.releaseUser(userId);
+        }
+    }
+
+    /**
+     * Renueva las concesiones de presencia de los usuarios con alguna sesión
+     * STOMP abierta en este nodo. El intervalo debe ser menor que la duración
+     * de las concesiones.
+     */
+    @Scheduled(fixedDelayString = "${collaboration.presence.renew-interval:15000}")
+    public void renewConnectedUsers() {
+        Set<Long> connectedUsers = Set.copyOf(sessionsByUser.keySet());
+        if (connectedUsers.isEmpty()) {
+            return;
+        }
+        try {
+            collaborationService.renewLeases(connectedUsers);
+        } catch (RuntimeException e) {
+            log.warn("Error al renovar las concesiones de presencia: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el usuario autenticado de una sesión STOMP.
+     *
+     * @param principal El usuario de la sesión
+     * @return El usuario, o null si la sesión no está autenticada
+     */
+    private UserPrincipal resolveUser(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bitacora.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de los canales STOMP: mensajes en cola y en curso por canal,
+ * sesiones activas y tiempo de envío de los mensajes salientes.
+ */
+@Component
+public class WebSocketChannelMetrics implements ExecutorChannelInterceptor {
+
+    private static final String METRIC_PREFIX = "websocket";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ExecutorSubscribableChannel> channels;
+    private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Long> handleStart = new ThreadLocal<>();
+    private final Timer sendTimer;
+
+    /**
+     * Constructor de las métricas.
+     *
+     * @param meterRegistry         El registro de métricas
+     * @param clientInboundChannel  El canal de mensajes entrantes
+     * @param clientOutboundChannel El canal de mensajes salientes
+     * @param brokerChannel         El canal del broker
+     */
+    public WebSocketChannelMetrics(
+            MeterRegistry meterRegistry,
+            @Qualifier("clientInboundChannel") ExecutorSubscribableChannel clientInboundChannel,
+            @Qualifier("clientOutboundChannel") ExecutorSubscribableChannel clientOutboundChannel,
+            @Qualifier("brokerChannel") ExecutorSubscribableChannel brokerChannel) {
+        this.meterRegistry = meterRegistry;
+        this.channels = Map.of(
+                "inbound", clientInboundChannel,
+                "outbound", clientOutboundChannel,
+                "broker", brokerChannel);
+        this.sendTimer = Timer.builder(METRIC_PREFIX + ".outbound.send")
+                .description("Tiempo de entrega de los mensajes salientes al búfer de cada sesión WebSocket")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra los indicadores de cada canal y el interceptor de envío.
+     */
+    @PostConstruct
+    public void registerMeters() {
+        channels.forEach((name, channel) -> {
+            Executor executor = channel.getExecutor();
+            if (executor instanceof ThreadPoolTaskExecutor pool) {
+                Gauge.builder(METRIC_PREFIX + ".channel.queue.size", pool,
+                                p -> p.getThreadPoolExecutor().getQueue().size())
+                        .description("Mensajes en espera en el canal")
+                        .tag("channel", name)
+                        .register(meterRegistry);
+                Gauge.builder(METRIC_PREFIX + ".channel.active", pool, ThreadPoolTaskExecutor::getActiveCount)
+                        .description("Mensajes en proceso en el canal")
+                        .tag("channel", name)
+                        .register(meterRegistry);
+            }
+        });
+        channels.get("outbound").addInterceptor(this);
+
+        Gauge.builder(METRIC_PREFIX + ".sessions.active", activeSessions, Set::size)
+                .description("Sesiones STOMP conectadas")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        handleStart.set(System.nanoTime());
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        Long start = handleStart.get();
+        if (start != null) {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            handleStart.remove();
+        }
+    }
+
+    /**
+     * Cuenta una sesión STOMP conectada.
+     *
+     * @param event El evento de conexión
+     */
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            activeSessions.add(sessionId);
+        }
+    }
+
+    /**
+     * Descuenta una sesión STOMP desconectada.
+     *
+     * @param event El evento de desconexión
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        // El evento puede publicarse más de una vez por sesión
+        activeSessions.remove(event.getSessionId());
+    }
+}
@@ -1,5 +1,9 @@
 package com.bitacora.infrastructure.messaging.adapter;
 
+import com.bitacora.application.notification.NotificationInboxService;
+import com.bitacora.domain.model.activity.ActivityChange;
+import com.bitacora.domain.model.activity.ActivityDiff;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
 import com.bitacora.domain.model.notification.NotificationType;
 import com.bitacora.domain.model.notification.RealTimeNotification;
 import com.bitacora.domain.model.notification.SessionActivityEvent;
@@ -11,23 +15,55 @@ import com.bitacora.domain.model.notification.DeadlineReminderNotification;
 import com.bitacora.domain.model.notification.AnnouncementNotification;
 import com.bitacora.domain.model.notification.CollaborationNotification;
 import com.bitacora.domain.port.notification.NotificationPort;
+import com.bitacora.infrastructure.messaging.coalescing.NotificationCoalescer;
+import com.bitacora.infrastructure.messaging.feed.ActivityDiffMessage;
+import com.bitacora.infrastructure.messaging.feed.ActivityFeedDeliverer;
+import com.bitacora.infrastructure.messaging.feed.ActivityTextMessage;
+import com.bitacora.infrastructure.messaging.outbound.OutboundRateLimiter;
+import com.bitacora.infrastructure.messaging.relay.ClusterMessagingTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Adaptador para el envío de notificaciones en tiempo real.
- * Implementa el puerto NotificationPort utilizando WebSockets.
+ * Implementa el puerto NotificationPort utilizando WebSockets. Los mensajes se
+ * envían a través de {@link ClusterMessagingTemplate}, que los reparte entre
+ * todos los nodos de la aplicación. Las notificaciones pasan antes por
+ * {@link NotificationCoalescer}, que agrupa las de un mismo destino según su tipo.
+ * Las notificaciones privadas se guardan antes en la bandeja del usuario, que
+ * les asigna su número de secuencia. Una notificación para varios usuarios se
+ * publica como un único mensaje compartido; la secuencia de cada destinatario
+ * viaja en la cabecera STOMP {@code sequence}.
+ * Los envíos se limitan por usuario y por destino compartido con
+ * {@link OutboundRateLimiter}: las notificaciones privadas que superan el
+ * límite no se envían en tiempo real, pero quedan en la bandeja, y los avisos
+ * de estado de usuarios y de sesiones que lo superan se descartan (cada
+ * descarte se cuenta en las métricas de mensajes salientes). Las
+ * notificaciones globales, los anuncios y las alertas del sistema no se
+ * limitan, porque no tienen bandeja en la que recuperarse; las ráfagas de
+ * anuncios se combinan en un mensaje por ventana de agrupación, igual que las
+ * notificaciones de colaboración.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationAdapter implements NotificationPort {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final NotificationCoalescer coalescer;
+    private final NotificationInboxService inboxService;
+    private final OutboundRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
 
     private static final String NOTIFICATION_DESTINATION = "/topic/notification";
     private static final String USER_STATUS_DESTINATION = "/topic/user-status";
@@ -40,13 +76,42 @@ public class NotificationAdapter implements NotificationPort {
     @Override
     public void sendGlobalNotification(RealTimeNotification notification) {
         log.debug("Enviando notificación global: {}", notification);
-        messagingTemplate.convertAndSend(NOTIFICATION_DESTINATION, notification);
+        coalescer.send(NOTIFICATION_DESTINATION, notification);
     }
 
     @Override
     public void sendPrivateNotification(String username, RealTimeNotification notification) {
         log.debug("Enviando notificación privada a {}: {}", username, notification);
-        messagingTemplate.convertAndSendToUser(username, USER_NOTIFICATION_DESTINATION, notification);
+        sendToInbox(username, notification);
+    }
+
+    @Override
+    public void sendPrivateNotification(Collection<String> usernames, RealTimeNotification notification) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        log.debug("Enviando notificación privada a {} usuarios: {}", usernames.size(), notification);
+        // La secuencia es propia de cada destinatario: el contenido compartido no la lleva
+        RealTimeNotification shared = withoutSequence(notification);
+        Set<String> recipients = new LinkedHashSet<>(usernames);
+
+        Map<String, Long> sequences;
+        try {
+            sequences = inboxService.recordAll(recipients, shared);
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar la notificación {} en la bandeja de {} usuarios: {}",
+                    shared.getId(), recipients.size(), e.getMessage());
+            sequences = Map.of();
+        }
+
+        // Cada destinatario recibe ya un único mensaje, así que no se pasa por el agrupador
+        Map<String, Long> deliverable = new LinkedHashMap<>();
+        for (String username : recipients) {
+            if (rateLimiter.tryAcquireForUser(username)) {
+                deliverable.put(username, sequences.get(username));
+            }
+        }
+        messagingTemplate.convertAndSendToUsers(deliverable, USER_NOTIFICATION_DESTINATION, shared);
     }
 
     @Override
@@ -89,16 +154,30 @@ public class NotificationAdapter implements NotificationPort {
         sendPrivateNotification(username, notification);
     }
 
+    @Override
+    public void sendInfoNotification(Collection<String> usernames, String title, String message) {
+        RealTimeNotification notification = RealTimeNotification.builder()
+                .type(NotificationType.INFO)
+                .title(title)
+                .message(message)
+                .build();
+        sendPrivateNotification(usernames, notification);
+    }
+
     @Override
     public void broadcastUserStatus(UserStatusEvent statusEvent) {
         log.debug("Enviando evento de estado de usuario: {}", statusEvent);
-        messagingTemplate.convertAndSend(USER_STATUS_DESTINATION, statusEvent);
+        if (withinDestinationLimit(USER_STATUS_DESTINATION)) {
+            messagingTemplate.convertAndSend(USER_STATUS_DESTINATION, statusEvent);
+        }
     }
 
     @Override
     public void broadcastSessionActivity(SessionActivityEvent activityEvent) {
         log.debug("Enviando evento de actividad de sesión: {}", activityEvent);
-        messagingTemplate.convertAndSend(SESSION_ACTIVITY_DESTINATION, activityEvent);
+        if (withinDestinationLimit(SESSION_ACTIVITY_DESTINATION)) {
+            messagingTemplate.convertAndSend(SESSION_ACTIVITY_DESTINATION, activityEvent);
+        }
     }
 
     @Override
@@ -107,25 +186,46 @@ public class NotificationAdapter implements NotificationPort {
         messagingTemplate.convertAndSend(SYSTEM_ALERT_DESTINATION, alertEvent);
     }
 
+    @Override
+    public void broadcastActivityChange(ActivityChange change) {
+        // Cada nodo lo entrega a sus propios flujos; no pasa por el broker ni se limita
+        messagingTemplate.convertAndSend(ActivityFeedDeliverer.CHANGES_DESTINATION, change);
+    }
+
+    @Override
+    public void broadcastActivityDiff(ActivityDiff diff) {
+        log.debug("Enviando diferencia de la actividad {} (versión {})", diff.getActivityId(), diff.getVersion());
+        // Sin agrupar ni limitar: el cliente necesita cada diferencia para seguir la cadena de versiones
+        messagingTemplate.convertAndSend(ACTIVITY_COLLABORATION_DESTINATION + diff.getActivityId(),
+                ActivityDiffMessage.from(diff));
+    }
+
+    @Override
+    public void broadcastTextRevision(ActivityTextRevision revision) {
+        // Tampoco se agrupa ni se limita: cada revisión es necesaria para las siguientes
+        messagingTemplate.convertAndSend(ACTIVITY_COLLABORATION_DESTINATION + revision.getActivityId()
+                + ActivityTextMessage.TOPIC_SUFFIX, ActivityTextMessage.from(revision));
+    }
+
     @Override
     public void sendTaskAssignmentNotification(String username, TaskAssignmentNotification notification) {
         log.debug("Enviando notificación de asignación de tarea a {}: {}", username, notification);
         notification.setType(NotificationType.TASK_ASSIGNMENT);
-        messagingTemplate.convertAndSendToUser(username, USER_NOTIFICATION_DESTINATION, notification);
+        sendToInbox(username, notification);
     }
 
     @Override
     public void sendTaskStatusChangeNotification(String username, TaskStatusChangeNotification notification) {
         log.debug("Enviando notificación de cambio de estado de tarea a {}: {}", username, notification);
         notification.setType(NotificationType.TASK_STATUS_CHANGE);
-        messagingTemplate.convertAndSendToUser(username, USER_NOTIFICATION_DESTINATION, notification);
+        sendToInbox(username, notification);
     }
 
     @Override
     public void sendDeadlineReminderNotification(String username, DeadlineReminderNotification notification) {
         log.debug("Enviando notificación de recordatorio de fecha límite a {}: {}", username, notification);
         notification.setType(NotificationType.DEADLINE_REMINDER);
-        messagingTemplate.convertAndSendToUser(username, USER_NOTIFICATION_DESTINATION, notification);
+        sendToInbox(username, notification);
     }
 
     @Override
@@ -133,19 +233,71 @@ public class NotificationAdapter implements NotificationPort {
         log.debug("Enviando notificación de anuncio: {}", notification);
         notification.setType(NotificationType.ANNOUNCEMENT);
 
-        if (department != null && !department.isEmpty()) {
-            // Enviar a un departamento específico
-            messagingTemplate.convertAndSend(DEPARTMENT_ANNOUNCEMENT_DESTINATION + department, notification);
-        } else {
-            // Enviar a todos los usuarios
-            messagingTemplate.convertAndSend(NOTIFICATION_DESTINATION, notification);
-        }
+        // Enviar a un departamento específico o a todos los usuarios. Los mensajes de
+        // departamento no se publican en el tópico: cada nodo los entrega a sus miembros conectados
+        String destination = department != null && !department.isEmpty()
+                ? DEPARTMENT_ANNOUNCEMENT_DESTINATION + department
+                : NOTIFICATION_DESTINATION;
+        coalescer.send(destination, notification);
     }
 
     @Override
     public void broadcastCollaborationNotification(CollaborationNotification notification, Long activityId) {
         log.debug("Enviando notificación de colaboración para la actividad {}: {}", activityId, notification);
         notification.setType(NotificationType.COLLABORATION);
-        messagingTemplate.convertAndSend(ACTIVITY_COLLABORATION_DESTINATION + activityId, notification);
+        coalescer.send(ACTIVITY_COLLABORATION_DESTINATION + activityId, notification);
+    }
+
+    /**
+     * Guarda una notificación privada en la bandeja del usuario y la envía si
+     * el usuario no superó su límite de envío. Si no se puede guardar, se
+     * envía igualmente, sin número de secuencia.
+     *
+     * @param username     El nombre de usuario del destinatario
+     * @param notification La notificación
+     */
+    private void sendToInbox(String username, RealTimeNotification notification) {
+        try {
+            inboxService.record(username, notification);
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar la notificación {} en la bandeja de {}: {}",
+                    notification.getId(), username, e.getMessage());
+        }
+        if (!rateLimiter.tryAcquireForUser(username)) {
+            log.debug("Límite de envío superado para {}: la notificación {} queda solo en la bandeja",
+                    username, notification.getId());
+            return;
+        }
+        coalescer.sendToUser(username, USER_NOTIFICATION_DESTINATION, notification);
+    }
+
+    /**
+     * Comprueba el límite de envío de un destino compartido.
+     *
+     * @param destination El destino
+     * @return true si el mensaje puede enviarse
+     */
+    private boolean withinDestinationLimit(String destination) {
+        if (rateLimiter.tryAcquireForDestination(destination)) {
+            return true;
+        }
+        log.debug("Límite de envío superado para {}: mensaje descartado", destination);
+        return false;
+    }
+
+    /**
+     * Obtiene una notificación sin número de secuencia, copiándola si lo tiene
+     * para no modificar la del llamador.
+     *
+     * @param notification La notificación
+     * @return La notificación sin secuencia
+     */
+    private RealTimeNotification withoutSequence(RealTimeNotification notification) {
+        if (notification.getSequence() == null) {
+            return notification;
+        }
+        RealTimeNotification copy = objectMapper.convertValue(notification, RealTimeNotification.class);
+        copy.setSequence(null);
+        return copy;
     }
 }
@@ -0,0 +1,29 @@
+package com.bitacora.infrastructure.messaging.coalescing;
+
+/**
+ * Políticas de agrupación de las notificaciones salientes de un mismo destino
+ * dentro de la ventana de agrupación.
+ */
+public enum CoalescingPolicy {
+
+    /**
+     * Se envía cada notificación inmediatamente, sin agrupar.
+     */
+    NONE,
+
+    /**
+     * Solo se envía la última notificación recibida en la ventana.
+     */
+    LATEST_WINS,
+
+    /**
+     * Las notificaciones de la ventana se combinan en un resumen, por ejemplo
+     * "5 personas están viendo la actividad".
+     */
+    MERGE,
+
+    /**
+     * Se envían todas las notificaciones de la ventana en un único mensaje.
+     */
+    BATCH
+}
@@ -0,0 +1,86 @@
+package com.bitacora.infrastructure.messaging.coalescing;
+
+import com.bitacora.domain.model.notification.CollaborationNotification;
+import com.bitacora.domain.model.notification.CollaborationNotification.CollaborationAction;
+import com.bitacora.domain.model.notification.NotificationType;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combina las notificaciones de colaboración de una actividad recibidas en la
+ * misma ventana. De cada usuario se conserva solo su última acción, y las
+ * acciones de visualización de varios usuarios se resumen en una única
+ * notificación.
+ */
+public final class CollaborationNotificationMerger {
+
+    private CollaborationNotificationMerger() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Combina una lista de notificaciones.
+     *
+     * @param notifications Las notificaciones, en orden de llegada
+     * @return Las notificaciones combinadas
+     */
+    public static List<RealTimeNotification> merge(List<RealTimeNotification> notifications) {
+        // Última notificación de cada usuario; las que no son de colaboración se conservan tal cual
+        Map<Object, RealTimeNotification> latestByUser = new LinkedHashMap<>();
+        for (RealTimeNotification notification : notifications) {
+            Object key = notification instanceof CollaborationNotification collaboration
+                    && collaboration.getUserId() != null
+                            ? collaboration.getUserId()
+                            : notification.getId();
+            latestByUser.remove(key);
+            latestByUser.put(key, notification);
+        }
+
+        List<CollaborationNotification> viewers = new ArrayList<>();
+        List<RealTimeNotification> others = new ArrayList<>();
+        for (RealTimeNotification notification : latestByUser.values()) {
+            if (notification instanceof CollaborationNotification collaboration
+                    && collaboration.getAction() == CollaborationAction.VIEWING) {
+                viewers.add(collaboration);
+            } else {
+                others.add(notification);
+            }
+        }
+
+        List<RealTimeNotification> merged = new ArrayList<>(others.size() + 1);
+        if (viewers.size() == 1) {
+            merged.add(viewers.get(0));
+        } else if (viewers.size() > 1) {
+            merged.add(summarizeViewers(viewers));
+        }
+        merged.addAll(others);
+        return merged;
+    }
+
+    /**
+     * Resume varias notificaciones de visualización en una sola.
+     *
+     * @param viewers Las notificaciones de visualización
+     * @return La notificación resumen
+     */
+    private static CollaborationNotification summarizeViewers(List<CollaborationNotification> viewers) {
+        CollaborationNotification last = viewers.get(viewers.size() - 1);
+        List<String> names = viewers.stream()
+                .map(CollaborationNotification::getUserName)
+                .toList();
+
+        return CollaborationNotification.builder()
+                .type(NotificationType.COLLABORATION)
+                .activityId(last.getActivityId())
+                .activityTitle(last.getActivityTitle())
+                .action(CollaborationAction.VIEWING)
+                .userName(String.join(", ", names))
+                .title("Usuarios viendo actividad")
+                .message(viewers.size() + " personas están viendo la actividad")
+                .build();
+    }
+}
@@ -0,0 +1,264 @@
+package com.bitacora.infrastructure.messaging.coalescing;
+
+import com.bitacora.domain.model.notification.NotificationType;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.infrastructure.messaging.outbound.OutboundMessageMetrics;
+import com.bitacora.infrastructure.messaging.relay.ClusterMessagingTemplate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa las notificaciones salientes de un mismo destino durante una ventana
+ * corta y las envía en un único mensaje, aplicando la política configurada
+ * para cada tipo de notificación.
+ * Formato de los mensajes: una ventana con una sola notificación se envía como
+ * un objeto, igual que sin agrupación; con varias, como un array JSON de
+ * notificaciones en orden de llegada. Los clientes de {@code /topic/notification}
+ * y {@code /user/queue/notification} deben aceptar ambas formas.
+ * Cada ventana es un lote propio: la entrega programada de una ventana que ya
+ * se envió al alcanzar el tamaño máximo no envía el lote siguiente antes de
+ * tiempo.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final OutboundMessageMetrics metrics;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Map<NotificationType, CoalescingPolicy> policies;
+    private final ConcurrentHashMap<DestinationKey, Batch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor del agrupador.
+     *
+     * @param messagingTemplate La plantilla de envío
+     * @param metrics           Las métricas de mensajes salientes
+     * @param windowMillis      La duración de la ventana de agrupación en milisegundos
+     * @param maxBatchSize      El número máximo de notificaciones por mensaje
+     * @param policies          Las políticas por tipo, en formato TIPO=POLITICA separadas por comas
+     */
+    public NotificationCoalescer(
+            ClusterMessagingTemplate messagingTemplate,
+            OutboundMessageMetrics metrics,
+            @Value("${notifications.coalescing.window:250}") long windowMillis,
+            @Value("${notifications.coalescing.max-batch-size:100}") int maxBatchSize,
+            @Value("${notifications.coalescing.policies:COLLABORATION=MERGE,DEADLINE_REMINDER=BATCH,TASK_ASSIGNMENT=BATCH,ANNOUNCEMENT=BATCH}")
+            String policies) {
+        this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.policies = parsePolicies(policies);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Envía una notificación a un destino compartido, agrupándola si su tipo lo requiere.
+     *
+     * @param destination  El destino
+     * @param notification La notificación
+     */
+    public void send(String destination, RealTimeNotification notification) {
+        submit(new DestinationKey(null, destination, notification.getType()), notification);
+    }
+
+    /**
+     * Envía una notificación a un usuario, agrupándola si su tipo lo requiere.
+     *
+     * @param user         El usuario
+     * @param destination  El destino, relativo al usuario
+     * @param notification La notificación
+     */
+    public void sendToUser(String user, String destination, RealTimeNotification notification) {
+        submit(new DestinationKey(user, destination, notification.getType()), notification);
+    }
+
+    /**
+     * Envía las notificaciones pendientes antes de detener la aplicación.
+     */
+    @PreDestroy
+    public void flushAll() {
+        scheduler.shutdownNow();
+        new ArrayList<>(pending.entrySet()).forEach(entry -> flush(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Encola una notificación o la envía directamente si su tipo no se agrupa.
+     *
+     * @param key          El destino
+     * @param notification La notificación
+     */
+    private void submit(DestinationKey key, RealTimeNotification notification) {
+        if (windowMillis <= 0 || policyFor(key.type()) == CoalescingPolicy.NONE) {
+            deliver(key, List.of(notification));
+            return;
+        }
+
+        Batch[] full = new Batch[1];
+        pending.compute(key, (k, current) -> {
+            Batch batch = current;
+            if (batch == null) {
+                Batch created = new Batch();
+                scheduler.schedule(() -> flush(k, created), windowMillis, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.notifications.add(notification);
+            if (batch.notifications.size() >= maxBatchSize) {
+                // El lote lleno sale del mapa en la misma operación atómica
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            deliverBatch(key, full[0].notifications);
+        }
+    }
+
+    /**
+     * Envía un lote pendiente, si sigue siendo el lote actual del destino.
+     * Si el lote ya se envió (por ejemplo, al llenarse), no se hace nada.
+     *
+     * @param key   El destino
+     * @param batch El lote
+     */
+    private void flush(DestinationKey key, Batch batch) {
+        if (pending.remove(key, batch)) {
+            deliverBatch(key, batch.notifications);
+        }
+    }
+
+    /**
+     * Aplica la política del destino y envía las notificaciones de un lote.
+     *
+     * @param key           El destino
+     * @param notifications Las notificaciones, en orden de llegada
+     */
+    private void deliverBatch(DestinationKey key, List<RealTimeNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        try {
+            CoalescingPolicy policy = policyFor(key.type());
+            deliver(key, coalesce(policy, notifications));
+            if (notifications.size() > 1) {
+                // Todas las notificaciones de la ventana viajan en un solo mensaje
+                metrics.recordMerged(policy.name().toLowerCase(), notifications.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al enviar {} notificaciones agrupadas a {}: {}",
+                    notifications.size(), key.destination(), e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica una política de agrupación.
+     *
+     * @param policy        La política
+     * @param notifications Las notificaciones, en orden de llegada
+     * @return Las notificaciones a enviar
+     */
+    private List<RealTimeNotification> coalesce(CoalescingPolicy policy, List<RealTimeNotification> notifications) {
+        return switch (policy) {
+            case LATEST_WINS -> List.of(notifications.get(notifications.size() - 1));
+            case MERGE -> CollaborationNotificationMerger.merge(notifications);
+            default -> notifications;
+        };
+    }
+
+    /**
+     * Envía una o varias notificaciones en un único mensaje.
+     *
+     * @param key           El destino
+     * @param notifications Las notificaciones
+     */
+    private void deliver(DestinationKey key, List<RealTimeNotification> notifications) {
+        // Un array tipado conserva la información de tipo de cada notificación al serializar
+        Object payload = notifications.size() == 1
+                ? notifications.get(0)
+                : notifications.toArray(new RealTimeNotification[0]);
+
+        if (key.user() != null) {
+            messagingTemplate.convertAndSendToUser(key.user(), key.destination(), payload);
+        } else {
+            messagingTemplate.convertAndSend(key.destination(), payload);
+        }
+    }
+
+    /**
+     * Obtiene la política de agrupación de un tipo de notificación.
+     *
+     * @param type El tipo
+     * @return La política
+     */
+    private CoalescingPolicy policyFor(NotificationType type) {
+        return type != null ? policies.getOrDefault(type, CoalescingPolicy.NONE) : CoalescingPolicy.NONE;
+    }
+
+    /**
+     * Interpreta la configuración de políticas.
+     *
+     * @param config La configuración, en formato TIPO=POLITICA separadas por comas
+     * @return Las políticas por tipo
+     */
+    private static Map<NotificationType, CoalescingPolicy> parsePolicies(String config) {
+        Map<NotificationType, CoalescingPolicy> result = new EnumMap<>(NotificationType.class);
+        if (config == null || config.isBlank()) {
+            return result;
+        }
+        for (String entry : config.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                log.warn("Política de agrupación ignorada: {}", entry);
+                continue;
+            }
+            try {
+                result.put(NotificationType.valueOf(parts[0].trim()), CoalescingPolicy.valueOf(parts[1].trim()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Política de agrupación ignorada: {}", entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Destino de un grupo de notificaciones: usuario (o null), destino STOMP y tipo.
+     *
+     * @param user        El usuario, o null para un destino compartido
+     * @param destination El destino
+     * @param type        El tipo de notificación
+     */
+    private record DestinationKey(String user, String destination, NotificationType type) {
+    }
+
+    /**
+     * Notificaciones de una ventana de un destino. Se compara por identidad,
+     * de modo que cada ventana se distingue de las siguientes del mismo destino.
+     */
+    private static final class Batch {
+
+        private final List<RealTimeNotification> notifications = new ArrayList<>();
+    }
+}
@@ -0,0 +1,136 @@
+package com.bitacora.infrastructure.messaging.controller;
+
+import com.bitacora.application.activity.ActivityFeedFilter;
+import com.bitacora.application.activity.ActivityFeedRegistry;
+import com.bitacora.application.activity.ActivityFeedSubscription;
+import com.bitacora.domain.model.activity.ActivityStatus;
+import com.bitacora.domain.model.activity.ActivityType;
+import com.bitacora.infrastructure.messaging.feed.ActivityFeedDeliverer;
+import com.bitacora.infrastructure.messaging.feed.ActivityFeedDelta;
+import com.bitacora.infrastructure.rest.dto.ActivityFeedRequestDto;
+
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Controlador de los flujos de cambios de actividades por WebSocket.
+ * El cliente se suscribe a /user/queue/activity-feed, envía su filtro a
+ * /app/activity-feed/subscribe y, tras recibir la confirmación SUBSCRIBED,
+ * carga el listado una vez; a partir de ahí recibe en la misma cola los
+ * cambios INSERT, UPDATE y DELETE de las actividades que entran, cambian o
+ * salen de su filtro, en lugar de volver a consultar el listado.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityFeedController {
+
+    private static final String DEFAULT_FEED_ID = "default";
+    private static final int MAX_FEED_ID_LENGTH = 64;
+    private static final String READ_ACTIVITIES = "READ_ACTIVITIES";
+
+    private final ActivityFeedRegistry registry;
+
+    /**
+     * Registra o sustituye un flujo de cambios de la sesión.
+     *
+     * @param request        El filtro del flujo
+     * @param headerAccessor Acceso a los headers del mensaje
+     * @param authentication La autenticación del usuario
+     * @return La confirmación o el rechazo de la suscripción
+     */
+    @MessageMapping("/activity-feed/subscribe")
+    @SendToUser(destinations = ActivityFeedDeliverer.FEED_DESTINATION, broadcast = false)
+    public ActivityFeedDelta subscribe(
+            @Payload ActivityFeedRequestDto request,
+            SimpMessageHeaderAccessor headerAccessor,
+            Authentication authentication) {
+
+        String feedId = resolveFeedId(request.getFeedId());
+        if (feedId == null) {
+            return ActivityFeedDelta.rejected(request.getFeedId(), "Identificador de flujo no válido");
+        }
+
+        // Mismo permiso que el listado de actividades
+        boolean canRead = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals(READ_ACTIVITIES));
+        if (!canRead) {
+            log.warn("Usuario no autorizado {} intentó suscribirse al flujo de actividades", authentication.getName());
+            return ActivityFeedDelta.rejected(feedId, "Acceso denegado");
+        }
+
+        ActivityFeedFilter filter;
+        try {
+            filter = toFilter(request);
+        } catch (DateTimeParseException e) {
+            return ActivityFeedDelta.rejected(feedId, "Fecha no válida: " + e.getParsedString());
+        }
+
+        ActivityFeedSubscription subscription = new ActivityFeedSubscription(
+                headerAccessor.getSessionId(), authentication.getName(), feedId, filter);
+        if (!registry.subscribe(subscription)) {
+            return ActivityFeedDelta.rejected(feedId, "Se alcanzó el número máximo de flujos de la sesión");
+        }
+
+        log.debug("Flujo de actividades {} registrado para {}: {}", feedId, authentication.getName(), filter);
+        return ActivityFeedDelta.subscribed(feedId);
+    }
+
+    /**
+     * Cancela un flujo de cambios de la sesión.
+     *
+     * @param request        La solicitud, con el identificador del flujo
+     * @param headerAccessor Acceso a los headers del mensaje
+     */
+    @MessageMapping("/activity-feed/unsubscribe")
+    public void unsubscribe(@Payload ActivityFeedRequestDto request, SimpMessageHeaderAccessor headerAccessor) {
+        String feedId = resolveFeedId(request.getFeedId());
+        if (feedId != null) {
+            registry.unsubscribe(headerAccessor.getSessionId(), feedId);
+        }
+    }
+
+    /**
+     * Convierte los filtros de la solicitud con las mismas reglas que el
+     * listado de actividades.
+     *
+     * @param request La solicitud
+     * @return El filtro
+     * @throws DateTimeParseException Si una fecha no tiene el formato yyyy-MM-dd
+     */
+    private ActivityFeedFilter toFilter(ActivityFeedRequestDto request) {
+        ActivityType type = hasText(request.getType()) ? ActivityType.fromString(request.getType()) : null;
+        ActivityStatus status = hasText(request.getStatus()) ? ActivityStatus.fromString(request.getStatus()) : null;
+        LocalDateTime startDate = hasText(request.getStartDate())
+                ? LocalDate.parse(request.getStartDate()).atStartOfDay()
+                : null;
+        LocalDateTime endDate = hasText(request.getEndDate())
+                ? LocalDate.parse(request.getEndDate()).atTime(LocalTime.of(23, 59, 59))
+                : null;
+        return new ActivityFeedFilter(type, status, request.getUserId(), startDate, endDate, request.getSearch());
+    }
+
+    private static String resolveFeedId(String feedId) {
+        if (!hasText(feedId)) {
+            return DEFAULT_FEED_ID;
+        }
+        String trimmed = feedId.trim();
+        return trimmed.length() <= MAX_FEED_ID_LENGTH ? trimmed : null;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,131 @@
+package com.bitacora.infrastructure.messaging.controller;
+
+import com.bitacora.application.activity.CollaborativeTextService;
+import com.bitacora.domain.exception.TextOperationRejectedException;
+import com.bitacora.domain.model.activity.ActivityTextField;
+import com.bitacora.domain.model.activity.TextOperation;
+import com.bitacora.infrastructure.messaging.feed.ActivityTextMessage;
+import com.bitacora.infrastructure.rest.dto.ActivityTextOperationDto;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controlador de la edición colaborativa de los campos de texto de las
+ * actividades por WebSocket.
+ * El cliente se suscribe a /topic/activity/{id}/text y a
+ * /user/queue/activity-text, abre el campo en
+ * /app/activity/{id}/text/open y recibe el texto con su revisión (SNAPSHOT).
+ * Después envía sus ediciones a /app/activity/{id}/text/operation, de una en
+ * una: hasta recibir en el topic su propia operación (mismo
+ * clientOperationId) agrupa las nuevas ediciones en una sola. Las operaciones
+ * de los demás llegan por el topic con su revisión; se aplican en orden de
+ * revisión, transformándolas contra la operación pendiente. Ante TEXT_RESET,
+ * RESYNC o un hueco de revisiones que no se completa, el cliente vuelve a
+ * abrir el campo.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class CollaborativeTextController {
+
+    private static final String READ_ACTIVITIES = "READ_ACTIVITIES";
+    private static final String WRITE_ACTIVITIES = "WRITE_ACTIVITIES";
+    private static final int MAX_CLIENT_OPERATION_ID_LENGTH = 64;
+
+    private final CollaborativeTextService collaborativeTextService;
+
+    /**
+     * Abre un campo de texto para editarlo.
+     *
+     * @param activityId     El ID de la actividad
+     * @param request        La solicitud, con el campo
+     * @param authentication La autenticación del usuario
+     * @return El texto con su revisión, o el rechazo
+     */
+    @MessageMapping("/activity/{activityId}/text/open")
+    @SendToUser(destinations = ActivityTextMessage.QUEUE_DESTINATION, broadcast = false)
+    public ActivityTextMessage open(
+            @DestinationVariable Long activityId,
+            @Payload ActivityTextOperationDto request,
+            Authentication authentication) {
+
+        ActivityTextField field = ActivityTextField.fromString(request.getField());
+        if (field == null) {
+            return ActivityTextMessage.rejected(activityId, request.getField(), null, false, "Campo no válido");
+        }
+        if (!hasAuthority(authentication, READ_ACTIVITIES)) {
+            log.warn("Usuario no autorizado {} intentó abrir el texto {} de la actividad {}",
+                    authentication.getName(), field, activityId);
+            return ActivityTextMessage.rejected(activityId, field.getFieldName(), null, false, "Acceso denegado");
+        }
+
+        return collaborativeTextService.open(activityId, field)
+                .map(snapshot -> ActivityTextMessage.snapshot(activityId, field, snapshot))
+                .orElseGet(() -> ActivityTextMessage.rejected(
+                        activityId, field.getFieldName(), null, false, "La actividad no existe"));
+    }
+
+    /**
+     * Aplica una operación sobre un campo de texto. La confirmación llega por
+     * el topic del campo, junto con las operaciones de los demás; solo los
+     * rechazos se responden al cliente.
+     *
+     * @param activityId     El ID de la actividad
+     * @param request        La operación
+     * @param authentication La autenticación del usuario
+     * @return El rechazo, o null si se aplicó
+     */
+    @MessageMapping("/activity/{activityId}/text/operation")
+    @SendToUser(destinations = ActivityTextMessage.QUEUE_DESTINATION, broadcast = false)
+    public ActivityTextMessage operation(
+            @DestinationVariable Long activityId,
+            @Payload ActivityTextOperationDto request,
+            Authentication authentication) {
+
+        ActivityTextField field = ActivityTextField.fromString(request.getField());
+        String clientOperationId = request.getClientOperationId();
+        if (field == null) {
+            return ActivityTextMessage.rejected(activityId, request.getField(), clientOperationId, false,
+                    "Campo no válido");
+        }
+        if (!hasAuthority(authentication, WRITE_ACTIVITIES)) {
+            log.warn("Usuario no autorizado {} intentó editar el texto {} de la actividad {}",
+                    authentication.getName(), field, activityId);
+            return ActivityTextMessage.rejected(activityId, field.getFieldName(), clientOperationId, false,
+                    "Acceso denegado");
+        }
+        if (request.getRevision() == null || request.getOperation() == null
+                || (clientOperationId != null && clientOperationId.length() > MAX_CLIENT_OPERATION_ID_LENGTH)) {
+            return ActivityTextMessage.rejected(activityId, field.getFieldName(), null, false,
+                    "Operación incompleta");
+        }
+
+        try {
+            TextOperation operation = TextOperation.fromComponents(request.getOperation());
+            collaborativeTextService.apply(activityId, field, request.getRevision(), operation,
+                    clientOperationId, authentication.getName());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return ActivityTextMessage.rejected(activityId, field.getFieldName(), clientOperationId, false,
+                    e.getMessage());
+        } catch (TextOperationRejectedException e) {
+            log.debug("Operación {} de {} rechazada en el texto {} de la actividad {}: {}",
+                    clientOperationId, authentication.getName(), field, activityId, e.getMessage());
+            return ActivityTextMessage.rejected(activityId, field.getFieldName(), clientOperationId,
+                    e.isResyncRequired(), e.getMessage());
+        }
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(granted -> granted.getAuthority().equals(authority));
+    }
+}
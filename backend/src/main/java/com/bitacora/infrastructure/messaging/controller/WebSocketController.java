@@ -1,14 +1,17 @@
 package com.bitacora.infrastructure.messaging.controller;
 
+import com.bitacora.application.notification.NotificationInboxService;
 import com.bitacora.domain.model.notification.RealTimeNotification;
 import com.bitacora.domain.model.notification.SessionActivityEvent;
 import com.bitacora.domain.model.notification.SystemAlertEvent;
 import com.bitacora.domain.model.notification.UserStatusEvent;
 import com.bitacora.domain.port.notification.NotificationPort;
+import com.bitacora.infrastructure.rest.dto.notification.NotificationReplayRequest;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
@@ -24,6 +27,7 @@ import lombok.extern.slf4j.Slf4j;
 public class WebSocketController {
 
     private final NotificationPort notificationPort;
+    private final NotificationInboxService inboxService;
 
     /**
      * Maneja las notificaciones enviadas por los clientes.
@@ -134,4 +138,27 @@ public class WebSocketController {
             log.warn("Usuario no autorizado {} intentó enviar una alerta del sistema", username);
         }
     }
+
+    /**
+     * Reenvía las notificaciones privadas que el cliente no recibió mientras
+     * estaba desconectado. El cliente debe enviarlo tras suscribirse a
+     * /user/queue/notification, con la última secuencia que recibió; la
+     * respuesta se envía solo a la sesión que lo solicita.
+     *
+     * @param request        La solicitud de reenvío
+     * @param authentication La autenticación del usuario
+     * @return Las notificaciones perdidas, en orden de secuencia
+     */
+    @MessageMapping("/notifications/replay")
+    @SendToUser(destinations = "/queue/notification-replay", broadcast = false)
+    public RealTimeNotification[] handleNotificationReplay(
+            @Payload NotificationReplayRequest request,
+            Authentication authentication) {
+
+        String username = authentication.getName();
+        log.debug("Reenviando a {} las notificaciones posteriores a {}", username, request.getLastSequence());
+
+        // Un array tipado conserva la información de tipo de cada notificación al serializar
+        return inboxService.replay(username, request.getLastSequence()).toArray(new RealTimeNotification[0]);
+    }
 }
@@ -0,0 +1,60 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Conversor de mensajes STOMP para una codificación binaria de Jackson (CBOR o
+ * Smile). Permite recibir en los métodos {@code @MessageMapping} contenidos
+ * enviados por el cliente en la codificación negociada, y enviar mensajes con
+ * esa codificación cuando se indica su tipo de contenido.
+ */
+public class BinaryPayloadMessageConverter extends AbstractMessageConverter {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor del conversor.
+     *
+     * @param encoding     La codificación binaria
+     * @param objectMapper El mapeador de la aplicación, cuya configuración se reutiliza
+     */
+    public BinaryPayloadMessageConverter(PayloadEncoding encoding, ObjectMapper objectMapper) {
+        super(encoding.getMimeType());
+        this.objectMapper = objectMapper.copyWith(encoding.getFactory().copy());
+        // Solo se convierte con un tipo de contenido explícito; JSON sigue siendo el valor por defecto
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, targetClass);
+        } catch (IOException e) {
+            throw new MessageConversionException(message, "No se pudo leer el contenido binario", e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new MessageConversionException("No se pudo escribir el contenido binario", e);
+        }
+    }
+}
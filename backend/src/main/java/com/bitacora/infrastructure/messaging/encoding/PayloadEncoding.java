@@ -0,0 +1,74 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Codificaciones admitidas para el contenido de los mensajes STOMP.
+ * JSON es la codificación por defecto; CBOR y Smile son codificaciones
+ * binarias del mismo modelo de datos, más compactas y rápidas de leer.
+ */
+public enum PayloadEncoding {
+
+    JSON(MimeTypeUtils.APPLICATION_JSON, new JsonFactory()),
+    CBOR(new MimeType("application", "cbor"), new CBORFactory()),
+    SMILE(new MimeType("application", "x-jackson-smile"), new SmileFactory());
+
+    private final MimeType mimeType;
+    private final JsonFactory factory;
+
+    PayloadEncoding(MimeType mimeType, JsonFactory factory) {
+        this.mimeType = mimeType;
+        this.factory = factory;
+    }
+
+    /**
+     * Obtiene el tipo MIME de la codificación.
+     *
+     * @return El tipo MIME
+     */
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Obtiene la fábrica de Jackson de la codificación.
+     *
+     * @return La fábrica
+     */
+    public JsonFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Obtiene la codificación que corresponde a una cabecera de negociación.
+     * La cabecera puede contener varios tipos MIME separados por comas, en orden
+     * de preferencia.
+     *
+     * @param header El valor de la cabecera, o null
+     * @return La primera codificación admitida, o JSON si no hay ninguna
+     */
+    public static PayloadEncoding fromHeader(String header) {
+        if (header == null || header.isBlank()) {
+            return JSON;
+        }
+        for (String value : header.split(",")) {
+            MimeType requested;
+            try {
+                requested = MimeTypeUtils.parseMimeType(value.trim());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            for (PayloadEncoding encoding : values()) {
+                if (encoding.mimeType.equalsTypeAndSubtype(requested)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+}
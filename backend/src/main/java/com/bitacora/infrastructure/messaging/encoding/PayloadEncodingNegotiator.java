@@ -0,0 +1,80 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Negocia la codificación del contenido de los mensajes de cada sesión STOMP.
+ * El cliente indica en el CONNECT la cabecera {@value #ACCEPT_CONTENT_TYPE_HEADER}
+ * con los tipos que acepta, en orden de preferencia (por ejemplo,
+ * {@code application/cbor, application/json}). Sin cabecera, la sesión usa JSON.
+ */
+@Component
+@Slf4j
+public class PayloadEncodingNegotiator implements ChannelInterceptor {
+
+    public static final String ACCEPT_CONTENT_TYPE_HEADER = "accept-content-type";
+
+    private final boolean binaryEnabled;
+
+    /**
+     * Codificación de las sesiones que negociaron una codificación binaria.
+     */
+    private final Map<String, PayloadEncoding> sessionEncodings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor del negociador.
+     *
+     * @param binaryEnabled Indica si se admiten codificaciones binarias
+     */
+    public PayloadEncodingNegotiator(@Value("${websocket.encoding.binary-enabled:true}") boolean binaryEnabled) {
+        this.binaryEnabled = binaryEnabled;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (binaryEnabled && accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            PayloadEncoding encoding = PayloadEncoding.fromHeader(
+                    accessor.getFirstNativeHeader(ACCEPT_CONTENT_TYPE_HEADER));
+            if (encoding != PayloadEncoding.JSON && accessor.getSessionId() != null) {
+                sessionEncodings.put(accessor.getSessionId(), encoding);
+                log.debug("Sesión {} negociada con codificación {}", accessor.getSessionId(), encoding);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Obtiene la codificación de una sesión.
+     *
+     * @param sessionId El ID de la sesión
+     * @return La codificación negociada, o JSON
+     */
+    public PayloadEncoding encodingFor(String sessionId) {
+        return sessionId != null ? sessionEncodings.getOrDefault(sessionId, PayloadEncoding.JSON) : PayloadEncoding.JSON;
+    }
+
+    /**
+     * Olvida la codificación de una sesión desconectada.
+     *
+     * @param event El evento de desconexión
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessionEncodings.remove(event.getSessionId());
+    }
+}
@@ -0,0 +1,82 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas del contenido de los mensajes STOMP por tipo de mensaje y
+ * codificación: bytes enviados a cada sesión y tiempo de codificación. El
+ * tipo de mensaje es el destino sin identificadores (por ejemplo,
+ * {@code /topic/activity} para {@code /topic/activity/42}), para acotar el
+ * número de series.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> encodeTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Registra el tamaño de un mensaje enviado a una sesión.
+     *
+     * @param destination El destino del mensaje
+     * @param encoding    La codificación
+     * @param bytes       El tamaño del contenido en bytes
+     */
+    public void recordSize(String destination, PayloadEncoding encoding, int bytes) {
+        String type = messageType(destination);
+        sizes.computeIfAbsent(type + '|' + encoding, key -> DistributionSummary.builder("websocket.payload.size")
+                        .description("Tamaño del contenido de los mensajes enviados a cada sesión")
+                        .baseUnit("bytes")
+                        .tag("type", type)
+                        .tag("encoding", encoding.name().toLowerCase())
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    /**
+     * Obtiene el temporizador de codificación de un tipo de mensaje.
+     *
+     * @param destination El destino del mensaje
+     * @param encoding    La codificación
+     * @return El temporizador
+     */
+    public Timer encodeTimer(String destination, PayloadEncoding encoding) {
+        String type = messageType(destination);
+        return encodeTimers.computeIfAbsent(type + '|' + encoding, key -> Timer.builder("websocket.payload.encode")
+                .description("Tiempo de codificación del contenido de los mensajes")
+                .tag("type", type)
+                .tag("encoding", encoding.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    /**
+     * Obtiene el tipo de mensaje de un destino: sus dos primeros segmentos, o
+     * tres si es un destino de usuario.
+     *
+     * @param destination El destino
+     * @return El tipo de mensaje
+     */
+    static String messageType(String destination) {
+        if (destination == null || destination.isEmpty()) {
+            return "unknown";
+        }
+        String[] segments = destination.split("/");
+        int keep = destination.startsWith("/user/") ? 4 : 3;
+        StringBuilder type = new StringBuilder();
+        for (int i = 1; i < Math.min(keep, segments.length); i++) {
+            type.append('/').append(segments[i]);
+        }
+        return type.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Interceptor del canal de salida que convierte el contenido JSON de los
+ * mensajes a la codificación negociada por cada sesión. La conversión se hace
+ * por streaming, sin construir objetos intermedios, y se reutiliza para todas
+ * las sesiones que reciben el mismo mensaje: el broker entrega a cada
+ * suscriptor el mismo array de bytes, que sirve de clave (por identidad) de la
+ * caché de conversiones.
+ */
+@Component
+@Slf4j
+public class PayloadTranscodingInterceptor implements ChannelInterceptor {
+
+    private final PayloadEncodingNegotiator negotiator;
+    private final PayloadMetrics metrics;
+    private final Map<PayloadEncoding, Cache<byte[], byte[]>> transcoded = new EnumMap<>(PayloadEncoding.class);
+
+    /**
+     * Constructor del interceptor.
+     *
+     * @param negotiator El negociador de codificaciones
+     * @param metrics    Las métricas de contenido
+     */
+    public PayloadTranscodingInterceptor(PayloadEncodingNegotiator negotiator, PayloadMetrics metrics) {
+        this.negotiator = negotiator;
+        this.metrics = metrics;
+        for (PayloadEncoding encoding : PayloadEncoding.values()) {
+            if (encoding != PayloadEncoding.JSON) {
+                transcoded.put(encoding, Caffeine.newBuilder()
+                        .weakKeys()
+                        .maximumSize(1024)
+                        .expireAfterWrite(Duration.ofSeconds(30))
+                        .build());
+            }
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        String destination = destinationOf(headers);
+        PayloadEncoding encoding = negotiator.encodingFor(SimpMessageHeaderAccessor.getSessionId(headers));
+        if (encoding == PayloadEncoding.JSON || !isJson(headers)) {
+            metrics.recordSize(destination, PayloadEncoding.JSON, payload.length);
+            return message;
+        }
+
+        byte[] encoded = transcoded.get(encoding).get(payload, json -> transcode(encoding, destination, json));
+        if (encoded == null) {
+            metrics.recordSize(destination, PayloadEncoding.JSON, payload.length);
+            return message;
+        }
+        metrics.recordSize(destination, encoding, encoded.length);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        accessor.setContentType(encoding.getMimeType());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    /**
+     * Convierte un contenido JSON a otra codificación.
+     *
+     * @param encoding    La codificación de destino
+     * @param destination El destino del mensaje, para las métricas
+     * @param json        El contenido JSON
+     * @return El contenido convertido, o null si no se pudo convertir
+     */
+    private byte[] transcode(PayloadEncoding encoding, String destination, byte[] json) {
+        return metrics.encodeTimer(destination, encoding).record(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+            try (JsonParser parser = PayloadEncoding.JSON.getFactory().createParser(json);
+                    JsonGenerator generator = encoding.getFactory().createGenerator(out)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            } catch (IOException e) {
+                // Se envía el JSON original
+                log.warn("No se pudo convertir un mensaje para {} a {}: {}", destination, encoding, e.getMessage());
+                return null;
+            }
+            return out.toByteArray();
+        });
+    }
+
+    /**
+     * Indica si el contenido de un mensaje es JSON.
+     *
+     * @param headers Las cabeceras del mensaje
+     * @return true si el tipo de contenido es JSON
+     */
+    private boolean isJson(MessageHeaders headers) {
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        MimeType mimeType = contentType instanceof MimeType type ? type
+                : contentType instanceof String value ? MimeTypeUtils.parseMimeType(value) : null;
+        return mimeType != null && MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(mimeType);
+    }
+
+    /**
+     * Obtiene el destino de un mensaje tal como lo suscribió el cliente.
+     *
+     * @param headers Las cabeceras del mensaje
+     * @return El destino
+     */
+    private String destinationOf(MessageHeaders headers) {
+        Object original = headers.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        return original instanceof String value ? value : SimpMessageHeaderAccessor.getDestination(headers);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bitacora.infrastructure.messaging.feed;
+
+import com.bitacora.domain.model.activity.ActivityDiff;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mensaje con la diferencia campo a campo de una actividad enviado en
+ * /topic/activity/{id}. El cliente solo lo aplica si su copia está en
+ * {@code previousVersion}; si no, perdió algún cambio y debe volver a
+ * consultar la actividad. Los campos de {@code omittedFields} cambiaron sin
+ * incluir su valor: el cliente conserva el que ya tiene de la edición
+ * colaborativa y solo avanza la versión.
+ *
+ * @param type            Siempre ACTIVITY_DIFF, para distinguirlo de las
+ *                        notificaciones de colaboración del mismo destino
+ * @param activityId      El ID de la actividad
+ * @param previousVersion La versión a la que se aplica la diferencia
+ * @param version         La versión resultante
+ * @param changes         Los campos modificados con su valor nuevo
+ * @param omittedFields   Los campos modificados cuyo valor no se incluye
+ */
+public record ActivityDiffMessage(String type, Long activityId, Long previousVersion, Long version,
+        Map<String, Object> changes, Set<String> omittedFields) {
+
+    /**
+     * Crea el mensaje de una diferencia.
+     *
+     * @param diff La diferencia
+     * @return El mensaje
+     */
+    public static ActivityDiffMessage from(ActivityDiff diff) {
+        return new ActivityDiffMessage("ACTIVITY_DIFF", diff.getActivityId(), diff.getPreviousVersion(),
+                diff.getVersion(), diff.getChanges(), diff.getOmittedFields());
+    }
+}
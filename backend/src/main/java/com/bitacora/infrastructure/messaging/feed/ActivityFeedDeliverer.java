@@ -0,0 +1,119 @@
+package com.bitacora.infrastructure.messaging.feed;
+
+import com.bitacora.application.activity.ActivityFeedOperation;
+import com.bitacora.application.activity.ActivityFeedRegistry;
+import com.bitacora.application.activity.ActivityFeedSubscription;
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entrega los cambios de actividades a los flujos de las sesiones conectadas a
+ * este nodo. Los cambios llegan de todos los nodos por el destino interno
+ * {@link #CHANGES_DESTINATION}, que no se publica en el broker; cada uno se
+ * compara con las suscripciones de {@link ActivityFeedRegistry} y se envía
+ * solo a la sesión de cada flujo afectado. El contenido se serializa una vez
+ * por operación e identificador de flujo, no una vez por sesión.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityFeedDeliverer {
+
+    /**
+     * Destino interno por el que se reparten los cambios entre los nodos.
+     */
+    public static final String CHANGES_DESTINATION = "/internal/activity-changes";
+
+    /**
+     * Destino de los flujos, relativo al usuario.
+     */
+    public static final String FEED_DESTINATION = "/queue/activity-feed";
+
+    private final ActivityFeedRegistry registry;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Entrega un cambio a los flujos afectados de este nodo.
+     *
+     * @param json El cambio serializado
+     */
+    public void deliver(String json) {
+        ActivityChange change;
+        try {
+            change = objectMapper.readValue(json, ActivityChange.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Cambio de actividad no válido: {}", e.getMessage());
+            return;
+        }
+
+        Map<ActivityFeedOperation, List<ActivityFeedSubscription>> matches = registry.match(change);
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        Activity activity = change.getCurrent() != null ? change.getCurrent() : change.getPrevious();
+        Map<String, byte[]> payloads = new HashMap<>();
+        matches.forEach((operation, subscriptions) -> {
+            for (ActivityFeedSubscription subscription : subscriptions) {
+                byte[] payload = payloads.computeIfAbsent(operation + "/" + subscription.feedId(),
+                        key -> serialize(new ActivityFeedDelta(operation.name(), subscription.feedId(),
+                                activity.getId(), operation == ActivityFeedOperation.DELETE ? null : activity, null)));
+                sendToSession(subscription, payload);
+            }
+        });
+        log.trace("Cambio de la actividad {} entregado a los flujos {}", activity.getId(), matches);
+    }
+
+    /**
+     * Elimina los flujos de una sesión al cerrarse.
+     *
+     * @param event El evento de desconexión
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        registry.removeSession(event.getSessionId());
+    }
+
+    /**
+     * Envía un mensaje solo a la sesión de una suscripción, no a todas las
+     * sesiones de su usuario.
+     *
+     * @param subscription La suscripción
+     * @param payload      El contenido JSON en UTF-8
+     */
+    private void sendToSession(ActivityFeedSubscription subscription, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(subscription.sessionId());
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send("/user/" + subscription.username().replace("/", "%2F") + FEED_DESTINATION,
+                MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private byte[] serialize(ActivityFeedDelta delta) {
+        try {
+            return objectMapper.writeValueAsBytes(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio de la actividad " + delta.activityId(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.bitacora.infrastructure.messaging.feed;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Mensaje de un flujo de cambios de actividades enviado al cliente en
+ * /user/queue/activity-feed.
+ *
+ * @param op         INSERT, UPDATE o DELETE para los cambios; SUBSCRIBED o
+ *                   REJECTED como respuesta a una suscripción
+ * @param feedId     El identificador del flujo
+ * @param activityId El ID de la actividad, o null en las respuestas
+ * @param activity   La actividad tras el cambio, o null si sale de la vista
+ * @param reason     El motivo del rechazo de una suscripción, o null
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ActivityFeedDelta(String op, String feedId, Long activityId, Activity activity, String reason) {
+
+    /**
+     * Crea la respuesta a una suscripción aceptada.
+     *
+     * @param feedId El identificador del flujo
+     * @return La respuesta
+     */
+    public static ActivityFeedDelta subscribed(String feedId) {
+        return new ActivityFeedDelta("SUBSCRIBED", feedId, null, null, null);
+    }
+
+    /**
+     * Crea la respuesta a una suscripción rechazada.
+     *
+     * @param feedId El identificador del flujo
+     * @param reason El motivo
+     * @return La respuesta
+     */
+    public static ActivityFeedDelta rejected(String feedId, String reason) {
+        return new ActivityFeedDelta("REJECTED", feedId, null, null, reason);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bitacora.infrastructure.messaging.feed;
+
+import com.bitacora.domain.model.activity.ActivityTextField;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
+import com.bitacora.domain.model.activity.ActivityTextSnapshot;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Mensaje de la edición colaborativa de un campo de texto. Las revisiones se
+ * reparten en /topic/activity/{id}/text; las respuestas a la apertura y los
+ * rechazos llegan solo al cliente, en /user/queue/activity-text.
+ *
+ * @param type              TEXT_OPERATION (revisión), TEXT_RESET (el texto se
+ *                          sustituyó entero y hay que volver a abrirlo),
+ *                          SNAPSHOT (texto completo tras la apertura),
+ *                          REJECTED (operación rechazada) o RESYNC (operación
+ *                          rechazada; hay que volver a abrir el texto)
+ * @param activityId        El ID de la actividad
+ * @param field             El campo: description, situation, result o comments
+ * @param revision          La revisión de la operación o del texto
+ * @param operation         La operación en formato de intercambio, en TEXT_OPERATION
+ * @param text              El texto completo, solo en SNAPSHOT
+ * @param clientOperationId El identificador de la operación del cliente; el
+ *                          autor reconoce así la confirmación de la suya
+ * @param author            El nombre de usuario del autor de la operación
+ * @param reason            El motivo del rechazo
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ActivityTextMessage(String type, Long activityId, String field, Long revision, List<Object> operation,
+        String text, String clientOperationId, String author, String reason) {
+
+    /**
+     * Sufijo del destino de las revisiones: /topic/activity/{id}/text.
+     */
+    public static final String TOPIC_SUFFIX = "/text";
+
+    /**
+     * Destino de las respuestas a cada cliente.
+     */
+    public static final String QUEUE_DESTINATION = "/queue/activity-text";
+
+    /**
+     * Crea el mensaje de una revisión.
+     *
+     * @param revision La revisión
+     * @return El mensaje
+     */
+    public static ActivityTextMessage from(ActivityTextRevision revision) {
+        if (revision.isReset()) {
+            return new ActivityTextMessage("TEXT_RESET", revision.getActivityId(), revision.getField().getFieldName(),
+                    revision.getRevision(), null, null, null, null, null);
+        }
+        return new ActivityTextMessage("TEXT_OPERATION", revision.getActivityId(),
+                revision.getField().getFieldName(), revision.getRevision(), revision.getOperation().toComponents(),
+                null, revision.getClientOperationId(), revision.getAuthor(), null);
+    }
+
+    /**
+     * Crea la respuesta a la apertura de un campo.
+     *
+     * @param activityId El ID de la actividad
+     * @param field      El campo
+     * @param snapshot   El texto y su revisión
+     * @return El mensaje
+     */
+    public static ActivityTextMessage snapshot(Long activityId, ActivityTextField field, ActivityTextSnapshot snapshot) {
+        return new ActivityTextMessage("SNAPSHOT", activityId, field.getFieldName(), snapshot.getRevision(), null,
+                snapshot.getText(), null, null, null);
+    }
+
+    /**
+     * Crea el rechazo de una solicitud.
+     *
+     * @param activityId        El ID de la actividad
+     * @param field             El nombre del campo
+     * @param clientOperationId El identificador de la operación rechazada, o null
+     * @param resyncRequired    true si hay que volver a abrir el texto
+     * @param reason            El motivo
+     * @return El mensaje
+     */
+    public static ActivityTextMessage rejected(Long activityId, String field, String clientOperationId,
+            boolean resyncRequired, String reason) {
+        return new ActivityTextMessage(resyncRequired ? "RESYNC" : "REJECTED", activityId, field, null, null, null,
+                clientOperationId, null, reason);
+    }
+}
@@ -0,0 +1,265 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sesión WebSocket con un búfer de salida acotado. Los envíos solo encolan el
+ * mensaje y vuelven enseguida; un hilo virtual escribe la cola en la red, de
+ * modo que una sesión lenta no retiene los hilos del canal de salida. Si la
+ * cola supera su límite de mensajes o de bytes se aplica la
+ * {@link OverflowPolicy} configurada, y si una escritura lleva en curso más
+ * del tiempo límite la sesión se cierra.
+ */
+@Slf4j
+class BoundedSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Deque<WebSocketMessage<?>> buffer = new ArrayDeque<>();
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long sendTimeLimitNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor writerExecutor;
+    private final OutboundMessageMetrics metrics;
+
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private final AtomicBoolean closing = new AtomicBoolean();
+    private int bufferedBytes;
+    private CloseStatus pendingClose;
+    private volatile long writeStart;
+
+    /**
+     * Constructor del decorador.
+     *
+     * @param delegate            La sesión original
+     * @param maxMessages         El número máximo de mensajes pendientes
+     * @param maxBytes            El tamaño máximo de los mensajes pendientes en bytes
+     * @param sendTimeLimitMillis El tiempo máximo de una escritura (ms)
+     * @param overflowPolicy      La política al superar los límites
+     * @param writerExecutor      El ejecutor de los hilos escritores
+     * @param metrics             Las métricas de mensajes salientes
+     */
+    BoundedSessionDecorator(WebSocketSession delegate, int maxMessages, int maxBytes, long sendTimeLimitMillis,
+            OverflowPolicy overflowPolicy, Executor writerExecutor, OutboundMessageMetrics metrics) {
+        super(delegate);
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.writerExecutor = writerExecutor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing.get()) {
+            return;
+        }
+
+        long start = writeStart;
+        if (start != 0 && System.nanoTime() - start > sendTimeLimitNanos) {
+            disconnect("send_time_limit");
+            return;
+        }
+
+        int dropped = 0;
+        boolean overflow = false;
+        synchronized (buffer) {
+            buffer.addLast(message);
+            bufferedBytes += message.getPayloadLength();
+            while (buffer.size() > maxMessages || bufferedBytes > maxBytes) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT || !dropOldest()) {
+                    overflow = true;
+                    break;
+                }
+                dropped++;
+            }
+        }
+
+        if (dropped > 0) {
+            metrics.recordDropped("session_buffer", dropped);
+            log.debug("Descartados {} mensajes del búfer de la sesión {}", dropped, getId());
+        }
+        if (overflow) {
+            disconnect("buffer_overflow");
+            return;
+        }
+        if (writing.compareAndSet(false, true)) {
+            writerExecutor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(CloseStatus.NORMAL);
+    }
+
+    /**
+     * Cierra la sesión después de escribir los mensajes pendientes, para que
+     * lleguen al cliente las tramas enviadas justo antes del cierre (por
+     * ejemplo, una trama ERROR). Si la escritura en curso supera el tiempo
+     * límite, se cierra sin esperar.
+     *
+     * @param status El estado de cierre
+     * @throws IOException Si no se pudo cerrar la sesión
+     */
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closing.set(true);
+        long start = writeStart;
+        boolean stalled = start != 0 && System.nanoTime() - start > sendTimeLimitNanos;
+        synchronized (buffer) {
+            if (writing.get() && !stalled) {
+                pendingClose = status;
+                return;
+            }
+        }
+        release();
+        getDelegate().close(status);
+    }
+
+    /**
+     * Libera el búfer al cerrarse la sesión.
+     */
+    void release() {
+        closing.set(true);
+        synchronized (buffer) {
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+    }
+
+    /**
+     * Escribe los mensajes pendientes hasta vaciar la cola. Se ejecuta en el
+     * hilo virtual del escritor; solo hay uno activo por sesión.
+     */
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            CloseStatus closeStatus;
+            synchronized (buffer) {
+                message = buffer.pollFirst();
+                closeStatus = pendingClose;
+                if (message == null) {
+                    // Se libera dentro del bloqueo: un envío posterior arrancará otro escritor
+                    writing.set(false);
+                } else {
+                    bufferedBytes -= message.getPayloadLength();
+                }
+            }
+            if (message == null) {
+                if (closeStatus != null) {
+                    closeDelegate(closeStatus);
+                }
+                return;
+            }
+
+            long start = System.nanoTime();
+            writeStart = start;
+            try {
+                getDelegate().sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Error al escribir en la sesión {}: {}", getId(), e.getMessage());
+                release();
+                writing.set(false);
+                return;
+            } finally {
+                writeStart = 0;
+                metrics.recordWrite(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Descarta el mensaje descartable más antiguo del búfer. Debe llamarse con
+     * el bloqueo del búfer.
+     *
+     * @return false si no queda ningún mensaje descartable
+     */
+    private boolean dropOldest() {
+        Iterator<WebSocketMessage<?>> iterator = buffer.iterator();
+        while (iterator.hasNext()) {
+            WebSocketMessage<?> candidate = iterator.next();
+            if (isDroppable(candidate)) {
+                iterator.remove();
+                bufferedBytes -= candidate.getPayloadLength();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cierra la sesión por no consumir sus mensajes.
+     *
+     * @param reason El motivo, para las métricas
+     */
+    private void disconnect(String reason) {
+        if (closing.getAndSet(true)) {
+            return;
+        }
+        release();
+        metrics.recordDisconnected(reason);
+        log.warn("Cerrando la sesión {}: no consume sus mensajes ({})", getId(), reason);
+        closeDelegate(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private void closeDelegate(CloseStatus status) {
+        try {
+            getDelegate().close(status);
+        } catch (IOException e) {
+            log.debug("Error al cerrar la sesión {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si un mensaje puede descartarse: las tramas MESSAGE y los
+     * heartbeats. Las tramas de control se entregan siempre.
+     *
+     * @param message El mensaje
+     * @return true si es descartable
+     */
+    static boolean isDroppable(WebSocketMessage<?> message) {
+        if (message.getPayloadLength() <= 1) {
+            return true;
+        }
+        if (message instanceof TextMessage text) {
+            return startsWith(ByteBuffer.wrap(text.asBytes()), MESSAGE_COMMAND);
+        }
+        if (message instanceof BinaryMessage binary) {
+            return startsWith(binary.getPayload(), MESSAGE_COMMAND);
+        }
+        return false;
+    }
+
+    private static boolean startsWith(ByteBuffer payload, byte[] prefix) {
+        if (payload.remaining() < prefix.length) {
+            return false;
+        }
+        int position = payload.position();
+        for (int i = 0; i < prefix.length; i++) {
+            if (payload.get(position + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
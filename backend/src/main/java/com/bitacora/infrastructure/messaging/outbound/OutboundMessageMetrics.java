@@ -0,0 +1,81 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de los mensajes salientes que no llegan a enviarse tal cual:
+ * descartados por los límites de envío o por el búfer de una sesión,
+ * agrupados con otros, y sesiones desconectadas por no consumir sus mensajes.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboundMessageMetrics {
+
+    private static final String METRIC_PREFIX = "websocket.outbound";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private volatile Timer writeTimer;
+
+    /**
+     * Registra mensajes descartados.
+     *
+     * @param reason El motivo: {@code user_rate_limit}, {@code destination_rate_limit} o {@code session_buffer}
+     * @param count  El número de mensajes
+     */
+    public void recordDropped(String reason, int count) {
+        counter("dropped", "reason", reason, "Mensajes salientes descartados").increment(count);
+    }
+
+    /**
+     * Registra notificaciones agrupadas en un mensaje con otras.
+     *
+     * @param policy La política de agrupación
+     * @param count  El número de notificaciones que no se enviaron por separado
+     */
+    public void recordMerged(String policy, int count) {
+        counter("merged", "policy", policy, "Notificaciones agrupadas con otras en un mismo mensaje").increment(count);
+    }
+
+    /**
+     * Registra una sesión desconectada por no consumir sus mensajes.
+     *
+     * @param reason El motivo: {@code buffer_overflow} o {@code send_time_limit}
+     */
+    public void recordDisconnected(String reason) {
+        counter("disconnected", "reason", reason, "Sesiones desconectadas por no consumir sus mensajes").increment();
+    }
+
+    /**
+     * Registra el tiempo de escritura de un mensaje en la red.
+     *
+     * @param nanos La duración en nanosegundos
+     */
+    public void recordWrite(long nanos) {
+        Timer timer = writeTimer;
+        if (timer == null) {
+            timer = Timer.builder(METRIC_PREFIX + ".write")
+                    .description("Tiempo de escritura de los mensajes salientes en la red")
+                    .register(meterRegistry);
+            writeTimer = timer;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter counter(String name, String tag, String value, String description) {
+        return counters.computeIfAbsent(name + '|' + value, key -> Counter.builder(METRIC_PREFIX + "." + name)
+                .description(description)
+                .tag(tag, value)
+                .register(meterRegistry));
+    }
+}
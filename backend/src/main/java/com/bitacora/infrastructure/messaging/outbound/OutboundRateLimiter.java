@@ -0,0 +1,105 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limita la frecuencia de las notificaciones enviadas a cada usuario y a cada
+ * destino compartido mediante cubetas de fichas. Las cubetas de los usuarios y
+ * destinos sin envíos recientes se descartan.
+ */
+@Component
+public class OutboundRateLimiter {
+
+    private final boolean enabled;
+    private final double userCapacity;
+    private final double userRefillPerSecond;
+    private final double destinationCapacity;
+    private final double destinationRefillPerSecond;
+    private final OutboundMessageMetrics metrics;
+    private final Cache<String, TokenBucket> userBuckets;
+    private final Cache<String, TokenBucket> destinationBuckets;
+
+    /**
+     * Constructor del limitador.
+     *
+     * @param metrics                    Las métricas de mensajes salientes
+     * @param enabled                    Indica si se aplican los límites
+     * @param userCapacity               La ráfaga máxima de notificaciones por usuario
+     * @param userRefillPerSecond        Las notificaciones por segundo sostenidas por usuario
+     * @param destinationCapacity        La ráfaga máxima de mensajes por destino compartido
+     * @param destinationRefillPerSecond Los mensajes por segundo sostenidos por destino compartido
+     * @param maxBuckets                 El número máximo de cubetas de cada tipo
+     */
+    public OutboundRateLimiter(
+            OutboundMessageMetrics metrics,
+            @Value("${notifications.rate-limit.enabled:true}") boolean enabled,
+            @Value("${notifications.rate-limit.user.capacity:30}") double userCapacity,
+            @Value("${notifications.rate-limit.user.per-second:10}") double userRefillPerSecond,
+            @Value("${notifications.rate-limit.destination.capacity:100}") double destinationCapacity,
+            @Value("${notifications.rate-limit.destination.per-second:50}") double destinationRefillPerSecond,
+            @Value("${notifications.rate-limit.max-buckets:50000}") long maxBuckets) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.userCapacity = userCapacity;
+        this.userRefillPerSecond = userRefillPerSecond;
+        this.destinationCapacity = destinationCapacity;
+        this.destinationRefillPerSecond = destinationRefillPerSecond;
+        // Una cubeta sin uso durante más tiempo del que tarda en llenarse equivale a una nueva
+        this.userBuckets = newBucketCache(maxBuckets, userCapacity / Math.max(userRefillPerSecond, 0.001));
+        this.destinationBuckets = newBucketCache(maxBuckets,
+                destinationCapacity / Math.max(destinationRefillPerSecond, 0.001));
+    }
+
+    /**
+     * Consume una ficha de la cubeta de un usuario.
+     *
+     * @param username El nombre de usuario
+     * @return true si la notificación puede enviarse
+     */
+    public boolean tryAcquireForUser(String username) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = userBuckets.get(username,
+                key -> new TokenBucket(userCapacity, userRefillPerSecond, now));
+        if (bucket.tryAcquire(now)) {
+            return true;
+        }
+        metrics.recordDropped("user_rate_limit", 1);
+        return false;
+    }
+
+    /**
+     * Consume una ficha de la cubeta de un destino compartido.
+     *
+     * @param destination El destino
+     * @return true si el mensaje puede enviarse
+     */
+    public boolean tryAcquireForDestination(String destination) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = destinationBuckets.get(destination,
+                key -> new TokenBucket(destinationCapacity, destinationRefillPerSecond, now));
+        if (bucket.tryAcquire(now)) {
+            return true;
+        }
+        metrics.recordDropped("destination_rate_limit", 1);
+        return false;
+    }
+
+    private static Cache<String, TokenBucket> newBucketCache(long maxBuckets, double refillSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1, (long) Math.ceil(refillSeconds))))
+                .build();
+    }
+}
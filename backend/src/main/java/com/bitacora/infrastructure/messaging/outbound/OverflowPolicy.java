@@ -0,0 +1,20 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+/**
+ * Políticas aplicadas cuando el búfer de salida de una sesión WebSocket supera
+ * sus límites.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Se descartan los mensajes más antiguos del búfer hasta volver a los
+     * límites. Las tramas de control (CONNECTED, RECEIPT, ERROR) no se descartan.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Se cierra la sesión; el cliente se reconecta y recupera las
+     * notificaciones privadas desde su bandeja.
+     */
+    DISCONNECT
+}
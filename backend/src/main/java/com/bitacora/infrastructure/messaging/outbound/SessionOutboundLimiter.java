@@ -0,0 +1,88 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decora las sesiones WebSocket con un búfer de salida acotado
+ * ({@link BoundedSessionDecorator}), para que una pestaña bloqueada no acumule
+ * mensajes sin límite en memoria ni retenga los hilos del canal de salida.
+ */
+@Component
+public class SessionOutboundLimiter implements WebSocketHandlerDecoratorFactory {
+
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long sendTimeLimitMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final OutboundMessageMetrics metrics;
+    private final Map<String, BoundedSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ws-writer-", 0).factory());
+
+    /**
+     * Constructor del limitador.
+     *
+     * @param metrics             Las métricas de mensajes salientes
+     * @param maxMessages         El número máximo de mensajes pendientes por sesión
+     * @param maxBytes            El tamaño máximo de los mensajes pendientes por sesión en bytes
+     * @param sendTimeLimitMillis El tiempo máximo de una escritura (ms)
+     * @param overflowPolicy      La política al superar los límites
+     */
+    public SessionOutboundLimiter(
+            OutboundMessageMetrics metrics,
+            @Value("${websocket.outbound.max-buffered-messages:1000}") int maxMessages,
+            @Value("${websocket.transport.send-buffer-size-limit:524288}") int maxBytes,
+            @Value("${websocket.transport.send-time-limit:15000}") long sendTimeLimitMillis,
+            @Value("${websocket.outbound.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy) {
+        this.metrics = metrics;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                BoundedSessionDecorator bounded = new BoundedSessionDecorator(session, maxMessages, maxBytes,
+                        sendTimeLimitMillis, overflowPolicy, writers, metrics);
+                sessions.put(session.getId(), bounded);
+                super.afterConnectionEstablished(bounded);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                BoundedSessionDecorator bounded = sessions.remove(session.getId());
+                if (bounded != null) {
+                    bounded.release();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Detiene los escritores al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(BoundedSessionDecorator::release);
+        writers.shutdownNow();
+    }
+}
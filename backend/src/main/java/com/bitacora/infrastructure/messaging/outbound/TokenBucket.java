@@ -0,0 +1,46 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+/**
+ * Cubeta de fichas para limitar la frecuencia de envío. Admite ráfagas de
+ * hasta {@code capacity} mensajes y recupera {@code refillPerSecond} fichas
+ * por segundo.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructor de la cubeta, inicialmente llena.
+     *
+     * @param capacity        El número máximo de fichas
+     * @param refillPerSecond Las fichas recuperadas por segundo
+     * @param now             El instante actual, en nanosegundos
+     */
+    TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Consume una ficha si hay alguna disponible.
+     *
+     * @param now El instante actual, en nanosegundos
+     * @return true si se consumió una ficha
+     */
+    synchronized boolean tryAcquire(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
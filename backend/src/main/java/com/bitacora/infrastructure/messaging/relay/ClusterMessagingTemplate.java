@@ -0,0 +1,190 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import com.bitacora.infrastructure.messaging.encoding.PayloadEncoding;
+import com.bitacora.infrastructure.messaging.encoding.PayloadMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plantilla de envío de mensajes WebSocket para varios nodos.
+ * Serializa cada mensaje una sola vez, lo entrega a los suscriptores de este
+ * nodo y lo publica en el bus compartido para que el resto de nodos lo
+ * entreguen a los suyos.
+ * Si el envío se hace dentro de una transacción, el mensaje no se entrega ni
+ * se publica hasta que la transacción confirma; si se revierte, se descarta.
+ * Así ningún suscriptor ve cambios que no llegaron a guardarse.
+ */
+@Component
+@Slf4j
+public class ClusterMessagingTemplate {
+
+    private final LocalMessageDispatcher localDispatcher;
+    private final MessageRelay relay;
+    private final ObjectMapper objectMapper;
+    private final PayloadMetrics payloadMetrics;
+    private final String nodeId;
+
+    /**
+     * Constructor de la plantilla.
+     *
+     * @param localDispatcher El distribuidor local
+     * @param relay           El bus entre nodos
+     * @param objectMapper    El serializador JSON
+     * @param payloadMetrics  Las métricas de contenido de los mensajes
+     * @param nodeId          El identificador de este nodo (aleatorio si no se configura)
+     */
+    public ClusterMessagingTemplate(
+            LocalMessageDispatcher localDispatcher,
+            MessageRelay relay,
+            ObjectMapper objectMapper,
+            PayloadMetrics payloadMetrics,
+            @Value("${messaging.relay.node-id:}") String nodeId) {
+        this.localDispatcher = localDispatcher;
+        this.relay = relay;
+        this.objectMapper = objectMapper;
+        this.payloadMetrics = payloadMetrics;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    /**
+     * Envía un mensaje a un destino compartido.
+     *
+     * @param destination El destino
+     * @param payload     El contenido
+     */
+    public void convertAndSend(String destination, Object payload) {
+        send(null, destination, payload);
+    }
+
+    /**
+     * Envía un mensaje a un usuario.
+     *
+     * @param user        El usuario
+     * @param destination El destino, relativo al usuario
+     * @param payload     El contenido
+     */
+    public void convertAndSendToUser(String user, String destination, Object payload) {
+        send(user, destination, payload);
+    }
+
+    /**
+     * Envía un mismo contenido a varios usuarios en un único mensaje del bus.
+     * El contenido se serializa una sola vez y cada nodo lo entrega a sus
+     * destinatarios conectados compartiendo los mismos bytes; la secuencia de
+     * cada destinatario viaja en la cabecera STOMP
+     * {@value LocalMessageDispatcher#SEQUENCE_HEADER}.
+     *
+     * @param recipients  Los destinatarios, con la secuencia de cada uno o null
+     * @param destination El destino, relativo a cada usuario
+     * @param payload     El contenido
+     */
+    public void convertAndSendToUsers(Map<String, Long> recipients, String destination, Object payload) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        RelayMessage message = newMessage(null, destination, serialize("/user" + destination, payload));
+        message.setRecipients(recipients);
+        publish(message);
+    }
+
+    /**
+     * Serializa un contenido a JSON.
+     *
+     * @param destination El destino, para las métricas
+     * @param payload     El contenido
+     * @return El JSON
+     */
+    private String serialize(String destination, Object payload) {
+        return payloadMetrics.encodeTimer(destination, PayloadEncoding.JSON).record(() -> {
+            try {
+                return objectMapper.writeValueAsString(payload);
+            } catch (JsonProcessingException e) {
+                throw new MessageDeliveryException("No se pudo serializar el mensaje: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Obtiene el identificador de este nodo.
+     *
+     * @return El identificador del nodo
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Serializa, entrega localmente y publica un mensaje.
+     *
+     * @param user        El usuario, o null para un destino compartido
+     * @param destination El destino
+     * @param payload     El contenido
+     */
+    private void send(String user, String destination, Object payload) {
+        publish(newMessage(user, destination, serialize(user != null ? "/user" + destination : destination, payload)));
+    }
+
+    /**
+     * Crea un mensaje del bus con un contenido ya serializado.
+     *
+     * @param user        El usuario, o null
+     * @param destination El destino
+     * @param json        El contenido JSON
+     * @return El mensaje
+     */
+    private RelayMessage newMessage(String user, String destination, String json) {
+        return RelayMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .originNode(nodeId)
+                .destination(destination)
+                .user(user)
+                .payload(json)
+                .build();
+    }
+
+    /**
+     * Entrega localmente y publica un mensaje, al confirmar la transacción en
+     * curso o de inmediato si no hay ninguna.
+     *
+     * @param message El mensaje
+     */
+    private void publish(RelayMessage message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(message);
+                }
+            });
+        } else {
+            dispatch(message);
+        }
+    }
+
+    /**
+     * Entrega localmente y publica un mensaje.
+     *
+     * @param message El mensaje
+     */
+    private void dispatch(RelayMessage message) {
+        localDispatcher.deliver(message);
+
+        try {
+            relay.publish(message);
+        } catch (RuntimeException e) {
+            log.error("Error al publicar el mensaje {} para {} en el bus: {}",
+                    message.getMessageId(), message.getDestination(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import com.bitacora.application.notification.DepartmentPresenceIndex;
+import com.bitacora.infrastructure.messaging.feed.ActivityFeedDeliverer;
+import com.bitacora.infrastructure.messaging.sse.SseNotificationHub;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrega los mensajes WebSocket a los suscriptores conectados a este nodo.
+ * Recuerda los identificadores de los mensajes ya entregados para que un
+ * mensaje recibido varias veces (por ejemplo, el propio mensaje de este nodo
+ * que vuelve desde el bus) solo se entregue una vez. Los mensajes se entregan
+ * también a las conexiones SSE de este nodo.
+ * Los mensajes dirigidos a {@code /topic/department/{nombre}} no se publican en
+ * ese tópico: se entregan en la cola privada de notificaciones de cada usuario
+ * del departamento conectado a este nodo, según {@link DepartmentPresenceIndex}.
+ * Así solo los reciben los miembros del departamento, aunque otro cliente
+ * conozca su nombre, y el contenido se codifica una sola vez para todos.
+ * Los cambios de actividades se entregan a los flujos de las sesiones de este
+ * nodo mediante {@link ActivityFeedDeliverer}.
+ * Los mensajes privados compartidos (con {@link RelayMessage#getRecipients()})
+ * se entregan a cada destinatario con los mismos bytes, y la secuencia de su
+ * bandeja en la cabecera STOMP {@value #SEQUENCE_HEADER}.
+ */
+@Component
+@Slf4j
+public class LocalMessageDispatcher {
+
+    /**
+     * Cabecera STOMP con la secuencia de la bandeja del destinatario en los
+     * mensajes privados compartidos, cuyo contenido no la incluye.
+     */
+    public static final String SEQUENCE_HEADER = "sequence";
+
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+    private static final String DEPARTMENT_DESTINATION_PREFIX = "/topic/department/";
+    private static final String DEPARTMENT_MEMBER_DESTINATION = "/queue/notification";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SseNotificationHub sseHub;
+    private final DepartmentPresenceIndex departmentIndex;
+    private final ActivityFeedDeliverer activityFeedDeliverer;
+    private final Cache<String, Boolean> deliveredMessageIds;
+
+    /**
+     * Constructor del distribuidor local.
+     *
+     * @param messagingTemplate     La plantilla de mensajería del broker local
+     * @param sseHub                El distribuidor de las conexiones SSE
+     * @param departmentIndex       El índice de usuarios conectados por departamento
+     * @param activityFeedDeliverer El distribuidor de los flujos de cambios de actividades
+     * @param dedupWindowSeconds    Los segundos durante los que se recuerda un mensaje entregado
+     * @param dedupMaxEntries       El número máximo de identificadores recordados
+     */
+    public LocalMessageDispatcher(
+            SimpMessagingTemplate messagingTemplate,
+            SseNotificationHub sseHub,
+            DepartmentPresenceIndex departmentIndex,
+            ActivityFeedDeliverer activityFeedDeliverer,
+            @Value("${messaging.relay.dedup-window:300}") long dedupWindowSeconds,
+            @Value("${messaging.relay.dedup-max-entries:100000}") long dedupMaxEntries) {
+        this.messagingTemplate = messagingTemplate;
+        this.sseHub = sseHub;
+        this.departmentIndex = departmentIndex;
+        this.activityFeedDeliverer = activityFeedDeliverer;
+        this.deliveredMessageIds = Caffeine.newBuilder()
+                .expireAfterWrite(dedupWindowSeconds, TimeUnit.SECONDS)
+                .maximumSize(dedupMaxEntries)
+                .build();
+    }
+
+    /**
+     * Entrega un mensaje a los suscriptores locales, salvo que ya se haya entregado.
+     *
+     * @param message El mensaje
+     * @return true si el mensaje se entregó, false si era un duplicado
+     */
+    public boolean deliver(RelayMessage message) {
+        if (deliveredMessageIds.asMap().putIfAbsent(message.getMessageId(), Boolean.TRUE) != null) {
+            log.trace("Mensaje {} ya entregado en este nodo", message.getMessageId());
+            return false;
+        }
+
+        if (ActivityFeedDeliverer.CHANGES_DESTINATION.equals(message.getDestination())) {
+            activityFeedDeliverer.deliver(message.getPayload());
+            return true;
+        }
+        if (message.getUser() == null && message.getDestination().startsWith(DEPARTMENT_DESTINATION_PREFIX)) {
+            deliverToDepartment(message.getDestination().substring(DEPARTMENT_DESTINATION_PREFIX.length()),
+                    message.getPayload());
+            return true;
+        }
+        if (message.getRecipients() != null) {
+            deliverToRecipients(message);
+            return true;
+        }
+
+        String destination = message.getUser() != null
+                ? userDestination(message.getUser(), message.getDestination())
+                : message.getDestination();
+
+        messagingTemplate.send(destination, toJsonMessage(message.getPayload().getBytes(StandardCharsets.UTF_8)));
+        sseHub.publish(message);
+        return true;
+    }
+
+    /**
+     * Entrega un mensaje a los usuarios de un departamento conectados a este
+     * nodo, en una sola pasada y compartiendo el contenido codificado.
+     *
+     * @param department El departamento
+     * @param json       El contenido JSON
+     */
+    private void deliverToDepartment(String department, String json) {
+        Set<String> members = departmentIndex.getConnectedUsers(department);
+        if (members.isEmpty()) {
+            return;
+        }
+
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        for (String member : members) {
+            messagingTemplate.send(userDestination(member, DEPARTMENT_MEMBER_DESTINATION), toJsonMessage(payload));
+            sseHub.publishToUser(member, DEPARTMENT_MEMBER_DESTINATION, json);
+        }
+        log.debug("Mensaje del departamento {} entregado a {} usuarios conectados", department, members.size());
+    }
+
+    /**
+     * Entrega un mensaje privado compartido a sus destinatarios conectados a
+     * este nodo. El contenido se codifica una sola vez; la secuencia de cada
+     * destinatario viaja en una cabecera.
+     *
+     * @param message El mensaje
+     */
+    private void deliverToRecipients(RelayMessage message) {
+        byte[] payload = message.getPayload().getBytes(StandardCharsets.UTF_8);
+        message.getRecipients().forEach((user, sequence) -> {
+            messagingTemplate.send(userDestination(user, message.getDestination()), toJsonMessage(payload, sequence));
+            sseHub.publishToUser(user, message.getDestination(), message.getPayload(), sequence);
+        });
+    }
+
+    private static String userDestination(String user, String destination) {
+        return USER_DESTINATION_PREFIX + user.replace("/", "%2F") + destination;
+    }
+
+    /**
+     * Crea un mensaje STOMP con un contenido JSON ya codificado. El array de
+     * bytes puede compartirse entre varios mensajes: no se modifica.
+     *
+     * @param payload El contenido JSON en UTF-8
+     * @return El mensaje
+     */
+    private Message<byte[]> toJsonMessage(byte[] payload) {
+        return toJsonMessage(payload, null);
+    }
+
+    /**
+     * Crea un mensaje STOMP con un contenido JSON ya codificado y la secuencia
+     * de la bandeja de su destinatario.
+     *
+     * @param payload  El contenido JSON en UTF-8, compartido entre mensajes
+     * @param sequence La secuencia, o null
+     * @return El mensaje
+     */
+    private Message<byte[]> toJsonMessage(byte[] payload, Long sequence) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (sequence != null) {
+            accessor.setNativeHeader(SEQUENCE_HEADER, String.valueOf(sequence));
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,18 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bus de un único nodo. Los mensajes ya se entregan localmente al enviarse,
+ * por lo que no hay otros nodos a los que publicarlos.
+ */
+@Component
+@ConditionalOnProperty(name = "messaging.relay.type", havingValue = "local", matchIfMissing = true)
+public class LocalMessageRelay implements MessageRelay {
+
+    @Override
+    public void publish(RelayMessage message) {
+        // Sin otros nodos: la entrega local ya se realizó
+    }
+}
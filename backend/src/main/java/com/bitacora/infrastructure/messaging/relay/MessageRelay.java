@@ -0,0 +1,16 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+/**
+ * Bus que reparte los mensajes WebSocket salientes entre todos los nodos de
+ * la aplicación. Cada nodo entrega a sus propios suscriptores los mensajes que
+ * recibe del bus a través de {@link LocalMessageDispatcher}.
+ */
+public interface MessageRelay {
+
+    /**
+     * Publica un mensaje para el resto de nodos.
+     *
+     * @param message El mensaje
+     */
+    void publish(RelayMessage message);
+}
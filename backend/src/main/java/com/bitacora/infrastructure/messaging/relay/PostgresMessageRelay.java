@@ -0,0 +1,256 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus entre nodos basado en LISTEN/NOTIFY de PostgreSQL.
+ * Cada mensaje se publica una vez con pg_notify y todos los nodos escuchan el
+ * mismo canal en una conexión dedicada. Los mensajes que superan el límite de
+ * tamaño de NOTIFY se guardan en la tabla websocket_relay_messages y solo se
+ * notifica su identificador.
+ * La publicación se hace en un hilo propio, con conexiones del pool fuera de
+ * cualquier transacción de quien envía: el envío no espera la ida y vuelta a
+ * la base de datos ni la notificación queda ligada a la transacción del
+ * llamador. El único hilo conserva el orden de publicación.
+ */
+@Component
+@ConditionalOnProperty(name = "messaging.relay.type", havingValue = "postgres")
+@Slf4j
+public class PostgresMessageRelay implements MessageRelay, SmartLifecycle {
+
+    /**
+     * Tamaño máximo del contenido de NOTIFY (8000 bytes), con margen.
+     */
+    private static final int MAX_NOTIFY_BYTES = 7900;
+
+    /**
+     * Prefijo de las notificaciones que solo contienen el identificador de un
+     * mensaje guardado en la tabla.
+     */
+    private static final String STORED_PREFIX = "@";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalMessageDispatcher localDispatcher;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long storedRetentionSeconds;
+    private final ThreadPoolExecutor publisher;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Constructor del bus.
+     *
+     * @param jdbcTemplate           La plantilla JDBC
+     * @param localDispatcher        El distribuidor local
+     * @param objectMapper           El serializador JSON
+     * @param channel                El canal de NOTIFY
+     * @param url                    La URL de la base de datos
+     * @param username               El usuario de la base de datos
+     * @param password               La contraseña de la base de datos
+     * @param storedRetentionSeconds Los segundos que se conservan los mensajes guardados
+     * @param publishQueueCapacity   El número máximo de mensajes pendientes de publicar
+     */
+    public PostgresMessageRelay(
+            JdbcTemplate jdbcTemplate,
+            LocalMessageDispatcher localDispatcher,
+            ObjectMapper objectMapper,
+            @Value("${messaging.relay.channel:bitacora_ws}") String channel,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${messaging.relay.stored-retention:300}") long storedRetentionSeconds,
+            @Value("${messaging.relay.publish-queue-capacity:10000}") int publishQueueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.localDispatcher = localDispatcher;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.storedRetentionSeconds = storedRetentionSeconds;
+        this.publisher = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, publishQueueCapacity)),
+                runnable -> new Thread(runnable, "ws-relay-publisher"),
+                (runnable, pool) -> log.error("Cola de publicación del bus WebSocket llena; mensaje descartado"));
+    }
+
+    @Override
+    public void publish(RelayMessage message) {
+        publisher.execute(() -> {
+            try {
+                notifyNodes(message);
+            } catch (RuntimeException e) {
+                log.error("Error al publicar el mensaje {} en el bus: {}", message.getMessageId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Publica un mensaje con pg_notify, guardándolo antes en la tabla si
+     * supera el límite de tamaño de NOTIFY.
+     *
+     * @param message El mensaje
+     */
+    private void notifyNodes(RelayMessage message) {
+        String json = toJson(message);
+        String notification = json;
+
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+            jdbcTemplate.update(
+                    "INSERT INTO websocket_relay_messages (id, payload, created_at) VALUES (?, ?, ?)",
+                    message.getMessageId(), json, Timestamp.from(Instant.now()));
+            notification = STORED_PREFIX + message.getMessageId();
+        }
+
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, notification);
+    }
+
+    /**
+     * Elimina los mensajes guardados que ya se han repartido.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeStoredMessages() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minusSeconds(storedRetentionSeconds));
+        int deleted = jdbcTemplate.update("DELETE FROM websocket_relay_messages WHERE created_at < ?", cutoff);
+        if (deleted > 0) {
+            log.debug("Eliminados {} mensajes del bus ya repartidos", deleted);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "ws-relay-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        publisher.shutdown();
+        try {
+            if (!publisher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Quedaron {} mensajes del bus sin publicar al detener la aplicación",
+                        publisher.getQueue().size());
+                publisher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            publisher.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Bucle de escucha del canal. Si la conexión se pierde, se vuelve a abrir.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Escuchando el canal {} de mensajes WebSocket entre nodos", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Conexión de escucha del bus WebSocket perdida: {}", e.getMessage());
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Procesa una notificación recibida del canal.
+     *
+     * @param notification El contenido de la notificación
+     */
+    private void handle(String notification) {
+        try {
+            String json = notification;
+            if (notification.startsWith(STORED_PREFIX)) {
+                List<String> stored = jdbcTemplate.queryForList(
+                        "SELECT payload FROM websocket_relay_messages WHERE id = ?",
+                        String.class, notification.substring(STORED_PREFIX.length()));
+                if (stored.isEmpty()) {
+                    log.warn("Mensaje {} del bus no encontrado", notification);
+                    return;
+                }
+                json = stored.get(0);
+            }
+            localDispatcher.deliver(objectMapper.readValue(json, RelayMessage.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Error al procesar un mensaje del bus WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Serializa un mensaje del bus.
+     *
+     * @param message El mensaje
+     * @return El JSON
+     */
+    private String toJson(RelayMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el mensaje del bus", e);
+        }
+    }
+}
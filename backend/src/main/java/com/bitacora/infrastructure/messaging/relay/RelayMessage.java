@@ -0,0 +1,52 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Mensaje WebSocket saliente tal como se publica en el bus compartido entre
+ * nodos. El contenido viaja ya serializado, de modo que cada nodo lo entrega a
+ * sus suscriptores locales sin volver a convertirlo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelayMessage {
+
+    /**
+     * Identificador único del mensaje, usado para descartar duplicados.
+     */
+    private String messageId;
+
+    /**
+     * Identificador del nodo que originó el mensaje.
+     */
+    private String originNode;
+
+    /**
+     * Destino STOMP del mensaje.
+     */
+    private String destination;
+
+    /**
+     * Usuario destinatario, o null si el destino es un tópico compartido.
+     */
+    private String user;
+
+    /**
+     * Contenido JSON del mensaje.
+     */
+    private String payload;
+
+    /**
+     * Destinatarios de un mensaje privado compartido, con la secuencia de la
+     * bandeja de cada uno (o null), o null si el mensaje no es compartido. El
+     * contenido es el mismo para todos; el destino es relativo a cada usuario.
+     */
+    private Map<String, Long> recipients;
+}
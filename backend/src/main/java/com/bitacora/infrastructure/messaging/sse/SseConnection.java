@@ -0,0 +1,137 @@
+package com.bitacora.infrastructure.messaging.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Conexión SSE de un cliente. Los eventos se encolan sin bloquear en una cola
+ * acotada y los escribe un único hilo virtual, que puede quedarse bloqueado en
+ * la red sin retener hilos del servidor. Si la cola se llena, el cliente no
+ * consume al ritmo de los envíos y la conexión se cierra; el cliente se
+ * reconecta con la cabecera {@code Last-Event-ID} y recupera lo perdido.
+ */
+final class SseConnection {
+
+    private final String username;
+    private final Set<String> topics;
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEvent> queue;
+    private final long heartbeatMillis;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Thread writer;
+
+    /**
+     * Constructor de la conexión.
+     *
+     * @param username        El nombre de usuario
+     * @param topics          Los tópicos suscritos
+     * @param emitter         El emisor SSE de la petición
+     * @param bufferSize      El número máximo de eventos pendientes
+     * @param heartbeatMillis El intervalo de los comentarios de mantenimiento (ms)
+     */
+    SseConnection(String username, Set<String> topics, SseEmitter emitter, int bufferSize, long heartbeatMillis) {
+        this.username = username;
+        this.topics = topics;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    Set<String> getTopics() {
+        return topics;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Encola un evento sin bloquear.
+     *
+     * @param event El evento
+     * @return false si la cola está llena
+     */
+    boolean offer(SseEvent event) {
+        return closed.get() || queue.offer(event);
+    }
+
+    /**
+     * Asocia la conexión al hilo que la escribe, para poder interrumpirlo al cerrarla.
+     *
+     * @param thread El hilo escritor
+     */
+    void attach(Thread thread) {
+        this.writer = thread;
+        if (closed.get()) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Envía un evento directamente. Solo lo llama el hilo escritor.
+     *
+     * @param event El evento
+     * @throws IOException Si el cliente se desconectó
+     */
+    void send(SseEvent event) throws IOException {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name()).data(event.data());
+        if (event.sequence() != null) {
+            builder.id(Long.toString(event.sequence()));
+        }
+        emitter.send(builder);
+    }
+
+    /**
+     * Escribe los eventos encolados hasta que se cierre la conexión. Las
+     * notificaciones privadas ya enviadas en el reenvío inicial se descartan.
+     *
+     * @param lastSequence La última secuencia de bandeja enviada
+     * @throws IOException          Si el cliente se desconectó
+     * @throws InterruptedException Si se cerró la conexión
+     */
+    void drain(long lastSequence) throws IOException, InterruptedException {
+        while (!closed.get()) {
+            SseEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+            if (event == null) {
+                // Mantiene abierta la conexión a través de los proxies
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                continue;
+            }
+            if (event.sequence() != null) {
+                if (event.sequence() <= lastSequence) {
+                    continue;
+                }
+                lastSequence = event.sequence();
+            }
+            send(event);
+        }
+    }
+
+    /**
+     * Cierra la conexión.
+     *
+     * @return true si la conexión estaba abierta
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        queue.clear();
+        Thread thread = writer;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+        emitter.complete();
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bitacora.infrastructure.messaging.sse;
+
+/**
+ * Evento pendiente de enviar a una conexión SSE.
+ *
+ * @param name     El nombre del evento: el destino STOMP equivalente
+ * @param data     El contenido JSON
+ * @param sequence La secuencia de bandeja más alta del contenido, o null si no
+ *                 es una notificación privada guardada
+ */
+record SseEvent(String name, String data, Long sequence) {
+}
@@ -0,0 +1,373 @@
+package com.bitacora.infrastructure.messaging.sse;
+
+import com.bitacora.application.notification.DepartmentPresenceIndex;
+import com.bitacora.application.notification.NotificationInboxService;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.infrastructure.exception.ServiceUnavailableException;
+import com.bitacora.infrastructure.messaging.relay.RelayMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reparte los mensajes WebSocket entregados en este nodo entre las conexiones
+ * SSE abiertas en él. Cada conexión recibe los mensajes privados de su usuario
+ * y los de los tópicos que eligió al conectarse; cada una la escribe su propio
+ * hilo virtual. Las notificaciones privadas llevan como identificador de
+ * evento su secuencia de bandeja, de modo que al reconectar con
+ * {@code Last-Event-ID} se reenvían las que el cliente no recibió. Los
+ * mensajes de los tópicos no se guardan y no se reenvían, como en STOMP.
+ * Las conexiones cuentan como presencia en el índice de departamentos, de
+ * modo que los anuncios departamentales también llegan por SSE.
+ */
+@Component
+@Slf4j
+public class SseNotificationHub {
+
+    static final String INBOX_DESTINATION = "/queue/notification";
+    static final String READY_EVENT = "ready";
+
+    private static final Set<String> DEFAULT_TOPICS = Set.of("/topic/notification", "/topic/system-alert");
+    private static final Set<String> STREAMABLE_TOPICS = Set.of(
+            "/topic/notification", "/topic/system-alert", "/topic/user-status");
+    private static final List<String> STREAMABLE_TOPIC_PREFIXES = List.of("/topic/activity/");
+
+    private final NotificationInboxService inboxService;
+    private final DepartmentPresenceIndex departmentIndex;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxConnections;
+
+    private final Map<String, Set<SseConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseConnection>> connectionsByTopic = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-writer-", 0).factory());
+    private final Counter evictedCounter;
+
+    /**
+     * Constructor del distribuidor SSE.
+     *
+     * @param inboxService    El servicio de bandeja de notificaciones
+     * @param departmentIndex El índice de usuarios conectados por departamento
+     * @param objectMapper    El serializador JSON
+     * @param meterRegistry   El registro de métricas
+     * @param bufferSize      El número máximo de eventos pendientes por conexión
+     * @param timeoutMillis   La duración máxima de una conexión (ms); el cliente se reconecta al cerrarse
+     * @param heartbeatMillis El intervalo de los comentarios de mantenimiento (ms)
+     * @param maxConnections  El número máximo de conexiones en este nodo
+     */
+    public SseNotificationHub(
+            NotificationInboxService inboxService,
+            DepartmentPresenceIndex departmentIndex,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.sse.buffer-size:256}") int bufferSize,
+            @Value("${notifications.sse.timeout:1800000}") long timeoutMillis,
+            @Value("${notifications.sse.heartbeat:20000}") long heartbeatMillis,
+            @Value("${notifications.sse.max-connections:2000}") int maxConnections) {
+        this.inboxService = inboxService;
+        this.departmentIndex = departmentIndex;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxConnections = maxConnections;
+
+        Gauge.builder("notifications.sse.connections", connectionCount, AtomicInteger::get)
+                .description("Conexiones SSE abiertas en este nodo")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("notifications.sse.evicted")
+                .description("Conexiones SSE cerradas por no consumir los eventos a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre una conexión SSE.
+     *
+     * @param username    El nombre de usuario
+     * @param topics      Los tópicos solicitados, o null para los tópicos por defecto
+     * @param lastEventId La última secuencia recibida por el cliente, o null en la primera conexión
+     * @return El emisor de la conexión
+     */
+    public SseEmitter open(String username, Collection<String> topics, Long lastEventId) {
+        Set<String> subscribed = resolveTopics(topics);
+
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new ServiceUnavailableException("Se alcanzó el número máximo de conexiones de notificaciones");
+        }
+        // Se compensa en close(), que se ejecuta una vez por conexión
+        departmentIndex.connect(username);
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseConnection connection = new SseConnection(username, subscribed, emitter, bufferSize, heartbeatMillis);
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(error -> close(connection));
+
+        // Se registra antes del reenvío: lo que llegue mientras tanto queda en la cola
+        addConnection(connectionsByUser, username, connection);
+        subscribed.forEach(topic -> addConnection(connectionsByTopic, topic, connection));
+        if (connection.isClosed()) {
+            // Cerrada durante el registro: se quita de nuevo de los índices
+            removeConnection(connectionsByUser, username, connection);
+            subscribed.forEach(topic -> removeConnection(connectionsByTopic, topic, connection));
+            return emitter;
+        }
+
+        writers.execute(() -> serve(connection, lastEventId));
+        log.debug("Conexión SSE abierta para {} con los tópicos {}", username, subscribed);
+        return emitter;
+    }
+
+    /**
+     * Encola un mensaje para las conexiones SSE que deben recibirlo.
+     *
+     * @param message El mensaje
+     */
+    public void publish(RelayMessage message) {
+        if (message.getUser() != null) {
+            publishToUser(message.getUser(), message.getDestination(), message.getPayload());
+        } else if (connectionCount.get() > 0) {
+            offer(connectionsByTopic.get(message.getDestination()),
+                    new SseEvent(message.getDestination(), message.getPayload(), null));
+        }
+    }
+
+    /**
+     * Encola un mensaje privado para las conexiones SSE de un usuario.
+     *
+     * @param username    El nombre de usuario
+     * @param destination El destino STOMP del usuario (por ejemplo, /queue/notification)
+     * @param payload     El contenido JSON
+     */
+    public void publishToUser(String username, String destination, String payload) {
+        if (connectionCount.get() == 0) {
+            return;
+        }
+        publishToUser(username, destination, payload,
+                INBOX_DESTINATION.equals(destination) ? maxSequence(payload) : null);
+    }
+
+    /**
+     * Encola un mensaje privado para las conexiones SSE de un usuario, con la
+     * secuencia de su bandeja ya conocida (el contenido no la incluye).
+     *
+     * @param username    El nombre de usuario
+     * @param destination El destino STOMP del usuario (por ejemplo, /queue/notification)
+     * @param payload     El contenido JSON
+     * @param sequence    La secuencia de la bandeja, o null
+     */
+    public void publishToUser(String username, String destination, String payload, Long sequence) {
+        if (connectionCount.get() == 0) {
+            return;
+        }
+        Set<SseConnection> connections = connectionsByUser.get(username);
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+        offer(connections, new SseEvent(destination, payload, sequence));
+    }
+
+    /**
+     * Encola un evento en un conjunto de conexiones, cerrando las que tienen
+     * la cola llena.
+     *
+     * @param connections Las conexiones, o null
+     * @param event       El evento
+     */
+    private void offer(Set<SseConnection> connections, SseEvent event) {
+        if (connections == null) {
+            return;
+        }
+        for (SseConnection connection : connections) {
+            if (!connection.offer(event)) {
+                evictedCounter.increment();
+                log.warn("Cerrando la conexión SSE de {}: no consume los eventos a tiempo", connection.getUsername());
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        connectionsByUser.values().forEach(connections -> List.copyOf(connections).forEach(this::close));
+        writers.shutdownNow();
+    }
+
+    /**
+     * Escribe una conexión: reenvía las notificaciones privadas pendientes,
+     * anuncia la secuencia desde la que continúa y escribe los eventos en vivo.
+     * Se ejecuta en el hilo virtual de la conexión.
+     *
+     * @param connection  La conexión
+     * @param lastEventId La última secuencia recibida por el cliente, o null
+     */
+    private void serve(SseConnection connection, Long lastEventId) {
+        connection.attach(Thread.currentThread());
+        String username = connection.getUsername();
+        try {
+            long lastSequence = lastEventId != null ? replay(connection, lastEventId)
+                    : inboxService.getLastSequence(username);
+            // El identificador del evento inicial es el punto de reanudación si no llegan notificaciones privadas
+            connection.send(new SseEvent(READY_EVENT, "{\"lastSequence\":" + lastSequence + "}", lastSequence));
+            connection.drain(lastSequence);
+        } catch (IOException e) {
+            log.debug("Conexión SSE de {} cerrada por el cliente: {}", username, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Error en la conexión SSE de {}: {}", username, e.getMessage());
+        } finally {
+            close(connection);
+        }
+    }
+
+    /**
+     * Reenvía las notificaciones privadas posteriores a una secuencia.
+     *
+     * @param connection   La conexión
+     * @param lastSequence La última secuencia recibida por el cliente
+     * @return La última secuencia reenviada
+     * @throws IOException Si el cliente se desconectó
+     */
+    private long replay(SseConnection connection, long lastSequence) throws IOException {
+        List<RealTimeNotification> batch = inboxService.replay(connection.getUsername(), lastSequence);
+        while (!batch.isEmpty() && !connection.isClosed()) {
+            long previous = lastSequence;
+            for (RealTimeNotification notification : batch) {
+                connection.send(new SseEvent(INBOX_DESTINATION, serialize(notification), notification.getSequence()));
+                lastSequence = Math.max(lastSequence, notification.getSequence());
+            }
+            if (lastSequence == previous) {
+                break;
+            }
+            batch = inboxService.replay(connection.getUsername(), lastSequence);
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Cierra una conexión y la quita de los índices.
+     *
+     * @param connection La conexión
+     */
+    private void close(SseConnection connection) {
+        if (!connection.close()) {
+            return;
+        }
+        removeConnection(connectionsByUser, connection.getUsername(), connection);
+        connection.getTopics().forEach(topic -> removeConnection(connectionsByTopic, topic, connection));
+        connectionCount.decrementAndGet();
+        departmentIndex.disconnect(connection.getUsername());
+        log.debug("Conexión SSE de {} cerrada", connection.getUsername());
+    }
+
+    /**
+     * Serializa una notificación a JSON.
+     *
+     * @param notification La notificación
+     * @return El JSON
+     */
+    private String serialize(RealTimeNotification notification) {
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la notificación " + notification.getId(), e);
+        }
+    }
+
+    /**
+     * Obtiene la secuencia más alta de un mensaje de notificaciones privadas,
+     * que puede contener una notificación o un array de notificaciones agrupadas.
+     *
+     * @param payload El contenido JSON
+     * @return La secuencia más alta, o null si no tiene
+     */
+    Long maxSequence(String payload) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        Iterable<JsonNode> nodes = root.isArray() ? root : List.of(root);
+        Long max = null;
+        for (JsonNode node : nodes) {
+            JsonNode sequence = node.get("sequence");
+            if (sequence != null && sequence.canConvertToLong() && (max == null || sequence.asLong() > max)) {
+                max = sequence.asLong();
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Valida los tópicos solicitados para una conexión SSE.
+     *
+     * @param topics Los tópicos solicitados, o null o vacío para los tópicos por defecto
+     * @return Los tópicos
+     * @throws AccessDeniedException Si se solicita un tópico que no se ofrece por SSE
+     */
+    static Set<String> resolveTopics(Collection<String> topics) {
+        if (topics == null || topics.isEmpty()) {
+            return DEFAULT_TOPICS;
+        }
+        Set<String> resolved = new LinkedHashSet<>();
+        for (String topic : topics) {
+            String trimmed = topic.trim();
+            boolean streamable = STREAMABLE_TOPICS.contains(trimmed) || STREAMABLE_TOPIC_PREFIXES.stream()
+                    .anyMatch(prefix -> trimmed.length() > prefix.length() && trimmed.startsWith(prefix)
+                            && trimmed.indexOf('/', prefix.length()) < 0);
+            if (!streamable) {
+                throw new AccessDeniedException("El tópico " + trimmed + " no está disponible por SSE");
+            }
+            resolved.add(trimmed);
+        }
+        return Set.copyOf(resolved);
+    }
+
+    private static void addConnection(Map<String, Set<SseConnection>> index, String key, SseConnection connection) {
+        index.compute(key, (k, connections) -> {
+            Set<SseConnection> current = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            current.add(connection);
+            return current;
+        });
+    }
+
+    private static void removeConnection(Map<String, Set<SseConnection>> index, String key, SseConnection connection) {
+        index.computeIfPresent(key, (k, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+}
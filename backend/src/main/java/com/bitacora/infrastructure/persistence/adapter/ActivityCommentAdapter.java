@@ -0,0 +1,112 @@
+package com.bitacora.infrastructure.persistence.adapter;
+
+import com.bitacora.domain.model.activity.ActivityComment;
+import com.bitacora.domain.port.repository.ActivityCommentRepository;
+import com.bitacora.infrastructure.persistence.support.DatabasePlatform;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Adaptador para la persistencia de los comentarios de actividades.
+ * Implementa el puerto ActivityCommentRepository con JDBC. Cada comentario es
+ * una inserción, y el contador de la actividad se incrementa en la misma
+ * transacción sobre su propia fila, sin tocar la de la actividad.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityCommentAdapter implements ActivityCommentRepository {
+
+    private static final String INCREMENT_COUNT =
+            "UPDATE activity_comment_counts SET comment_count = comment_count + 1, last_comment_at = ? "
+                    + "WHERE activity_id = ?";
+
+    private static final RowMapper<ActivityComment> ROW_MAPPER = (rs, rowNum) -> ActivityComment.builder()
+            .id(rs.getLong("id"))
+            .activityId(rs.getLong("activity_id"))
+            .userId(rs.getLong("user_id"))
+            .content(rs.getString("content"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @Override
+    @Transactional
+    public ActivityComment append(ActivityComment comment) {
+        Timestamp createdAt = Timestamp.valueOf(comment.getCreatedAt());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO activity_comments (activity_id, user_id, content, created_at) VALUES (?, ?, ?, ?)",
+                    new String[] {"id"});
+            statement.setLong(1, comment.getActivityId());
+            statement.setLong(2, comment.getUserId());
+            statement.setString(3, comment.getContent());
+            statement.setTimestamp(4, createdAt);
+            return statement;
+        }, keyHolder);
+        incrementCount(comment.getActivityId(), createdAt);
+
+        comment.setId(keyHolder.getKey().longValue());
+        return comment;
+    }
+
+    @Override
+    public List<ActivityComment> findAfter(Long activityId, Long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, activity_id, user_id, content, created_at FROM activity_comments "
+                        + "WHERE activity_id = ? AND id > ? ORDER BY id LIMIT ?",
+                ROW_MAPPER, activityId, afterId != null ? afterId : 0L, limit);
+    }
+
+    @Override
+    public long countByActivityId(Long activityId) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "SELECT comment_count FROM activity_comment_counts WHERE activity_id = ?", Long.class, activityId);
+        return result.isEmpty() ? 0L : result.get(0);
+    }
+
+    /**
+     * Incrementa el contador de comentarios de una actividad, creándolo si no existe.
+     *
+     * @param activityId El ID de la actividad
+     * @param createdAt  La fecha del comentario
+     */
+    private void incrementCount(Long activityId, Timestamp createdAt) {
+        if (databasePlatform.isPostgreSql()) {
+            jdbcTemplate.update(
+                    "INSERT INTO activity_comment_counts (activity_id, comment_count, last_comment_at) "
+                            + "VALUES (?, 1, ?) ON CONFLICT (activity_id) DO UPDATE SET "
+                            + "comment_count = activity_comment_counts.comment_count + 1, "
+                            + "last_comment_at = EXCLUDED.last_comment_at",
+                    activityId, createdAt);
+            return;
+        }
+
+        // Alternativa portable (por ejemplo, H2 en desarrollo)
+        if (jdbcTemplate.update(INCREMENT_COUNT, createdAt, activityId) == 0) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO activity_comment_counts (activity_id, comment_count, last_comment_at) "
+                                + "VALUES (?, 1, ?)",
+                        activityId, createdAt);
+            } catch (DuplicateKeyException e) {
+                // Otra transacción ha creado el contador en paralelo
+                jdbcTemplate.update(INCREMENT_COUNT, createdAt, activityId);
+            }
+        }
+    }
+}
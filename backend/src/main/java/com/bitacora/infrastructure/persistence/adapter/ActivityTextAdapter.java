@@ -0,0 +1,211 @@
+package com.bitacora.infrastructure.persistence.adapter;
+
+import com.bitacora.domain.model.activity.ActivityTextField;
+import com.bitacora.domain.model.activity.ActivityTextRevision;
+import com.bitacora.domain.model.activity.ActivityTextSnapshot;
+import com.bitacora.domain.model.activity.TextOperation;
+import com.bitacora.domain.port.repository.ActivityTextRepository;
+import com.bitacora.infrastructure.persistence.support.DatabasePlatform;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adaptador para la persistencia de la edición colaborativa de textos.
+ * Implementa el puerto ActivityTextRepository con JDBC. Las operaciones se
+ * guardan en su formato de intercambio, de modo que cada fila ocupa lo que
+ * ocupa la edición y no el texto completo.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityTextAdapter implements ActivityTextRepository {
+
+    private static final TypeReference<List<Object>> COMPONENTS = new TypeReference<>() {
+    };
+
+    private static final String INSERT_REVISION =
+            "INSERT INTO activity_text_operations (activity_id, field, revision, operation, client_operation_id, "
+                    + "author, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO activity_text_snapshots (activity_id, field, revision) VALUES (?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Optional<ActivityTextSnapshot> openSnapshot(Long activityId, ActivityTextField field) {
+        List<Long> exists = jdbcTemplate.queryForList("SELECT id FROM activities WHERE id = ?", Long.class, activityId);
+        if (exists.isEmpty()) {
+            return Optional.empty();
+        }
+        insertIfAbsent(INSERT_SNAPSHOT, activityId, field.name());
+
+        // Una sola sentencia: el texto y la revisión se guardan juntos y se leen juntos
+        String column = column(field);
+        List<ActivityTextSnapshot> snapshots = jdbcTemplate.query(
+                "SELECT a." + column + " AS text, s.revision FROM activity_text_snapshots s "
+                        + "JOIN activities a ON a.id = s.activity_id WHERE s.activity_id = ? AND s.field = ?",
+                (rs, rowNum) -> new ActivityTextSnapshot(
+                        rs.getString("text") != null ? rs.getString("text") : "", rs.getLong("revision")),
+                activityId, field.name());
+        return snapshots.stream().findFirst();
+    }
+
+    @Override
+    public List<ActivityTextRevision> findRevisionsAfter(Long activityId, ActivityTextField field, long after,
+            int limit) {
+        return jdbcTemplate.query(
+                "SELECT revision, operation, client_operation_id, author FROM activity_text_operations "
+                        + "WHERE activity_id = ? AND field = ? AND revision > ? ORDER BY revision LIMIT ?",
+                (rs, rowNum) -> ActivityTextRevision.builder()
+                        .activityId(activityId)
+                        .field(field)
+                        .revision(rs.getLong("revision"))
+                        .operation(fromJson(rs.getString("operation")))
+                        .clientOperationId(rs.getString("client_operation_id"))
+                        .author(rs.getString("author"))
+                        .build(),
+                activityId, field.name(), after, limit);
+    }
+
+    @Override
+    public boolean append(ActivityTextRevision revision) {
+        return insertIfAbsent(
+                INSERT_REVISION,
+                revision.getActivityId(),
+                revision.getField().name(),
+                revision.getRevision(),
+                revision.isReset() ? null : toJson(revision.getOperation()),
+                revision.getClientOperationId(),
+                revision.getAuthor(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean advanceSnapshot(Long activityId, ActivityTextField field, long revision) {
+        return jdbcTemplate.update(
+                "UPDATE activity_text_snapshots SET revision = ? WHERE activity_id = ? AND field = ? AND revision < ?",
+                revision, activityId, field.name(), revision) > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> reset(Long activityId, ActivityTextField field) {
+        // Bloquea el estado del campo: la compactación espera a que se confirme el reinicio
+        if (jdbcTemplate.update("UPDATE activity_text_snapshots SET revision = revision "
+                + "WHERE activity_id = ? AND field = ?", activityId, field.name()) == 0) {
+            return Optional.empty();
+        }
+
+        // Las operaciones no bloquean el estado: si otra ocupa la revisión, se prueba con la siguiente
+        while (true) {
+            long revision = jdbcTemplate.queryForObject(
+                    "SELECT GREATEST(s.revision, COALESCE(MAX(o.revision), 0)) + 1 "
+                            + "FROM activity_text_snapshots s LEFT JOIN activity_text_operations o "
+                            + "ON o.activity_id = s.activity_id AND o.field = s.field "
+                            + "WHERE s.activity_id = ? AND s.field = ? GROUP BY s.revision",
+                    Long.class, activityId, field.name());
+            ActivityTextRevision marker = ActivityTextRevision.builder()
+                    .activityId(activityId)
+                    .field(field)
+                    .revision(revision)
+                    .build();
+            if (append(marker)) {
+                jdbcTemplate.update("UPDATE activity_text_snapshots SET revision = ? WHERE activity_id = ? AND field = ?",
+                        revision, activityId, field.name());
+                return Optional.of(revision);
+            }
+        }
+    }
+
+    @Override
+    public int deleteRevisionsUpTo(Long activityId, ActivityTextField field, long revision) {
+        return jdbcTemplate.update(
+                "DELETE FROM activity_text_operations WHERE activity_id = ? AND field = ? AND revision <= ?",
+                activityId, field.name(), revision);
+    }
+
+    /**
+     * Inserta una fila salvo que ya exista una con la misma clave, sin
+     * interrumpir la transacción en curso.
+     *
+     * @param sql  La sentencia INSERT
+     * @param args Los parámetros
+     * @return true si se insertó la fila
+     */
+    private boolean insertIfAbsent(String sql, Object... args) {
+        if (databasePlatform.isPostgreSql()) {
+            // En PostgreSQL un error de clave anularía la transacción entera
+            return jdbcTemplate.update(sql + " ON CONFLICT DO NOTHING", args) > 0;
+        }
+
+        // Alternativa portable (por ejemplo, H2 en desarrollo)
+        try {
+            return jdbcTemplate.update(sql, args) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Obtiene la columna de la actividad que guarda un campo.
+     *
+     * @param field El campo
+     * @return El nombre de la columna
+     */
+    private static String column(ActivityTextField field) {
+        return switch (field) {
+            case DESCRIPTION -> "description";
+            case SITUATION -> "situation";
+            case RESULT -> "result";
+            case COMMENTS -> "comments";
+        };
+    }
+
+    /**
+     * Serializa una operación en su formato de intercambio.
+     *
+     * @param operation La operación
+     * @return El JSON de la operación
+     */
+    private String toJson(TextOperation operation) {
+        try {
+            return objectMapper.writeValueAsString(operation.toComponents());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la operación " + operation, e);
+        }
+    }
+
+    /**
+     * Deserializa una operación.
+     *
+     * @param json El JSON de la operación, o null en un reinicio
+     * @return La operación, o null en un reinicio
+     */
+    private TextOperation fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return TextOperation.fromComponents(objectMapper.readValue(json, COMPONENTS));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer una operación de texto", e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.bitacora.infrastructure.persistence.adapter;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.domain.port.notification.NotificationInboxPort;
+import com.bitacora.infrastructure.persistence.support.DatabasePlatform;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Adaptador para la persistencia de la bandeja de notificaciones.
+ * Implementa el puerto NotificationInboxPort con JDBC. La secuencia y el
+ * contador de no leídas de cada usuario se actualizan en la misma sentencia,
+ * bajo el bloqueo de la fila de estado del usuario, de modo que las
+ * secuencias no tienen huecos ni duplicados.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationInboxAdapter implements NotificationInboxPort {
+
+    private static final String INCREMENT_STATE =
+            "UPDATE notification_inbox_state SET last_sequence = last_sequence + 1, "
+                    + "unread_count = unread_count + 1 WHERE username = ?";
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notification_inbox (username, sequence, notification_id, type, payload, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public RealTimeNotification append(String username, RealTimeNotification notification) {
+        long sequence = nextSequence(username);
+        notification.setSequence(sequence);
+        notification.setRead(false);
+
+        jdbcTemplate.update(
+                INSERT_NOTIFICATION,
+                username,
+                sequence,
+                notification.getId(),
+                notification.getType() != null ? notification.getType().name() : null,
+                toJson(notification),
+                new Timestamp(notification.getTimestamp()));
+        return notification;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> appendAll(Collection<String> usernames, RealTimeNotification notification) {
+        // El contenido es el mismo para todos: se serializa una vez, sin secuencia
+        String payload = toJson(notification);
+        String type = notification.getType() != null ? notification.getType().name() : null;
+        Timestamp createdAt = new Timestamp(notification.getTimestamp());
+
+        // Se bloquean las filas de estado siempre en el mismo orden para evitar interbloqueos
+        Map<String, Long> sequences = new LinkedHashMap<>();
+        for (String username : new TreeSet<>(usernames)) {
+            sequences.put(username, nextSequence(username));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, sequences.entrySet(), INSERT_BATCH_SIZE, (ps, entry) -> {
+            ps.setString(1, entry.getKey());
+            ps.setLong(2, entry.getValue());
+            ps.setString(3, notification.getId());
+            ps.setString(4, type);
+            ps.setString(5, payload);
+            ps.setTimestamp(6, createdAt);
+        });
+        return sequences;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RealTimeNotification> findAfter(String username, long afterSequence, int limit) {
+        long readSequence = getReadSequence(username);
+        return jdbcTemplate.query(
+                "SELECT sequence, payload FROM notification_inbox WHERE username = ? AND sequence > ? "
+                        + "ORDER BY sequence ASC LIMIT ?",
+                rowMapper(readSequence), username, afterSequence, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RealTimeNotification> findBefore(String username, Long beforeSequence, int limit) {
+        long readSequence = getReadSequence(username);
+        return jdbcTemplate.query(
+                "SELECT sequence, payload FROM notification_inbox WHERE username = ? AND sequence < ? "
+                        + "ORDER BY sequence DESC LIMIT ?",
+                rowMapper(readSequence), username,
+                beforeSequence != null ? beforeSequence : Long.MAX_VALUE, limit);
+    }
+
+    @Override
+    public long getLastSequence(String username) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "SELECT last_sequence FROM notification_inbox_state WHERE username = ?", Long.class, username);
+        return result.isEmpty() ? 0L : result.get(0);
+    }
+
+    @Override
+    public long countUnread(String username) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "SELECT unread_count FROM notification_inbox_state WHERE username = ?", Long.class, username);
+        return result.isEmpty() ? 0L : result.get(0);
+    }
+
+    @Override
+    @Transactional
+    public long markReadUpTo(String username, long sequence) {
+        // Las notificaciones entre la marca anterior y la nueva dejan de contar como no leídas
+        jdbcTemplate.update(
+                "UPDATE notification_inbox_state SET "
+                        + "unread_count = unread_count - (LEAST(?, last_sequence) - read_sequence), "
+                        + "read_sequence = LEAST(?, last_sequence) "
+                        + "WHERE username = ? AND read_sequence < LEAST(?, last_sequence)",
+                sequence, sequence, username, sequence);
+        return countUnread(username);
+    }
+
+    @Override
+    @Transactional
+    public int deleteCreatedBefore(Date cutoff) {
+        int deleted = jdbcTemplate.update("DELETE FROM notification_inbox WHERE created_at < ?",
+                new Timestamp(cutoff.getTime()));
+        if (deleted > 0) {
+            // Las notificaciones eliminadas sin leer dejan de contar como no leídas
+            jdbcTemplate.update(
+                    "UPDATE notification_inbox_state SET unread_count = (SELECT COUNT(*) FROM notification_inbox i "
+                            + "WHERE i.username = notification_inbox_state.username "
+                            + "AND i.sequence > notification_inbox_state.read_sequence) "
+                            + "WHERE unread_count > 0");
+        }
+        return deleted;
+    }
+
+    /**
+     * Asigna la siguiente secuencia de un usuario, creando su estado si no existe.
+     *
+     * @param username El nombre de usuario
+     * @return La secuencia asignada
+     */
+    private long nextSequence(String username) {
+        if (databasePlatform.isPostgreSql()) {
+            return jdbcTemplate.queryForObject(
+                    "INSERT INTO notification_inbox_state (username, last_sequence, read_sequence, unread_count) "
+                            + "VALUES (?, 1, 0, 1) ON CONFLICT (username) DO UPDATE SET "
+                            + "last_sequence = notification_inbox_state.last_sequence + 1, "
+                            + "unread_count = notification_inbox_state.unread_count + 1 "
+                            + "RETURNING last_sequence",
+                    Long.class, username);
+        }
+
+        // Alternativa portable (por ejemplo, H2 en desarrollo)
+        if (jdbcTemplate.update(INCREMENT_STATE, username) == 0) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO notification_inbox_state (username, last_sequence, read_sequence, unread_count) "
+                                + "VALUES (?, 1, 0, 1)",
+                        username);
+                return 1L;
+            } catch (DuplicateKeyException e) {
+                // Otra transacción ha creado el estado en paralelo
+                jdbcTemplate.update(INCREMENT_STATE, username);
+            }
+        }
+        return getLastSequence(username);
+    }
+
+    /**
+     * Obtiene la marca de lectura de un usuario.
+     *
+     * @param username El nombre de usuario
+     * @return La última secuencia leída, o 0
+     */
+    private long getReadSequence(String username) {
+        List<Long> result = jdbcTemplate.queryForList(
+                "SELECT read_sequence FROM notification_inbox_state WHERE username = ?", Long.class, username);
+        return result.isEmpty() ? 0L : result.get(0);
+    }
+
+    /**
+     * Crea el mapeador de filas de la bandeja.
+     *
+     * @param readSequence La marca de lectura del usuario
+     * @return El mapeador
+     */
+    private RowMapper<RealTimeNotification> rowMapper(long readSequence) {
+        return (rs, rowNum) -> {
+            RealTimeNotification notification = fromJson(rs.getString("payload"));
+            long sequence = rs.getLong("sequence");
+            notification.setSequence(sequence);
+            notification.setRead(sequence <= readSequence);
+            return notification;
+        };
+    }
+
+    /**
+     * Serializa una notificación.
+     *
+     * @param notification La notificación
+     * @return El JSON de la notificación
+     */
+    private String toJson(RealTimeNotification notification) {
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la notificación " + notification.getId(), e);
+        }
+    }
+
+    /**
+     * Deserializa una notificación.
+     *
+     * @param json El JSON de la notificación
+     * @return La notificación
+     */
+    private RealTimeNotification fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, RealTimeNotification.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer una notificación de la bandeja", e);
+        }
+    }
+}
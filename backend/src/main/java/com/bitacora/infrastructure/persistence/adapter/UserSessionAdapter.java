@@ -6,14 +6,23 @@ import com.bitacora.domain.port.session.UserSessionPort;
 import com.bitacora.infrastructure.persistence.entity.UserSessionEntity;
 import com.bitacora.infrastructure.persistence.mapper.UserSessionMapper;
 import com.bitacora.infrastructure.persistence.repository.UserSessionJpaRepository;
+import com.bitacora.infrastructure.persistence.support.DatabasePlatform;
+import com.bitacora.infrastructure.persistence.support.UserSessionPartitionManager;
+import com.bitacora.infrastructure.security.TokenDigest;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,8 +34,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserSessionAdapter implements UserSessionPort {
 
+    /**
+     * Número máximo de sesiones actualizadas por sentencia.
+     */
+    private static final int LAST_ACTIVITY_BATCH_SIZE = 500;
+
     private final UserSessionJpaRepository repository;
     private final UserSessionMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final UserSessionPartitionManager partitionManager;
     
     @Override
     @Transactional
@@ -38,13 +55,28 @@ public class UserSessionAdapter implements UserSessionPort {
     
     @Override
     public Optional<UserSession> findByToken(String token) {
-        return repository.findByToken(token)
+        if (token == null) {
+            return Optional.empty();
+        }
+        return repository.findFirstByTokenHashOrderByIdDesc(TokenDigest.sha256(token))
                 .map(mapper::toDomain);
     }
     
     @Override
     public Optional<UserSession> findByRefreshToken(String refreshToken) {
-        return repository.findByRefreshToken(refreshToken)
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
+        return repository.findFirstByRefreshTokenHashOrderByIdDesc(TokenDigest.sha256(refreshToken))
+                .map(mapper::toDomain);
+    }
+    
+    @Override
+    public Optional<UserSession> findByPreviousRefreshToken(String refreshToken) {
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
+        return repository.findFirstByPreviousRefreshTokenHashOrderByIdDesc(TokenDigest.sha256(refreshToken))
                 .map(mapper::toDomain);
     }
     
@@ -87,17 +119,36 @@ public class UserSessionAdapter implements UserSessionPort {
     }
     
     @Override
-    public List<UserSession> findInactiveSessions(Date lastActivityBefore) {
-        return repository.findByStatusAndLastActivityTimeBefore(SessionStatus.ACTIVE, lastActivityBefore)
-                .stream()
+    public List<UserSession> findInactiveSessionsToNotify(Date lastActivityBefore, Date afterActivityTime,
+            Long afterId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<UserSessionEntity> entities = afterActivityTime == null || afterId == null
+                ? repository.findInactiveToNotify(SessionStatus.ACTIVE, lastActivityBefore, page)
+                : repository.findInactiveToNotifyAfter(
+                        SessionStatus.ACTIVE, lastActivityBefore, afterActivityTime, afterId, page);
+        return entities.stream()
                 .map(mapper::toDomain)
                 .collect(Collectors.toList());
     }
     
     @Override
     @Transactional
-    public int updateExpiredSessions(Date now) {
-        return repository.updateExpiredSessions(SessionStatus.EXPIRED, now);
+    public int markInactivityNotified(Collection<Long> sessionIds, Date notifiedAt) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return 0;
+        }
+        return repository.markInactivityNotified(sessionIds, notifiedAt);
+    }
+    
+    @Override
+    @Transactional
+    public int expireSessions(Date now, int limit) {
+        List<Long> ids = repository.findIdsByStatusAndExpiryTimeBefore(
+                SessionStatus.ACTIVE, now, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return repository.updateStatusOfActiveSessions(ids, SessionStatus.EXPIRED);
     }
     
     @Override
@@ -106,4 +157,85 @@ public class UserSessionAdapter implements UserSessionPort {
         return repository.closeOtherSessions(
                 userId, currentSessionId, SessionStatus.CLOSED, new Date());
     }
+    
+    @Override
+    @Transactional
+    public int updateLastActivityTimes(Map<Long, Date> lastActivityBySession) {
+        if (lastActivityBySession == null || lastActivityBySession.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> rows = new ArrayList<>(lastActivityBySession.size());
+        lastActivityBySession.forEach((sessionId, lastActivity) ->
+                rows.add(new Object[] { sessionId, new Timestamp(lastActivity.getTime()) }));
+
+        if (!databasePlatform.isPostgreSql()) {
+            return updateLastActivityTimesOneByOne(rows);
+        }
+
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += LAST_ACTIVITY_BATCH_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + LAST_ACTIVITY_BATCH_SIZE, rows.size()));
+            updated += updateLastActivityTimesChunk(chunk);
+        }
+        return updated;
+    }
+    
+    /**
+     * Actualiza un bloque de sesiones con una única sentencia
+     * {@code UPDATE ... FROM (VALUES ...)}.
+     * 
+     * @param chunk Las filas (ID de sesión, hora de última actividad)
+     * @return El número de sesiones actualizadas
+     */
+    private int updateLastActivityTimesChunk(List<Object[]> chunk) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE user_sessions s SET last_activity_time = v.last_activity_time FROM (VALUES ");
+        Object[] params = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(CAST(? AS BIGINT), CAST(? AS TIMESTAMP))");
+            params[i * 2] = chunk.get(i)[0];
+            params[i * 2 + 1] = chunk.get(i)[1];
+        }
+        sql.append(") AS v(id, last_activity_time) ")
+                .append("WHERE s.id = v.id ")
+                .append("AND (s.last_activity_time IS NULL OR s.last_activity_time < v.last_activity_time)");
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+    
+    /**
+     * Actualiza las sesiones con un lote JDBC, para bases de datos que no
+     * soportan {@code UPDATE ... FROM} (por ejemplo, H2 en desarrollo).
+     * 
+     * @param rows Las filas (ID de sesión, hora de última actividad)
+     * @return El número de sesiones actualizadas
+     */
+    private int updateLastActivityTimesOneByOne(List<Object[]> rows) {
+        List<Object[]> params = rows.stream()
+                .map(row -> new Object[] { row[1], row[0], row[1] })
+                .collect(Collectors.toList());
+        int[] results = jdbcTemplate.batchUpdate(
+                "UPDATE user_sessions SET last_activity_time = ? WHERE id = ? "
+                        + "AND (last_activity_time IS NULL OR last_activity_time < ?)",
+                params);
+        int updated = 0;
+        for (int result : results) {
+            updated += Math.max(result, 0);
+        }
+        return updated;
+    }
+
+    
+    @Override
+    @Transactional
+    public int purgeSessionsBefore(Date cutoff) {
+        if (partitionManager.isPartitioned()) {
+            return partitionManager.dropPartitionsBefore(cutoff);
+        }
+        return repository.deleteByStatusInAndLoginTimeBefore(
+                List.of(SessionStatus.CLOSED, SessionStatus.EXPIRED, SessionStatus.REVOKED), cutoff);
+    }
 }
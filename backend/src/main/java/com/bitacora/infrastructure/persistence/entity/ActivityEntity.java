@@ -72,6 +72,19 @@ public class ActivityEntity {
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    /**
+     * Secuencia de la última escritura, para la sincronización incremental.
+     */
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    /**
+     * Secuencia de la creación; permite distinguir las actividades creadas de
+     * las modificadas desde una marca de agua.
+     */
+    @Column(name = "created_seq", nullable = false, updatable = false)
+    private Long createdSeq;
+
     /**
      * Inicializa valores por defecto al crear una nueva entidad.
      */
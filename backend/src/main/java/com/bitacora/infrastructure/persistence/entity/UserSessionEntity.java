@@ -44,16 +44,28 @@ public class UserSessionEntity {
     private Long userId;
     
     /**
-     * Token JWT asociado a la sesión.
+     * Nombre del usuario al que pertenece la sesión.
      */
-    @Column(name = "token", length = 2000)
-    private String token;
+    @Column(name = "username", length = 50)
+    private String username;
     
     /**
-     * Token de refresco asociado a la sesión.
+     * Resumen SHA-256 del token JWT asociado a la sesión.
      */
-    @Column(name = "refresh_token", length = 2000)
-    private String refreshToken;
+    @Column(name = "token_hash", length = 32, unique = true)
+    private byte[] tokenHash;
+    
+    /**
+     * Resumen SHA-256 del token de refresco asociado a la sesión.
+     */
+    @Column(name = "refresh_token_hash", length = 32, unique = true)
+    private byte[] refreshTokenHash;
+    
+    /**
+     * Resumen SHA-256 del último token de refresco rotado de la sesión.
+     */
+    @Column(name = "previous_refresh_token_hash", length = 32)
+    private byte[] previousRefreshTokenHash;
     
     /**
      * Dirección IP desde la que se inició la sesión.
@@ -100,6 +112,20 @@ public class UserSessionEntity {
     @Temporal(TemporalType.TIMESTAMP)
     private Date expiryTime;
     
+    /**
+     * Fecha y hora de expiración del token de refresco.
+     */
+    @Column(name = "refresh_expiry_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date refreshExpiryTime;
+    
+    /**
+     * Fecha y hora de la última rotación de los tokens.
+     */
+    @Column(name = "refreshed_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date refreshedAt;
+    
     /**
      * Estado actual de la sesión.
      */
@@ -125,4 +151,11 @@ public class UserSessionEntity {
     @Column(name = "logout_time")
     @Temporal(TemporalType.TIMESTAMP)
     private Date logoutTime;
+    
+    /**
+     * Fecha y hora en que se notificó al usuario la inactividad de la sesión.
+     */
+    @Column(name = "inactivity_notified_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date inactivityNotifiedAt;
 }
@@ -40,6 +40,7 @@ public class ActivityMapper {
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
                 .userId(entity.getUserId())
+                .version(entity.getChangeSeq())
                 .build();
     }
     
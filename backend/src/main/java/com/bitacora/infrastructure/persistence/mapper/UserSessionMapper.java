@@ -2,6 +2,7 @@ package com.bitacora.infrastructure.persistence.mapper;
 
 import com.bitacora.domain.model.session.UserSession;
 import com.bitacora.infrastructure.persistence.entity.UserSessionEntity;
+import com.bitacora.infrastructure.security.TokenDigest;
 import org.springframework.stereotype.Component;
 
 /**
@@ -12,6 +13,7 @@ public class UserSessionMapper {
     
     /**
      * Convierte una entidad JPA a un modelo de dominio.
+     * Los tokens no se persisten, por lo que solo se copian sus resúmenes.
      * 
      * @param entity La entidad JPA
      * @return El modelo de dominio
@@ -24,8 +26,10 @@ public class UserSessionMapper {
         return UserSession.builder()
                 .id(entity.getId())
                 .userId(entity.getUserId())
-                .token(entity.getToken())
-                .refreshToken(entity.getRefreshToken())
+                .username(entity.getUsername())
+                .tokenHash(entity.getTokenHash())
+                .refreshTokenHash(entity.getRefreshTokenHash())
+                .previousRefreshTokenHash(entity.getPreviousRefreshTokenHash())
                 .ipAddress(entity.getIpAddress())
                 .userAgent(entity.getUserAgent())
                 .device(entity.getDevice())
@@ -33,15 +37,19 @@ public class UserSessionMapper {
                 .loginTime(entity.getLoginTime())
                 .lastActivityTime(entity.getLastActivityTime())
                 .expiryTime(entity.getExpiryTime())
+                .refreshExpiryTime(entity.getRefreshExpiryTime())
+                .refreshedAt(entity.getRefreshedAt())
                 .status(entity.getStatus())
                 .suspicious(entity.isSuspicious())
                 .suspiciousReason(entity.getSuspiciousReason())
                 .logoutTime(entity.getLogoutTime())
+                .inactivityNotifiedAt(entity.getInactivityNotifiedAt())
                 .build();
     }
     
     /**
      * Convierte un modelo de dominio a una entidad JPA.
+     * Si el modelo trae los tokens, se persiste su resumen SHA-256.
      * 
      * @param domain El modelo de dominio
      * @return La entidad JPA
@@ -54,8 +62,14 @@ public class UserSessionMapper {
         return UserSessionEntity.builder()
                 .id(domain.getId())
                 .userId(domain.getUserId())
-                .token(domain.getToken())
-                .refreshToken(domain.getRefreshToken())
+                .username(domain.getUsername())
+                .tokenHash(domain.getToken() != null
+                        ? TokenDigest.sha256(domain.getToken())
+                        : domain.getTokenHash())
+                .refreshTokenHash(domain.getRefreshToken() != null
+                        ? TokenDigest.sha256(domain.getRefreshToken())
+                        : domain.getRefreshTokenHash())
+                .previousRefreshTokenHash(domain.getPreviousRefreshTokenHash())
                 .ipAddress(domain.getIpAddress())
                 .userAgent(domain.getUserAgent())
                 .device(domain.getDevice())
@@ -63,10 +77,13 @@ public class UserSessionMapper {
                 .loginTime(domain.getLoginTime())
                 .lastActivityTime(domain.getLastActivityTime())
                 .expiryTime(domain.getExpiryTime())
+                .refreshExpiryTime(domain.getRefreshExpiryTime())
+                .refreshedAt(domain.getRefreshedAt())
                 .status(domain.getStatus())
                 .suspicious(domain.isSuspicious())
                 .suspiciousReason(domain.getSuspiciousReason())
                 .logoutTime(domain.getLogoutTime())
+                .inactivityNotifiedAt(domain.getInactivityNotifiedAt())
                 .build();
     }
 }
@@ -7,12 +7,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad ActivityEntity.
@@ -21,6 +25,16 @@ import java.util.List;
 public interface ActivityJpaRepository
                 extends JpaRepository<ActivityEntity, Long>, JpaSpecificationExecutor<ActivityEntity> {
 
+        /**
+         * Busca una actividad por su ID bloqueando su fila para escritura.
+         *
+         * @param id El ID de la actividad
+         * @return La actividad, si existe
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT a FROM ActivityEntity a WHERE a.id = :id")
+        Optional<ActivityEntity> findByIdForUpdate(@Param("id") Long id);
+
         /**
          * Busca actividades por tipo con paginación.
          *
@@ -198,4 +212,15 @@ public interface ActivityJpaRepository
          */
         @Query("SELECT a.status as category, COUNT(a) as count FROM ActivityEntity a GROUP BY a.status")
         List<ActivityCount> countByStatusGrouped();
+
+        /**
+         * Busca las actividades escritas en un intervalo de secuencias de cambios.
+         *
+         * @param afterSequence La secuencia a partir de la que buscar (exclusiva)
+         * @param upToSequence  La secuencia hasta la que buscar (inclusiva)
+         * @param pageable      La información de paginación
+         * @return Las actividades en orden de secuencia
+         */
+        List<ActivityEntity> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+                        Long afterSequence, Long upToSequence, Pageable pageable);
 }
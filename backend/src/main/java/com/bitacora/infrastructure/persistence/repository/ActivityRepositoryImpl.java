@@ -1,19 +1,25 @@
 package com.bitacora.infrastructure.persistence.repository;
 
 import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChangeSet;
 import com.bitacora.domain.model.activity.ActivityStatus;
 import com.bitacora.domain.model.activity.ActivityType;
 import com.bitacora.domain.port.repository.ActivityRepository;
 import com.bitacora.infrastructure.persistence.entity.ActivityEntity;
 import com.bitacora.infrastructure.persistence.mapper.ActivityMapper;
 import com.bitacora.infrastructure.persistence.specification.ActivitySpecifications;
+import com.bitacora.infrastructure.persistence.support.ActivityChangeLog;
+import com.bitacora.infrastructure.persistence.support.ActivityChangeLog.Tombstone;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,6 +27,9 @@ import java.util.stream.Collectors;
 
 /**
  * Implementación del repositorio de actividades que utiliza JPA.
+ * Cada escritura asigna a la actividad una secuencia de cambios de
+ * {@link ActivityChangeLog}, y cada eliminación deja una marca de borrado, de
+ * modo que los clientes pueden sincronizarse con solo lo que cambió.
  */
 @Repository
 @RequiredArgsConstructor
@@ -28,10 +37,17 @@ public class ActivityRepositoryImpl implements ActivityRepository {
 
     private final ActivityJpaRepository activityJpaRepository;
     private final ActivityMapper activityMapper;
+    private final ActivityChangeLog changeLog;
 
     @Override
+    @Transactional
     public Activity save(Activity activity) {
         ActivityEntity entity = activityMapper.toEntity(activity);
+        long sequence = changeLog.nextSequence();
+        entity.setChangeSeq(sequence);
+        if (entity.getId() == null) {
+            entity.setCreatedSeq(sequence);
+        }
         ActivityEntity savedEntity = activityJpaRepository.save(entity);
         return activityMapper.toDomain(savedEntity);
     }
@@ -42,6 +58,23 @@ public class ActivityRepositoryImpl implements ActivityRepository {
                 .map(activityMapper::toDomain);
     }
 
+    @Override
+    public Optional<Activity> findByIdForUpdate(Long id) {
+        return activityJpaRepository.findByIdForUpdate(id)
+                .map(activityMapper::toDomain);
+    }
+
+    @Override
+    public List<Activity> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return activityJpaRepository.findAllById(ids)
+                .stream()
+                .map(activityMapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Activity> findAll(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -209,7 +242,73 @@ public class ActivityRepositoryImpl implements ActivityRepository {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
+        if (!activityJpaRepository.existsById(id)) {
+            return;
+        }
         activityJpaRepository.deleteById(id);
+        changeLog.recordDeletion(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityChangeSet findChangesSince(long since, int limit) {
+        // Todo lo confirmado hasta esta secuencia es visible para las dos consultas siguientes
+        ActivityChangeLog.State state = changeLog.getState();
+        if (since <= 0 || since < state.purgedSequence() || since > state.lastSequence()) {
+            return ActivityChangeSet.builder()
+                    .createdIds(List.of())
+                    .updatedIds(List.of())
+                    .deletedIds(List.of())
+                    .activities(List.of())
+                    .watermark(state.lastSequence())
+                    .resyncRequired(true)
+                    .build();
+        }
+
+        List<ActivityEntity> rows = activityJpaRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+                        since, state.lastSequence(), PageRequest.of(0, limit + 1));
+        List<Tombstone> tombstones = changeLog.findTombstones(since, state.lastSequence(), limit + 1);
+
+        // Se mezclan filas y marcas por secuencia hasta completar el límite
+        List<Long> createdIds = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        List<Activity> activities = new ArrayList<>();
+        long watermark = since;
+        int r = 0;
+        int t = 0;
+        while (r + t < limit && (r < rows.size() || t < tombstones.size())) {
+            boolean nextIsRow = t >= tombstones.size()
+                    || (r < rows.size() && rows.get(r).getChangeSeq() < tombstones.get(t).sequence());
+            if (nextIsRow) {
+                ActivityEntity row = rows.get(r++);
+                (row.getCreatedSeq() > since ? createdIds : updatedIds).add(row.getId());
+                activities.add(activityMapper.toDomain(row));
+                watermark = row.getChangeSeq();
+            } else {
+                Tombstone tombstone = tombstones.get(t++);
+                deletedIds.add(tombstone.activityId());
+                watermark = tombstone.sequence();
+            }
+        }
+        boolean hasMore = r < rows.size() || t < tombstones.size();
+
+        return ActivityChangeSet.builder()
+                .createdIds(createdIds)
+                .updatedIds(updatedIds)
+                .deletedIds(deletedIds)
+                .activities(activities)
+                .watermark(hasMore ? watermark : state.lastSequence())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public int purgeTombstonesBefore(LocalDateTime cutoff) {
+        return changeLog.purgeBefore(cutoff);
     }
 }
@@ -1,11 +1,15 @@
 package com.bitacora.infrastructure.persistence.repository;
 
+import com.bitacora.domain.event.user.UserCreatedEvent;
+import com.bitacora.domain.event.user.UserDeletedEvent;
+import com.bitacora.domain.event.user.UserUpdatedEvent;
 import com.bitacora.domain.model.user.User;
 import com.bitacora.domain.model.user.UserRole;
 import com.bitacora.domain.port.UserRepository;
 import com.bitacora.infrastructure.persistence.entity.UserEntity;
 import com.bitacora.infrastructure.persistence.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
@@ -16,6 +20,10 @@ import java.util.stream.Collectors;
 
 /**
  * Implementación del repositorio de usuarios que utiliza JPA.
+ * Cada alta, modificación o baja publica su evento ({@link UserCreatedEvent},
+ * {@link UserUpdatedEvent} o {@link UserDeletedEvent}), para que los índices en
+ * memoria (el de usuarios conectados por departamento y el directorio de
+ * usuarios) se actualicen sin consultar la base de datos en cada lectura.
  */
 @Repository
 @RequiredArgsConstructor
@@ -23,12 +31,20 @@ public class UserRepositoryImpl implements UserRepository {
     
     private final UserJpaRepository userJpaRepository;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public User save(User user) {
+        boolean existing = user.getId() != null;
         UserEntity entity = userMapper.toEntity(user);
         UserEntity savedEntity = userJpaRepository.save(entity);
-        return userMapper.toDomain(savedEntity);
+        User saved = userMapper.toDomain(savedEntity);
+        if (existing) {
+            eventPublisher.publishEvent(new UserUpdatedEvent(saved));
+        } else {
+            eventPublisher.publishEvent(new UserCreatedEvent(saved));
+        }
+        return saved;
     }
     
     @Override
@@ -94,5 +110,6 @@ public class UserRepositoryImpl implements UserRepository {
     @Override
     public void deleteById(Long id) {
         userJpaRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 }
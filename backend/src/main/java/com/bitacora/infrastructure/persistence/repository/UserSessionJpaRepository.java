@@ -3,12 +3,14 @@ package com.bitacora.infrastructure.persistence.repository;
 import com.bitacora.domain.model.session.UserSession.SessionStatus;
 import com.bitacora.infrastructure.persistence.entity.UserSessionEntity;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -20,20 +22,32 @@ import java.util.Optional;
 public interface UserSessionJpaRepository extends JpaRepository<UserSessionEntity, Long> {
     
     /**
-     * Busca una sesión por su token.
+     * Busca una sesión por el resumen SHA-256 de su token. Los resúmenes no
+     * tienen índice único en la tabla particionada; si hubiera duplicados se
+     * devuelve siempre la sesión más reciente.
      * 
-     * @param token El token JWT
+     * @param tokenHash El resumen del token JWT
      * @return La sesión encontrada, o un Optional vacío si no existe
      */
-    Optional<UserSessionEntity> findByToken(String token);
+    Optional<UserSessionEntity> findFirstByTokenHashOrderByIdDesc(byte[] tokenHash);
     
     /**
-     * Busca una sesión por su token de refresco.
+     * Busca una sesión por el resumen SHA-256 de su token de refresco. Si
+     * hubiera duplicados se devuelve siempre la sesión más reciente.
      * 
-     * @param refreshToken El token de refresco
+     * @param refreshTokenHash El resumen del token de refresco
      * @return La sesión encontrada, o un Optional vacío si no existe
      */
-    Optional<UserSessionEntity> findByRefreshToken(String refreshToken);
+    Optional<UserSessionEntity> findFirstByRefreshTokenHashOrderByIdDesc(byte[] refreshTokenHash);
+    
+    /**
+     * Busca una sesión por el resumen SHA-256 de su último token de refresco
+     * rotado. Si hubiera duplicados se devuelve siempre la sesión más reciente.
+     * 
+     * @param previousRefreshTokenHash El resumen del token de refresco rotado
+     * @return La sesión encontrada, o un Optional vacío si no existe
+     */
+    Optional<UserSessionEntity> findFirstByPreviousRefreshTokenHashOrderByIdDesc(byte[] previousRefreshTokenHash);
     
     /**
      * Busca todas las sesiones activas de un usuario.
@@ -69,24 +83,85 @@ public interface UserSessionJpaRepository extends JpaRepository<UserSessionEntit
     List<UserSessionEntity> findByStatusAndExpiryTimeBefore(SessionStatus status, Date now);
     
     /**
-     * Busca todas las sesiones inactivas por un período determinado.
+     * Busca el primer lote de sesiones inactivas aún no notificadas, ordenadas
+     * por la hora de la última actividad.
      * 
      * @param status El estado de las sesiones
      * @param lastActivityBefore La fecha y hora antes de la cual se considera inactividad
+     * @param pageable El tamaño del lote
      * @return Lista de sesiones inactivas
      */
-    List<UserSessionEntity> findByStatusAndLastActivityTimeBefore(SessionStatus status, Date lastActivityBefore);
+    @Query("SELECT s FROM UserSessionEntity s WHERE s.status = :status " +
+           "AND s.inactivityNotifiedAt IS NULL AND s.lastActivityTime < :lastActivityBefore " +
+           "ORDER BY s.lastActivityTime, s.id")
+    List<UserSessionEntity> findInactiveToNotify(
+            @Param("status") SessionStatus status,
+            @Param("lastActivityBefore") Date lastActivityBefore,
+            Pageable pageable);
     
     /**
-     * Actualiza el estado de todas las sesiones expiradas.
+     * Busca el siguiente lote de sesiones inactivas aún no notificadas a partir
+     * de una marca (hora de última actividad, ID).
      * 
-     * @param newStatus El nuevo estado
+     * @param status El estado de las sesiones
+     * @param lastActivityBefore La fecha y hora antes de la cual se considera inactividad
+     * @param afterActivityTime La hora de última actividad de la marca
+     * @param afterId El ID de sesión de la marca
+     * @param pageable El tamaño del lote
+     * @return Lista de sesiones inactivas
+     */
+    @Query("SELECT s FROM UserSessionEntity s WHERE s.status = :status " +
+           "AND s.inactivityNotifiedAt IS NULL AND s.lastActivityTime < :lastActivityBefore " +
+           "AND (s.lastActivityTime > :afterActivityTime " +
+           "OR (s.lastActivityTime = :afterActivityTime AND s.id > :afterId)) " +
+           "ORDER BY s.lastActivityTime, s.id")
+    List<UserSessionEntity> findInactiveToNotifyAfter(
+            @Param("status") SessionStatus status,
+            @Param("lastActivityBefore") Date lastActivityBefore,
+            @Param("afterActivityTime") Date afterActivityTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+    
+    /**
+     * Marca un conjunto de sesiones como notificadas por inactividad.
+     * 
+     * @param ids Los IDs de las sesiones
+     * @param notifiedAt La fecha y hora de la notificación
+     * @return El número de sesiones actualizadas
+     */
+    @Modifying
+    @Query("UPDATE UserSessionEntity s SET s.inactivityNotifiedAt = :notifiedAt WHERE s.id IN :ids")
+    int markInactivityNotified(@Param("ids") Collection<Long> ids, @Param("notifiedAt") Date notifiedAt);
+    
+    /**
+     * Busca un lote de IDs de sesiones que han expirado pero aún están marcadas
+     * como activas, ordenadas por fecha de expiración. Una sesión expira cuando
+     * vence su token de refresco; las sesiones sin esa fecha expiran con su
+     * token de acceso.
+     * 
+     * @param status El estado de las sesiones
      * @param now La fecha y hora actual
+     * @param pageable El tamaño del lote
+     * @return Lista de IDs de sesiones expiradas
+     */
+    @Query("SELECT s.id FROM UserSessionEntity s WHERE s.status = :status " +
+           "AND COALESCE(s.refreshExpiryTime, s.expiryTime) < :now " +
+           "ORDER BY COALESCE(s.refreshExpiryTime, s.expiryTime)")
+    List<Long> findIdsByStatusAndExpiryTimeBefore(
+            @Param("status") SessionStatus status,
+            @Param("now") Date now,
+            Pageable pageable);
+    
+    /**
+     * Cambia el estado de un conjunto de sesiones activas.
+     * 
+     * @param ids Los IDs de las sesiones
+     * @param newStatus El nuevo estado
      * @return El número de sesiones actualizadas
      */
     @Modifying
-    @Query("UPDATE UserSessionEntity s SET s.status = :newStatus WHERE s.status = 'ACTIVE' AND s.expiryTime < :now")
-    int updateExpiredSessions(@Param("newStatus") SessionStatus newStatus, @Param("now") Date now);
+    @Query("UPDATE UserSessionEntity s SET s.status = :newStatus WHERE s.id IN :ids AND s.status = 'ACTIVE'")
+    int updateStatusOfActiveSessions(@Param("ids") Collection<Long> ids, @Param("newStatus") SessionStatus newStatus);
     
     /**
      * Cierra todas las sesiones activas de un usuario excepto la sesión actual.
@@ -105,4 +180,17 @@ public interface UserSessionJpaRepository extends JpaRepository<UserSessionEntit
             @Param("currentSessionId") Long currentSessionId,
             @Param("newStatus") SessionStatus newStatus,
             @Param("logoutTime") Date logoutTime);
+    
+    /**
+     * Elimina las sesiones con alguno de los estados indicados iniciadas antes de una fecha.
+     * 
+     * @param statuses Los estados de las sesiones a eliminar
+     * @param cutoff La fecha límite de inicio de sesión
+     * @return El número de sesiones eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM UserSessionEntity s WHERE s.status IN :statuses AND s.loginTime < :cutoff")
+    int deleteByStatusInAndLoginTimeBefore(
+            @Param("statuses") Collection<SessionStatus> statuses,
+            @Param("cutoff") Date cutoff);
 }
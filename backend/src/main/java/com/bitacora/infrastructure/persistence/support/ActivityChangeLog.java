@@ -0,0 +1,159 @@
+package com.bitacora.infrastructure.persistence.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Secuencia de cambios y marcas de borrado de las actividades.
+ * La secuencia se asigna incrementando la única fila de activity_change_state
+ * dentro de la transacción de la escritura, que conserva su bloqueo hasta
+ * confirmar. Las escrituras de actividades se serializan en ese punto, a
+ * cambio de que las secuencias se confirmen en orden: lo visible hasta la
+ * última secuencia confirmada no cambia después, y un cliente puede continuar
+ * desde ella sin perder cambios.
+ * Carga: el rendimiento de escritura de actividades queda limitado a una
+ * transacción a la vez, y cada una retiene el bloqueo durante toda su
+ * duración. La espera por el bloqueo se mide en la métrica
+ * {@code activity.change_sequence.wait}; si crece, la alternativa es asignar
+ * la secuencia con una secuencia de la base de datos y publicar a los lectores
+ * solo hasta una marca de agua confirmada, de modo que esperen los lectores y
+ * no las escrituras.
+ */
+@Component
+public class ActivityChangeLog {
+
+    private static final String INCREMENT_SEQUENCE =
+            "UPDATE activity_change_state SET last_sequence = last_sequence + 1 WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final Timer sequenceWaitTimer;
+
+    /**
+     * Constructor del registro de cambios.
+     *
+     * @param jdbcTemplate     La plantilla JDBC
+     * @param databasePlatform La plataforma de base de datos
+     * @param meterRegistry    El registro de métricas
+     */
+    public ActivityChangeLog(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.sequenceWaitTimer = Timer.builder("activity.change_sequence.wait")
+                .description("Tiempo de espera por el bloqueo de la secuencia de cambios de actividades")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Marca de borrado de una actividad.
+     *
+     * @param activityId El ID de la actividad eliminada
+     * @param sequence   La secuencia del borrado
+     */
+    public record Tombstone(long activityId, long sequence) {
+    }
+
+    /**
+     * Estado de la secuencia de cambios.
+     *
+     * @param lastSequence   La última secuencia confirmada
+     * @param purgedSequence La secuencia más alta de las marcas de borrado purgadas
+     */
+    public record State(long lastSequence, long purgedSequence) {
+    }
+
+    /**
+     * Asigna la siguiente secuencia de cambios. Debe llamarse dentro de la
+     * transacción que escribe la actividad. El tiempo de la llamada, que
+     * incluye la espera por el bloqueo de otras escrituras, se registra en la
+     * métrica de espera.
+     *
+     * @return La secuencia asignada
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextSequence() {
+        return sequenceWaitTimer.record(this::incrementSequence);
+    }
+
+    private long incrementSequence() {
+        if (databasePlatform.isPostgreSql()) {
+            return jdbcTemplate.queryForObject(INCREMENT_SEQUENCE + " RETURNING last_sequence", Long.class);
+        }
+
+        // Alternativa portable (por ejemplo, H2 en desarrollo): la fila sigue bloqueada tras el UPDATE
+        jdbcTemplate.update(INCREMENT_SEQUENCE);
+        return jdbcTemplate.queryForObject("SELECT last_sequence FROM activity_change_state WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Registra la marca de borrado de una actividad con una secuencia nueva.
+     * Debe llamarse dentro de la transacción que elimina la actividad.
+     *
+     * @param activityId El ID de la actividad eliminada
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(long activityId) {
+        jdbcTemplate.update(
+                "INSERT INTO activity_tombstones (activity_id, change_seq, deleted_at) VALUES (?, ?, ?)",
+                activityId, nextSequence(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Obtiene el estado confirmado de la secuencia de cambios.
+     *
+     * @return El estado
+     */
+    public State getState() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_sequence, purged_sequence FROM activity_change_state WHERE id = 1",
+                (rs, rowNum) -> new State(rs.getLong("last_sequence"), rs.getLong("purged_sequence")));
+    }
+
+    /**
+     * Obtiene las marcas de borrado de un intervalo de secuencias.
+     *
+     * @param afterSequence La secuencia a partir de la que buscar (exclusiva)
+     * @param upToSequence  La secuencia hasta la que buscar (inclusiva)
+     * @param limit         El número máximo de marcas
+     * @return Las marcas en orden de secuencia
+     */
+    public List<Tombstone> findTombstones(long afterSequence, long upToSequence, int limit) {
+        return jdbcTemplate.query(
+                "SELECT activity_id, change_seq FROM activity_tombstones WHERE change_seq > ? AND change_seq <= ? "
+                        + "ORDER BY change_seq ASC LIMIT ?",
+                (rs, rowNum) -> new Tombstone(rs.getLong("activity_id"), rs.getLong("change_seq")),
+                afterSequence, upToSequence, limit);
+    }
+
+    /**
+     * Elimina las marcas de borrado anteriores a una fecha y avanza la
+     * secuencia purgada, por debajo de la cual los clientes deben
+     * sincronizarse por completo.
+     *
+     * @param cutoff La fecha límite
+     * @return El número de marcas eliminadas
+     */
+    @Transactional
+    public int purgeBefore(LocalDateTime cutoff) {
+        Long purgedSequence = jdbcTemplate.queryForObject(
+                "SELECT MAX(change_seq) FROM activity_tombstones WHERE deleted_at < ?",
+                Long.class, Timestamp.valueOf(cutoff));
+        if (purgedSequence == null) {
+            return 0;
+        }
+        jdbcTemplate.update(
+                "UPDATE activity_change_state SET purged_sequence = GREATEST(purged_sequence, ?) WHERE id = 1",
+                purgedSequence);
+        return jdbcTemplate.update("DELETE FROM activity_tombstones WHERE change_seq <= ?", purgedSequence);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bitacora.infrastructure.persistence.support;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Información sobre la base de datos subyacente.
+ * Permite a los adaptadores usar sentencias específicas de PostgreSQL y
+ * recurrir a alternativas portables en otras bases de datos (por ejemplo, H2
+ * en desarrollo).
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabasePlatform {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    /**
+     * Indica si la base de datos subyacente es PostgreSQL.
+     *
+     * @return true si la base de datos es PostgreSQL
+     */
+    public boolean isPostgreSql() {
+        Boolean result = postgreSql;
+        if (result == null) {
+            String productName = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            result = productName != null && productName.toLowerCase().contains("postgres");
+            postgreSql = result;
+        }
+        return result;
+    }
+}
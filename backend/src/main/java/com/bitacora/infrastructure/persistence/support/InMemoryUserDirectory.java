@@ -0,0 +1,208 @@
+package com.bitacora.infrastructure.persistence.support;
+
+import com.bitacora.domain.event.user.UserCreatedEvent;
+import com.bitacora.domain.event.user.UserDeletedEvent;
+import com.bitacora.domain.event.user.UserUpdatedEvent;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
+import com.bitacora.domain.port.UserDirectory;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Directorio de usuarios en memoria.
+ * Las consultas leen una instantánea inmutable sin bloqueos ni accesos a la
+ * base de datos. Cada alta, modificación o baja hecha a través del
+ * repositorio de usuarios sustituye la instantánea por una copia corregida
+ * una vez confirmada la transacción, y una recarga completa periódica recoge
+ * los cambios hechos desde otros nodos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryUserDirectory implements UserDirectory {
+
+    private static final String SELECT_USERS =
+            "SELECT id, username, first_name, last_name, department, active FROM users";
+
+    private static final RowMapper<UserDirectoryEntry> ROW_MAPPER = (rs, rowNum) -> new UserDirectoryEntry(
+            rs.getLong("id"),
+            rs.getString("username"),
+            rs.getString("first_name") + " " + rs.getString("last_name"),
+            rs.getString("department"),
+            rs.getBoolean("active"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Instantánea vigente, o null hasta la primera carga. Solo se sustituye
+     * bajo el monitor de esta clase.
+     */
+    private volatile Snapshot snapshot;
+
+    @Override
+    public Optional<UserDirectoryEntry> findById(Long id) {
+        return id != null ? Optional.ofNullable(current().byId().get(id)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<UserDirectoryEntry> findByUsername(String username) {
+        return username != null ? Optional.ofNullable(current().byUsername().get(username)) : Optional.empty();
+    }
+
+    @Override
+    public List<UserDirectoryEntry> findByDepartment(String department) {
+        String key = normalize(department);
+        return key != null ? current().byDepartment().getOrDefault(key, List.of()) : List.of();
+    }
+
+    /**
+     * Recarga el directorio completo. Los cambios locales que se confirman
+     * durante la recarga esperan a que termine y se aplican después, de modo
+     * que la recarga no los deshace.
+     */
+    @Scheduled(fixedDelayString = "${user-directory.refresh-interval:300000}",
+            initialDelayString = "${user-directory.refresh-interval:300000}")
+    public synchronized void refresh() {
+        snapshot = Snapshot.of(jdbcTemplate.query(SELECT_USERS, ROW_MAPPER));
+        log.debug("Directorio de usuarios recargado con {} usuarios", snapshot.byId().size());
+    }
+
+    /**
+     * Incorpora un usuario creado una vez confirmada la transacción.
+     *
+     * @param event El evento de usuario creado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        reload(event.getUserId());
+    }
+
+    /**
+     * Actualiza un usuario modificado una vez confirmada la transacción.
+     *
+     * @param event El evento de usuario guardado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        reload(event.getUserId());
+    }
+
+    /**
+     * Quita un usuario eliminado una vez confirmada la transacción.
+     *
+     * @param event El evento de usuario eliminado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        if (snapshot != null) {
+            snapshot = snapshot.without(event.getUserId());
+        }
+    }
+
+    /**
+     * Vuelve a leer un usuario y sustituye su entrada. Se lee la fila
+     * confirmada en lugar de los datos del evento, para que dos escrituras
+     * seguidas del mismo usuario no puedan aplicarse en orden inverso.
+     *
+     * @param userId El ID del usuario
+     */
+    private synchronized void reload(Long userId) {
+        if (snapshot == null) {
+            // La primera consulta cargará el directorio completo
+            return;
+        }
+        try {
+            List<UserDirectoryEntry> rows = jdbcTemplate.query(SELECT_USERS + " WHERE id = ?", ROW_MAPPER, userId);
+            snapshot = rows.isEmpty() ? snapshot.without(userId) : snapshot.with(rows.get(0));
+        } catch (RuntimeException e) {
+            // La recarga periódica corregirá la entrada
+            log.warn("No se pudo actualizar el usuario {} en el directorio: {}", userId, e.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Normaliza el nombre de un departamento para usarlo como clave, con el
+     * mismo criterio que el índice de usuarios conectados.
+     *
+     * @param department El departamento
+     * @return La clave, o null si el departamento está vacío
+     */
+    private static String normalize(String department) {
+        if (department == null || department.isBlank()) {
+            return null;
+        }
+        return department.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Instantánea inmutable del directorio.
+     *
+     * @param byId         Los usuarios por ID
+     * @param byUsername   Los usuarios por nombre de usuario
+     * @param byDepartment Los usuarios por departamento normalizado
+     */
+    private record Snapshot(Map<Long, UserDirectoryEntry> byId, Map<String, UserDirectoryEntry> byUsername,
+            Map<String, List<UserDirectoryEntry>> byDepartment) {
+
+        static Snapshot of(Collection<UserDirectoryEntry> entries) {
+            Map<Long, UserDirectoryEntry> byId = new HashMap<>();
+            Map<String, UserDirectoryEntry> byUsername = new HashMap<>();
+            Map<String, List<UserDirectoryEntry>> byDepartment = new HashMap<>();
+            for (UserDirectoryEntry entry : entries) {
+                byId.put(entry.id(), entry);
+                byUsername.put(entry.username(), entry);
+                String department = normalize(entry.department());
+                if (department != null) {
+                    byDepartment.computeIfAbsent(department, key -> new ArrayList<>()).add(entry);
+                }
+            }
+            Map<String, List<UserDirectoryEntry>> departments = new HashMap<>();
+            byDepartment.forEach((department, users) -> departments.put(department, List.copyOf(users)));
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byUsername), Map.copyOf(departments));
+        }
+
+        Snapshot with(UserDirectoryEntry entry) {
+            Map<Long, UserDirectoryEntry> entries = new HashMap<>(byId);
+            entries.put(entry.id(), entry);
+            return of(entries.values());
+        }
+
+        Snapshot without(Long id) {
+            if (!byId.containsKey(id)) {
+                return this;
+            }
+            Map<Long, UserDirectoryEntry> entries = new HashMap<>(byId);
+            entries.remove(id);
+            return of(entries.values());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bitacora.infrastructure.persistence.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gestiona las particiones mensuales de la tabla user_sessions en PostgreSQL.
+ * Crea por adelantado las particiones de los próximos meses y elimina las
+ * particiones completas cuyas sesiones ya terminaron y superan el período de
+ * retención. En bases de datos sin particionado no hace nada.
+ */
+@Component
+@Slf4j
+public class UserSessionPartitionManager {
+
+    private static final String TABLE_NAME = "user_sessions";
+    private static final String PARTITION_PREFIX = TABLE_NAME + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + PARTITION_PREFIX + "(\\d{4})(\\d{2})$");
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final int monthsAhead;
+
+    private volatile Boolean partitioned;
+
+    /**
+     * Constructor del gestor de particiones.
+     *
+     * @param jdbcTemplate     La plantilla JDBC
+     * @param databasePlatform La información de la base de datos
+     * @param monthsAhead      El número de meses futuros para los que se crean particiones
+     */
+    public UserSessionPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            DatabasePlatform databasePlatform,
+            @Value("${session.retention.partitions-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Indica si la tabla user_sessions está particionada.
+     *
+     * @return true si la tabla está particionada por rango
+     */
+    public boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            result = databasePlatform.isPostgreSql() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt "
+                            + "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?)",
+                    Boolean.class, TABLE_NAME));
+            partitioned = result;
+        }
+        return result;
+    }
+
+    /**
+     * Crea las particiones del mes actual y de los próximos meses si no existen.
+     * Se ejecuta al arrancar la aplicación y una vez al día.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${session.retention.partition-cron:0 15 3 * * *}")
+    public void ensurePartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String sql = String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partitionName(month), TABLE_NAME, month.atDay(1), month.plusMonths(1).atDay(1));
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo crear la partición {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Elimina las particiones mensuales que terminan antes de una fecha y que
+     * solo contienen sesiones cerradas, expiradas o revocadas.
+     *
+     * @param cutoff La fecha límite
+     * @return El número de sesiones eliminadas
+     */
+    public int dropPartitionsBefore(Date cutoff) {
+        LocalDate cutoffDate = cutoff.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ? ORDER BY c.relname",
+                String.class, TABLE_NAME);
+
+        int purged = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoffDate)) {
+                continue;
+            }
+
+            Boolean hasActiveSessions = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE status = 'ACTIVE')", Boolean.class);
+            if (Boolean.TRUE.equals(hasActiveSessions)) {
+                log.debug("La partición {} aún contiene sesiones activas; se conserva", partition);
+                continue;
+            }
+
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Integer.class);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            purged += rows != null ? rows : 0;
+            log.info("Eliminada la partición {} con {} sesiones", partition, rows);
+        }
+        return purged;
+    }
+
+    /**
+     * Obtiene el nombre de la partición de un mes.
+     *
+     * @param month El mes
+     * @return El nombre de la partición
+     */
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+    }
+}
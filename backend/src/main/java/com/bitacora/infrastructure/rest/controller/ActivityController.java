@@ -1,9 +1,14 @@
 package com.bitacora.infrastructure.rest.controller;
 
 import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChangeSet;
+import com.bitacora.domain.model.activity.ActivityComment;
 import com.bitacora.domain.model.activity.ActivityStatus;
 import com.bitacora.domain.model.activity.ActivityType;
+import com.bitacora.application.activity.ActivityCommentService;
 import com.bitacora.application.activity.ActivityService;
+import com.bitacora.application.activity.ActivitySyncService;
+import com.bitacora.infrastructure.rest.dto.ActivityCommentDto;
 import com.bitacora.infrastructure.rest.dto.ActivityCreateDto;
 import com.bitacora.infrastructure.rest.dto.ActivityDto;
 import com.bitacora.infrastructure.rest.dto.ActivityUpdateDto;
@@ -42,6 +47,8 @@ import com.bitacora.infrastructure.persistence.repository.ActivityJpaRepository;
 public class ActivityController {
 
     private final ActivityService activityService;
+    private final ActivitySyncService activitySyncService;
+    private final ActivityCommentService activityCommentService;
     private final ActivityJpaRepository activityJpaRepository;
 
     /**
@@ -165,9 +172,15 @@ public class ActivityController {
 
     /**
      * Actualiza una actividad existente.
+     * Mientras la actividad está en edición, el guardado requiere el token de
+     * la concesión vigente en la cabecera {@code X-Edit-Token}; si falta, no
+     * corresponde a la concesión vigente o la concesión del usuario ha
+     * expirado, se responde con 409.
      *
      * @param id                El ID de la actividad a actualizar
      * @param activityUpdateDto Los datos de la actividad a actualizar
+     * @param editToken         El token de la concesión de edición, o null si no se posee
+     * @param userPrincipal     El usuario autenticado
      * @return La actividad actualizada
      */
     @PutMapping("/{id}")
@@ -175,7 +188,9 @@ public class ActivityController {
     @PreAuthorize("hasAuthority('WRITE_ACTIVITIES')")
     public ResponseEntity<ActivityDto> updateActivity(
             @PathVariable Long id,
-            @Valid @RequestBody ActivityUpdateDto activityUpdateDto) {
+            @Valid @RequestBody ActivityUpdateDto activityUpdateDto,
+            @RequestHeader(value = CollaborationController.EDIT_TOKEN_HEADER, required = false) Long editToken,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
         return activityService.getActivityById(id)
                 .map(activity -> {
@@ -224,7 +239,7 @@ public class ActivityController {
                         activity.setAgent(activityUpdateDto.getAgent());
                     }
 
-                    return activityService.updateActivity(id, activity)
+                    return activityService.updateActivity(id, activity, userPrincipal.getId(), editToken)
                             .map(this::mapToDto)
                             .map(ResponseEntity::ok)
                             .orElse(ResponseEntity.notFound().build());
@@ -338,6 +353,73 @@ public class ActivityController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Obtiene los cambios de las actividades posteriores a una marca de agua,
+     * para que los clientes se sincronicen sin volver a descargar el listado.
+     * Si la respuesta indica resyncRequired, el cliente debe guardar la marca
+     * devuelta, descargar de nuevo las actividades y continuar desde ella.
+     *
+     * @param since La marca de agua de la última sincronización (0 en la primera)
+     * @param limit El número máximo de cambios
+     * @return Una respuesta con los IDs creados, modificados y eliminados, las
+     *         actividades creadas o modificadas y la nueva marca de agua
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Obtener cambios de actividades",
+            description = "Obtiene las actividades creadas, modificadas y eliminadas desde una marca de agua")
+    @PreAuthorize("hasAuthority('READ_ACTIVITIES')")
+    public ResponseEntity<Map<String, Object>> getActivityChanges(
+            @Parameter(description = "Marca de agua de la última sincronización") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Número máximo de cambios") @RequestParam(defaultValue = "100") int limit) {
+
+        ActivityChangeSet changes = activitySyncService.getChangesSince(since, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("created", changes.getCreatedIds());
+        response.put("updated", changes.getUpdatedIds());
+        response.put("deleted", changes.getDeletedIds());
+        response.put("activities", changes.getActivities().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList()));
+        response.put("watermark", changes.getWatermark());
+        response.put("hasMore", changes.isHasMore());
+        response.put("resyncRequired", changes.isResyncRequired());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtiene una página de comentarios de una actividad, del más antiguo al
+     * más reciente. Para la página siguiente se envía como after el valor de
+     * nextAfter de la respuesta.
+     *
+     * @param id    El ID de la actividad
+     * @param after El ID del último comentario recibido (exclusivo), o ninguno para la primera página
+     * @param limit El tamaño de la página
+     * @return Una respuesta con los comentarios, el cursor de la página siguiente y el total de comentarios
+     */
+    @GetMapping("/{id}/comments")
+    @Operation(summary = "Obtener comentarios de una actividad",
+            description = "Obtiene los comentarios de una actividad posteriores a un comentario dado")
+    @PreAuthorize("hasAuthority('READ_ACTIVITIES')")
+    public ResponseEntity<Map<String, Object>> getActivityComments(
+            @PathVariable Long id,
+            @Parameter(description = "ID del último comentario recibido") @RequestParam(required = false) Long after,
+            @Parameter(description = "Tamaño de la página") @RequestParam(defaultValue = "50") int limit) {
+
+        List<ActivityComment> comments = activityCommentService.getComments(id, after, limit);
+        Long nextAfter = comments.isEmpty() ? after : comments.get(comments.size() - 1).getId();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("comments", comments.stream()
+                .map(this::mapCommentToDto)
+                .collect(Collectors.toList()));
+        response.put("nextAfter", nextAfter);
+        response.put("total", activityCommentService.countComments(id));
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Mapea una actividad a un DTO.
      *
@@ -362,6 +444,23 @@ public class ActivityController {
                 .createdAt(activity.getCreatedAt())
                 .updatedAt(activity.getUpdatedAt())
                 .userId(activity.getUserId())
+                .version(activity.getVersion())
+                .build();
+    }
+
+    /**
+     * Mapea un comentario a un DTO.
+     *
+     * @param comment El comentario
+     * @return El DTO
+     */
+    private ActivityCommentDto mapCommentToDto(ActivityComment comment) {
+        return ActivityCommentDto.builder()
+                .id(comment.getId())
+                .activityId(comment.getActivityId())
+                .userId(comment.getUserId())
+                .content(comment.getContent())
+                .createdAt(comment.getCreatedAt())
                 .build();
     }
 }
@@ -1,6 +1,7 @@
 package com.bitacora.infrastructure.rest.controller;
 
 import com.bitacora.application.notification.CollaborationService;
+import com.bitacora.application.notification.EditLease;
 import com.bitacora.infrastructure.rest.dto.CollaborationRequestDTO;
 import com.bitacora.infrastructure.rest.dto.CommentRequestDTO;
 import com.bitacora.infrastructure.security.CurrentUser;
@@ -19,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.validation.Valid;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -30,10 +32,17 @@ import java.util.Set;
 @Slf4j
 public class CollaborationController {
 
+    /**
+     * Cabecera con el token de fencing de la concesión de edición.
+     */
+    public static final String EDIT_TOKEN_HEADER = "X-Edit-Token";
+
     private final CollaborationService collaborationService;
 
     /**
-     * Registra que un usuario está viendo una actividad.
+     * Registra que un usuario está viendo una actividad. La concesión se renueva
+     * mientras el usuario tenga una sesión WebSocket abierta; sin ella, el
+     * cliente debe repetir la solicitud antes de que expire.
      *
      * @param activityId  El ID de la actividad
      * @param currentUser El usuario actual
@@ -57,7 +66,11 @@ public class CollaborationController {
     }
 
     /**
-     * Registra que un usuario está editando una actividad.
+     * Registra que un usuario está editando una actividad. La respuesta incluye
+     * en la cabecera {@value #EDIT_TOKEN_HEADER} el token de la concesión, que
+     * debe enviarse al guardar la actividad. La concesión se renueva mientras
+     * el usuario tenga una sesión WebSocket abierta; sin ella, el cliente debe
+     * repetir la solicitud antes de que expire.
      *
      * @param activityId  El ID de la actividad
      * @param currentUser El usuario actual
@@ -71,10 +84,12 @@ public class CollaborationController {
         log.debug("Recibida solicitud para registrar usuario {} como editor de la actividad {}",
                 currentUser.getId(), activityId);
 
-        boolean success = collaborationService.registerEditor(activityId, currentUser.getId());
+        Optional<EditLease> lease = collaborationService.registerEditor(activityId, currentUser.getId());
 
-        if (success) {
-            return ResponseEntity.ok("Usuario registrado como editor correctamente");
+        if (lease.isPresent()) {
+            return ResponseEntity.ok()
+                    .header(EDIT_TOKEN_HEADER, String.valueOf(lease.get().getToken()))
+                    .body("Usuario registrado como editor correctamente");
         } else {
             return ResponseEntity.badRequest().body(
                     "Error al registrar usuario como editor. Es posible que otro usuario ya esté editando la actividad.");
@@ -0,0 +1,88 @@
+package com.bitacora.infrastructure.rest.controller;
+
+import com.bitacora.application.notification.NotificationInboxService;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.infrastructure.rest.dto.notification.NotificationPageDto;
+import com.bitacora.infrastructure.security.CurrentUser;
+import com.bitacora.infrastructure.security.UserPrincipal;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para la bandeja de notificaciones del usuario actual.
+ * Las páginas se recorren por secuencia: cada respuesta indica desde qué
+ * secuencia pedir la siguiente.
+ */
+@RestController
+@RequestMapping("/api/notifications/inbox")
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationInboxController {
+
+    private final NotificationInboxService inboxService;
+
+    /**
+     * Obtiene una página de la bandeja, de la notificación más reciente a la más antigua.
+     *
+     * @param before      La secuencia a partir de la que continuar (exclusiva), o ninguna para la primera página
+     * @param limit       El tamaño de la página
+     * @param currentUser El usuario actual
+     * @return La página de notificaciones
+     */
+    @GetMapping
+    public ResponseEntity<NotificationPageDto> getInbox(
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser UserPrincipal currentUser) {
+
+        String username = currentUser.getUsername();
+        List<RealTimeNotification> notifications = inboxService.getPage(username, before, limit);
+        Long oldest = notifications.isEmpty() ? null : notifications.get(notifications.size() - 1).getSequence();
+        Long nextBefore = oldest != null && oldest > 1 ? oldest : null;
+
+        return ResponseEntity.ok(NotificationPageDto.builder()
+                .notifications(notifications)
+                .nextBefore(nextBefore)
+                .unreadCount(inboxService.getUnreadCount(username))
+                .build());
+    }
+
+    /**
+     * Obtiene el número de notificaciones no leídas.
+     *
+     * @param currentUser El usuario actual
+     * @return El número de notificaciones no leídas
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(Map.of("unreadCount", inboxService.getUnreadCount(currentUser.getUsername())));
+    }
+
+    /**
+     * Marca como leídas las notificaciones hasta una secuencia.
+     *
+     * @param upTo        La secuencia hasta la que marcar (inclusiva)
+     * @param currentUser El usuario actual
+     * @return El número de notificaciones no leídas restantes
+     */
+    @PostMapping("/read")
+    public ResponseEntity<Map<String, Long>> markRead(
+            @RequestParam long upTo,
+            @CurrentUser UserPrincipal currentUser) {
+
+        log.debug("Marcando como leídas las notificaciones de {} hasta {}", currentUser.getUsername(), upTo);
+        long unread = inboxService.markReadUpTo(currentUser.getUsername(), upTo);
+        return ResponseEntity.ok(Map.of("unreadCount", unread));
+    }
+}
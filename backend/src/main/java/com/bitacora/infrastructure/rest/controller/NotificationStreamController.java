@@ -0,0 +1,80 @@
+package com.bitacora.infrastructure.rest.controller;
+
+import com.bitacora.infrastructure.messaging.sse.SseNotificationHub;
+import com.bitacora.infrastructure.security.CurrentUser;
+import com.bitacora.infrastructure.security.UserPrincipal;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Controlador del flujo de notificaciones por Server-Sent Events. Es una
+ * alternativa de solo lectura a STOMP para paneles y quioscos: entrega las
+ * mismas notificaciones, privadas y de los tópicos indicados, sobre una
+ * respuesta HTTP de larga duración.
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationStreamController {
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final SseNotificationHub sseHub;
+
+    /**
+     * Abre el flujo de notificaciones del usuario actual. Cada evento se llama
+     * como su destino STOMP equivalente (por ejemplo, {@code /queue/notification}
+     * o {@code /topic/system-alert}); las notificaciones privadas llevan su
+     * secuencia de bandeja como identificador.
+     *
+     * @param topics      Los tópicos a recibir; por defecto, las notificaciones globales y las alertas del sistema
+     * @param lastEventId La última secuencia recibida, que el navegador envía al reconectar
+     * @param currentUser El usuario actual
+     * @return El flujo de eventos
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) List<String> topics,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+            @CurrentUser UserPrincipal currentUser) {
+
+        SseEmitter emitter = sseHub.open(currentUser.getUsername(), topics, parseSequence(lastEventId));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Evita que los proxies inversos acumulen la respuesta
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    /**
+     * Interpreta la cabecera {@code Last-Event-ID}.
+     *
+     * @param lastEventId El valor de la cabecera
+     * @return La secuencia, o null si no hay cabecera o no es válida
+     */
+    private Long parseSequence(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Cabecera {} no válida: {}", LAST_EVENT_ID_HEADER, lastEventId);
+            return null;
+        }
+    }
+}
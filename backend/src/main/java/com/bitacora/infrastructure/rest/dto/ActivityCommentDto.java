@@ -0,0 +1,37 @@
+package com.bitacora.infrastructure.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferir los comentarios de una actividad.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Comentario de una actividad")
+public class ActivityCommentDto {
+
+    @Schema(description = "ID del comentario; las páginas continúan a partir de él", example = "15")
+    private Long id;
+
+    @Schema(description = "ID de la actividad", example = "1")
+    private Long activityId;
+
+    @Schema(description = "ID del autor del comentario", example = "2")
+    private Long userId;
+
+    @Schema(description = "Texto del comentario", example = "Se envió el informe a la dirección")
+    private String content;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Schema(description = "Fecha del comentario", example = "2023-04-16T16:00:00")
+    private LocalDateTime createdAt;
+}
@@ -80,4 +80,7 @@ public class ActivityDto {
     @NotNull(message = "El ID del usuario no puede ser nulo")
     @Schema(description = "ID del usuario que creó la actividad", example = "1")
     private Long userId;
+    
+    @Schema(description = "Versión de la actividad; los cambios en vivo indican la versión a la que se aplican", example = "42", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
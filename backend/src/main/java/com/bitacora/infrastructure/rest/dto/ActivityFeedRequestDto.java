@@ -0,0 +1,51 @@
+package com.bitacora.infrastructure.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para suscribir o cancelar un flujo de cambios de actividades por
+ * WebSocket. Los filtros tienen el mismo formato que los parámetros del
+ * listado de actividades.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityFeedRequestDto {
+
+    /**
+     * Identificador del flujo elegido por el cliente; una sesión puede tener varios.
+     */
+    private String feedId;
+
+    /**
+     * Tipo de actividad (opcional).
+     */
+    private String type;
+
+    /**
+     * Estado de la actividad (opcional).
+     */
+    private String status;
+
+    /**
+     * ID del usuario de la actividad (opcional).
+     */
+    private Long userId;
+
+    /**
+     * Fecha de inicio, formato yyyy-MM-dd (opcional).
+     */
+    private String startDate;
+
+    /**
+     * Fecha de fin, formato yyyy-MM-dd (opcional).
+     */
+    private String endDate;
+
+    /**
+     * Texto a buscar (opcional).
+     */
+    private String search;
+}
@@ -0,0 +1,39 @@
+package com.bitacora.infrastructure.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para abrir un campo de texto de una actividad en edición colaborativa
+ * o enviar una operación sobre él por WebSocket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTextOperationDto {
+
+    /**
+     * Campo de texto: description, situation, result o comments.
+     */
+    private String field;
+
+    /**
+     * Revisión sobre la que se hizo la operación.
+     */
+    private Long revision;
+
+    /**
+     * Operación en formato de intercambio: enteros positivos para conservar,
+     * cadenas para insertar y enteros negativos para eliminar.
+     */
+    private List<Object> operation;
+
+    /**
+     * Identificador de la operación elegido por el cliente, para reconocer su
+     * confirmación y descartar reenvíos.
+     */
+    private String clientOperationId;
+}
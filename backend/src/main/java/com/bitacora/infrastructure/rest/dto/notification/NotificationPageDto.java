@@ -0,0 +1,36 @@
+package com.bitacora.infrastructure.rest.dto.notification;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para una página de la bandeja de notificaciones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDto {
+
+    /**
+     * Notificaciones de la página, de la más reciente a la más antigua.
+     */
+    private List<RealTimeNotification> notifications;
+
+    /**
+     * Secuencia a enviar como {@code before} para obtener la página siguiente,
+     * o null si no hay más notificaciones.
+     */
+    private Long nextBefore;
+
+    /**
+     * Número de notificaciones no leídas.
+     */
+    private long unreadCount;
+}
@@ -0,0 +1,19 @@
+package com.bitacora.infrastructure.rest.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para solicitudes de reenvío de notificaciones tras una reconexión.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationReplayRequest {
+
+    /**
+     * Última secuencia recibida por el cliente (0 si no ha recibido ninguna).
+     */
+    private long lastSequence;
+}
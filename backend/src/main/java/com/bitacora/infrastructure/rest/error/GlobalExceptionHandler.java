@@ -1,14 +1,17 @@
 package com.bitacora.infrastructure.rest.error;
 
 import com.bitacora.domain.exception.DomainException;
+import com.bitacora.domain.exception.EditLockConflictException;
 import com.bitacora.domain.exception.EntityNotFoundException;
 import com.bitacora.infrastructure.exception.ErrorCode;
 import com.bitacora.infrastructure.exception.InvalidTokenException;
 import com.bitacora.infrastructure.exception.ResourceNotFoundException;
+import com.bitacora.infrastructure.exception.ServiceUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -48,6 +51,8 @@ public class GlobalExceptionHandler {
         HttpStatus status = HttpStatus.BAD_REQUEST;
         if (ex instanceof EntityNotFoundException) {
             status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof EditLockConflictException) {
+            status = HttpStatus.CONFLICT;
         }
 
         ApiError apiError = ApiError.of(
@@ -268,6 +273,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Maneja excepciones de servicio saturado.
+     *
+     * @param ex      La excepción
+     * @param request La solicitud HTTP
+     * @return Una respuesta de error
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailable(ServiceUnavailableException ex,
+            HttpServletRequest request) {
+        log.warn("Servicio no disponible: {}", ex.getMessage());
+
+        ApiError apiError = ApiError.of(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiError);
+    }
+
     /**
      * Maneja excepciones de elemento no encontrado.
      *
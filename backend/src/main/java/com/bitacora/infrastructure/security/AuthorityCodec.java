@@ -0,0 +1,238 @@
+package com.bitacora.infrastructure.security;
+
+import com.bitacora.domain.model.user.Permission;
+import com.bitacora.domain.model.user.UserRole;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codificación compacta de las autoridades de un usuario.
+ * Los permisos se representan como una máscara de bits en la que cada
+ * {@link Permission} tiene asignado un bit fijo, y cada combinación de rol y
+ * máscara se traduce a una única lista inmutable de autoridades que se
+ * reutiliza en todas las solicitudes.
+ * <p>
+ * La máscara viaja en el claim perms de los tokens emitidos, así que los bits
+ * no dependen del orden de declaración de la enumeración: un bit asignado no
+ * se cambia ni se reutiliza nunca, un permiso nuevo toma el siguiente bit libre
+ * y el de un permiso eliminado queda reservado. Si un permiso no tiene bit, o
+ * dos comparten el mismo, la clase no llega a inicializarse.
+ */
+public final class AuthorityCodec {
+
+    /**
+     * Prefijo de las autoridades de rol.
+     */
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final Permission[] PERMISSIONS = Permission.values();
+
+    /**
+     * Bit de cada permiso en la máscara. Es parte del formato de los tokens.
+     */
+    private static final Map<Permission, Integer> BITS = new EnumMap<>(Permission.class);
+
+    /**
+     * Máscara con los bits de todos los permisos conocidos.
+     */
+    private static final int KNOWN_MASK;
+
+    /**
+     * Autoridades de rol, indexadas por ordinal de {@link UserRole}.
+     */
+    private static final GrantedAuthority[] ROLE_AUTHORITIES;
+
+    /**
+     * Autoridades de permiso, indexadas por ordinal de {@link Permission}.
+     */
+    private static final GrantedAuthority[] PERMISSION_AUTHORITIES;
+
+    /**
+     * Listas de autoridades ya calculadas, por rol (la última posición es "sin rol") y máscara.
+     */
+    private static final List<ConcurrentHashMap<Integer, List<GrantedAuthority>>> CACHE;
+
+    static {
+        BITS.put(Permission.READ_ACTIVITIES, 0);
+        BITS.put(Permission.WRITE_ACTIVITIES, 1);
+        BITS.put(Permission.DELETE_ACTIVITIES, 2);
+        BITS.put(Permission.READ_USERS, 3);
+        BITS.put(Permission.WRITE_USERS, 4);
+        BITS.put(Permission.DELETE_USERS, 5);
+        BITS.put(Permission.GENERATE_REPORTS, 6);
+
+        int knownMask = 0;
+        for (Permission permission : PERMISSIONS) {
+            Integer bit = BITS.get(permission);
+            if (bit == null) {
+                throw new IllegalStateException("El permiso " + permission + " no tiene bit asignado");
+            }
+            // La máscara es un int con signo: el bit 31 no se usa
+            if (bit < 0 || bit >= Integer.SIZE - 1) {
+                throw new IllegalStateException("El bit del permiso " + permission + " debe estar entre 0 y 30");
+            }
+            if ((knownMask & (1 << bit)) != 0) {
+                throw new IllegalStateException("El bit " + bit + " está asignado a más de un permiso");
+            }
+            knownMask |= 1 << bit;
+        }
+        KNOWN_MASK = knownMask;
+
+        UserRole[] roles = UserRole.values();
+        ROLE_AUTHORITIES = new GrantedAuthority[roles.length];
+        for (UserRole role : roles) {
+            ROLE_AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority(ROLE_PREFIX + role.name());
+        }
+
+        PERMISSION_AUTHORITIES = new GrantedAuthority[PERMISSIONS.length];
+        for (Permission permission : PERMISSIONS) {
+            PERMISSION_AUTHORITIES[permission.ordinal()] = new SimpleGrantedAuthority(permission.name());
+        }
+
+        List<ConcurrentHashMap<Integer, List<GrantedAuthority>>> cache = new ArrayList<>(roles.length + 1);
+        for (int i = 0; i <= roles.length; i++) {
+            cache.add(new ConcurrentHashMap<>());
+        }
+        CACHE = List.copyOf(cache);
+    }
+
+    private AuthorityCodec() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Codifica un conjunto de permisos como máscara de bits.
+     *
+     * @param permissions Los permisos
+     * @return La máscara de bits
+     */
+    public static int encode(Collection<Permission> permissions) {
+        int mask = 0;
+        for (Permission permission : permissions) {
+            mask |= bitMask(permission);
+        }
+        return mask;
+    }
+
+    /**
+     * Codifica como máscara de bits los permisos presentes en una colección de
+     * autoridades. Las autoridades que no son permisos se ignoran.
+     *
+     * @param authorities Las autoridades
+     * @return La máscara de bits
+     */
+    public static int encodeAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Permission permission = toPermission(authority.getAuthority());
+            if (permission != null) {
+                mask |= bitMask(permission);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Obtiene el rol presente en una colección de autoridades.
+     *
+     * @param authorities Las autoridades
+     * @return El rol, o null si no hay ninguna autoridad de rol reconocida
+     */
+    public static UserRole findRole(Collection<? extends GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(ROLE_PREFIX)) {
+                String roleName = name.substring(ROLE_PREFIX.length());
+                for (UserRole role : UserRole.values()) {
+                    if (role.name().equals(roleName)) {
+                        return role;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene las autoridades de un rol y un conjunto de permisos, sin duplicados.
+     *
+     * @param role        El rol, o null si no hay rol
+     * @param permissions Los permisos
+     * @return La lista inmutable de autoridades
+     */
+    public static List<GrantedAuthority> authorities(UserRole role, Set<Permission> permissions) {
+        return decode(role, encode(permissions));
+    }
+
+    /**
+     * Decodifica una máscara de permisos en la lista de autoridades
+     * correspondiente. La lista es inmutable y se comparte entre todas las
+     * llamadas con el mismo rol y la misma máscara.
+     *
+     * @param role El rol, o null si no hay rol
+     * @param mask La máscara de permisos
+     * @return La lista inmutable de autoridades
+     */
+    public static List<GrantedAuthority> decode(UserRole role, int mask) {
+        int validMask = mask & KNOWN_MASK;
+        int roleIndex = role != null ? role.ordinal() : CACHE.size() - 1;
+        return CACHE.get(roleIndex).computeIfAbsent(validMask, key -> build(role, key));
+    }
+
+    /**
+     * Construye la lista de autoridades de un rol y una máscara.
+     *
+     * @param role El rol, o null si no hay rol
+     * @param mask La máscara de permisos
+     * @return La lista inmutable de autoridades
+     */
+    private static List<GrantedAuthority> build(UserRole role, int mask) {
+        List<GrantedAuthority> authorities = new ArrayList<>(Integer.bitCount(mask) + 1);
+        if (role != null) {
+            authorities.add(ROLE_AUTHORITIES[role.ordinal()]);
+        }
+        for (Permission permission : PERMISSIONS) {
+            if ((mask & bitMask(permission)) != 0) {
+                authorities.add(PERMISSION_AUTHORITIES[permission.ordinal()]);
+            }
+        }
+        return List.copyOf(authorities);
+    }
+
+    /**
+     * Obtiene la máscara con el bit de un permiso.
+     *
+     * @param permission El permiso
+     * @return La máscara con solo el bit del permiso
+     */
+    static int bitMask(Permission permission) {
+        return 1 << BITS.get(permission);
+    }
+
+    /**
+     * Convierte el nombre de una autoridad en un permiso.
+     *
+     * @param authority El nombre de la autoridad
+     * @return El permiso, o null si la autoridad no es un permiso
+     */
+    private static Permission toPermission(String authority) {
+        if (authority == null) {
+            return null;
+        }
+        for (Permission permission : PERMISSIONS) {
+            if (permission.name().equals(authority)) {
+                return permission;
+            }
+        }
+        return null;
+    }
+}
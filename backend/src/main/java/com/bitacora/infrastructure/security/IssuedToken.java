@@ -0,0 +1,25 @@
+package com.bitacora.infrastructure.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Token JWT recién firmado junto con su fecha de expiración, para que quien lo
+ * emite no tenga que volver a analizar el token para conocerla.
+ */
+@Getter
+@RequiredArgsConstructor
+public class IssuedToken {
+
+    /**
+     * El token JWT firmado.
+     */
+    private final String token;
+
+    /**
+     * La fecha de expiración del token.
+     */
+    private final Date expiresAt;
+}
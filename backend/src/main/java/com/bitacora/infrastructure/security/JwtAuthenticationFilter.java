@@ -1,5 +1,6 @@
 package com.bitacora.infrastructure.security;
 
+import com.bitacora.application.session.SessionActivityTracker;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final TokenBlacklistService tokenBlacklistService;
+    private final SessionActivityTracker sessionActivityTracker;
 
     /**
      * Filtra las solicitudes para validar tokens JWT.
@@ -60,6 +62,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 } else if (tokenProvider.validateToken(jwt)) {
                     Authentication authentication = tokenProvider.getAuthentication(jwt);
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+
+                    // Registrar la actividad de la sesión en el buffer de escritura diferida
+                    sessionActivityTracker.touch(jwt);
                 }
             }
         } catch (Exception ex) {
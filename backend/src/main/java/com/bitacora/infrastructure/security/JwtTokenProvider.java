@@ -1,6 +1,7 @@
 package com.bitacora.infrastructure.security;
 
 import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -34,6 +35,14 @@ public class JwtTokenProvider {
     @Value("${spring.jwt.refresh-expiration:${jwt.refresh-expiration:604800000}}")
     private long refreshValidityInMilliseconds;
 
+    /**
+     * Indica si se incluyen en el token los datos de perfil del usuario
+     * (correo, nombre y apellido). Desactivarlo reduce el tamaño de la cabecera
+     * Authorization en cada solicitud.
+     */
+    @Value("${jwt.include-profile-claims:true}")
+    private boolean includeProfileClaims;
+
     private Key key;
 
     /**
@@ -52,6 +61,17 @@ public class JwtTokenProvider {
      * @return El token JWT
      */
     public String createToken(User user, Collection<? extends GrantedAuthority> authorities) {
+        return issueToken(user, authorities).getToken();
+    }
+
+    /**
+     * Emite un token JWT para un usuario, junto con su fecha de expiración.
+     *
+     * @param user        El usuario
+     * @param authorities Las autoridades del usuario
+     * @return El token emitido
+     */
+    public IssuedToken issueToken(User user, Collection<? extends GrantedAuthority> authorities) {
         return createToken(user, authorities, validityInMilliseconds, false);
     }
 
@@ -63,6 +83,17 @@ public class JwtTokenProvider {
      * @return El token de refresco JWT
      */
     public String createRefreshToken(User user, Collection<? extends GrantedAuthority> authorities) {
+        return issueRefreshToken(user, authorities).getToken();
+    }
+
+    /**
+     * Emite un token de refresco JWT para un usuario, junto con su fecha de expiración.
+     *
+     * @param user        El usuario
+     * @param authorities Las autoridades del usuario
+     * @return El token de refresco emitido
+     */
+    public IssuedToken issueRefreshToken(User user, Collection<? extends GrantedAuthority> authorities) {
         return createToken(user, authorities, refreshValidityInMilliseconds, true);
     }
 
@@ -73,32 +104,36 @@ public class JwtTokenProvider {
      * @param authorities    Las autoridades del usuario
      * @param validityMillis La validez del token en milisegundos
      * @param isRefreshToken Indica si es un token de refresco
-     * @return El token JWT
+     * @return El token emitido
      */
-    private String createToken(User user, Collection<? extends GrantedAuthority> authorities,
+    private IssuedToken createToken(User user, Collection<? extends GrantedAuthority> authorities,
             long validityMillis, boolean isRefreshToken) {
         Claims claims = Jwts.claims().setSubject(user.getUsername());
         claims.put("id", user.getId());
-        claims.put("email", user.getEmail().getValue());
-        claims.put("firstName", user.getPersonName().getFirstName());
-        claims.put("lastName", user.getPersonName().getLastName());
-        claims.put("role", user.getRole().name());
-        claims.put("isRefreshToken", isRefreshToken);
+        if (includeProfileClaims) {
+            claims.put("email", user.getEmail().getValue());
+            claims.put("firstName", user.getPersonName().getFirstName());
+            claims.put("lastName", user.getPersonName().getLastName());
+        }
 
-        Set<String> authoritiesSet = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toSet());
-        claims.put("authorities", authoritiesSet);
+        UserRole role = AuthorityCodec.findRole(authorities);
+        claims.put("role", (role != null ? role : user.getRole()).name());
+        claims.put("perms", AuthorityCodec.encodeAuthorities(authorities));
+        claims.put("isRefreshToken", isRefreshToken);
 
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityMillis);
 
-        return Jwts.builder()
+        String token = Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(validity)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
+
+        // JWT expresa la expiración en segundos: se trunca igual que en el token
+        return new IssuedToken(token, new Date(validity.getTime() / 1000 * 1000));
     }
 
     /**
@@ -117,16 +152,53 @@ public class JwtTokenProvider {
         String username = claims.getSubject();
         Long id = claims.get("id", Long.class);
 
+        Collection<? extends GrantedAuthority> grantedAuthorities = getAuthorities(claims);
+
+        UserPrincipal principal = new UserPrincipal(id, username, "", grantedAuthorities);
+
+        return new UsernamePasswordAuthenticationToken(principal, "", grantedAuthorities);
+    }
+
+    /**
+     * Obtiene las autoridades codificadas en las claims de un token.
+     * Los tokens emitidos antes de la codificación compacta incluyen las
+     * autoridades como lista de cadenas y se siguen aceptando.
+     *
+     * @param claims Las claims del token
+     * @return Las autoridades
+     */
+    private Collection<? extends GrantedAuthority> getAuthorities(Claims claims) {
+        Integer mask = claims.get("perms", Integer.class);
+        if (mask != null) {
+            return AuthorityCodec.decode(parseRole(claims.get("role", String.class)), mask);
+        }
+
         @SuppressWarnings("unchecked")
         List<String> authorities = claims.get("authorities", List.class);
-
-        List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
+        if (authorities == null) {
+            return Collections.emptyList();
+        }
+        return authorities.stream()
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
+    }
 
-        UserPrincipal principal = new UserPrincipal(id, username, "", grantedAuthorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, "", grantedAuthorities);
+    /**
+     * Convierte el nombre de un rol en un UserRole.
+     *
+     * @param roleName El nombre del rol
+     * @return El rol, o null si no se reconoce
+     */
+    private UserRole parseRole(String roleName) {
+        if (roleName == null) {
+            return null;
+        }
+        for (UserRole role : UserRole.values()) {
+            if (role.name().equals(roleName)) {
+                return role;
+            }
+        }
+        return null;
     }
 
     /**
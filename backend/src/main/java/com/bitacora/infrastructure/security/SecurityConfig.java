@@ -1,5 +1,7 @@
 package com.bitacora.infrastructure.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -48,6 +50,8 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
+                        // Los flujos SSE ya se autorizaron en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/auth/**").permitAll()
                         .requestMatchers("/api/api-docs/**", "/api/swagger-ui/**", "/api/swagger-ui.html").permitAll()
                         .requestMatchers("/api/actuator/**").permitAll()
@@ -103,13 +107,33 @@ public class SecurityConfig {
     }
 
     /**
-     * Configura el codificador de contraseñas.
+     * Configura el codificador de contraseñas. Los hashes se calculan en un
+     * pool de hilos acotado y, si el coste configurado aumenta, las contraseñas
+     * se vuelven a cifrar en el siguiente inicio de sesión. Reducir el coste no
+     * vuelve a cifrar los hashes existentes.
      *
+     * @param meterRegistry     El registro de métricas
+     * @param bcryptStrength    El coste de BCrypt
+     * @param threads           El número de hilos de hash (0 para usar uno por procesador)
+     * @param queueCapacity     El número máximo de operaciones de hash en espera
+     * @param waitTimeoutMillis El tiempo máximo de espera de una operación de hash
      * @return El codificador de contraseñas
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.wait-timeout:10000}") long waitTimeoutMillis) {
+        // Por defecto, un hilo de hash por procesador disponible
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                poolSize,
+                queueCapacity,
+                waitTimeoutMillis,
+                meterRegistry);
     }
 
     /**
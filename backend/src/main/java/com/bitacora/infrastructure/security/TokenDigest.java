@@ -0,0 +1,39 @@
+package com.bitacora.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utilidad para calcular el resumen SHA-256 de un token.
+ * Las sesiones se indexan por este resumen de tamaño fijo en lugar de por el
+ * token JWT completo.
+ */
+public final class TokenDigest {
+
+    /**
+     * Longitud en bytes del resumen SHA-256.
+     */
+    public static final int LENGTH = 32;
+
+    private TokenDigest() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Calcula el resumen SHA-256 de un token.
+     *
+     * @param token El token
+     * @return El resumen de 32 bytes, o null si el token es null
+     */
+    public static byte[] sha256(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+}
@@ -1,26 +1,31 @@
 package com.bitacora.infrastructure.security;
 
+import com.bitacora.domain.model.user.Password;
 import com.bitacora.domain.model.user.Permission;
 import com.bitacora.domain.model.user.User;
 import com.bitacora.domain.port.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Implementación de UserDetailsService para cargar usuarios desde el repositorio.
+ * También actualiza el hash de la contraseña cuando Spring Security detecta, al
+ * iniciar sesión, que fue calculado con un coste distinto al configurado.
  */
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+@Slf4j
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     
@@ -44,7 +49,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 user.getId(),
                 user.getUsername(),
                 user.getPassword().getValue(),
-                getAuthorities(user)
+                getAuthorities(user),
+                user
+        );
+    }
+    
+    /**
+     * Actualiza el hash de la contraseña de un usuario tras un inicio de sesión correcto.
+     * 
+     * @param userDetails Los detalles del usuario autenticado
+     * @param newPassword El nuevo hash de la contraseña
+     * @return Los detalles del usuario con el nuevo hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + userDetails.getUsername()));
+        
+        user.setPassword(Password.createHashed(newPassword));
+        userRepository.save(user);
+        log.debug("Actualizado el hash de la contraseña del usuario {}", user.getUsername());
+        
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                newPassword,
+                userDetails.getAuthorities(),
+                user
         );
     }
     
@@ -55,27 +86,11 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @return Las autoridades del usuario
      */
     private List<GrantedAuthority> getAuthorities(User user) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        
-        // Agregar rol como autoridad
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-        
-        // Agregar permisos como autoridades
-        List<GrantedAuthority> permissionAuthorities = user.getPermissions().stream()
-                .map(Permission::name)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-        
-        authorities.addAll(permissionAuthorities);
-        
-        // Agregar permisos del rol como autoridades
-        List<GrantedAuthority> rolePermissionAuthorities = user.getRole().getPermissions().stream()
-                .map(Permission::name)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-        
-        authorities.addAll(rolePermissionAuthorities);
-        
-        return authorities;
+        // Unir los permisos del usuario y los de su rol, sin duplicados
+        Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+        permissions.addAll(user.getPermissions());
+        permissions.addAll(user.getRole().getPermissions());
+
+        return AuthorityCodec.authorities(user.getRole(), permissions);
     }
 }
@@ -14,6 +14,13 @@ public class UserPrincipal extends User {
     
     private final Long id;
     
+    /**
+     * El usuario de dominio cargado al autenticar, para que el inicio de sesión
+     * no tenga que volver a buscarlo. Es null en los principales creados a
+     * partir de un token.
+     */
+    private final transient com.bitacora.domain.model.user.User user;
+    
     /**
      * Constructor para crear un UserPrincipal.
      * 
@@ -23,7 +30,22 @@ public class UserPrincipal extends User {
      * @param authorities Las autoridades del usuario
      */
     public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, authorities, null);
+    }
+    
+    /**
+     * Constructor para crear un UserPrincipal a partir del usuario de dominio cargado.
+     * 
+     * @param id El ID del usuario
+     * @param username El nombre de usuario
+     * @param password La contraseña
+     * @param authorities Las autoridades del usuario
+     * @param user El usuario de dominio
+     */
+    public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities,
+            com.bitacora.domain.model.user.User user) {
         super(username, password, authorities);
         this.id = id;
+        this.user = user;
     }
 }
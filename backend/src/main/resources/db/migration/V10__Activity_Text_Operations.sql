@@ -0,0 +1,25 @@
+-- Edición colaborativa de los campos de texto largo de las actividades.
+-- Cada campo en edición tiene una fila de estado con la revisión del texto
+-- guardado en la actividad; las operaciones posteriores se guardan aparte,
+-- numeradas por revisión, hasta que se vuelcan periódicamente a la actividad.
+CREATE TABLE activity_text_snapshots (
+    activity_id BIGINT NOT NULL,
+    field VARCHAR(20) NOT NULL,
+    revision BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (activity_id, field),
+    FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE
+);
+
+-- La clave primaria asigna cada revisión a una sola operación aunque la
+-- reciban nodos distintos. Una operación nula marca un reinicio del texto.
+CREATE TABLE activity_text_operations (
+    activity_id BIGINT NOT NULL,
+    field VARCHAR(20) NOT NULL,
+    revision BIGINT NOT NULL,
+    operation TEXT,
+    client_operation_id VARCHAR(64),
+    author VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (activity_id, field, revision),
+    FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE
+);
@@ -0,0 +1,23 @@
+-- Comentarios de las actividades, solo de inserción. Añadir un comentario no
+-- reescribe la fila de la actividad: la clave foránea solo toma sobre ella un
+-- bloqueo compartido de clave, compatible con las modificaciones de la actividad.
+CREATE TABLE activity_comments (
+    id BIGSERIAL PRIMARY KEY,
+    activity_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+-- Las páginas se recorren por (activity_id, id), sin OFFSET
+CREATE INDEX idx_activity_comments_activity_id ON activity_comments(activity_id, id);
+
+-- Contador de comentarios por actividad, actualizado en cada inserción
+CREATE TABLE activity_comment_counts (
+    activity_id BIGINT PRIMARY KEY,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    last_comment_at TIMESTAMP,
+    FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE
+);
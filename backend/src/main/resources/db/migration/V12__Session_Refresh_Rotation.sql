@@ -0,0 +1,15 @@
+-- Expiración del token de refresco: la sesión sigue activa mientras pueda renovarse,
+-- aunque su token de acceso haya vencido
+ALTER TABLE user_sessions ADD COLUMN refresh_expiry_time TIMESTAMP;
+
+-- Resumen del último token de refresco rotado y fecha de la rotación, para distinguir
+-- la reutilización de un token ya rotado de una renovación concurrente
+ALTER TABLE user_sessions ADD COLUMN previous_refresh_token_hash BYTEA;
+ALTER TABLE user_sessions ADD COLUMN refreshed_at TIMESTAMP;
+
+CREATE INDEX idx_user_sessions_previous_refresh_token_hash ON user_sessions(previous_refresh_token_hash);
+
+-- El barrido expira las sesiones por la expiración del token de refresco; las sesiones
+-- anteriores a esta migración no la tienen y conservan la del token de acceso
+CREATE INDEX idx_user_sessions_status_session_expiry
+    ON user_sessions(status, (COALESCE(refresh_expiry_time, expiry_time)));
@@ -0,0 +1,28 @@
+-- Indexar las sesiones por el resumen SHA-256 de sus tokens en lugar del JWT completo
+ALTER TABLE user_sessions ADD COLUMN token_hash BYTEA;
+ALTER TABLE user_sessions ADD COLUMN refresh_token_hash BYTEA;
+
+-- Calcular el resumen de los tokens existentes
+UPDATE user_sessions SET token_hash = sha256(convert_to(token, 'UTF8')) WHERE token IS NOT NULL;
+UPDATE user_sessions SET refresh_token_hash = sha256(convert_to(refresh_token, 'UTF8')) WHERE refresh_token IS NOT NULL;
+
+-- Conservar solo la sesión más reciente para tokens duplicados (emitidos en el mismo segundo).
+-- Las anteriores se revocan: sin resumen ya no podrían encontrarse, cerrarse ni renovarse por su token
+UPDATE user_sessions s SET status = 'REVOKED', logout_time = COALESCE(s.logout_time, CURRENT_TIMESTAMP)
+WHERE s.status = 'ACTIVE'
+  AND EXISTS (SELECT 1 FROM user_sessions o WHERE o.id > s.id
+              AND (o.token_hash = s.token_hash OR o.refresh_token_hash = s.refresh_token_hash));
+UPDATE user_sessions s SET token_hash = NULL
+WHERE EXISTS (SELECT 1 FROM user_sessions o WHERE o.token_hash = s.token_hash AND o.id > s.id);
+UPDATE user_sessions s SET refresh_token_hash = NULL
+WHERE EXISTS (SELECT 1 FROM user_sessions o WHERE o.refresh_token_hash = s.refresh_token_hash AND o.id > s.id);
+
+-- Eliminar los índices y columnas de los tokens completos
+DROP INDEX IF EXISTS idx_user_sessions_token;
+DROP INDEX IF EXISTS idx_user_sessions_refresh_token;
+ALTER TABLE user_sessions DROP COLUMN token;
+ALTER TABLE user_sessions DROP COLUMN refresh_token;
+
+-- Índices únicos sobre los resúmenes de tamaño fijo
+CREATE UNIQUE INDEX idx_user_sessions_token_hash ON user_sessions(token_hash);
+CREATE UNIQUE INDEX idx_user_sessions_refresh_token_hash ON user_sessions(refresh_token_hash);
@@ -0,0 +1,13 @@
+-- Almacenar el usuario en la sesión para no tener que obtenerlo del token
+ALTER TABLE user_sessions ADD COLUMN username VARCHAR(50);
+UPDATE user_sessions s SET username = u.username FROM users u WHERE u.id = s.user_id;
+
+-- Registrar cuándo se notificó la inactividad de la sesión (como máximo una vez)
+ALTER TABLE user_sessions ADD COLUMN inactivity_notified_at TIMESTAMP;
+UPDATE user_sessions SET inactivity_notified_at = CURRENT_TIMESTAMP WHERE status <> 'ACTIVE';
+
+-- Índices para el barrido incremental de sesiones expiradas e inactivas
+DROP INDEX IF EXISTS idx_user_sessions_status;
+CREATE INDEX idx_user_sessions_status_expiry ON user_sessions(status, expiry_time);
+CREATE INDEX idx_user_sessions_status_last_activity ON user_sessions(status, last_activity_time)
+    WHERE inactivity_notified_at IS NULL;
@@ -0,0 +1,82 @@
+-- Particionar user_sessions por rango de login_time (una partición por mes),
+-- de modo que la retención pueda eliminar particiones completas en lugar de
+-- borrar filas una a una
+
+-- Conservar la secuencia de IDs y liberar los nombres de la tabla actual
+ALTER SEQUENCE user_sessions_id_seq OWNED BY NONE;
+ALTER TABLE user_sessions RENAME TO user_sessions_legacy;
+ALTER TABLE user_sessions_legacy RENAME CONSTRAINT user_sessions_pkey TO user_sessions_legacy_pkey;
+
+CREATE TABLE user_sessions (
+    id BIGINT NOT NULL DEFAULT nextval('user_sessions_id_seq'),
+    user_id BIGINT NOT NULL,
+    username VARCHAR(50),
+    token_hash BYTEA,
+    refresh_token_hash BYTEA,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    device VARCHAR(50),
+    location VARCHAR(100),
+    login_time TIMESTAMP NOT NULL,
+    last_activity_time TIMESTAMP,
+    expiry_time TIMESTAMP,
+    status VARCHAR(20) NOT NULL,
+    is_suspicious BOOLEAN DEFAULT FALSE,
+    suspicious_reason VARCHAR(255),
+    logout_time TIMESTAMP,
+    inactivity_notified_at TIMESTAMP,
+    CONSTRAINT user_sessions_pkey PRIMARY KEY (id, login_time),
+    CONSTRAINT fk_user_sessions_user_partitioned FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (login_time);
+
+ALTER SEQUENCE user_sessions_id_seq OWNED BY user_sessions.id;
+
+-- Crear una partición por mes desde la sesión más antigua hasta dos meses después del actual
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '2 months')::DATE;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(login_time))::DATE, date_trunc('month', CURRENT_DATE)::DATE)
+      INTO month_start
+      FROM user_sessions_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF user_sessions FOR VALUES FROM (%L) TO (%L)',
+            'user_sessions_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- Partición por defecto para sesiones fuera de los meses creados
+CREATE TABLE user_sessions_default PARTITION OF user_sessions DEFAULT;
+
+-- Copiar las sesiones existentes
+INSERT INTO user_sessions (id, user_id, username, token_hash, refresh_token_hash, ip_address, user_agent,
+                           device, location, login_time, last_activity_time, expiry_time, status,
+                           is_suspicious, suspicious_reason, logout_time, inactivity_notified_at)
+SELECT id, user_id, username, token_hash, refresh_token_hash, ip_address, user_agent,
+       device, location, login_time, last_activity_time, expiry_time, status,
+       is_suspicious, suspicious_reason, logout_time, inactivity_notified_at
+  FROM user_sessions_legacy;
+
+SELECT setval('user_sessions_id_seq', COALESCE((SELECT MAX(id) FROM user_sessions), 0) + 1, false);
+
+DROP TABLE user_sessions_legacy;
+
+-- Índices sobre la tabla particionada. Los índices únicos deberían incluir
+-- login_time, y uno sobre (resumen, login_time) no impediría repetir un token
+-- en otra partición, por lo que los resúmenes de token se indexan sin
+-- restricción de unicidad. Cada token incluye un identificador aleatorio, y
+-- las búsquedas por resumen toleran duplicados devolviendo siempre la sesión
+-- más reciente (mayor ID)
+CREATE INDEX idx_user_sessions_user_id ON user_sessions(user_id);
+CREATE INDEX idx_user_sessions_token_hash ON user_sessions(token_hash);
+CREATE INDEX idx_user_sessions_refresh_token_hash ON user_sessions(refresh_token_hash);
+CREATE INDEX idx_user_sessions_is_suspicious ON user_sessions(is_suspicious);
+CREATE INDEX idx_user_sessions_status_expiry ON user_sessions(status, expiry_time);
+CREATE INDEX idx_user_sessions_status_last_activity ON user_sessions(status, last_activity_time)
+    WHERE inactivity_notified_at IS NULL;
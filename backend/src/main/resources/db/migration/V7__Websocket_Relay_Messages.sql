@@ -0,0 +1,9 @@
+-- Mensajes WebSocket entre nodos que superan el tamaño máximo de NOTIFY.
+-- Solo se conservan unos minutos, hasta que todos los nodos los han leído.
+CREATE TABLE websocket_relay_messages (
+    id VARCHAR(36) PRIMARY KEY,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_websocket_relay_messages_created_at ON websocket_relay_messages(created_at);
@@ -0,0 +1,23 @@
+-- Bandeja persistente de notificaciones privadas.
+-- El estado de cada usuario guarda la última secuencia asignada, la marca de
+-- lectura y el contador de no leídas, que se mantiene en cada inserción y
+-- al marcar como leídas.
+CREATE TABLE notification_inbox_state (
+    username VARCHAR(50) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL DEFAULT 0,
+    read_sequence BIGINT NOT NULL DEFAULT 0,
+    unread_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Las páginas se recorren por (username, sequence), sin OFFSET
+CREATE TABLE notification_inbox (
+    username VARCHAR(50) NOT NULL,
+    sequence BIGINT NOT NULL,
+    notification_id VARCHAR(36) NOT NULL,
+    type VARCHAR(30),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (username, sequence)
+);
+
+CREATE INDEX idx_notification_inbox_created_at ON notification_inbox(created_at);
@@ -0,0 +1,29 @@
+-- Secuencia de cambios de las actividades para la sincronización incremental.
+-- Cada escritura asigna a la fila la siguiente secuencia del contador, bajo el
+-- bloqueo de su única fila, de modo que las secuencias se hacen visibles en
+-- orden y un cliente no se salta cambios confirmados más tarde.
+CREATE TABLE activity_change_state (
+    id SMALLINT PRIMARY KEY,
+    last_sequence BIGINT NOT NULL DEFAULT 0,
+    -- Secuencia más alta de las marcas de borrado ya purgadas
+    purged_sequence BIGINT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE activities ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE activities ADD COLUMN created_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Las actividades existentes se numeran por su ID
+UPDATE activities SET change_seq = id, created_seq = id;
+INSERT INTO activity_change_state (id, last_sequence, purged_sequence)
+SELECT 1, COALESCE(MAX(id), 0), 0 FROM activities;
+
+CREATE INDEX idx_activities_change_seq ON activities(change_seq);
+
+-- Marcas de borrado: las actividades eliminadas, para que los clientes las quiten
+CREATE TABLE activity_tombstones (
+    activity_id BIGINT PRIMARY KEY,
+    change_seq BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_activity_tombstones_change_seq ON activity_tombstones(change_seq);
@@ -0,0 +1,118 @@
+package com.bitacora.application.activity;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChange;
+import com.bitacora.domain.model.activity.ActivityStatus;
+import com.bitacora.domain.model.activity.ActivityType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase ActivityFeedRegistry.
+ */
+class ActivityFeedRegistryTest {
+
+    private ActivityFeedRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ActivityFeedRegistry(2);
+    }
+
+    @Test
+    void testStatusChangeMovesActivityBetweenFeeds() {
+        // Arrange
+        ActivityFeedSubscription pending = subscription("s1", "pendientes",
+                new ActivityFeedFilter(null, ActivityStatus.PENDIENTE, null, null, null, null));
+        ActivityFeedSubscription completed = subscription("s2", "completadas",
+                new ActivityFeedFilter(null, ActivityStatus.COMPLETADA, null, null, null, null));
+        registry.subscribe(pending);
+        registry.subscribe(completed);
+        Activity before = activity(ActivityStatus.PENDIENTE, "Reunión de seguimiento");
+        Activity after = before.toBuilder().status(ActivityStatus.COMPLETADA).build();
+
+        // Act
+        Map<ActivityFeedOperation, List<ActivityFeedSubscription>> matches =
+                registry.match(new ActivityChange(before, after));
+
+        // Assert
+        assertEquals(List.of(pending), matches.get(ActivityFeedOperation.DELETE));
+        assertEquals(List.of(completed), matches.get(ActivityFeedOperation.INSERT));
+        assertNull(matches.get(ActivityFeedOperation.UPDATE));
+    }
+
+    @Test
+    void testUnindexedFeedReceivesMatchingTextChanges() {
+        // Arrange
+        ActivityFeedSubscription search = subscription("s1", "default",
+                new ActivityFeedFilter(null, null, null, null, null, "SEGUIMIENTO"));
+        registry.subscribe(search);
+        Activity before = activity(ActivityStatus.PENDIENTE, "Reunión de seguimiento");
+        Activity after = before.toBuilder().comments("Sin cambios").build();
+
+        // Act
+        Map<ActivityFeedOperation, List<ActivityFeedSubscription>> updated =
+                registry.match(new ActivityChange(before, after));
+        Map<ActivityFeedOperation, List<ActivityFeedSubscription>> created =
+                registry.match(new ActivityChange(null, activity(ActivityStatus.PENDIENTE, "Audiencia")));
+
+        // Assert
+        assertEquals(List.of(search), updated.get(ActivityFeedOperation.UPDATE));
+        assertTrue(created.isEmpty());
+    }
+
+    @Test
+    void testSubscribeEnforcesLimitAndReplacesSameFeed() {
+        // Arrange
+        registry.subscribe(subscription("s1", "a", new ActivityFeedFilter(null, null, 7L, null, null, null)));
+        registry.subscribe(subscription("s1", "b", new ActivityFeedFilter(null, null, 8L, null, null, null)));
+
+        // Act
+        boolean third = registry.subscribe(
+                subscription("s1", "c", new ActivityFeedFilter(null, null, 9L, null, null, null)));
+        boolean replaced = registry.subscribe(
+                subscription("s1", "a", new ActivityFeedFilter(ActivityType.REUNION, null, null, null, null, null)));
+
+        // Assert
+        assertFalse(third);
+        assertTrue(replaced);
+        Activity audiencia = activity(ActivityStatus.PENDIENTE, "Otra").toBuilder().type(ActivityType.AUDIENCIA).build();
+        assertTrue(registry.match(new ActivityChange(null, audiencia)).isEmpty());
+        assertEquals(1, registry.match(new ActivityChange(null, activity(ActivityStatus.PENDIENTE, "Otra")))
+                .get(ActivityFeedOperation.INSERT).size());
+    }
+
+    @Test
+    void testRemoveSessionDropsItsFeeds() {
+        // Arrange
+        registry.subscribe(subscription("s1", "default", new ActivityFeedFilter(null, null, null, null, null, null)));
+
+        // Act
+        registry.removeSession("s1");
+
+        // Assert
+        assertTrue(registry.match(new ActivityChange(null, activity(ActivityStatus.PENDIENTE, "Nueva"))).isEmpty());
+    }
+
+    private static ActivityFeedSubscription subscription(String sessionId, String feedId, ActivityFeedFilter filter) {
+        return new ActivityFeedSubscription(sessionId, "usuario", feedId, filter);
+    }
+
+    private static Activity activity(ActivityStatus status, String description) {
+        return Activity.builder()
+                .id(1L)
+                .date(LocalDateTime.of(2024, 3, 10, 9, 0))
+                .type(ActivityType.REUNION)
+                .status(status)
+                .description(description)
+                .userId(7L)
+                .build();
+    }
+}
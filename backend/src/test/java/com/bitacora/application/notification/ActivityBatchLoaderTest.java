@@ -0,0 +1,84 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.port.repository.ActivityRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase ActivityBatchLoader.
+ */
+class ActivityBatchLoaderTest {
+
+    private ActivityRepository activityRepository;
+    private ActivityBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        activityRepository = mock(ActivityRepository.class);
+        loader = new ActivityBatchLoader(activityRepository);
+    }
+
+    @Test
+    void testQueuedActivitiesAreLoadedWithOneQuery() {
+        // Arrange
+        when(activityRepository.findAllById(any())).thenReturn(List.of(activity(1L), activity(2L)));
+        loader.queue(Arrays.asList(1L, 2L, null, 3L));
+
+        // Act
+        String first = loader.get(1L).map(Activity::getDescription).orElse(null);
+        String second = loader.get(2L).map(Activity::getDescription).orElse(null);
+        boolean missing = loader.get(3L).isEmpty();
+
+        // Assert
+        assertEquals("Actividad 1", first);
+        assertEquals("Actividad 2", second);
+        assertTrue(missing);
+        verify(activityRepository, times(1)).findAllById(List.of(1L, 2L, 3L));
+        verify(activityRepository, never()).findById(any());
+    }
+
+    @Test
+    void testLoadedActivitiesAreNotQueriedAgain() {
+        // Arrange
+        when(activityRepository.findAllById(List.of(1L))).thenReturn(List.of(activity(1L)));
+        loader.get(1L);
+
+        // Act
+        loader.queue(List.of(1L));
+        boolean found = loader.get(1L).isPresent();
+
+        // Assert
+        assertTrue(found);
+        verify(activityRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void testNullIdDoesNotQuery() {
+        // Act
+        boolean empty = loader.get(null).isEmpty();
+
+        // Assert
+        assertTrue(empty);
+        verify(activityRepository, never()).findAllById(any());
+    }
+
+    private static Activity activity(Long id) {
+        return Activity.builder()
+                .id(id)
+                .description("Actividad " + id)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.exception.EditLockConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase ActivityEditLockManager.
+ */
+class ActivityEditLockManagerTest {
+
+    @Test
+    void testRenewalKeepsToken() {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(60000);
+        EditLease first = manager.tryAcquire(1L, 10L).orElseThrow();
+
+        // Act
+        EditLease renewed = manager.tryAcquire(1L, 10L).orElseThrow();
+
+        // Assert
+        assertEquals(first.getToken(), renewed.getToken());
+        assertTrue(manager.tryAcquire(1L, 20L).isEmpty());
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenWithHigherToken() {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(0);
+        EditLease first = manager.tryAcquire(1L, 10L).orElseThrow();
+
+        // Act
+        Optional<EditLease> second = manager.tryAcquire(1L, 20L);
+
+        // Assert
+        assertTrue(second.isPresent());
+        assertTrue(second.get().getToken() > first.getToken());
+    }
+
+    @Test
+    void testValidateRejectsStaleToken() {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(60000);
+        EditLease lease = manager.tryAcquire(1L, 10L).orElseThrow();
+        manager.release(1L, 10L);
+        manager.tryAcquire(1L, 10L);
+
+        // Act & Assert
+        assertThrows(EditLockConflictException.class, () -> manager.validate(1L, 10L, lease.getToken()));
+        assertThrows(EditLockConflictException.class, () -> manager.validate(1L, 20L, null));
+        assertDoesNotThrow(() -> manager.validate(2L, 20L, null));
+    }
+
+    @Test
+    void testValidateRequiresTokenWhileLeaseIsActive() {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(60000);
+        EditLease lease = manager.tryAcquire(1L, 10L).orElseThrow();
+
+        // Act & Assert
+        assertThrows(EditLockConflictException.class, () -> manager.validate(1L, 10L, null));
+        assertThrows(EditLockConflictException.class, () -> manager.validate(1L, 20L, lease.getToken()));
+        assertDoesNotThrow(() -> manager.validate(1L, 10L, lease.getToken()));
+    }
+
+    @Test
+    void testValidateRejectsTokenlessSaveAfterOwnLeaseExpired() throws InterruptedException {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(50);
+        manager.tryAcquire(1L, 10L).orElseThrow();
+        Thread.sleep(70);
+
+        // Act
+        int expired = manager.expireLeases();
+
+        // Assert
+        assertEquals(0, expired);
+        assertThrows(EditLockConflictException.class, () -> manager.validate(1L, 10L, null));
+        assertDoesNotThrow(() -> manager.validate(1L, 20L, null));
+    }
+
+    @Test
+    void testRenewUsersKeepsTokenAndExtendsLease() throws InterruptedException {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(100);
+        EditLease lease = manager.tryAcquire(1L, 10L).orElseThrow();
+        manager.tryAcquire(2L, 20L);
+        Thread.sleep(60);
+
+        // Act
+        int renewed = manager.renewUsers(Set.of(10L));
+        Thread.sleep(60);
+
+        // Assert
+        assertEquals(1, renewed);
+        assertDoesNotThrow(() -> manager.validate(1L, 10L, lease.getToken()));
+        assertTrue(manager.currentLease(2L).isEmpty());
+    }
+
+    @Test
+    void testOnlyOneUserAcquiresUnderContention() throws InterruptedException {
+        // Arrange
+        ActivityEditLockManager manager = new ActivityEditLockManager(60000);
+        int users = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+
+        // Act
+        for (long userId = 1; userId <= users; userId++) {
+            long id = userId;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    if (manager.tryAcquire(1L, id).isPresent()) {
+                        winners.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1, winners.get());
+    }
+}
@@ -0,0 +1,50 @@
+package com.bitacora.application.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase ActivityPresenceRegistry.
+ */
+class ActivityPresenceRegistryTest {
+
+    @Test
+    void testRenewUsersRenewsOnlyConnectedViewers() throws InterruptedException {
+        // Arrange
+        ActivityPresenceRegistry registry = new ActivityPresenceRegistry(100);
+        registry.touchViewer(1L, 10L);
+        registry.touchViewer(1L, 20L);
+        registry.touchViewer(2L, 10L);
+        Thread.sleep(60);
+
+        // Act
+        int renewed = registry.renewUsers(Set.of(10L, 30L));
+        Thread.sleep(60);
+        Map<Long, long[]> expired = registry.expireLeases();
+
+        // Assert
+        assertEquals(2, renewed);
+        assertEquals(1, expired.size());
+        assertArrayEquals(new long[] {20L}, expired.get(1L));
+        assertArrayEquals(new long[] {10L}, registry.viewers(1L));
+        assertArrayEquals(new long[] {10L}, registry.viewers(2L));
+    }
+
+    @Test
+    void testRenewUsersDoesNotRegisterNewViewers() {
+        // Arrange
+        ActivityPresenceRegistry registry = new ActivityPresenceRegistry(60000);
+        registry.touchViewer(1L, 10L);
+
+        // Act
+        int renewed = registry.renewUsers(Set.of(20L));
+
+        // Assert
+        assertEquals(0, renewed);
+        assertArrayEquals(new long[] {10L}, registry.viewers(1L));
+    }
+}
@@ -0,0 +1,95 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.event.user.UserUpdatedEvent;
+import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
+import com.bitacora.domain.port.UserDirectory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase DepartmentPresenceIndex.
+ */
+class DepartmentPresenceIndexTest {
+
+    private UserDirectory userDirectory;
+    private DepartmentPresenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userDirectory = mock(UserDirectory.class);
+        index = new DepartmentPresenceIndex(userDirectory);
+        when(userDirectory.findByUsername("ana"))
+                .thenReturn(Optional.of(UserDirectoryEntry.from(user(1L, "ana", "Ventas"))));
+        when(userDirectory.findByUsername("luis"))
+                .thenReturn(Optional.of(UserDirectoryEntry.from(user(2L, "luis", " ventas "))));
+    }
+
+    @Test
+    void testConnectedUsersAreIndexedByDepartment() {
+        // Act
+        index.connect("ana");
+        index.connect("luis");
+
+        // Assert
+        assertEquals(Set.of("ana", "luis"), index.getConnectedUsers("VENTAS"));
+        assertTrue(index.getConnectedUsers("Compras").isEmpty());
+    }
+
+    @Test
+    void testUserIsRemovedOnLastDisconnect() {
+        // Arrange
+        index.connect("ana");
+        index.connect("ana");
+
+        // Act
+        index.disconnect("ana");
+        Set<String> afterFirst = index.getConnectedUsers("Ventas");
+        index.disconnect("ana");
+
+        // Assert
+        assertEquals(Set.of("ana"), afterFirst);
+        assertTrue(index.getConnectedUsers("Ventas").isEmpty());
+        verify(userDirectory, times(1)).findByUsername("ana");
+    }
+
+    @Test
+    void testDepartmentChangeMovesConnectedUser() {
+        // Arrange
+        index.connect("ana");
+
+        // Act
+        index.onUserUpdated(new UserUpdatedEvent(user(1L, "ana", "Compras")));
+
+        // Assert
+        assertTrue(index.getConnectedUsers("Ventas").isEmpty());
+        assertEquals(Set.of("ana"), index.getConnectedUsers("Compras"));
+    }
+
+    @Test
+    void testDepartmentChangeIgnoresDisconnectedUser() {
+        // Act
+        index.onUserUpdated(new UserUpdatedEvent(user(3L, "eva", "Compras")));
+
+        // Assert
+        assertTrue(index.getConnectedUsers("Compras").isEmpty());
+    }
+
+    private static User user(Long id, String username, String department) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .department(department)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.bitacora.application.notification;
+
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase NotificationRingBuffer.
+ */
+class NotificationRingBufferTest {
+
+    @Test
+    void testSinceReturnsGapInOrder() {
+        // Arrange
+        NotificationRingBuffer buffer = new NotificationRingBuffer(10, 4);
+        buffer.add(notification(5));
+        buffer.add(notification(7));
+        buffer.add(notification(6));
+
+        // Act
+        Optional<List<RealTimeNotification>> result = buffer.since(5, 7);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(List.of(6L, 7L), result.get().stream().map(RealTimeNotification::getSequence).toList());
+    }
+
+    @Test
+    void testSinceIsEmptyWhenGapWasEvicted() {
+        // Arrange
+        NotificationRingBuffer buffer = new NotificationRingBuffer(2, 0);
+        buffer.add(notification(1));
+        buffer.add(notification(2));
+        buffer.add(notification(3));
+
+        // Act & Assert
+        assertTrue(buffer.since(0, 3).isEmpty());
+        assertEquals(2, buffer.since(1, 3).orElseThrow().size());
+    }
+
+    @Test
+    void testSinceIsEmptyWhenBufferIsBehind() {
+        // Arrange
+        NotificationRingBuffer buffer = new NotificationRingBuffer(10, 0);
+        buffer.add(notification(1));
+
+        // Act & Assert
+        assertTrue(buffer.since(0, 2).isEmpty());
+    }
+
+    private static RealTimeNotification notification(long sequence) {
+        return RealTimeNotification.builder()
+                .sequence(sequence)
+                .build();
+    }
+}
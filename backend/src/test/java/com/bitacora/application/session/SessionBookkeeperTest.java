@@ -0,0 +1,67 @@
+package com.bitacora.application.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase SessionBookkeeper.
+ */
+class SessionBookkeeperTest {
+
+    private SessionBookkeeper bookkeeper;
+
+    @BeforeEach
+    void setUp() {
+        bookkeeper = new SessionBookkeeper(1, 10, 3, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookkeeper.shutdown();
+    }
+
+    @Test
+    void testOnlyTheTaskIsRetried() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger announcements = new AtomicInteger();
+
+        // Act
+        String result = bookkeeper.submit(List.of("token"), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("fallo transitorio");
+            }
+            return "sesión";
+        }, saved -> announcements.incrementAndGet()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("sesión", result);
+        assertEquals(3, attempts.get());
+        assertEquals(1, announcements.get());
+    }
+
+    @Test
+    void testFailureAfterSuccessDoesNotRetryTheTask() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = bookkeeper.submit(List.of("token"), () -> {
+            attempts.incrementAndGet();
+            return "sesión";
+        }, saved -> {
+            throw new IllegalStateException("fallo al difundir");
+        }).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("sesión", result);
+        assertEquals(1, attempts.get());
+    }
+}
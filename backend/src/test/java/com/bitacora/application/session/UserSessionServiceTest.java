@@ -0,0 +1,112 @@
+package com.bitacora.application.session;
+
+import com.bitacora.domain.model.session.UserSession;
+import com.bitacora.domain.model.session.UserSession.SessionStatus;
+import com.bitacora.domain.port.UserDirectory;
+import com.bitacora.domain.port.notification.NotificationPort;
+import com.bitacora.domain.port.session.UserSessionPort;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase UserSessionService.
+ */
+class UserSessionServiceTest {
+
+    private static final byte[] OLD_REFRESH_HASH = {1, 2, 3};
+
+    private UserSessionPort sessionPort;
+    private UserSessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionPort = mock(UserSessionPort.class);
+        when(sessionPort.saveSession(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        sessionService = new UserSessionService(sessionPort, mock(SessionBookkeeper.class),
+                mock(NotificationPort.class), mock(SessionActivityTracker.class), mock(UserDirectory.class));
+        ReflectionTestUtils.setField(sessionService, "refreshReuseGraceMillis", 30000L);
+    }
+
+    @Test
+    void testRotateSessionAfterAccessTokenExpired() {
+        // Arrange
+        UserSession session = session();
+        session.setExpiryTime(Date.from(Instant.now().minusSeconds(3600)));
+        session.setRefreshExpiryTime(Date.from(Instant.now().plusSeconds(3600)));
+        when(sessionPort.findByRefreshToken("refresco-1")).thenReturn(Optional.of(session));
+        Date newRefreshExpiry = Date.from(Instant.now().plusSeconds(7200));
+
+        // Act
+        Optional<UserSession> rotated = sessionService.rotateSession("refresco-1", "acceso-2",
+                Date.from(Instant.now().plusSeconds(600)), "refresco-2", newRefreshExpiry);
+
+        // Assert
+        assertTrue(rotated.isPresent());
+        assertEquals("refresco-2", rotated.get().getRefreshToken());
+        assertArrayEquals(OLD_REFRESH_HASH, rotated.get().getPreviousRefreshTokenHash());
+        assertEquals(newRefreshExpiry, rotated.get().getRefreshExpiryTime());
+        assertNotNull(rotated.get().getRefreshedAt());
+    }
+
+    @Test
+    void testRotatedTokenWithinGraceIsNotReuse() {
+        // Arrange
+        UserSession session = session();
+        session.setRefreshedAt(Date.from(Instant.now().minusSeconds(5)));
+        when(sessionPort.findByPreviousRefreshToken("refresco-1")).thenReturn(Optional.of(session));
+
+        // Act
+        Optional<UserSession> reused = sessionService.findReusedRefreshTokenSession("refresco-1");
+
+        // Assert
+        assertTrue(reused.isEmpty());
+    }
+
+    @Test
+    void testRotatedTokenAfterGraceIsReuse() {
+        // Arrange
+        UserSession session = session();
+        session.setRefreshedAt(Date.from(Instant.now().minusSeconds(60)));
+        when(sessionPort.findByPreviousRefreshToken("refresco-1")).thenReturn(Optional.of(session));
+
+        // Act
+        Optional<UserSession> reused = sessionService.findReusedRefreshTokenSession("refresco-1");
+
+        // Assert
+        assertEquals(Optional.of(session), reused);
+    }
+
+    @Test
+    void testUnknownTokenIsNotReuse() {
+        // Arrange
+        when(sessionPort.findByPreviousRefreshToken("refresco-1")).thenReturn(Optional.empty());
+
+        // Act
+        Optional<UserSession> reused = sessionService.findReusedRefreshTokenSession("refresco-1");
+
+        // Assert
+        assertTrue(reused.isEmpty());
+    }
+
+    private static UserSession session() {
+        return UserSession.builder()
+                .id(7L)
+                .userId(3L)
+                .username("ana")
+                .refreshTokenHash(OLD_REFRESH_HASH)
+                .loginTime(Date.from(Instant.now().minusSeconds(86400)))
+                .status(SessionStatus.ACTIVE)
+                .build();
+    }
+}
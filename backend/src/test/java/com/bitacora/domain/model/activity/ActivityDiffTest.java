@@ -0,0 +1,83 @@
+package com.bitacora.domain.model.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase ActivityDiff.
+ */
+class ActivityDiffTest {
+
+    @Test
+    void testContainsOnlyChangedFields() {
+        // Arrange
+        Activity previous = Activity.builder()
+                .id(1L)
+                .description("Reunión")
+                .status(ActivityStatus.PENDIENTE)
+                .result("Sin resultado")
+                .version(7L)
+                .build();
+        Activity current = previous.toBuilder()
+                .status(ActivityStatus.COMPLETADA)
+                .result(null)
+                .version(9L)
+                .build();
+
+        // Act
+        ActivityDiff diff = ActivityDiff.between(previous, current);
+
+        // Assert
+        assertEquals(1L, diff.getActivityId());
+        assertEquals(7L, diff.getPreviousVersion());
+        assertEquals(9L, diff.getVersion());
+        assertEquals(List.of("result", "status"), List.copyOf(diff.getChanges().keySet()));
+        assertEquals(ActivityStatus.COMPLETADA, diff.getChanges().get("status"));
+        assertNull(diff.getChanges().get("result"));
+    }
+
+    @Test
+    void testIsEmptyWhenNothingChanged() {
+        // Arrange
+        Activity previous = Activity.builder()
+                .id(1L)
+                .description("Reunión")
+                .version(3L)
+                .build();
+        Activity current = previous.toBuilder().version(4L).build();
+
+        // Act
+        ActivityDiff diff = ActivityDiff.between(previous, current);
+
+        // Assert
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void testWithoutValueKeepsVersionAndListsOmittedField() {
+        // Arrange
+        Activity previous = Activity.builder()
+                .id(1L)
+                .description("Reunión")
+                .version(3L)
+                .build();
+        Activity current = previous.toBuilder()
+                .description("Reunión con el equipo")
+                .version(4L)
+                .build();
+
+        // Act
+        ActivityDiff diff = ActivityDiff.between(previous, current).withoutValue("description");
+
+        // Assert
+        assertFalse(diff.isEmpty());
+        assertEquals(3L, diff.getPreviousVersion());
+        assertEquals(4L, diff.getVersion());
+        assertTrue(diff.getChanges().isEmpty());
+        assertEquals(Set.of("description"), diff.getOmittedFields());
+    }
+}
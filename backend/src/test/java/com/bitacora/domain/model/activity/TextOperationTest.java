@@ -0,0 +1,94 @@
+package com.bitacora.domain.model.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase TextOperation.
+ */
+class TextOperationTest {
+
+    @Test
+    void testApply() {
+        // Arrange
+        TextOperation operation = new TextOperation().retain(5).insert("gran").delete(1).retain(6);
+
+        // Act
+        String result = operation.apply("Hola X mundo");
+
+        // Assert
+        assertEquals("Hola gran mundo", result);
+        assertEquals(12, operation.getBaseLength());
+        assertEquals(15, operation.getTargetLength());
+    }
+
+    @Test
+    void testRoundTripThroughComponents() {
+        // Arrange
+        TextOperation operation = new TextOperation().retain(3).delete(2).insert("ab").retain(1);
+
+        // Act
+        List<Object> components = operation.toComponents();
+        TextOperation parsed = TextOperation.fromComponents(components);
+
+        // Assert
+        assertEquals(List.of(3, "ab", -2, 1), components);
+        assertEquals(operation, parsed);
+    }
+
+    @Test
+    void testFromComponentsRejectsInvalidComponents() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> TextOperation.fromComponents(List.of(0)));
+        assertThrows(IllegalArgumentException.class, () -> TextOperation.fromComponents(List.of(1.5)));
+    }
+
+    @Test
+    void testTransformConverges() {
+        // Arrange
+        String text = "abcdef";
+        TextOperation a = new TextOperation().retain(2).insert("X").retain(4);
+        TextOperation b = new TextOperation().retain(1).delete(3).retain(2);
+
+        // Act
+        TextOperation[] transformed = TextOperation.transform(a, b);
+
+        // Assert
+        String viaA = transformed[1].apply(a.apply(text));
+        String viaB = transformed[0].apply(b.apply(text));
+        assertEquals(viaA, viaB);
+        assertEquals("aXef", viaA);
+    }
+
+    @Test
+    void testTransformGivesPriorityToFirstOperation() {
+        // Arrange
+        TextOperation a = new TextOperation().retain(1).insert("A").retain(1);
+        TextOperation b = new TextOperation().retain(1).insert("B").retain(1);
+
+        // Act
+        TextOperation[] transformed = TextOperation.transform(a, b);
+
+        // Assert
+        assertEquals("xABy", transformed[1].apply(a.apply("xy")));
+        assertEquals("xABy", transformed[0].apply(b.apply("xy")));
+    }
+
+    @Test
+    void testCompose() {
+        // Arrange
+        String text = "hola";
+        TextOperation first = new TextOperation().retain(4).insert(" mundo");
+        TextOperation second = new TextOperation().delete(1).insert("H").retain(9);
+
+        // Act
+        TextOperation composed = first.compose(second);
+
+        // Assert
+        assertEquals(second.apply(first.apply(text)), composed.apply(text));
+        assertEquals("Hola mundo", composed.apply(text));
+    }
+}
@@ -0,0 +1,142 @@
+package com.bitacora.infrastructure.messaging.adapter;
+
+import com.bitacora.application.notification.NotificationInboxService;
+import com.bitacora.domain.model.notification.AnnouncementNotification;
+import com.bitacora.domain.model.notification.NotificationType;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.infrastructure.messaging.coalescing.NotificationCoalescer;
+import com.bitacora.infrastructure.messaging.outbound.OutboundRateLimiter;
+import com.bitacora.infrastructure.messaging.relay.ClusterMessagingTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase NotificationAdapter.
+ */
+class NotificationAdapterTest {
+
+    private static final String USER_NOTIFICATION_DESTINATION = "/queue/notification";
+
+    private ClusterMessagingTemplate messagingTemplate;
+    private NotificationInboxService inboxService;
+    private OutboundRateLimiter rateLimiter;
+    private NotificationCoalescer coalescer;
+    private NotificationAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(ClusterMessagingTemplate.class);
+        inboxService = mock(NotificationInboxService.class);
+        rateLimiter = mock(OutboundRateLimiter.class);
+        coalescer = mock(NotificationCoalescer.class);
+        when(rateLimiter.tryAcquireForUser(anyString())).thenReturn(true);
+        adapter = new NotificationAdapter(messagingTemplate, coalescer,
+                inboxService, rateLimiter, new ObjectMapper());
+    }
+
+    @Test
+    void testFanOutSendsOneSharedMessageWithEachSequence() {
+        // Arrange
+        when(inboxService.recordAll(any(), any())).thenReturn(Map.of("ana", 5L, "luis", 6L, "eva", 7L));
+        when(rateLimiter.tryAcquireForUser("luis")).thenReturn(false);
+
+        // Act
+        adapter.sendPrivateNotification(Arrays.asList("ana", "luis", "ana", "eva"), notification());
+
+        // Assert
+        verify(inboxService).recordAll(eq(Set.of("ana", "luis", "eva")), any());
+        verify(rateLimiter, times(1)).tryAcquireForUser("ana");
+        assertEquals(List.of("ana", "eva"), List.copyOf(sentRecipients().keySet()));
+        assertEquals(Map.of("ana", 5L, "eva", 7L), sentRecipients());
+    }
+
+    @Test
+    void testFanOutStillSendsWhenInboxFails() {
+        // Arrange
+        when(inboxService.recordAll(any(), any())).thenThrow(new IllegalStateException("base de datos caída"));
+
+        // Act
+        adapter.sendPrivateNotification(List.of("ana", "eva"), notification());
+
+        // Assert
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("ana", null);
+        expected.put("eva", null);
+        assertEquals(expected, sentRecipients());
+    }
+
+    @Test
+    void testFanOutDoesNotModifyCallerNotification() {
+        // Arrange
+        RealTimeNotification notification = notification();
+        notification.setSequence(3L);
+        when(inboxService.recordAll(any(), any())).thenReturn(Map.of("ana", 5L));
+
+        // Act
+        adapter.sendPrivateNotification(List.of("ana"), notification);
+
+        // Assert
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUsers(any(), eq(USER_NOTIFICATION_DESTINATION), payload.capture());
+        RealTimeNotification shared = assertInstanceOf(RealTimeNotification.class, payload.getValue());
+        assertEquals(3L, notification.getSequence());
+        assertNull(shared.getSequence());
+        assertEquals(notification.getId(), shared.getId());
+        assertEquals("Sesión inactiva", shared.getTitle());
+    }
+
+    @Test
+    void testGlobalNotificationsAndAnnouncementsIgnoreDestinationLimit() {
+        // Arrange
+        when(rateLimiter.tryAcquireForDestination(anyString())).thenReturn(false);
+        RealTimeNotification global = notification();
+        AnnouncementNotification announcement = AnnouncementNotification.builder()
+                .title("Cierre anual")
+                .message("La oficina cierra el viernes")
+                .build();
+
+        // Act
+        adapter.sendGlobalNotification(global);
+        adapter.broadcastAnnouncementNotification(announcement, "Ventas");
+
+        // Assert
+        verify(coalescer).send("/topic/notification", global);
+        verify(coalescer).send("/topic/department/Ventas", announcement);
+        verify(rateLimiter, never()).tryAcquireForDestination(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> sentRecipients() {
+        ArgumentCaptor<Map<String, Long>> recipients = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(1))
+                .convertAndSendToUsers(recipients.capture(), eq(USER_NOTIFICATION_DESTINATION), any());
+        return recipients.getValue();
+    }
+
+    private static RealTimeNotification notification() {
+        return RealTimeNotification.builder()
+                .type(NotificationType.INFO)
+                .title("Sesión inactiva")
+                .message("Tu sesión ha estado inactiva")
+                .build();
+    }
+}
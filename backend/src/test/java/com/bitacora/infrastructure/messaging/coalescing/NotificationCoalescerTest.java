@@ -0,0 +1,80 @@
+package com.bitacora.infrastructure.messaging.coalescing;
+
+import com.bitacora.domain.model.notification.NotificationType;
+import com.bitacora.domain.model.notification.RealTimeNotification;
+import com.bitacora.infrastructure.messaging.outbound.OutboundMessageMetrics;
+import com.bitacora.infrastructure.messaging.relay.ClusterMessagingTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests unitarios para la clase NotificationCoalescer.
+ */
+class NotificationCoalescerTest {
+
+    private static final String DESTINATION = "/topic/notification";
+
+    private ClusterMessagingTemplate messagingTemplate;
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(ClusterMessagingTemplate.class);
+        coalescer = new NotificationCoalescer(messagingTemplate,
+                new OutboundMessageMetrics(new SimpleMeterRegistry()), 500, 2, "DEADLINE_REMINDER=BATCH");
+    }
+
+    @Test
+    void testFullBatchIsSentAsArray() {
+        // Act
+        coalescer.send(DESTINATION, notification("a"));
+        coalescer.send(DESTINATION, notification("b"));
+
+        // Assert
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(DESTINATION), payload.capture());
+        RealTimeNotification[] sent = assertInstanceOf(RealTimeNotification[].class, payload.getValue());
+        assertEquals(List.of("a", "b"), List.of(sent[0].getTitle(), sent[1].getTitle()));
+    }
+
+    @Test
+    void testScheduledFlushOfFullBatchDoesNotSendNextWindowEarly() throws InterruptedException {
+        // Arrange
+        coalescer.send(DESTINATION, notification("a"));
+        coalescer.send(DESTINATION, notification("b"));
+        Thread.sleep(300);
+
+        // Act: la entrega programada de la primera ventana vence antes que la de la segunda
+        coalescer.send(DESTINATION, notification("c"));
+        Thread.sleep(350);
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSend(eq(DESTINATION), any());
+
+        coalescer.flushAll();
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(DESTINATION), payload.capture());
+        RealTimeNotification single = assertInstanceOf(RealTimeNotification.class, payload.getValue());
+        assertEquals("c", single.getTitle());
+    }
+
+    private static RealTimeNotification notification(String title) {
+        return RealTimeNotification.builder()
+                .type(NotificationType.DEADLINE_REMINDER)
+                .title(title)
+                .build();
+    }
+}
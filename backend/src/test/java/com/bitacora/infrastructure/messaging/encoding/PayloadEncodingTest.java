@@ -0,0 +1,34 @@
+package com.bitacora.infrastructure.messaging.encoding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase PayloadEncoding.
+ */
+class PayloadEncodingTest {
+
+    @Test
+    void testFromHeaderPicksFirstSupportedEncoding() {
+        // Act & Assert
+        assertEquals(PayloadEncoding.CBOR, PayloadEncoding.fromHeader("application/cbor, application/json"));
+        assertEquals(PayloadEncoding.SMILE, PayloadEncoding.fromHeader("text/plain, application/x-jackson-smile"));
+    }
+
+    @Test
+    void testFromHeaderDefaultsToJson() {
+        // Act & Assert
+        assertEquals(PayloadEncoding.JSON, PayloadEncoding.fromHeader(null));
+        assertEquals(PayloadEncoding.JSON, PayloadEncoding.fromHeader("text/plain"));
+        assertEquals(PayloadEncoding.JSON, PayloadEncoding.fromHeader("no es un tipo"));
+    }
+
+    @Test
+    void testMessageTypeStripsIdentifiers() {
+        // Act & Assert
+        assertEquals("/topic/activity", PayloadMetrics.messageType("/topic/activity/42"));
+        assertEquals("/user/queue/notification", PayloadMetrics.messageType("/user/queue/notification"));
+        assertEquals("unknown", PayloadMetrics.messageType(null));
+    }
+}
@@ -0,0 +1,53 @@
+package com.bitacora.infrastructure.messaging.outbound;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase TokenBucket.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testAllowsBurstUpToCapacity() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        // Act & Assert
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        // Act & Assert
+        assertFalse(bucket.tryAcquire(SECOND / 2));
+        assertTrue(bucket.tryAcquire(3 * SECOND / 2));
+        assertFalse(bucket.tryAcquire(3 * SECOND / 2));
+    }
+
+    @Test
+    void testRefillIsCappedAtCapacity() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+
+        // Act
+        int acquired = 0;
+        while (bucket.tryAcquire(60 * SECOND)) {
+            acquired++;
+        }
+
+        // Assert
+        assertEquals(2, acquired);
+    }
+}
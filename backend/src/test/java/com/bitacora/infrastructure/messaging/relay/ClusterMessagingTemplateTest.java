@@ -0,0 +1,87 @@
+package com.bitacora.infrastructure.messaging.relay;
+
+import com.bitacora.infrastructure.messaging.encoding.PayloadMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests unitarios para la clase ClusterMessagingTemplate.
+ */
+class ClusterMessagingTemplateTest {
+
+    private LocalMessageDispatcher localDispatcher;
+    private MessageRelay relay;
+    private ClusterMessagingTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        localDispatcher = mock(LocalMessageDispatcher.class);
+        relay = mock(MessageRelay.class);
+        template = new ClusterMessagingTemplate(localDispatcher, relay, new ObjectMapper(),
+                new PayloadMetrics(new SimpleMeterRegistry()), "nodo-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSendWithoutTransactionIsImmediate() {
+        // Act
+        template.convertAndSend("/topic/notification", Map.of("id", 1));
+
+        // Assert
+        verify(localDispatcher, times(1)).deliver(any());
+        verify(relay, times(1)).publish(any());
+    }
+
+    @Test
+    void testSendInsideTransactionWaitsForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        template.convertAndSend("/topic/notification", Map.of("id", 1));
+
+        // Assert
+        verify(localDispatcher, never()).deliver(any());
+        verify(relay, never()).publish(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(localDispatcher, times(1)).deliver(any());
+        verify(relay, times(1)).publish(any());
+    }
+
+    @Test
+    void testSendInsideRolledBackTransactionIsDiscarded() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        template.convertAndSend("/topic/notification", Map.of("id", 1));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verify(localDispatcher, never()).deliver(any());
+        verify(relay, never()).publish(any());
+    }
+}
@@ -0,0 +1,45 @@
+package com.bitacora.infrastructure.messaging.sse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase SseNotificationHub.
+ */
+class SseNotificationHubTest {
+
+    @Test
+    void testResolveTopicsDefaultsWhenNoneRequested() {
+        // Act & Assert
+        assertEquals(Set.of("/topic/notification", "/topic/system-alert"), SseNotificationHub.resolveTopics(null));
+        assertEquals(Set.of("/topic/notification", "/topic/system-alert"), SseNotificationHub.resolveTopics(List.of()));
+    }
+
+    @Test
+    void testResolveTopicsAcceptsStreamableTopics() {
+        // Act
+        Set<String> topics = SseNotificationHub.resolveTopics(
+                List.of("/topic/user-status", " /topic/activity/42"));
+
+        // Assert
+        assertEquals(Set.of("/topic/user-status", "/topic/activity/42"), topics);
+    }
+
+    @Test
+    void testResolveTopicsRejectsOtherTopics() {
+        // Act & Assert
+        assertThrows(AccessDeniedException.class,
+                () -> SseNotificationHub.resolveTopics(List.of("/topic/session-activity")));
+        assertThrows(AccessDeniedException.class,
+                () -> SseNotificationHub.resolveTopics(List.of("/topic/activity/")));
+        assertThrows(AccessDeniedException.class,
+                () -> SseNotificationHub.resolveTopics(List.of("/topic/activity/42/extra")));
+        assertThrows(AccessDeniedException.class,
+                () -> SseNotificationHub.resolveTopics(List.of("/topic/department/Ventas")));
+    }
+}
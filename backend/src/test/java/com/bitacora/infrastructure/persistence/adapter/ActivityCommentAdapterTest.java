@@ -0,0 +1,158 @@
+package com.bitacora.infrastructure.persistence.adapter;
+
+import com.bitacora.domain.model.activity.ActivityComment;
+import com.bitacora.infrastructure.persistence.support.DatabasePlatform;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase ActivityCommentAdapter.
+ * La alternativa portable se prueba sobre H2 en memoria; la sentencia
+ * específica de PostgreSQL, que H2 no admite, con un JdbcTemplate simulado.
+ */
+class ActivityCommentAdapterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ActivityCommentAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:activity-comments;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE activity_comments (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "activity_id BIGINT NOT NULL, user_id BIGINT NOT NULL, content CLOB NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE activity_comment_counts (activity_id BIGINT PRIMARY KEY, "
+                + "comment_count BIGINT NOT NULL DEFAULT 0, last_comment_at TIMESTAMP)");
+        adapter = new ActivityCommentAdapter(jdbcTemplate, new DatabasePlatform(jdbcTemplate));
+    }
+
+    @Test
+    void testAppendAssignsIdsAndCountsPerActivity() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        // Act
+        ActivityComment first = adapter.append(comment(1L, "primero", now));
+        ActivityComment second = adapter.append(comment(1L, "segundo", now.plusSeconds(1)));
+        adapter.append(comment(2L, "otra actividad", now));
+
+        // Assert
+        assertNotNull(first.getId());
+        assertTrue(second.getId() > first.getId());
+        assertEquals(2L, adapter.countByActivityId(1L));
+        assertEquals(1L, adapter.countByActivityId(2L));
+        assertEquals(0L, adapter.countByActivityId(3L));
+        assertEquals(Timestamp.valueOf(now.plusSeconds(1)), jdbcTemplate.queryForObject(
+                "SELECT last_comment_at FROM activity_comment_counts WHERE activity_id = 1", Timestamp.class));
+    }
+
+    @Test
+    void testPagesFollowTheLastIdOfEachPage() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            adapter.append(comment(1L, "comentario " + i, now.plusSeconds(i)));
+            adapter.append(comment(2L, "ruido " + i, now.plusSeconds(i)));
+        }
+
+        // Act
+        List<String> contents = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Long after = null;
+        List<ActivityComment> page;
+        do {
+            page = adapter.findAfter(1L, after, 2);
+            pageSizes.add(page.size());
+            page.forEach(comment -> contents.add(comment.getContent()));
+            // Mismo cursor que devuelve el controlador como nextAfter
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (!page.isEmpty());
+
+        // Assert
+        assertEquals(List.of("comentario 0", "comentario 1", "comentario 2", "comentario 3", "comentario 4"),
+                contents);
+        assertEquals(List.of(2, 2, 1, 0), pageSizes);
+        assertTrue(adapter.findAfter(1L, after, 2).isEmpty());
+        assertEquals(5L, adapter.countByActivityId(1L));
+    }
+
+    @Test
+    void testPostgreSqlIncrementsCountWithUpsert() {
+        // Arrange
+        JdbcTemplate template = mockTemplateReturningKey(7L);
+        DatabasePlatform platform = mock(DatabasePlatform.class);
+        when(platform.isPostgreSql()).thenReturn(true);
+        ActivityCommentAdapter postgresAdapter = new ActivityCommentAdapter(template, platform);
+
+        // Act
+        ActivityComment saved = postgresAdapter.append(comment(1L, "hola", LocalDateTime.now()));
+
+        // Assert
+        assertEquals(7L, saved.getId());
+        verify(template).update(contains("ON CONFLICT (activity_id) DO UPDATE"), eq(1L), any(Timestamp.class));
+        verify(template, never()).update(startsWith("UPDATE activity_comment_counts"), any(Timestamp.class), eq(1L));
+    }
+
+    @Test
+    void testPortableCountRetriesIncrementWhenCounterIsCreatedConcurrently() {
+        // Arrange
+        JdbcTemplate template = mockTemplateReturningKey(7L);
+        DatabasePlatform platform = mock(DatabasePlatform.class);
+        when(platform.isPostgreSql()).thenReturn(false);
+        when(template.update(startsWith("UPDATE activity_comment_counts"), any(Timestamp.class), eq(1L)))
+                .thenReturn(0, 1);
+        when(template.update(startsWith("INSERT INTO activity_comment_counts"), eq(1L), any(Timestamp.class)))
+                .thenThrow(new DuplicateKeyException("activity_comment_counts"));
+        ActivityCommentAdapter portableAdapter = new ActivityCommentAdapter(template, platform);
+
+        // Act
+        portableAdapter.append(comment(1L, "hola", LocalDateTime.now()));
+
+        // Assert
+        verify(template, times(2)).update(startsWith("UPDATE activity_comment_counts"), any(Timestamp.class), eq(1L));
+        verify(template, never()).update(contains("ON CONFLICT"), eq(1L), any(Timestamp.class));
+    }
+
+    private static JdbcTemplate mockTemplateReturningKey(long id) {
+        JdbcTemplate template = mock(JdbcTemplate.class);
+        when(template.update(any(PreparedStatementCreator.class), any(KeyHolder.class))).thenAnswer(invocation -> {
+            invocation.<KeyHolder>getArgument(1).getKeyList().add(Map.of("id", id));
+            return 1;
+        });
+        return template;
+    }
+
+    private static ActivityComment comment(Long activityId, String content, LocalDateTime createdAt) {
+        return ActivityComment.builder()
+                .activityId(activityId)
+                .userId(3L)
+                .content(content)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.bitacora.infrastructure.persistence.repository;
+
+import com.bitacora.domain.model.activity.Activity;
+import com.bitacora.domain.model.activity.ActivityChangeSet;
+import com.bitacora.infrastructure.persistence.entity.ActivityEntity;
+import com.bitacora.infrastructure.persistence.mapper.ActivityMapper;
+import com.bitacora.infrastructure.persistence.support.ActivityChangeLog;
+import com.bitacora.infrastructure.persistence.support.ActivityChangeLog.State;
+import com.bitacora.infrastructure.persistence.support.ActivityChangeLog.Tombstone;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase ActivityRepositoryImpl.
+ * Las filas y las marcas de borrado se simulan en memoria con la misma
+ * semántica de secuencias que las consultas reales.
+ */
+class ActivityRepositoryImplTest {
+
+    private final Map<Long, ActivityEntity> rows = new LinkedHashMap<>();
+    private final List<Tombstone> tombstones = new ArrayList<>();
+    private long lastSequence;
+    private long purgedSequence;
+
+    private ActivityRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        ActivityJpaRepository jpaRepository = mock(ActivityJpaRepository.class);
+        when(jpaRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+                anyLong(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    long upTo = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return rows.values().stream()
+                            .filter(row -> row.getChangeSeq() > after && row.getChangeSeq() <= upTo)
+                            .sorted(Comparator.comparing(ActivityEntity::getChangeSeq))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+
+        ActivityChangeLog changeLog = mock(ActivityChangeLog.class);
+        when(changeLog.getState()).thenAnswer(invocation -> new State(lastSequence, purgedSequence));
+        when(changeLog.findTombstones(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            long upTo = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return tombstones.stream()
+                    .filter(tombstone -> tombstone.sequence() > after && tombstone.sequence() <= upTo)
+                    .limit(limit)
+                    .toList();
+        });
+
+        ActivityMapper mapper = mock(ActivityMapper.class);
+        when(mapper.toDomain(any())).thenAnswer(invocation ->
+                Activity.builder().id(invocation.<ActivityEntity>getArgument(0).getId()).build());
+
+        repository = new ActivityRepositoryImpl(jpaRepository, mapper, changeLog);
+    }
+
+    @Test
+    void testResyncRequiredWhenSinceIsNotPositive() {
+        // Arrange
+        create(1L);
+
+        // Act
+        ActivityChangeSet changes = repository.findChangesSince(0, 10);
+
+        // Assert
+        assertTrue(changes.isResyncRequired());
+        assertEquals(1L, changes.getWatermark());
+        assertTrue(changes.getActivities().isEmpty());
+    }
+
+    @Test
+    void testResyncRequiredWhenTombstonesWerePurged() {
+        // Arrange
+        create(1L);
+        create(2L);
+        delete(2L);
+        purgedSequence = 3L;
+
+        // Act
+        ActivityChangeSet changes = repository.findChangesSince(2, 10);
+
+        // Assert
+        assertTrue(changes.isResyncRequired());
+        assertEquals(3L, changes.getWatermark());
+    }
+
+    @Test
+    void testResyncRequiredWhenWatermarkIsAhead() {
+        // Arrange
+        create(1L);
+
+        // Act
+        ActivityChangeSet changes = repository.findChangesSince(5, 10);
+
+        // Assert
+        assertTrue(changes.isResyncRequired());
+        assertEquals(1L, changes.getWatermark());
+    }
+
+    @Test
+    void testMergesRowsAndTombstonesInSequenceOrder() {
+        // Arrange
+        create(1L);
+        create(2L);
+        update(1L);
+        delete(2L);
+        create(3L);
+
+        // Act
+        ActivityChangeSet changes = repository.findChangesSince(2, 10);
+
+        // Assert
+        assertFalse(changes.isResyncRequired());
+        assertFalse(changes.isHasMore());
+        assertEquals(List.of(3L), changes.getCreatedIds());
+        assertEquals(List.of(1L), changes.getUpdatedIds());
+        assertEquals(List.of(2L), changes.getDeletedIds());
+        assertEquals(List.of(1L, 3L), changes.getActivities().stream().map(Activity::getId).toList());
+        assertEquals(5L, changes.getWatermark());
+    }
+
+    @Test
+    void testCreateUpdateDeleteAcrossPageBoundary() {
+        // Arrange
+        create(1L);
+        create(2L);
+        create(3L);
+
+        // Act
+        ActivityChangeSet first = repository.findChangesSince(1, 1);
+        update(2L);
+        delete(3L);
+        ActivityChangeSet second = repository.findChangesSince(first.getWatermark(), 1);
+        ActivityChangeSet third = repository.findChangesSince(second.getWatermark(), 1);
+
+        // Assert
+        assertEquals(List.of(2L), first.getCreatedIds());
+        assertTrue(first.isHasMore());
+        assertEquals(2L, first.getWatermark());
+
+        assertEquals(List.of(2L), second.getUpdatedIds());
+        assertTrue(second.isHasMore());
+        assertEquals(4L, second.getWatermark());
+
+        assertEquals(List.of(3L), third.getDeletedIds());
+        assertFalse(third.isHasMore());
+        assertEquals(5L, third.getWatermark());
+    }
+
+    @Test
+    void testClientAtExactWatermarkMissesNothing() {
+        // Arrange
+        create(1L);
+        create(2L);
+        create(3L);
+        update(1L);
+        delete(2L);
+        update(3L);
+        create(4L);
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        long watermark = 1L;
+        ActivityChangeSet page;
+        do {
+            page = repository.findChangesSince(watermark, 2);
+            seen.addAll(page.getCreatedIds());
+            seen.addAll(page.getUpdatedIds());
+            seen.addAll(page.getDeletedIds());
+            watermark = page.getWatermark();
+        } while (page.isHasMore());
+        ActivityChangeSet upToDate = repository.findChangesSince(watermark, 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L), seen.stream().sorted().toList());
+        assertEquals(lastSequence, watermark);
+        assertFalse(upToDate.isResyncRequired());
+        assertFalse(upToDate.isHasMore());
+        assertTrue(upToDate.getActivities().isEmpty());
+        assertTrue(upToDate.getDeletedIds().isEmpty());
+        assertEquals(lastSequence, upToDate.getWatermark());
+    }
+
+    private void create(long id) {
+        long sequence = ++lastSequence;
+        rows.put(id, ActivityEntity.builder().id(id).createdSeq(sequence).changeSeq(sequence).build());
+    }
+
+    private void update(long id) {
+        rows.get(id).setChangeSeq(++lastSequence);
+    }
+
+    private void delete(long id) {
+        rows.remove(id);
+        tombstones.add(new Tombstone(id, ++lastSequence));
+    }
+}
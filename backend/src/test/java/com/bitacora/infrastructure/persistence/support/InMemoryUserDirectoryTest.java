@@ -0,0 +1,88 @@
+package com.bitacora.infrastructure.persistence.support;
+
+import com.bitacora.domain.event.user.UserDeletedEvent;
+import com.bitacora.domain.event.user.UserUpdatedEvent;
+import com.bitacora.domain.model.user.User;
+import com.bitacora.domain.model.user.UserDirectoryEntry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para la clase InMemoryUserDirectory.
+ */
+class InMemoryUserDirectoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private InMemoryUserDirectory directory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        directory = new InMemoryUserDirectory(jdbcTemplate);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(
+                new UserDirectoryEntry(1L, "ana", "Ana López", "Ventas", true),
+                new UserDirectoryEntry(2L, "luis", "Luis Pérez", " ventas ", true)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLookupsAreServedFromOneLoad() {
+        // Act
+        String fullName = directory.findById(1L).map(UserDirectoryEntry::fullName).orElse(null);
+        Long id = directory.findByUsername("luis").map(UserDirectoryEntry::id).orElse(null);
+        List<UserDirectoryEntry> department = directory.findByDepartment("VENTAS");
+
+        // Assert
+        assertEquals("Ana López", fullName);
+        assertEquals(2L, id);
+        assertEquals(2, department.size());
+        assertTrue(directory.findById(3L).isEmpty());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdatedUserIsReloaded() {
+        // Arrange
+        directory.findById(1L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L))).thenReturn(List.of(
+                new UserDirectoryEntry(1L, "ana", "Ana López", "Compras", true)));
+
+        // Act
+        directory.onUserUpdated(new UserUpdatedEvent(User.builder().id(1L).username("ana").build()));
+
+        // Assert
+        assertEquals("Compras", directory.findById(1L).map(UserDirectoryEntry::department).orElse(null));
+        assertEquals(1, directory.findByDepartment("Ventas").size());
+        assertEquals(1, directory.findByDepartment("Compras").size());
+    }
+
+    @Test
+    void testDeletedUserIsRemoved() {
+        // Arrange
+        directory.findById(1L);
+
+        // Act
+        directory.onUserDeleted(new UserDeletedEvent(1L));
+
+        // Assert
+        assertTrue(directory.findById(1L).isEmpty());
+        assertTrue(directory.findByUsername("ana").isEmpty());
+        assertEquals(1, directory.findByDepartment("Ventas").size());
+    }
+}
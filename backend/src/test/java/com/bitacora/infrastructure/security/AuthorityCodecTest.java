@@ -0,0 +1,100 @@
+package com.bitacora.infrastructure.security;
+
+import com.bitacora.domain.model.user.Permission;
+import com.bitacora.domain.model.user.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para la clase AuthorityCodec.
+ */
+class AuthorityCodecTest {
+
+    @Test
+    void testEncodeAndDecode() {
+        // Arrange
+        int mask = AuthorityCodec.encode(EnumSet.of(Permission.READ_ACTIVITIES, Permission.GENERATE_REPORTS));
+
+        // Act
+        List<GrantedAuthority> authorities = AuthorityCodec.decode(UserRole.SUPERVISOR, mask);
+
+        // Assert
+        assertEquals(List.of("ROLE_SUPERVISOR", "READ_ACTIVITIES", "GENERATE_REPORTS"),
+                authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testDecodeReturnsSharedImmutableList() {
+        // Arrange
+        int mask = AuthorityCodec.encode(EnumSet.of(Permission.READ_ACTIVITIES));
+
+        // Act
+        List<GrantedAuthority> first = AuthorityCodec.decode(UserRole.USUARIO, mask);
+        List<GrantedAuthority> second = AuthorityCodec.decode(UserRole.USUARIO, mask);
+
+        // Assert
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.add(new SimpleGrantedAuthority("OTHER")));
+    }
+
+    @Test
+    void testEncodeAuthoritiesIgnoresDuplicatesAndUnknownAuthorities() {
+        // Arrange
+        List<GrantedAuthority> authorities = List.of(
+                new SimpleGrantedAuthority("ROLE_ADMIN"),
+                new SimpleGrantedAuthority("READ_USERS"),
+                new SimpleGrantedAuthority("READ_USERS"),
+                new SimpleGrantedAuthority("UNKNOWN"));
+
+        // Act
+        int mask = AuthorityCodec.encodeAuthorities(authorities);
+
+        // Assert
+        assertEquals(AuthorityCodec.bitMask(Permission.READ_USERS), mask);
+        assertEquals(UserRole.ADMIN, AuthorityCodec.findRole(authorities));
+    }
+
+    @Test
+    void testPermissionBitsAreStable() {
+        // Arrange
+        Map<Permission, Integer> expected = Map.of(
+                Permission.READ_ACTIVITIES, 1,
+                Permission.WRITE_ACTIVITIES, 1 << 1,
+                Permission.DELETE_ACTIVITIES, 1 << 2,
+                Permission.READ_USERS, 1 << 3,
+                Permission.WRITE_USERS, 1 << 4,
+                Permission.DELETE_USERS, 1 << 5,
+                Permission.GENERATE_REPORTS, 1 << 6);
+
+        // Act & Assert
+        // Los bits forman parte de los tokens emitidos: cambiarlos altera lo que conceden
+        expected.forEach((permission, bit) -> assertEquals(bit, AuthorityCodec.bitMask(permission),
+                "Bit cambiado para " + permission));
+    }
+
+    @Test
+    void testEveryPermissionHasAUniqueBit() {
+        // Arrange
+        Set<Integer> bits = new HashSet<>();
+
+        // Act
+        for (Permission permission : Permission.values()) {
+            int bit = AuthorityCodec.bitMask(permission);
+
+            // Assert
+            assertTrue(bit > 0, "Bit fuera de rango para " + permission);
+            assertTrue(bits.add(bit), "Bit repetido para " + permission);
+        }
+    }
+}
@@ -31,8 +31,9 @@ export const api = ky.create({
     ],
     afterResponse: [
       async (request, options, response) => {
-        // Si la respuesta es 401 (Unauthorized), intentar refrescar el token
-        if (response.status === 401) {
+        // Si la respuesta es 401 (Unauthorized), intentar refrescar el token. Un 401 de la
+        // propia renovación no se reintenta: lo gestiona refreshToken
+        if (response.status === 401 && !request.url.endsWith('/auth/refresh')) {
           try {
             const newToken = await refreshToken();
             if (newToken) {
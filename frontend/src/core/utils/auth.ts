@@ -52,8 +52,20 @@ export const removeUser = (): void => {
   localStorage.removeItem(USER_KEY);
 };
 
+// Renovación en curso, compartida por las solicitudes que reciben un 401 a la vez
+let pendingRefresh: Promise<string | null> | null = null;
+
 // Función para refrescar el token
-export const refreshToken = async (): Promise<string | null> => {
+export const refreshToken = (): Promise<string | null> => {
+  if (!pendingRefresh) {
+    pendingRefresh = doRefreshToken().finally(() => {
+      pendingRefresh = null;
+    });
+  }
+  return pendingRefresh;
+};
+
+const doRefreshToken = async (): Promise<string | null> => {
   const refreshToken = getRefreshToken();
   if (!refreshToken) {
     return null;
@@ -68,6 +80,13 @@ export const refreshToken = async (): Promise<string | null> => {
     setRefreshToken(response.refreshToken);
     return response.token;
   } catch (error) {
+    // Si otra pestaña renovó los tokens mientras tanto, el token enviado ya se rotó:
+    // se usan los nuevos en lugar de cerrar la sesión
+    const currentRefreshToken = getRefreshToken();
+    if (currentRefreshToken && currentRefreshToken !== refreshToken) {
+      return getToken();
+    }
+
     console.error('Error refreshing token:', error);
     // Si hay un error al refrescar el token, limpiar el almacenamiento
     removeToken();
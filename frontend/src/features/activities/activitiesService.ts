@@ -7,6 +7,7 @@ import {
 } from '@/types/api';
 import { Activity } from '@/types/models';
 import { apiRequest } from '@/utils/api-ky';
+import { collaborationService, EDIT_TOKEN_HEADER } from '@/services/collaborationService';
 
 // Asegurarse de que la URL no incluya el prefijo /app
 const API_URL = '/api/activities';
@@ -229,9 +230,13 @@ const createActivity = async (activityData: ActivityCreateRequest): Promise<Acti
  */
 const updateActivity = async (id: number, activityData: ActivityUpdateRequest): Promise<Activity> => {
   try {
+    // Enviar el token de la concesión de edición; el servidor rechaza el guardado sin él
+    // mientras la actividad está en edición
+    const editToken = collaborationService.getEditToken(id);
     return await apiRequest<Activity>(`${API_URL}/${id}`, {
       method: 'PUT',
-      json: activityData
+      json: activityData,
+      headers: editToken ? { [EDIT_TOKEN_HEADER]: editToken } : undefined
     });
   } catch (error) {
     console.error(`Error al actualizar actividad con ID ${id}:`, error);
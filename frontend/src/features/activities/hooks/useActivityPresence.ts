@@ -1,6 +1,7 @@
 import { useState, useEffect, useCallback } from 'react';
 import { useSocket } from '@/features/notifications/hooks/useSocket';
 import { useAuth } from '@/core/hooks';
+import { collaborationService } from '@/services/collaborationService';
 
 interface ActivityPresence {
   userNames: string[];
@@ -18,7 +19,13 @@ export const useActivityPresence = (activityId: number): ActivityPresence => {
 
   // Registrar al usuario actual como editor
   const registerAsEditor = useCallback(() => {
-    if (!socket || !activityId || !user) return;
+    if (!activityId || !user) return;
+
+    // Obtener la concesión de edición del servidor; su token se envía al guardar la actividad
+    collaborationService.init(user.id);
+    collaborationService.registerEditor(activityId);
+
+    if (!socket) return;
 
     socket.emit('register-activity-editor', {
       activityId,
@@ -34,6 +41,15 @@ export const useActivityPresence = (activityId: number): ActivityPresence => {
     };
   }, [socket, activityId, user]);
 
+  // Liberar la concesión de edición del servidor al salir de la actividad
+  useEffect(() => {
+    return () => {
+      if (activityId && collaborationService.isEditing(activityId)) {
+        collaborationService.unregisterUser(activityId);
+      }
+    };
+  }, [activityId]);
+
   // Escuchar eventos de presencia
   useEffect(() => {
     if (!socket || !activityId) return;
@@ -245,14 +245,16 @@ export const RealTimeNotificationProvider: React.FC<RealTimeNotificationProvider
     });
 
     // Manejar eventos de notificaciones
-    newSocket.on('notification', (notification: RealTimeNotification) => {
-      console.log('Nueva notificación recibida:', notification);
+    // Un mensaje puede traer una notificación o un array de notificaciones agrupadas
+    newSocket.on('notification', (data: RealTimeNotification | RealTimeNotification[]) => {
+      const received = Array.isArray(data) ? data : [data];
+      console.log('Nuevas notificaciones recibidas:', received);
 
-      // Añadir la notificación a la lista
-      setNotifications(prev => [notification, ...prev]);
+      // Añadir las notificaciones a la lista, la más reciente primero
+      setNotifications(prev => [...[...received].reverse(), ...prev]);
 
-      // Mostrar un toast para la notificación
-      toast.info(`${notification.title}: ${notification.message}`);
+      // Mostrar un toast para cada notificación
+      received.forEach(notification => toast.info(`${notification.title}: ${notification.message}`));
     });
 
     // Manejar evento de notificaciones iniciales
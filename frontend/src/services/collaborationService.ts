@@ -1,4 +1,8 @@
 import { websocketService } from './websocketService';
+import api from '@/utils/api-ky';
+
+/** Cabecera con la que el servidor entrega el token de la concesión de edición. */
+export const EDIT_TOKEN_HEADER = 'X-Edit-Token';
 
 /**
  * Servicio para manejar la colaboración en tiempo real.
@@ -6,6 +10,7 @@ import { websocketService } from './websocketService';
 class CollaborationService {
   private activityViewers: Map<number, Set<number>> = new Map();
   private activityEditors: Map<number, number> = new Map();
+  private editTokens: Map<number, string> = new Map();
   private currentUser: number | null = null;
   private isInitialized: boolean = false;
 
@@ -37,11 +42,10 @@ class CollaborationService {
 
     console.log(`Registrando usuario ${this.currentUser} como visor de la actividad ${activityId}`);
 
-    // Enviar evento al servidor
-    websocketService.send('collaboration_view', {
-      activityId,
-      userId: this.currentUser
-    });
+    // Registrar la presencia en el servidor. La concesión se renueva en el
+    // servidor mientras la conexión WebSocket siga abierta
+    api.post(`api/collaboration/view/${activityId}`)
+      .catch(error => console.error('Error al registrar la presencia en la actividad:', error));
 
     // Actualizar estado local
     if (!this.activityViewers.has(activityId)) {
@@ -63,15 +67,23 @@ class CollaborationService {
 
     console.log(`Registrando usuario ${this.currentUser} como editor de la actividad ${activityId}`);
 
-    // Enviar evento al servidor
-    websocketService.send('collaboration_edit', {
-      activityId,
-      userId: this.currentUser
-    });
+    // Adquirir la concesión de edición; el servidor también registra al usuario como visor.
+    // El token de la concesión se guarda para enviarlo al guardar la actividad
+    api.post(`api/collaboration/edit/${activityId}`)
+      .then(response => {
+        const token = response.headers.get(EDIT_TOKEN_HEADER);
+        if (token) {
+          this.editTokens.set(activityId, token);
+        }
+      })
+      .catch(error => console.error('Error al registrar la edición de la actividad:', error));
 
     // Actualizar estado local
     this.activityEditors.set(activityId, this.currentUser);
-    this.registerViewer(activityId); // También registrar como visor
+    if (!this.activityViewers.has(activityId)) {
+      this.activityViewers.set(activityId, new Set());
+    }
+    this.activityViewers.get(activityId)?.add(this.currentUser);
   }
 
   /**
@@ -109,11 +121,9 @@ class CollaborationService {
 
     console.log(`Eliminando usuario ${this.currentUser} como visor/editor de la actividad ${activityId}`);
 
-    // Enviar evento al servidor
-    websocketService.send('collaboration_leave', {
-      activityId,
-      userId: this.currentUser
-    });
+    // Liberar la presencia en el servidor
+    api.delete(`api/collaboration/${activityId}`)
+      .catch(error => console.error('Error al liberar la presencia en la actividad:', error));
 
     // Actualizar estado local
     const viewers = this.activityViewers.get(activityId);
@@ -127,6 +137,7 @@ class CollaborationService {
     if (this.activityEditors.get(activityId) === this.currentUser) {
       this.activityEditors.delete(activityId);
     }
+    this.editTokens.delete(activityId);
   }
 
   /**
@@ -174,6 +185,16 @@ class CollaborationService {
     return this.activityEditors.get(activityId) || null;
   }
 
+  /**
+   * Obtiene el token de la concesión de edición del usuario actual sobre una actividad.
+   *
+   * @param activityId El ID de la actividad
+   * @returns El token, o null si el usuario no ha obtenido la edición de la actividad
+   */
+  public getEditToken(activityId: number): string | null {
+    return this.editTokens.get(activityId) || null;
+  }
+
   /**
    * Verifica si el usuario actual está viendo una actividad.
    *
@@ -223,6 +244,7 @@ class CollaborationService {
   public clear(): void {
     this.activityViewers.clear();
     this.activityEditors.clear();
+    this.editTokens.clear();
     this.currentUser = null;
     this.isInitialized = false;
   }
@@ -243,6 +265,7 @@ export const useCollaboration = () => {
     unregisterUser: collaborationService.unregisterUser.bind(collaborationService),
     getViewers: collaborationService.getViewers.bind(collaborationService),
     getEditor: collaborationService.getEditor.bind(collaborationService),
+    getEditToken: collaborationService.getEditToken.bind(collaborationService),
     isViewing: collaborationService.isViewing.bind(collaborationService),
     isEditing: collaborationService.isEditing.bind(collaborationService),
     isSomeoneElseEditing: collaborationService.isSomeoneElseEditing.bind(collaborationService),
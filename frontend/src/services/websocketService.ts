@@ -237,8 +237,11 @@ class WebSocketService {
     });
 
     // Configurar listeners para los diferentes tipos de eventos
-    this.socket.on(WebSocketEventType.NOTIFICATION, (data: RealTimeNotification) => {
-      this.emitEvent(WebSocketEventType.NOTIFICATION, data);
+    // El servidor agrupa las notificaciones de una ventana corta: un mensaje
+    // puede traer una notificación o un array de ellas en orden de llegada
+    this.socket.on(WebSocketEventType.NOTIFICATION, (data: RealTimeNotification | RealTimeNotification[]) => {
+      const notifications = Array.isArray(data) ? data : [data];
+      notifications.forEach(notification => this.emitEvent(WebSocketEventType.NOTIFICATION, notification));
     });
 
     this.socket.on(WebSocketEventType.USER_STATUS, (data: UserStatusEvent) => {